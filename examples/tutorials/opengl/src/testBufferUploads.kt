@@ -0,0 +1,43 @@
+package featurea.examples.learnopengl
+
+import featurea.opengl.*
+import featurea.utils.log
+
+// 1000 quads of 6 two-float vertices rebuilt every frame, bytes sent to headless GL are checked per frame
+fun testBufferUploads() = bootstrapTest {
+    load {
+        val headlessGl = HeadlessOpengl(module)
+        val quadCount = 1000
+        val quadSizeInBytes: Long = 6L * 2 * Float.SIZE_BYTES
+        val buffer: Buffer = headlessGl.createBuffer(drawCallSize = 6 * 2, isMedium = false)
+        buffer.ensureDrawCallLimit(quadCount)
+
+        fun frame(movedQuad: Int = -1): Long {
+            buffer.clear()
+            for (quad in 0 until quadCount) {
+                val x: Float = if (quad == movedQuad) quad + 0.5f else quad.toFloat()
+                buffer.vertex(x, 0f)
+                buffer.vertex(x + 1, 0f)
+                buffer.vertex(x + 1, 1f)
+                buffer.vertex(x, 0f)
+                buffer.vertex(x + 1, 1f)
+                buffer.vertex(x, 1f)
+            }
+            headlessGl.uploadBuffer(buffer, DYNAMIC_DRAW)
+            headlessGl.drawArrays(TRIANGLES, 0, buffer.vertexCount)
+            return headlessGl.frame()
+        }
+
+        val firstFrameBytes: Long = frame()
+        val unchangedFrameBytes: Long = frame()
+        val movedQuadFrameBytes: Long = frame(movedQuad = 500)
+        buffer.isOrphaning = true
+        val orphanedFrameBytes: Long = frame()
+        log("BufferUploads: first=$firstFrameBytes, unchanged=$unchangedFrameBytes, movedQuad=$movedQuadFrameBytes, orphaned=$orphanedFrameBytes bytes")
+        log("BufferUploads: bufferData=${headlessGl.bufferDataCount}, bufferSubData=${headlessGl.bufferSubDataCount}, draws=${headlessGl.drawCount}")
+        check(firstFrameBytes == quadCount * quadSizeInBytes)
+        check(unchangedFrameBytes == 0L)
+        check(movedQuadFrameBytes <= quadSizeInBytes)
+        check(orphanedFrameBytes == quadCount * quadSizeInBytes)
+    }
+}
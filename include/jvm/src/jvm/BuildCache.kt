@@ -0,0 +1,160 @@
+package featurea.jvm
+
+import java.io.File
+import java.nio.file.Files
+import java.nio.file.StandardCopyOption
+import java.security.MessageDigest
+
+/*
+persistent build cache, one per user:
+- files.index: absolute path to length, last modified and content hash, so unchanged files are hashed without being read
+- fingerprints.index: build step key to hash of its inputs, so unchanged build steps are skipped
+- objects: content addressed outputs keyed by hash of their inputs
+any thread: all methods, index maps are guarded by themselves, file reads and hashing run outside of locks
+*/
+class BuildCache(val dir: File) {
+
+    private val objectsDir: File = File(dir, "objects")
+    private val fileHashes: MutableMap<String, FileHash> by lazy { readFileHashes() }
+    private val fingerprints: MutableMap<String, String> by lazy { readFingerprints() }
+    @Volatile
+    private var isModified: Boolean = false
+
+    fun findFileHashOrNull(file: File): String? {
+        if (!file.isFile) return null
+        val path: String = file.absolutePath
+        val length: Long = file.length()
+        val lastModified: Long = file.lastModified()
+        val cachedFileHash: FileHash? = synchronized(fileHashes) { fileHashes[path] }
+        if (cachedFileHash != null && cachedFileHash.length == length && cachedFileHash.lastModified == lastModified) {
+            return cachedFileHash.hash
+        }
+        val hash: String = file.readBytes().contentHash()
+        synchronized(fileHashes) { fileHashes[path] = FileHash(length, lastModified, hash) }
+        isModified = true
+        return hash
+    }
+
+    fun isUpToDate(key: String, fingerprint: String): Boolean {
+        return synchronized(fingerprints) { fingerprints[key] == fingerprint }
+    }
+
+    fun updateFingerprint(key: String, fingerprint: String?) {
+        synchronized(fingerprints) {
+            if (fingerprint == null) fingerprints.remove(key) else fingerprints[key] = fingerprint
+        }
+        isModified = true
+    }
+
+    fun findObjectOrNull(hash: String): File? {
+        val objectFile: File = objectFile(hash)
+        return if (objectFile.isFile) objectFile else null
+    }
+
+    // written next to its final place and renamed, so concurrent builds never see partial object
+    fun putObject(hash: String, write: (file: File) -> Unit) {
+        val objectFile: File = objectFile(hash)
+        if (objectFile.isFile) return
+        objectFile.parentFile.mkdirs()
+        val temporaryFile: File = File(objectFile.parentFile, "${objectFile.name}.${Thread.currentThread().id}.tmp")
+        write(temporaryFile)
+        if (!temporaryFile.renameTo(objectFile)) temporaryFile.delete()
+    }
+
+    fun save() {
+        if (!isModified) return
+        dir.mkdirs()
+        val fileHashesText = StringBuilder()
+        synchronized(fileHashes) {
+            for ((path, fileHash) in fileHashes) {
+                fileHashesText.append(fileHash.hash).append('\t').append(fileHash.length).append('\t').append(fileHash.lastModified).append('\t').append(path).appendLine()
+            }
+        }
+        writeTextAtomically(File(dir, FILE_HASHES_FILE_NAME), fileHashesText.toString())
+        val fingerprintsText = StringBuilder()
+        synchronized(fingerprints) {
+            for ((key, fingerprint) in fingerprints) {
+                fingerprintsText.append(fingerprint).append('\t').append(key).appendLine()
+            }
+        }
+        writeTextAtomically(File(dir, FINGERPRINTS_FILE_NAME), fingerprintsText.toString())
+        isModified = false
+    }
+
+    /*internals*/
+
+    // interrupted build leaves previous index or temporary file behind, never half written index
+    private fun writeTextAtomically(file: File, text: String) {
+        val temporaryFile: File = File(file.parentFile, "${file.name}.${Thread.currentThread().id}.tmp")
+        temporaryFile.writeText(text)
+        Files.move(temporaryFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE)
+    }
+
+    private fun objectFile(hash: String): File = File(objectsDir, "${hash.substring(0, 2)}/${hash.substring(2)}")
+
+    private fun readFileHashes(): MutableMap<String, FileHash> {
+        val result = HashMap<String, FileHash>()
+        val file: File = File(dir, FILE_HASHES_FILE_NAME)
+        if (!file.isFile) return result
+        for (line in file.readLines()) {
+            val tokens: List<String> = line.split('\t', limit = 4)
+            if (tokens.size != 4) continue
+            result[tokens[3]] = FileHash(tokens[1].toLong(), tokens[2].toLong(), tokens[0])
+        }
+        return result
+    }
+
+    private fun readFingerprints(): MutableMap<String, String> {
+        val result = HashMap<String, String>()
+        val file: File = File(dir, FINGERPRINTS_FILE_NAME)
+        if (!file.isFile) return result
+        for (line in file.readLines()) {
+            val tokens: List<String> = line.split('\t', limit = 2)
+            if (tokens.size != 2) continue
+            result[tokens[1]] = tokens[0]
+        }
+        return result
+    }
+
+}
+
+val buildCache: BuildCache by lazy { BuildCache(File("$userHomePath/$BUILD_CACHE_PATH")) }
+
+// inputs are fed in a fixed order by caller, files contribute their content hash so touching without change is not a change
+class Fingerprint(private val buildCache: BuildCache) {
+
+    private val digest: MessageDigest = MessageDigest.getInstance("SHA-256")
+
+    fun add(value: String) {
+        digest.update(value.encodeToByteArray())
+        digest.update(0.toByte())
+    }
+
+    fun addFile(file: File) {
+        add(file.absolutePath)
+        add(buildCache.findFileHashOrNull(file) ?: "missing")
+    }
+
+    fun build(): String = digest.digest().toHex()
+
+}
+
+fun ByteArray.contentHash(): String = MessageDigest.getInstance("SHA-256").digest(this).toHex()
+
+/*internals*/
+
+private const val BUILD_CACHE_PATH: String = ".featurea/cache/build"
+private const val FILE_HASHES_FILE_NAME: String = "files.index"
+private const val FINGERPRINTS_FILE_NAME: String = "fingerprints.index"
+private const val HEX_DIGITS: String = "0123456789abcdef"
+
+private class FileHash(val length: Long, val lastModified: Long, val hash: String)
+
+private fun ByteArray.toHex(): String {
+    val stringBuilder = StringBuilder(size * 2)
+    for (byte in this) {
+        val value: Int = byte.toInt() and 0xFF
+        stringBuilder.append(HEX_DIGITS[value ushr 4]).append(HEX_DIGITS[value and 0x0F])
+    }
+    return stringBuilder.toString()
+}
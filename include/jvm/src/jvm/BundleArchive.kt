@@ -0,0 +1,246 @@
+package featurea.jvm
+
+import java.io.Closeable
+import java.io.File
+import java.io.InputStream
+import java.io.RandomAccessFile
+import java.nio.ByteBuffer
+import java.nio.MappedByteBuffer
+import java.nio.channels.FileChannel
+import java.nio.file.StandardOpenOption
+
+/*
+bundle container with central offset index, replaces zip scans on bundle open and on every resource lookup:
+- header page: magic, version, entry count, index offset, index size
+- entries: stored or LZ4 block, each one starts on 4 KB boundary so stored entries are page aligned slices of the mapping
+- index: per entry name length, UTF-8 name, offset, stored size, size, method
+*/
+class BundleArchive private constructor(val file: File) {
+
+    private val buffer: MappedByteBuffer
+    private val entries: Map<String, BundleArchiveEntry>
+
+    init {
+        buffer = FileChannel.open(file.toPath(), StandardOpenOption.READ).use { channel ->
+            val size: Long = channel.size()
+            check(size <= Int.MAX_VALUE) { "bundle is too large to map: $file ($size bytes)" }
+            channel.map(FileChannel.MapMode.READ_ONLY, 0, size) // mapping stays valid after channel is closed
+        }
+        check(buffer.getInt(0) == BUNDLE_ARCHIVE_MAGIC) { "not a bundle archive: $file" }
+        val version: Int = buffer.getInt(4)
+        check(version == BUNDLE_ARCHIVE_VERSION) { "version: $version" }
+        val entryCount: Int = buffer.getInt(8)
+        val indexOffset: Int = buffer.getLong(12).toInt()
+        val index: ByteBuffer = buffer.sliceAt(indexOffset, buffer.getInt(20))
+        val entries = HashMap<String, BundleArchiveEntry>(entryCount * 2)
+        repeat(entryCount) {
+            val nameBytes = ByteArray(index.getShort().toInt() and 0xFFFF)
+            index.get(nameBytes)
+            val name: String = nameBytes.decodeToString()
+            val offset: Long = index.getLong()
+            val storedSize: Int = index.getInt()
+            val size: Int = index.getInt()
+            val isCompressed: Boolean = index.get() == METHOD_LZ4
+            entries[name] = BundleArchiveEntry(name, offset, storedSize, size, isCompressed)
+        }
+        this.entries = entries
+    }
+
+    val entryNames: Set<String> get() = entries.keys
+
+    fun containsEntry(name: String): Boolean = entries.containsKey(name)
+
+    // stored entry is zero-copy read-only slice of the mapping, compressed entry is decompressed into heap buffer
+    fun findEntryOrNull(name: String): ByteBuffer? {
+        val entry: BundleArchiveEntry = entries[name] ?: return null
+        val storedBuffer: ByteBuffer = buffer.sliceAt(entry.offset.toInt(), entry.storedSize)
+        if (!entry.isCompressed) return storedBuffer
+        val bytes = ByteArray(entry.size)
+        Lz4.decompress(storedBuffer, bytes)
+        return ByteBuffer.wrap(bytes).asReadOnlyBuffer()
+    }
+
+    fun readBytesOrNull(name: String): ByteArray? {
+        val entryBuffer: ByteBuffer = findEntryOrNull(name) ?: return null
+        val bytes = ByteArray(entryBuffer.remaining())
+        entryBuffer.get(bytes)
+        return bytes
+    }
+
+    fun readInputStreamOrNull(name: String): InputStream? {
+        val entryBuffer: ByteBuffer = findEntryOrNull(name) ?: return null
+        return ByteBufferInputStream(entryBuffer)
+    }
+
+    fun extractEntry(name: String, destinationFile: File): Boolean {
+        val entryBuffer: ByteBuffer = findEntryOrNull(name) ?: return false
+        destinationFile.parentFile?.mkdirs()
+        FileChannel.open(destinationFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING).use { channel ->
+            while (entryBuffer.hasRemaining()) channel.write(entryBuffer)
+        }
+        return true
+    }
+
+    companion object {
+
+        fun isBundleArchive(file: File): Boolean {
+            if (!file.isFile || file.length() < BUNDLE_ARCHIVE_HEADER_SIZE) return false
+            RandomAccessFile(file, "r").use { return it.readInt() == BUNDLE_ARCHIVE_MAGIC }
+        }
+
+        fun open(file: File): BundleArchive = BundleArchive(file)
+
+    }
+
+}
+
+class BundleArchiveEntry(val name: String, val offset: Long, val storedSize: Int, val size: Int, val isCompressed: Boolean)
+
+/*
+single thread: putEntry, putPreparedEntry, close
+entries are written as they come so nothing but the index is held in memory
+*/
+class BundleArchiveWriter(val file: File) : Closeable {
+
+    var isCompressionEnabled: Boolean = true
+    private val channel: FileChannel = FileChannel.open(
+        file.toPath(),
+        StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING
+    )
+    private val entries = ArrayList<BundleArchiveEntry>()
+    private val entryNames = HashSet<String>()
+    private var position: Long = BUNDLE_ARCHIVE_HEADER_SIZE.toLong()
+
+    fun containsEntry(name: String): Boolean = entryNames.contains(name)
+
+    fun putEntry(name: String, bytes: ByteArray, size: Int = bytes.size) {
+        putPreparedEntry(name, prepareBundleArchiveEntry(bytes, size, isCompressionEnabled))
+    }
+
+    fun putPreparedEntry(name: String, preparedEntry: PreparedBundleArchiveEntry) {
+        require(entryNames.add(name)) { "duplicate entry: $name" }
+        val storedSize: Int = preparedEntry.storedSize
+        writeFully(ByteBuffer.wrap(preparedEntry.storedBytes, 0, storedSize), position)
+        entries.add(BundleArchiveEntry(name, position, storedSize, preparedEntry.size, preparedEntry.isCompressed))
+        position = alignToPage(position + storedSize)
+    }
+
+    override fun close() {
+        val indexOffset: Long = position
+        var indexSize: Int = 0
+        val encodedNames: List<ByteArray> = entries.map { it.name.encodeToByteArray() }
+        for (encodedName in encodedNames) indexSize += INDEX_ENTRY_SIZE + encodedName.size
+        val index: ByteBuffer = ByteBuffer.allocate(indexSize)
+        for ((entryIndex, entry) in entries.withIndex()) {
+            val encodedName: ByteArray = encodedNames[entryIndex]
+            check(encodedName.size <= 0xFFFF) { "name: ${entry.name}" }
+            index.putShort(encodedName.size.toShort())
+            index.put(encodedName)
+            index.putLong(entry.offset)
+            index.putInt(entry.storedSize)
+            index.putInt(entry.size)
+            index.put(if (entry.isCompressed) METHOD_LZ4 else METHOD_STORED)
+        }
+        index.flip()
+        writeFully(index, indexOffset)
+
+        val header: ByteBuffer = ByteBuffer.allocate(BUNDLE_ARCHIVE_HEADER_SIZE) // whole page so even empty bundle maps its index
+        header.putInt(BUNDLE_ARCHIVE_MAGIC)
+        header.putInt(BUNDLE_ARCHIVE_VERSION)
+        header.putInt(entries.size)
+        header.putLong(indexOffset)
+        header.putInt(indexSize)
+        header.clear()
+        writeFully(header, 0)
+        channel.close()
+    }
+
+    /*internals*/
+
+    private fun writeFully(source: ByteBuffer, position: Long) {
+        var writePosition: Long = position
+        while (source.hasRemaining()) {
+            writePosition += channel.write(source, writePosition)
+        }
+    }
+
+}
+
+// compression is kept apart from writing so bundler can run it on worker threads
+class PreparedBundleArchiveEntry(val storedBytes: ByteArray, val storedSize: Int, val size: Int, val isCompressed: Boolean)
+
+fun prepareBundleArchiveEntry(bytes: ByteArray, size: Int = bytes.size, isCompressionEnabled: Boolean = true): PreparedBundleArchiveEntry {
+    if (isCompressionEnabled && size >= MIN_COMPRESSED_SIZE) {
+        val compressedBytes: ByteArray = Lz4.compress(bytes, size)
+        // keep already compressed formats like png and ogg stored, decompression is not worth a few percent
+        if (compressedBytes.size <= size - size / MIN_COMPRESSION_GAIN_DIVISOR) {
+            return PreparedBundleArchiveEntry(compressedBytes, compressedBytes.size, size, true)
+        }
+    }
+    return PreparedBundleArchiveEntry(bytes, size, size, false)
+}
+
+// everything prepareBundleArchiveEntry output depends on besides the bytes, build cache keys prepared entries with it
+fun preparedBundleArchiveEntrySettings(isCompressionEnabled: Boolean): String {
+    return "$PREPARED_ENTRY_VERSION:$isCompressionEnabled:$MIN_COMPRESSED_SIZE:$MIN_COMPRESSION_GAIN_DIVISOR"
+}
+
+private val bundleArchives = HashMap<String, CachedBundleArchive>()
+
+// bundle is opened once and reopened only when file is modified, null for zip bundles and missing files
+fun findBundleArchiveOrNull(filePath: String): BundleArchive? {
+    val file: File = File(filePath)
+    val lastModified: Long = file.lastModified()
+    synchronized(bundleArchives) {
+        val cachedBundleArchive: CachedBundleArchive? = bundleArchives[filePath]
+        if (cachedBundleArchive != null && cachedBundleArchive.lastModified == lastModified) {
+            return cachedBundleArchive.bundleArchive
+        }
+        val bundleArchive: BundleArchive? = if (BundleArchive.isBundleArchive(file)) BundleArchive.open(file) else null
+        bundleArchives[filePath] = CachedBundleArchive(lastModified, bundleArchive)
+        return bundleArchive
+    }
+}
+
+/*internals*/
+
+private const val BUNDLE_ARCHIVE_MAGIC: Int = 0x46454231 // FEB1
+private const val BUNDLE_ARCHIVE_VERSION: Int = 1
+private const val PAGE_SIZE: Int = 4096
+private const val BUNDLE_ARCHIVE_HEADER_SIZE: Int = PAGE_SIZE
+private const val INDEX_ENTRY_SIZE: Int = 2 + 8 + 4 + 4 + 1
+private const val MIN_COMPRESSED_SIZE: Int = 64
+private const val MIN_COMPRESSION_GAIN_DIVISOR: Int = 8 // compressed entry has to save at least 1/8 of its size
+private const val PREPARED_ENTRY_VERSION: Int = 1 // IMPORTANT bump on any change of Lz4 output
+private const val METHOD_STORED: Byte = 0
+private const val METHOD_LZ4: Byte = 1
+
+private class CachedBundleArchive(val lastModified: Long, val bundleArchive: BundleArchive?)
+
+private fun alignToPage(position: Long): Long {
+    return (position + PAGE_SIZE - 1) and (PAGE_SIZE - 1).toLong().inv()
+}
+
+// absolute slice that leaves shared buffer position untouched, so concurrent lookups do not interfere
+private fun ByteBuffer.sliceAt(offset: Int, size: Int): ByteBuffer {
+    val duplicate: ByteBuffer = duplicate()
+    duplicate.limit(offset + size)
+    duplicate.position(offset)
+    return duplicate.slice().asReadOnlyBuffer()
+}
+
+private class ByteBufferInputStream(private val buffer: ByteBuffer) : InputStream() {
+
+    override fun read(): Int = if (buffer.hasRemaining()) buffer.get().toInt() and 0xFF else -1
+
+    override fun read(bytes: ByteArray, offset: Int, length: Int): Int {
+        if (length == 0) return 0
+        if (!buffer.hasRemaining()) return -1
+        val count: Int = minOf(length, buffer.remaining())
+        buffer.get(bytes, offset, count)
+        return count
+    }
+
+    override fun available(): Int = buffer.remaining()
+
+}
@@ -4,4 +4,23 @@ import java.io.File
 
 data class BundleOptions(val projectFile: File, val bundleFile: File, val contentRoots: List<String>) {
     var command: String? = null
+    var format: BundleFormat = BundleFormat.ZIP
+}
+
+/*
+ZIP:     readable by every target, iOS file transfer unzips it and js runs from the extracted directory
+ARCHIVE: featurea.jvm.BundleArchive, indexed and memory-mapped, only desktop and android can read it
+*/
+enum class BundleFormat {
+
+    ZIP,
+    ARCHIVE;
+
+    companion object {
+        fun forTarget(target: String): BundleFormat = when (target) {
+            "desktop", "android" -> ARCHIVE
+            else -> ZIP
+        }
+    }
+
 }
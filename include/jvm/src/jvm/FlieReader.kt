@@ -24,6 +24,20 @@ fun System.findFileOrNull(filePath: String): File? {
             return file
         }
 
+        // bundle archive entry
+        if (extension.isZipFileExtension()) {
+            val bundleArchive: BundleArchive? = findBundleArchiveOrNull(contentRoot)
+            if (bundleArchive != null) {
+                if (filePath.needsToBeExtracted()) {
+                    val extractedFile: File = File(contentRoot.toExtractedDir(), filePath)
+                    if (bundleArchive.extractEntry(filePath, extractedFile)) {
+                        return extractedFile
+                    }
+                }
+                continue
+            }
+        }
+
         // zip entry
         if (extension.isZipFileExtension()) {
             if (filePath.needsToBeExtracted()) {
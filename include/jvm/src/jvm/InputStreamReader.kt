@@ -22,6 +22,18 @@ fun System.readInputStreamOrNull(filePath: String): InputStream? {
             return FileInputStream(file)
         }
 
+        // bundle archive entry
+        if (extension.isZipFileExtension()) {
+            val bundleArchive: BundleArchive? = findBundleArchiveOrNull(contentRoot)
+            if (bundleArchive != null) {
+                val inputStream: InputStream = bundleArchive.readInputStreamOrNull(filePath) ?: continue
+                if (filePath.needsToBeExtracted()) {
+                    bundleArchive.extractEntry(filePath, File(contentRoot.toExtractedDir(), filePath))
+                }
+                return inputStream
+            }
+        }
+
         // zip entry
         if (extension.isZipFileExtension()) {
             val zipFile: ZipFile = ZipFile(contentRoot)
@@ -0,0 +1,125 @@
+package featurea.jvm
+
+import java.nio.ByteBuffer
+
+/*
+LZ4 block format without frame, greedy single probe matcher:
+- sequence is token, literal length extension, literals, little endian offset, match length extension
+- last 5 bytes are always literals and last match starts at least 12 bytes before end
+*/
+object Lz4 {
+
+    fun maxCompressedSize(size: Int): Int = size + size / 255 + 16
+
+    fun compress(source: ByteArray, size: Int = source.size): ByteArray {
+        val destination = ByteArray(maxCompressedSize(size))
+        val hashTable = IntArray(HASH_TABLE_SIZE) // position + 1, zero means empty
+        var sourceIndex: Int = 0
+        var destinationIndex: Int = 0
+        var anchor: Int = 0
+        val matchLimit: Int = size - MIN_MATCH_DISTANCE_TO_END
+        val literalLimit: Int = size - LAST_LITERALS
+        while (sourceIndex < matchLimit) {
+            val sequence: Int = source.readIntAt(sourceIndex)
+            val hash: Int = (sequence * HASH_MULTIPLIER) ushr (32 - HASH_BITS)
+            val reference: Int = hashTable[hash] - 1
+            hashTable[hash] = sourceIndex + 1
+            if (reference < 0 || sourceIndex - reference > MAX_OFFSET || source.readIntAt(reference) != sequence) {
+                sourceIndex++
+                continue
+            }
+            var matchLength: Int = MIN_MATCH
+            while (sourceIndex + matchLength < literalLimit && source[reference + matchLength] == source[sourceIndex + matchLength]) {
+                matchLength++
+            }
+            val literalLength: Int = sourceIndex - anchor
+            val matchLengthCode: Int = matchLength - MIN_MATCH
+            destination[destinationIndex++] = ((minOf(literalLength, 15) shl 4) or minOf(matchLengthCode, 15)).toByte()
+            destinationIndex = destination.writeLength(destinationIndex, literalLength)
+            System.arraycopy(source, anchor, destination, destinationIndex, literalLength)
+            destinationIndex += literalLength
+            val offset: Int = sourceIndex - reference
+            destination[destinationIndex++] = offset.toByte()
+            destination[destinationIndex++] = (offset ushr 8).toByte()
+            destinationIndex = destination.writeLength(destinationIndex, matchLengthCode)
+            sourceIndex += matchLength
+            anchor = sourceIndex
+        }
+        val literalLength: Int = size - anchor
+        destination[destinationIndex++] = (minOf(literalLength, 15) shl 4).toByte()
+        destinationIndex = destination.writeLength(destinationIndex, literalLength)
+        System.arraycopy(source, anchor, destination, destinationIndex, literalLength)
+        destinationIndex += literalLength
+        return destination.copyOf(destinationIndex)
+    }
+
+    // source is read from its position to its limit with absolute gets, its position is not changed
+    fun decompress(source: ByteBuffer, destination: ByteArray) {
+        var sourceIndex: Int = source.position()
+        val sourceLimit: Int = source.limit()
+        var destinationIndex: Int = 0
+        while (true) {
+            val token: Int = source.get(sourceIndex++).toInt() and 0xFF
+            var literalLength: Int = token ushr 4
+            if (literalLength == 15) {
+                var extension: Int
+                do {
+                    extension = source.get(sourceIndex++).toInt() and 0xFF
+                    literalLength += extension
+                } while (extension == 255)
+            }
+            for (index in 0 until literalLength) {
+                destination[destinationIndex++] = source.get(sourceIndex++)
+            }
+            if (sourceIndex >= sourceLimit) break
+
+            val offset: Int = (source.get(sourceIndex).toInt() and 0xFF) or ((source.get(sourceIndex + 1).toInt() and 0xFF) shl 8)
+            sourceIndex += 2
+            var matchLength: Int = token and 0x0F
+            if (matchLength == 15) {
+                var extension: Int
+                do {
+                    extension = source.get(sourceIndex++).toInt() and 0xFF
+                    matchLength += extension
+                } while (extension == 255)
+            }
+            matchLength += MIN_MATCH
+            var matchIndex: Int = destinationIndex - offset
+            check(matchIndex >= 0) { "offset: $offset" }
+            for (index in 0 until matchLength) {
+                destination[destinationIndex++] = destination[matchIndex++]
+            }
+        }
+        check(destinationIndex == destination.size) { "size: $destinationIndex != ${destination.size}" }
+    }
+
+}
+
+/*internals*/
+
+private const val MIN_MATCH: Int = 4
+private const val LAST_LITERALS: Int = 5
+private const val MIN_MATCH_DISTANCE_TO_END: Int = 12
+private const val MAX_OFFSET: Int = 65535
+private const val HASH_BITS: Int = 16
+private const val HASH_TABLE_SIZE: Int = 1 shl HASH_BITS
+private const val HASH_MULTIPLIER: Int = -1640531535 // 2654435761
+
+private fun ByteArray.readIntAt(index: Int): Int {
+    return (this[index].toInt() and 0xFF) or
+            ((this[index + 1].toInt() and 0xFF) shl 8) or
+            ((this[index + 2].toInt() and 0xFF) shl 16) or
+            ((this[index + 3].toInt() and 0xFF) shl 24)
+}
+
+private fun ByteArray.writeLength(index: Int, length: Int): Int {
+    if (length < 15) return index
+    var result: Int = index
+    var remaining: Int = length - 15
+    while (remaining >= 255) {
+        this[result++] = 255.toByte()
+        remaining -= 255
+    }
+    this[result++] = remaining.toByte()
+    return result
+}
@@ -0,0 +1,51 @@
+package featurea.jvm
+
+import java.util.concurrent.atomic.AtomicLong
+
+/*
+producer thread: offer
+consumer thread: poll, isEmpty
+
+single-producer/single-consumer ring buffer without locks:
+- each index is written by one thread only and published with lazySet (a release store)
+- the other thread reads it with a volatile load (an acquire), so the slot written before publishing is visible
+- each side caches the last seen index of the other side and only rereads it when the ring looks full or empty
+*/
+class SpscQueue<T>(capacity: Int) {
+
+    private val buffer: Array<Any?> = arrayOfNulls(Integer.highestOneBit(maxOf(2, capacity) - 1) shl 1)
+    private val mask: Long = buffer.size - 1L
+    private val head: AtomicLong = AtomicLong() // next slot to poll, written by the consumer
+    private val tail: AtomicLong = AtomicLong() // next slot to offer, written by the producer
+    private var producerHead: Long = 0 // producer's cached head
+    private var consumerTail: Long = 0 // consumer's cached tail
+
+    val capacity: Int get() = buffer.size
+    val isEmpty: Boolean get() = head.get() == tail.get()
+
+    fun offer(element: T): Boolean {
+        val currentTail: Long = tail.get()
+        if (currentTail - producerHead >= buffer.size) {
+            producerHead = head.get()
+            if (currentTail - producerHead >= buffer.size) return false
+        }
+        buffer[(currentTail and mask).toInt()] = element
+        tail.lazySet(currentTail + 1)
+        return true
+    }
+
+    fun poll(): T? {
+        val currentHead: Long = head.get()
+        if (currentHead >= consumerTail) {
+            consumerTail = tail.get()
+            if (currentHead >= consumerTail) return null
+        }
+        val index: Int = (currentHead and mask).toInt()
+        @Suppress("UNCHECKED_CAST")
+        val element: T = buffer[index] as T
+        buffer[index] = null
+        head.lazySet(currentHead + 1)
+        return element
+    }
+
+}
@@ -0,0 +1,164 @@
+package featurea.jvm
+
+import java.io.File
+import java.io.InputStream
+import java.nio.ByteBuffer
+import kotlin.random.Random
+import kotlin.test.AfterTest
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertFalse
+import kotlin.test.assertNull
+import kotlin.test.assertTrue
+
+class BundleArchiveTest {
+
+    private val files = ArrayList<File>()
+
+    @AfterTest
+    fun deleteFiles() {
+        for (file in files) file.delete()
+    }
+
+    @Test
+    fun lz4RoundTrip() {
+        val random: Random = Random(7)
+        for (size in intArrayOf(0, 1, 5, 11, 12, 13, 64, 1000, 70_000, 300_000)) {
+            assertLz4RoundTrip(random.nextBytes(size))
+            assertLz4RoundTrip(repetitiveBytes(size))
+            assertLz4RoundTrip(ByteArray(size)) // long runs need literal and match length extensions
+        }
+    }
+
+    @Test
+    fun lz4CompressesRepetitiveBytes() {
+        val bytes: ByteArray = repetitiveBytes(100_000)
+        val compressedBytes: ByteArray = Lz4.compress(bytes)
+        assertTrue(compressedBytes.size < bytes.size / 4, "compressed size: ${compressedBytes.size}")
+    }
+
+    @Test
+    fun lz4CompressesPrefixOnly() {
+        val bytes: ByteArray = repetitiveBytes(5000)
+        val compressedBytes: ByteArray = Lz4.compress(bytes, 3000)
+        val decompressedBytes = ByteArray(3000)
+        Lz4.decompress(ByteBuffer.wrap(compressedBytes), decompressedBytes)
+        assertBytes(bytes.copyOf(3000), decompressedBytes)
+    }
+
+    @Test
+    fun lz4ReadsFromBufferPosition() {
+        val bytes: ByteArray = repetitiveBytes(2000)
+        val compressedBytes: ByteArray = Lz4.compress(bytes)
+        val source: ByteBuffer = ByteBuffer.allocate(compressedBytes.size + 10)
+        source.position(7)
+        source.put(compressedBytes)
+        source.position(7)
+        source.limit(7 + compressedBytes.size)
+        val decompressedBytes = ByteArray(bytes.size)
+        Lz4.decompress(source, decompressedBytes)
+        assertBytes(bytes, decompressedBytes)
+        assertEquals(7, source.position())
+    }
+
+    @Test
+    fun bundleArchiveRoundTrip() {
+        val random: Random = Random(11)
+        val entries = LinkedHashMap<String, ByteArray>()
+        entries["text/repetitive.txt"] = repetitiveBytes(50_000)
+        entries["images/random.png"] = random.nextBytes(20_000)
+        entries["empty"] = ByteArray(0)
+        entries["tiny.txt"] = "abc".encodeToByteArray()
+        entries["page.bin"] = ByteArray(4096) { it.toByte() }
+        val file: File = createTempFile()
+        BundleArchiveWriter(file).use { writer ->
+            for ((name, bytes) in entries) writer.putEntry(name, bytes)
+            val paddedBytes: ByteArray = repetitiveBytes(1000)
+            writer.putEntry("padded.txt", paddedBytes, 600)
+            assertTrue(writer.containsEntry("padded.txt"))
+            entries["padded.txt"] = paddedBytes.copyOf(600)
+        }
+
+        assertTrue(BundleArchive.isBundleArchive(file))
+        val bundleArchive: BundleArchive = BundleArchive.open(file)
+        assertEquals(entries.keys, bundleArchive.entryNames)
+        for ((name, bytes) in entries) {
+            assertTrue(bundleArchive.containsEntry(name))
+            assertBytes(bytes, bundleArchive.readBytesOrNull(name), name)
+            val entryBuffer: ByteBuffer = bundleArchive.findEntryOrNull(name)!!
+            assertTrue(entryBuffer.isReadOnly, name)
+            assertEquals(bytes.size, entryBuffer.remaining(), name)
+            val inputStream: InputStream = bundleArchive.readInputStreamOrNull(name)!!
+            assertBytes(bytes, inputStream.readBytes(), name)
+        }
+        assertFalse(bundleArchive.containsEntry("missing"))
+        assertNull(bundleArchive.findEntryOrNull("missing"))
+        assertNull(bundleArchive.readBytesOrNull("missing"))
+
+        // stored entry lookups do not move a shared position
+        val first: ByteBuffer = bundleArchive.findEntryOrNull("images/random.png")!!
+        first.get(ByteArray(100))
+        assertEquals(20_000, bundleArchive.findEntryOrNull("images/random.png")!!.remaining())
+
+        val destinationFile: File = createTempFile()
+        assertTrue(bundleArchive.extractEntry("text/repetitive.txt", destinationFile))
+        assertBytes(entries["text/repetitive.txt"], destinationFile.readBytes())
+        assertFalse(bundleArchive.extractEntry("missing", destinationFile))
+    }
+
+    @Test
+    fun emptyBundleArchive() {
+        val file: File = createTempFile()
+        BundleArchiveWriter(file).close()
+        val bundleArchive: BundleArchive = BundleArchive.open(file)
+        assertTrue(bundleArchive.entryNames.isEmpty())
+    }
+
+    @Test
+    fun preparedEntryKeepsIncompressibleBytesStored() {
+        val compressedEntry: PreparedBundleArchiveEntry = prepareBundleArchiveEntry(repetitiveBytes(10_000))
+        assertTrue(compressedEntry.isCompressed)
+        assertTrue(compressedEntry.storedSize < 10_000)
+        assertEquals(10_000, compressedEntry.size)
+        val storedEntry: PreparedBundleArchiveEntry = prepareBundleArchiveEntry(Random(3).nextBytes(10_000))
+        assertFalse(storedEntry.isCompressed)
+        assertEquals(10_000, storedEntry.storedSize)
+        assertFalse(prepareBundleArchiveEntry(repetitiveBytes(10_000), isCompressionEnabled = false).isCompressed)
+        assertFalse(prepareBundleArchiveEntry(ByteArray(10)).isCompressed)
+    }
+
+    @Test
+    fun zipIsNotBundleArchive() {
+        val file: File = createTempFile()
+        file.writeBytes(byteArrayOf(0x50, 0x4B, 0x03, 0x04) + ByteArray(5000))
+        assertFalse(BundleArchive.isBundleArchive(file))
+        assertNull(findBundleArchiveOrNull(file.absolutePath))
+        assertNull(findBundleArchiveOrNull(File(file.parentFile, "missing.bundle").absolutePath))
+    }
+
+    /*internals*/
+
+    private fun createTempFile(): File {
+        val file: File = File.createTempFile("bundle", ".tmp")
+        files.add(file)
+        return file
+    }
+
+    private fun repetitiveBytes(size: Int): ByteArray {
+        val text: ByteArray = "<sprite path=\"images/sprite.png\" x=\"0\" y=\"0\"/>\n".encodeToByteArray()
+        return ByteArray(size) { text[it % text.size] }
+    }
+
+    private fun assertLz4RoundTrip(bytes: ByteArray) {
+        val compressedBytes: ByteArray = Lz4.compress(bytes)
+        assertTrue(compressedBytes.size <= Lz4.maxCompressedSize(bytes.size))
+        val decompressedBytes = ByteArray(bytes.size)
+        Lz4.decompress(ByteBuffer.wrap(compressedBytes), decompressedBytes)
+        assertBytes(bytes, decompressedBytes, "size: ${bytes.size}")
+    }
+
+    private fun assertBytes(expected: ByteArray?, actual: ByteArray?, message: String? = null) {
+        assertTrue(expected!!.contentEquals(actual), message)
+    }
+
+}
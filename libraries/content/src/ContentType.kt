@@ -2,9 +2,14 @@ package featurea.content
 
 class ContentTypeNotFoundException(canonicalName: String) : RuntimeException(canonicalName)
 
+// produced off the render thread by ContentType.prefetch, committed on the render thread right before ContentType.load
+class ResourcePrefetch(val byteCount: Long, val commit: () -> Unit = {})
+
 interface ContentType {
     // todo refactor to `parse(resourceTag: ResourceTag, key: String, value: String, parseQueue: ArrayList<String>)`
     fun parseOrNull(resourceTag: ResourceTag, key: String, value: String): List<String>? = null
+    // file I/O and decoding on the loader's I/O dispatcher, no GL/AL calls and no shared caches, those belong to commit and load
+    suspend fun prefetch(resource: Resource): ResourcePrefetch? = null
     suspend fun load(resource: Resource, loadingQueue: ArrayList<String>) {}
     suspend fun release(resource: Resource, releaseQueue: ArrayList<String>) {}
 }
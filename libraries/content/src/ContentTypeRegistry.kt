@@ -21,6 +21,11 @@ class ContentTypeRegistry(override val module: Module) : Component, ModuleRegist
         return null
     }
 
+    suspend fun prefetchResource(resource: Resource): ResourcePrefetch? {
+        val contentType: ContentType = findContentType(resource.canonicalName)
+        return contentType.prefetch(resource)
+    }
+
     suspend fun loadResource(resource: Resource, loadingQueue: ArrayList<String>) {
         val contentType: ContentType = findContentType(resource.canonicalName)
         contentType.load(resource, loadingQueue)
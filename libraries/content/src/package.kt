@@ -27,3 +27,4 @@ val Properties.packageId: String by PropertyDelegate("package") { error("package
 val Properties.resources: String by PropertyDelegate("resources") { "" }
 var System.rmlExtensions: List<String> by SystemPropertyDelegate("rmlExtensions") { listOf("project", "rml") }
 var System.textExtensions: List<String> by SystemPropertyDelegate("textExtensions") { listOf("c", "kts") }
+var System.useBuildCache: Boolean by SystemPropertyDelegate("useBuildCache") { true }
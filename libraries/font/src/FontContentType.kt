@@ -1,7 +1,9 @@
 package featurea.font
 
+import featurea.System
 import featurea.content.ContentType
 import featurea.content.Resource
+import featurea.content.ResourcePrefetch
 import featurea.content.ResourceNotFoundException
 import featurea.font.reader.fnt
 import featurea.font.reader.png
@@ -12,15 +14,26 @@ import featurea.text.TextContent
 import featurea.image.ImageContentType
 import featurea.spritesheet.SpriteCache
 import featurea.spritesheet.Sprite
+import featurea.utils.readTextOrNull
 
 class FontContentType(override val module: Module) : Component, ContentType {
 
     private val imageContentType: ImageContentType = import()
     private val textContent: TextContent = import()
     private val spriteCache: SpriteCache = import()
+    private val system: System = import()
 
     val fontCache = mutableMapOf<String, Font>()
 
+    override suspend fun prefetch(resource: Resource): ResourcePrefetch? {
+        val fntPath: String = resource.manifest.fnt
+        val fntSource: String = system.readTextOrNull(fntPath) ?: return null
+        val font: Font = FontFileParser.parseFontSource(fntSource, fntPath)
+        return ResourcePrefetch(fntSource.length.toLong()) {
+            if (fontCache[resource.path] == null) fontCache[resource.path] = font
+        }
+    }
+
     override suspend fun load(resource: Resource, loadingQueue: ArrayList<String>) {
         // 1. load font
         val font: Font = run {
@@ -0,0 +1,51 @@
+package featurea.formula
+
+import featurea.utils.getTimeMillis
+import featurea.utils.log
+
+// evaluations per second of one read formula and one danger formula for each of 100k channels
+fun benchmark1() {
+    val channelCount = 100_000
+    val rounds = 20
+    val readFormulas = Array(channelCount) { Formula<Double>("\${value} * ${it % 10 + 1} / 10 + 0.5") }
+    val dangerFormulas = Array(channelCount) { Formula<Boolean>("\${value} > ${it % 100}") }
+
+    var checksum = 0.0
+    val interpretedTime: Double = measureMillis(rounds) { round ->
+        for (index in 0 until channelCount) {
+            val readFormula = readFormulas[index]
+            readFormula.setVariable("\${value}", index + round)
+            val value: Double = readFormula.calculate()
+            val dangerFormula = dangerFormulas[index]
+            dangerFormula.setVariable("\${value}", value)
+            if (dangerFormula.calculate()) checksum++
+        }
+    }
+
+    val readValues = Array(channelCount) { readFormulas[it].compiled.variable("\${value}")!! }
+    val dangerValues = Array(channelCount) { dangerFormulas[it].compiled.variable("\${value}")!! }
+    val compiledTime: Double = measureMillis(rounds) { round ->
+        for (index in 0 until channelCount) {
+            readValues[index].value = (index + round).toDouble()
+            val value: Double = readFormulas[index].compiled.calculateDouble()
+            dangerValues[index].value = value
+            if (dangerFormulas[index].compiled.calculateBoolean()) checksum--
+        }
+    }
+
+    val evaluationCount: Double = 2.0 * channelCount * rounds
+    log("Benchmark1: channels=$channelCount, checksum=$checksum")
+    log("Benchmark1: interpreted ${(evaluationCount / interpretedTime * 1000).toLong()} evaluations/sec")
+    log("Benchmark1: compiled ${(evaluationCount / compiledTime * 1000).toLong()} evaluations/sec")
+}
+
+/*internals*/
+
+private inline fun measureMillis(rounds: Int, block: (round: Int) -> Unit): Double {
+    block(-1) // warmup
+    val startTime: Double = getTimeMillis()
+    for (round in 0 until rounds) {
+        block(round)
+    }
+    return getTimeMillis() - startTime
+}
@@ -0,0 +1,241 @@
+package featurea.formula
+
+/*
+Formula.calculate walks FormulaOperand<Any> nodes and boxes every intermediate value,
+CompiledFormula specializes the same tree for doubles and booleans once:
+- variables are resolved to slot indices of a DoubleArray, booleans are stored as 1.0 and 0.0 next to their slot type
+- slots are the variable storage of the formula from then on, Formula.setVariable and FormulaVariable write the same slot
+- evaluation neither hashes nor boxes nor allocates, a slot of the wrong type fails like the interpreter does
+*/
+class CompiledFormula(val formula: Formula<*>) {
+
+    private val names: List<String> = ArrayList<String>().also { collectNames(formula.operand, it) }
+    private val slots = DoubleArray(names.size)
+    private val slotTypes = ByteArray(names.size) // SLOT_UNBOUND, SLOT_DOUBLE or SLOT_BOOLEAN
+    private var unboundCount: Int = names.size
+    private val root: CompiledNode = compile(formula.operand)
+    private val variables: Array<FormulaVariable> = Array(names.size) { FormulaVariable(this, it) }
+
+    init {
+        for ((slot, name) in names.withIndex()) {
+            val value: Any = formula.variables[name] ?: continue
+            setValue(slot, value)
+        }
+    }
+
+    val isBoolean: Boolean get() = root is BooleanNode
+
+    fun variable(name: String): FormulaVariable? {
+        val slot: Int = names.indexOf(name)
+        return if (slot == -1) null else variables[slot]
+    }
+
+    fun calculateDouble(): Double {
+        check(unboundCount == 0) { "formula: ${formula.value}" }
+        return when (root) {
+            is DoubleVariable -> slots[root.slot] // formula of single variable returns it as it is
+            is DoubleNode -> root.evaluate(slots)
+            is BooleanNode -> if (root.evaluate(slots)) 1.0 else 0.0
+        }
+    }
+
+    fun calculateBoolean(): Boolean {
+        check(unboundCount == 0) { "formula: ${formula.value}" }
+        return when (root) {
+            is DoubleVariable -> slots[root.slot] != 0.0
+            is BooleanNode -> root.evaluate(slots)
+            is DoubleNode -> root.evaluate(slots) != 0.0
+        }
+    }
+
+    /*internals*/
+
+    internal fun setDouble(slot: Int, value: Double) = setSlot(slot, value, SLOT_DOUBLE)
+
+    internal fun setBoolean(slot: Int, value: Boolean) = setSlot(slot, if (value) 1.0 else 0.0, SLOT_BOOLEAN)
+
+    internal fun getDouble(slot: Int): Double = slots[slot]
+
+    // Formula.Variables writes through here, false if formula does not use the variable
+    internal fun setVariable(name: String, value: Any): Boolean {
+        val slot: Int = names.indexOf(name)
+        if (slot == -1) return false
+        setValue(slot, value)
+        return true
+    }
+
+    internal fun getVariableOrNull(name: String): Any? {
+        val slot: Int = names.indexOf(name)
+        if (slot == -1) return null
+        return when (slotTypes[slot]) {
+            SLOT_DOUBLE -> slots[slot]
+            SLOT_BOOLEAN -> slots[slot] != 0.0
+            else -> null
+        }
+    }
+
+    private fun setValue(slot: Int, value: Any) {
+        when (value) {
+            is Double -> setDouble(slot, value)
+            is Boolean -> setBoolean(slot, value)
+            else -> throw IllegalArgumentException("value: $value")
+        }
+    }
+
+    private fun setSlot(slot: Int, value: Double, slotType: Byte) {
+        slots[slot] = value
+        if (slotTypes[slot] == SLOT_UNBOUND) unboundCount--
+        slotTypes[slot] = slotType
+    }
+
+    private fun collectNames(operand: FormulaOperand<*>, result: MutableList<String>) {
+        when (operand) {
+            is VariableOperand<*> -> if (!result.contains(operand.name)) result.add(operand.name)
+            is FormulaOperator<*, *, *> -> {
+                collectNames(operand.leftOperand, result)
+                collectNames(operand.rightOperand, result)
+            }
+        }
+    }
+
+    private fun compile(operand: FormulaOperand<*>): CompiledNode = when (operand) {
+        is ValueOperand<*> -> when (val value = operand.value) {
+            is Double -> DoubleConstant(value)
+            is Boolean -> BooleanConstant(value)
+            else -> throw IllegalArgumentException("value: $value")
+        }
+        is VariableOperand<*> -> DoubleVariable(names.indexOf(operand.name), slotTypes)
+        is FormulaOperator<*, *, *> -> {
+            val left: CompiledNode = compile(operand.leftOperand)
+            val right: CompiledNode = compile(operand.rightOperand)
+            when (operand) {
+                is Plus -> DoublePlus(left.toDoubleNode(), right.toDoubleNode())
+                is Minus -> DoubleMinus(left.toDoubleNode(), right.toDoubleNode())
+                is Multiply -> DoubleMultiply(left.toDoubleNode(), right.toDoubleNode())
+                is Divide -> DoubleDivide(left.toDoubleNode(), right.toDoubleNode())
+                is Equal -> when {
+                    // variable type is known only when it is set, so the check is left to evaluation
+                    left is DoubleVariable || right is DoubleVariable -> CheckedEqual(left, right, slotTypes)
+                    left is BooleanNode && right is BooleanNode -> BooleanEqual(left, right)
+                    left is DoubleNode && right is DoubleNode -> DoubleEqual(left, right)
+                    else -> throw IllegalArgumentException("formula: ${formula.value}")
+                }
+                is Greater -> DoubleGreater(left.toDoubleNode(), right.toDoubleNode())
+                is GreaterOrEqual -> DoubleGreaterOrEqual(left.toDoubleNode(), right.toDoubleNode())
+                is Less -> DoubleLess(left.toDoubleNode(), right.toDoubleNode())
+                is LessOrEqual -> DoubleLessOrEqual(left.toDoubleNode(), right.toDoubleNode())
+            }
+        }
+        else -> throw IllegalArgumentException("operand: $operand")
+    }
+
+    private fun CompiledNode.toDoubleNode(): DoubleNode = when (this) {
+        is DoubleNode -> this
+        is BooleanNode -> throw IllegalArgumentException("formula: ${formula.value}")
+    }
+
+}
+
+class FormulaVariable internal constructor(private val compiledFormula: CompiledFormula, val slot: Int) {
+
+    var value: Double
+        get() = compiledFormula.getDouble(slot)
+        set(value) = compiledFormula.setDouble(slot, value)
+
+    fun setBoolean(value: Boolean) = compiledFormula.setBoolean(slot, value)
+
+}
+
+/*internals*/
+
+private const val SLOT_UNBOUND: Byte = 0
+private const val SLOT_DOUBLE: Byte = 1
+private const val SLOT_BOOLEAN: Byte = 2
+
+private sealed class CompiledNode
+
+private abstract class DoubleNode : CompiledNode() {
+    abstract fun evaluate(slots: DoubleArray): Double
+}
+
+private abstract class BooleanNode : CompiledNode() {
+    abstract fun evaluate(slots: DoubleArray): Boolean
+}
+
+private class DoubleConstant(val value: Double) : DoubleNode() {
+    override fun evaluate(slots: DoubleArray) = value
+}
+
+private class BooleanConstant(val value: Boolean) : BooleanNode() {
+    override fun evaluate(slots: DoubleArray) = value
+}
+
+// in arithmetic and comparisons boolean variable fails like the interpreter's cast does
+private class DoubleVariable(val slot: Int, val slotTypes: ByteArray) : DoubleNode() {
+    override fun evaluate(slots: DoubleArray): Double {
+        if (slotTypes[slot] != SLOT_DOUBLE) throw ClassCastException("slot: $slot")
+        return slots[slot]
+    }
+}
+
+private class DoublePlus(val left: DoubleNode, val right: DoubleNode) : DoubleNode() {
+    override fun evaluate(slots: DoubleArray) = left.evaluate(slots) + right.evaluate(slots)
+}
+
+private class DoubleMinus(val left: DoubleNode, val right: DoubleNode) : DoubleNode() {
+    override fun evaluate(slots: DoubleArray) = left.evaluate(slots) - right.evaluate(slots)
+}
+
+private class DoubleMultiply(val left: DoubleNode, val right: DoubleNode) : DoubleNode() {
+    override fun evaluate(slots: DoubleArray) = left.evaluate(slots) * right.evaluate(slots)
+}
+
+private class DoubleDivide(val left: DoubleNode, val right: DoubleNode) : DoubleNode() {
+    override fun evaluate(slots: DoubleArray) = left.evaluate(slots) / right.evaluate(slots)
+}
+
+private class DoubleEqual(val left: DoubleNode, val right: DoubleNode) : BooleanNode() {
+    override fun evaluate(slots: DoubleArray) = left.evaluate(slots) == right.evaluate(slots)
+}
+
+// same types compare, mixed double and boolean throw like Equal.function
+private class CheckedEqual(val left: CompiledNode, val right: CompiledNode, val slotTypes: ByteArray) : BooleanNode() {
+    override fun evaluate(slots: DoubleArray): Boolean {
+        val leftType: Byte = left.slotType()
+        val rightType: Byte = right.slotType()
+        if (leftType != rightType) throw IllegalArgumentException("leftType: $leftType, rightType: $rightType")
+        return left.value(slots) == right.value(slots)
+    }
+
+    private fun CompiledNode.slotType(): Byte = when (this) {
+        is DoubleVariable -> slotTypes[slot]
+        is DoubleNode -> SLOT_DOUBLE
+        is BooleanNode -> SLOT_BOOLEAN
+    }
+
+    private fun CompiledNode.value(slots: DoubleArray): Double = when (this) {
+        is DoubleVariable -> slots[slot]
+        is DoubleNode -> evaluate(slots)
+        is BooleanNode -> if (evaluate(slots)) 1.0 else 0.0
+    }
+}
+
+private class BooleanEqual(val left: BooleanNode, val right: BooleanNode) : BooleanNode() {
+    override fun evaluate(slots: DoubleArray) = left.evaluate(slots) == right.evaluate(slots)
+}
+
+private class DoubleGreater(val left: DoubleNode, val right: DoubleNode) : BooleanNode() {
+    override fun evaluate(slots: DoubleArray) = left.evaluate(slots) > right.evaluate(slots)
+}
+
+private class DoubleGreaterOrEqual(val left: DoubleNode, val right: DoubleNode) : BooleanNode() {
+    override fun evaluate(slots: DoubleArray) = left.evaluate(slots) >= right.evaluate(slots)
+}
+
+private class DoubleLess(val left: DoubleNode, val right: DoubleNode) : BooleanNode() {
+    override fun evaluate(slots: DoubleArray) = left.evaluate(slots) < right.evaluate(slots)
+}
+
+private class DoubleLessOrEqual(val left: DoubleNode, val right: DoubleNode) : BooleanNode() {
+    override fun evaluate(slots: DoubleArray) = left.evaluate(slots) <= right.evaluate(slots)
+}
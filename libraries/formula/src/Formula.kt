@@ -6,7 +6,11 @@ class Formula<T>(val value: String) {
 
     val variables: Variables = Variables()
 
-    private val operand: FormulaOperand<T> = FormulaExpression(value).operand as FormulaOperand<T>
+    internal val operand: FormulaOperand<T> = FormulaExpression(value).operand as FormulaOperand<T>
+
+    private var compiledOrNull: CompiledFormula? = null
+    val compiled: CompiledFormula
+        get() = compiledOrNull ?: CompiledFormula(this).also { compiledOrNull = it }
 
     fun calculate(): T {
         val formula: Formula<T> = this
@@ -34,16 +38,20 @@ class Formula<T>(val value: String) {
 
         private val map = mutableMapOf<String, Any>()
 
+        // once compiled its slots hold the variables of the formula, so both evaluators see every write
         operator fun set(name: String, value: Any) {
-            map[name] = when (value) {
+            val normalizedValue: Any = when (value) {
                 is Number -> value.toDouble()
                 is Boolean -> value
                 else -> throw IllegalArgumentException("value: $value")
             }
+            if (compiledOrNull?.setVariable(name, normalizedValue) != true) {
+                map[name] = normalizedValue
+            }
         }
 
         operator fun get(name: String): Any? {
-            return map[name]
+            return compiledOrNull?.getVariableOrNull(name) ?: map[name]
         }
 
     }
@@ -4,6 +4,9 @@ import featurea.Bundle
 import featurea.System
 import featurea.content.*
 import featurea.image.reader.texturePack
+import featurea.jvm.BuildCache
+import featurea.jvm.Fingerprint
+import featurea.jvm.buildCache
 import featurea.jvm.findFile
 import featurea.jvm.findFileOrNull
 import featurea.jvm.userHomePath
@@ -61,7 +64,29 @@ class ImageWriter(override val module: Module) : ResourceWriterComponent {
     override suspend fun flush(bundle: Bundle) {
         if (system.useTexturePack) {
             val outputDir: File = File("$userHomePath/$TEXTURES_PACK_DIRECTORY_PATH")
-            File(outputDir, TEXTURES_PACK_FILE_NAME).deleteRecursively()
+            val outputFile: File = File(outputDir, TEXTURES_PACK_FILE_NAME)
+
+            // 0) skip packing when no image is changed since previous build, Bundler saves the cache
+            val cache: BuildCache? = if (system.useBuildCache) buildCache else null
+            var texturePackFingerprint: String? = null
+            if (cache != null) {
+                val fingerprint = Fingerprint(cache)
+                for ((key, value) in bundle.texturePack) {
+                    fingerprint.add(key)
+                    fingerprint.addFile(File(value))
+                }
+                texturePackFingerprint = fingerprint.build()
+                if (bundle.texturePack.isNotEmpty() && cache.isUpToDate(TEXTURE_PACK_BUILD_STEP, texturePackFingerprint)) {
+                    val outputFingerprint: String? = cache.buildTexturePackOutputFingerprint(outputDir, outputFile)
+                    if (outputFingerprint != null && cache.isUpToDate(TEXTURE_PACK_OUTPUT_BUILD_STEP, outputFingerprint)) {
+                        return
+                    }
+                }
+                cache.updateFingerprint(TEXTURE_PACK_BUILD_STEP, null)
+                cache.updateFingerprint(TEXTURE_PACK_OUTPUT_BUILD_STEP, null)
+            }
+            outputFile.deleteRecursively()
+
             // 1)
             if (bundle.texturePack.isNotEmpty()) {
                 /*
@@ -96,8 +121,31 @@ class ImageWriter(override val module: Module) : ResourceWriterComponent {
                     texturePacker.addImage(key, File(value))
                 }
                 texturePacker.pack(File(outputDir.absolutePath), TEXTURES_PACK_FILE_NAME)
+                if (cache != null) {
+                    cache.updateFingerprint(TEXTURE_PACK_BUILD_STEP, texturePackFingerprint)
+                    cache.updateFingerprint(TEXTURE_PACK_OUTPUT_BUILD_STEP, cache.buildTexturePackOutputFingerprint(outputDir, outputFile))
+                }
             }
         }
     }
 
 }
+
+/*internals*/
+
+private const val TEXTURE_PACK_BUILD_STEP: String = "ImageWriter.texturePack"
+private const val TEXTURE_PACK_OUTPUT_BUILD_STEP: String = "ImageWriter.texturePack.output"
+
+// textures.pack and every page it lists, page blocks are parsed the way SpritesheetReader does, null when any is missing
+private fun BuildCache.buildTexturePackOutputFingerprint(outputDir: File, outputFile: File): String? {
+    if (!outputFile.isFile) return null
+    val fingerprint = Fingerprint(this)
+    fingerprint.addFile(outputFile)
+    for (token in outputFile.readText().splitLines(2)) {
+        if (token.isBlank()) continue
+        val pageFile: File = File(outputDir, token.splitLines()[0].trim())
+        if (!pageFile.isFile) return null
+        fingerprint.addFile(pageFile)
+    }
+    return fingerprint.build()
+}
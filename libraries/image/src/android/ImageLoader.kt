@@ -12,19 +12,34 @@ import featurea.runtime.Module
 import featurea.runtime.import
 import java.io.InputStream
 
+actual class DecodedImage(val bitmap: Bitmap) {
+    actual val byteCount: Long get() = bitmap.byteCount.toLong()
+    actual fun release() = bitmap.recycle()
+}
+
 actual class ImageLoader actual constructor(override val module: Module) : Component {
 
     private val system: System = import()
 
-    actual suspend fun loadImage(image: Image) {
-        val imagePath: String = image.spritesheet.spritePath
+    actual suspend fun decodeImageOrNull(imagePath: String): DecodedImage? {
         val inputStream: InputStream = system.readInputStreamOrNull(imagePath) ?: error("imagePath: $imagePath")
-        val bitmap: Bitmap = BitmapFactory.decodeStream(inputStream)
+        val bitmap: Bitmap = inputStream.use { BitmapFactory.decodeStream(it) }
         val flippedBitmap: Bitmap = bitmap.flip() // IMPORTANT flip
-        GLUtils.texImage2D(TEXTURE_2D, 0, flippedBitmap, 0)
-        flippedBitmap.recycle()
         bitmap.recycle()
+        return DecodedImage(flippedBitmap)
+    }
+
+    actual suspend fun loadImage(image: Image) {
+        val decodedImage: DecodedImage = decodeImageOrNull(image.spritesheet.spritePath) ?: return
+        loadImage(image, decodedImage)
+    }
+
+    // render thread: upload only
+    actual suspend fun loadImage(image: Image, decodedImage: DecodedImage) {
+        val bitmap: Bitmap = decodedImage.bitmap
+        GLUtils.texImage2D(TEXTURE_2D, 0, bitmap, 0)
         image.spritesheet.size.assign(bitmap.width, bitmap.height)
+        decodedImage.release()
     }
 
 }
@@ -15,6 +15,7 @@ import featurea.utils.GIF_CACHE_PATH
 import featurea.utils.extension
 import featurea.utils.hasExtension
 import featurea.utils.normalizedPath
+import kotlin.jvm.Synchronized
 
 class ImageContentType(override val module: Module) : Component, ContentType {
 
@@ -23,32 +24,47 @@ class ImageContentType(override val module: Module) : Component, ContentType {
     private val imageLoader: ImageLoader = import()
     private val spriteCache: SpriteCache = import()
     private val system: System = import()
+    private val decodedImages = mutableMapOf<String, DecodedImage>() // render thread: filled by prefetch commit, emptied by load
+    private val claimedSpritesheetPaths = hashSetOf<String>() // any thread: loaded or being decoded, so shared pages are decoded once
 
-    override suspend fun load(resource: Resource, loadingQueue: ArrayList<String>) {
-        if (resource.path.extension == gifExtension) {
-            if (system.useTexturePack) {
-                val resourceDir: String = "$GIF_CACHE_PATH/${resource.path.normalizedPath.removePrefix("/")}"
-                val spritePaths: MutableList<String> = mutableListOf<String>()
-                for (index in 0 until resource.manifest.frameCount) {
-                    spritePaths.add("${resourceDir}/${index}.png")
-                }
-                for (spritePath in spritePaths) {
-                    loadSprite(spritePath, loadingQueue)
-                }
+    // texture pack sprites are read once from textures.pack before loading, so worker only looks them up
+    override suspend fun prefetch(resource: Resource): ResourcePrefetch? {
+        val imagePaths: List<String> = resource.imagePaths()
+        if (imagePaths.isEmpty()) return null
+        val result = linkedMapOf<String, DecodedImage>()
+        for (imagePath in imagePaths) {
+            val spritesheetPath: String = if (system.useTexturePack) {
+                spriteCache.sprites[imagePath]?.spritesheet?.spritePath ?: imagePath
             } else {
-                for (file in resource.files) {
-                    loadSprite(file, loadingQueue)
-                }
+                imagePath
             }
-            loadingQueue.add(resource.path)
-        }
-        if (resource.path.hasExtension(jpegExtension, jpgExtension, pngExtension)) {
-            if (system.useTexturePack) {
-                loadSprite(resource.path, loadingQueue)
-            } else {
-                loadSprite(resource.manifest.texture, loadingQueue)
+            if (!claimSpritesheet(spritesheetPath)) continue
+            val decodedImage: DecodedImage? = try {
+                imageLoader.decodeImageOrNull(spritesheetPath)
+            } catch (e: Throwable) {
+                null // load decodes again on render thread and throws the actual error
             }
+            if (decodedImage == null) {
+                unclaimSpritesheet(spritesheetPath)
+                continue
+            }
+            result[spritesheetPath] = decodedImage
         }
+        if (result.isEmpty()) return null
+        val byteCount: Long = result.values.sumOf { it.byteCount }
+        return ResourcePrefetch(byteCount) { decodedImages.putAll(result) }
+    }
+
+    override suspend fun load(resource: Resource, loadingQueue: ArrayList<String>) {
+        for (imagePath in resource.imagePaths()) {
+            loadSprite(imagePath, loadingQueue)
+        }
+        if (resource.path.extension == gifExtension) {
+            loadingQueue.add(resource.path)
+        }
+        // spritesheet already loaded by previous resource leaves its decoded pixels unused
+        for (decodedImage in decodedImages.values) decodedImage.release()
+        decodedImages.clear()
     }
 
     override suspend fun release(resource: Resource, releaseQueue: ArrayList<String>) {
@@ -72,11 +88,17 @@ class ImageContentType(override val module: Module) : Component, ContentType {
             gl.textureParameter(TEXTURE_2D, TEXTURE_MAG_FILTER, LINEAR)
             gl.textureParameter(TEXTURE_2D, TEXTURE_WRAP_S, CLAMP_TO_EDGE)
             gl.textureParameter(TEXTURE_2D, TEXTURE_WRAP_T, CLAMP_TO_EDGE)
-            imageLoader.loadImage(image)
+            val decodedImage: DecodedImage? = decodedImages.remove(spritesheet.spritePath)
+            if (decodedImage != null) {
+                imageLoader.loadImage(image, decodedImage)
+            } else {
+                imageLoader.loadImage(image)
+            }
             spriteCache.cacheSpritesheet(spritesheet)
             gl.generateMipmap(TEXTURE_2D)
             gl.bindTexture(TEXTURE_2D, null)
             imageContent[spritesheet.spritePath] = image
+            claimSpritesheet(spritesheet.spritePath)
         }
         loadingQueue.addAll(spritesheet.spritePaths)
     }
@@ -87,6 +109,7 @@ class ImageContentType(override val module: Module) : Component, ContentType {
             releaseQueue.addAll(spritesheet.spritePaths)
             val image: Image? = imageContent.remove(spritesheet.spritePath)
             if (image != null) {
+                unclaimSpritesheet(spritesheet.spritePath)
                 spriteCache.removeSpritesheet(image.spritesheet)
                 gl.deleteTexture(image.texture)
             }
@@ -95,4 +118,29 @@ class ImageContentType(override val module: Module) : Component, ContentType {
         }
     }
 
+    /*internals*/
+
+    @Synchronized
+    private fun claimSpritesheet(spritesheetPath: String): Boolean = claimedSpritesheetPaths.add(spritesheetPath)
+
+    @Synchronized
+    private fun unclaimSpritesheet(spritesheetPath: String) {
+        claimedSpritesheetPaths.remove(spritesheetPath)
+    }
+
+    private fun Resource.imagePaths(): List<String> {
+        if (path.extension == gifExtension) {
+            if (system.useTexturePack) {
+                val resourceDir: String = "$GIF_CACHE_PATH/${path.normalizedPath.removePrefix("/")}"
+                return (0 until manifest.frameCount).map { index -> "${resourceDir}/${index}.png" }
+            } else {
+                return files
+            }
+        }
+        if (path.hasExtension(jpegExtension, jpgExtension, pngExtension)) {
+            return listOf(if (system.useTexturePack) path else manifest.texture)
+        }
+        return emptyList()
+    }
+
 }
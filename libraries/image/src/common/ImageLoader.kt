@@ -3,6 +3,15 @@ package featurea.image
 import featurea.runtime.Component
 import featurea.runtime.Module
 
+// pixels decoded off the render thread, uploaded by ImageLoader.loadImage or given back by release
+expect class DecodedImage {
+    val byteCount: Long
+    fun release()
+}
+
 expect class ImageLoader(module: Module) : Component {
+    // any thread: file I/O and decoding only, null when platform decodes on upload
+    suspend fun decodeImageOrNull(imagePath: String): DecodedImage?
     suspend fun loadImage(image: Image)
+    suspend fun loadImage(image: Image, decodedImage: DecodedImage)
 }
@@ -20,19 +20,30 @@ import java.io.InputStream
 import java.nio.ByteBuffer
 import javax.imageio.ImageIO
 
+actual class DecodedImage(
+    val width: Int,
+    val height: Int,
+    val internalFormat: Int,
+    val format: Int,
+    val alignment: Int,
+    val buffer: ByteBuffer
+) {
+    actual val byteCount: Long get() = buffer.limit().toLong()
+    actual fun release() {} // direct buffer is freed with its last reference
+}
+
 actual class ImageLoader actual constructor(override val module: Module) : Component {
 
     private val gl: OpenglImpl = import(OpenglProxy)
     private val system: System = import()
 
     @Suppress("BlockingMethodInNonBlockingContext")
-    actual suspend fun loadImage(image: Image) {
-        val imagePath: String = image.spritesheet.spritePath
-        // log("[ImageLoader.kt] loadImage: $imagePath")
+    actual suspend fun decodeImageOrNull(imagePath: String): DecodedImage? {
+        // log("[ImageLoader.kt] decodeImageOrNull: $imagePath")
         val inputStream: InputStream? = system.readInputStreamOrNull(imagePath)
         if (inputStream == null) {
             println("Image not found: $imagePath")
-            return
+            return null
         }
         try {
             if (imagePath.endsWith(".png")) {
@@ -44,10 +55,7 @@ actual class ImageLoader actual constructor(override val module: Module) : Compo
                 val buffer: ByteBuffer = createByteBuffer(stride * height)
                 pngDecoder.decodeFlipped(buffer, stride, PNGDecoder.Format.RGBA) // IMPORTANT flip
                 buffer.flip()
-                gl.context.glPixelStorei(UNPACK_ALIGNMENT, alignment)
-                gl.context.glPixelStorei(PACK_ALIGNMENT, 1)
-                gl.context.glTexImage2D(TEXTURE_2D, 0, RGBA, width, height, 0, RGBA, UNSIGNED_BYTE, buffer)
-                image.spritesheet.size.assign(width.toFloat(), height.toFloat())
+                return DecodedImage(width, height, RGBA, RGBA, alignment, buffer)
             } else if (imagePath.endsWith(".jpeg") || imagePath.endsWith(".jpg")) {
                 val bufferedImage: BufferedImage = ImageIO.read(inputStream)
                 val imageWidth: Int = bufferedImage.width
@@ -62,14 +70,28 @@ actual class ImageLoader actual constructor(override val module: Module) : Compo
                 val buffer: ByteBuffer = BufferUtils.createByteBuffer(imageSrc.size)
                 buffer.put(imageSrc)
                 buffer.flip()
-                gl.context.glPixelStorei(UNPACK_ALIGNMENT, 1)
-                gl.context.glPixelStorei(PACK_ALIGNMENT, 1)
-                gl.context.glTexImage2D(TEXTURE_2D, 0, 3, imageWidth, imageHeight, 0, RGB, UNSIGNED_BYTE, buffer)
-                image.spritesheet.size.assign(imageWidth.toFloat(), imageHeight.toFloat())
+                return DecodedImage(imageWidth, imageHeight, 3, RGB, 1, buffer)
             }
+            return null
         } finally {
             inputStream.close()
         }
     }
 
+    actual suspend fun loadImage(image: Image) {
+        val decodedImage: DecodedImage = decodeImageOrNull(image.spritesheet.spritePath) ?: return
+        loadImage(image, decodedImage)
+    }
+
+    // render thread: upload only
+    actual suspend fun loadImage(image: Image, decodedImage: DecodedImage) {
+        gl.context.glPixelStorei(UNPACK_ALIGNMENT, decodedImage.alignment)
+        gl.context.glPixelStorei(PACK_ALIGNMENT, 1)
+        gl.context.glTexImage2D(
+            TEXTURE_2D, 0, decodedImage.internalFormat, decodedImage.width, decodedImage.height, 0,
+            decodedImage.format, UNSIGNED_BYTE, decodedImage.buffer
+        )
+        image.spritesheet.size.assign(decodedImage.width.toFloat(), decodedImage.height.toFloat())
+    }
+
 }
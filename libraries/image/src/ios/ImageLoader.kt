@@ -13,6 +13,12 @@ import platform.CoreGraphics.*
 import platform.UIKit.UIImage
 import platform.gles.glTexImage2D
 
+// UIKit objects stay on the thread that created them, so decoding is left to upload
+actual class DecodedImage private constructor() {
+    actual val byteCount: Long get() = 0
+    actual fun release() {}
+}
+
 // https://github.com/MihaiDamian/Cube-transition-example/blob/master/OpenGLViews/TextureAtlas.m
 @ExperimentalUnsignedTypes
 actual class ImageLoader actual constructor(override val module: Module) : Component {
@@ -20,6 +26,10 @@ actual class ImageLoader actual constructor(override val module: Module) : Compo
     private val gl: Opengl = import(OpenglProxy)
     private val system: System = import()
 
+    actual suspend fun decodeImageOrNull(imagePath: String): DecodedImage? = null
+
+    actual suspend fun loadImage(image: Image, decodedImage: DecodedImage) = loadImage(image)
+
     actual suspend fun loadImage(image: Image) {
         val imagePath: String = image.spritesheet.spritePath
         val imageView: UIImage = UIImage.imageNamed("assets/$imagePath")
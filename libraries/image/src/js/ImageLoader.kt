@@ -15,11 +15,21 @@ import org.khronos.webgl.WebGLRenderingContext.Companion.UNSIGNED_BYTE
 import kotlin.coroutines.suspendCoroutine
 import org.w3c.dom.Image as JsImage
 
+// browser decodes on upload, nothing is decoded ahead
+actual class DecodedImage private constructor() {
+    actual val byteCount: Long get() = 0
+    actual fun release() {}
+}
+
 actual class ImageLoader actual constructor(override val module: Module) : Component {
 
     private val gl: OpenglImpl = import(OpenglProxy) as OpenglImpl
     private val system: System = import()
 
+    actual suspend fun decodeImageOrNull(imagePath: String): DecodedImage? = null
+
+    actual suspend fun loadImage(image: Image, decodedImage: DecodedImage) = loadImage(image)
+
     actual suspend fun loadImage(image: Image) {
         suspendCoroutine<Unit> { continuation ->
             val jsImage: JsImage = JsImage()
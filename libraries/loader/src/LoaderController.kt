@@ -5,9 +5,22 @@ import featurea.app.ApplicationController
 import featurea.content.Content
 import featurea.content.ContentTypeRegistry
 import featurea.content.Resource
+import featurea.content.ResourcePrefetch
 import featurea.runtime.Module
 import featurea.runtime.import
-
+import featurea.utils.getTimeMillis
+import kotlinx.coroutines.CoroutineDispatcher
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.Deferred
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.SupervisorJob
+import kotlinx.coroutines.async
+import kotlinx.coroutines.cancel
+
+/*
+render thread: enqueue, update, finalisation (commit and load) in enqueue order
+ioDispatcher:  prefetch, at most parallelism resources ahead of finalisation
+*/
 class LoaderController(module: Module) : ApplicationController(module) {
 
     private val app: Application = import()
@@ -17,21 +30,37 @@ class LoaderController(module: Module) : ApplicationController(module) {
 
     var isActive = false
         private set
-    private var loadingPool = mutableListOf<String>()
-    private var releasePool = mutableListOf<String>()
-    private var capacity: Float = 0f
-    private val progress: Float get() = if (capacity == 0f) 0f else (capacity - loadingPool.size) / capacity
+    var parallelism: Int = 4
+    var frameBudget: Double = 8.0 // milliseconds of render thread spent on finalisation per frame
+    var ioDispatcher: CoroutineDispatcher = Dispatchers.Default
+    var loadedBytes: Long = 0 // raw counter of the current loading pass, see LoaderListener.updateBytes
+        private set
+    private val loadingPool = linkedSetOf<String>()
+    private val releasePool = linkedSetOf<String>()
+    private val pendingLoads = ArrayDeque<PendingLoad>()
+    private val pendingPaths = hashSetOf<String>()
+    private val loadedPaths = hashSetOf<String>()
+    private val ioScope = CoroutineScope(SupervisorJob())
+    private var capacity: Int = 0
+    private val remainingCount: Int get() = loadingPool.size + pendingLoads.size
+    private val progress: Float get() = if (capacity == 0) 0f else (capacity - remainingCount).toFloat() / capacity
     private val loadingQueue = ArrayList<String>() // just for try todo replace with local variable
     private val releaseQueue = ArrayList<String>() // just for try todo replace with local variable
 
+    override fun onDeleteComponent() {
+        super.onDeleteComponent()
+        ioScope.cancel()
+    }
+
     fun enqueueLoadingPool(resourcesToLoad: List<String>) {
-        loadingPool.addAll(resourcesToLoad)
-        loadingPool = loadingPool.distinct().toMutableList()
+        for (resourcePath in resourcesToLoad) {
+            if (pendingPaths.contains(resourcePath)) continue
+            if (loadingPool.add(resourcePath) && isActive) capacity++
+        }
     }
 
     fun enqueueReleasePool(resourcesToRelease: List<String>) {
         releasePool.addAll(resourcesToRelease)
-        releasePool = releasePool.distinct().toMutableList()
     }
 
     override suspend fun update() {
@@ -41,35 +70,41 @@ class LoaderController(module: Module) : ApplicationController(module) {
 
         if (isActive) {
             // 1. clear all releasePool
-            if (releasePool.isNotEmpty()) {
-                for (resourcePath in releasePool) {
-                    val existingResource: Resource? = content.existingResources[resourcePath]
-                    if (existingResource != null) {
-                        contentTypeRegistry.releaseResource(existingResource, releaseQueue)
-                        releaseQueue.distinct().forEach { releasePool.remove(it) }
-                        releaseQueue.clear()
-                    } else {
-                        releasePool.remove(resourcePath) // just for now todo delete this
-                    }
+            while (releasePool.isNotEmpty()) {
+                val resourcePath: String = releasePool.first()
+                releasePool.remove(resourcePath)
+                val existingResource: Resource? = content.existingResources[resourcePath]
+                if (existingResource != null) {
+                    contentTypeRegistry.releaseResource(existingResource, releaseQueue)
+                    for (releasedPath in releaseQueue) releasePool.remove(releasedPath)
+                    releaseQueue.clear()
                 }
             }
 
-            // 2. load next resource from loadingPool
-            if (loadingPool.isNotEmpty()) {
-                val resourcePath: String = loadingPool[0]
-                try {
-                    val resource: Resource? = content.findResourceOrNull(resourcePath)
-                    if (resource != null) {
-                        contentTypeRegistry.loadResource(resource, loadingQueue)
-                        loadingQueue.distinct().forEach { loadingPool.remove(it) }
-                        loadingQueue.clear()
-                    }
-                } finally {
-                    loadingPool.remove(resourcePath) // IMPORTANT because `palette-desktop.properties`
+            // 2. prefetch next resources from loadingPool
+            while (pendingLoads.size < parallelism && loadingPool.isNotEmpty()) {
+                val resourcePath: String = loadingPool.first()
+                loadingPool.remove(resourcePath)
+                val resource: Resource? = content.findResourceOrNull(resourcePath)
+                val prefetch: Deferred<ResourcePrefetch?>? = if (resource == null) null else ioScope.async(ioDispatcher) {
+                    contentTypeRegistry.prefetchResource(resource)
                 }
+                pendingLoads.addLast(PendingLoad(resourcePath, resource, prefetch))
+                pendingPaths.add(resourcePath)
+            }
+
+            // 3. finalise prefetched resources in enqueue order within frame budget
+            val finishTime: Double = getTimeMillis() + frameBudget
+            while (pendingLoads.isNotEmpty()) {
+                val pendingLoad: PendingLoad = pendingLoads.first()
+                if (pendingLoad.prefetch?.isCompleted == false) break
+                pendingLoads.removeFirst()
+                pendingPaths.remove(pendingLoad.path)
+                finalise(pendingLoad) // IMPORTANT path is removed even if load fails because `palette-desktop.properties`
+                if (getTimeMillis() >= finishTime) break
             }
 
-            // 3. inform ui that loading is progressed
+            // 4. inform ui that loading is progressed
             updateProgress(progress)
         }
 
@@ -84,17 +119,42 @@ class LoaderController(module: Module) : ApplicationController(module) {
 
     private fun activate() {
         isActive = true
-        capacity = loadingPool.size.toFloat()
+        capacity = loadingPool.size
+        loadedBytes = 0
     }
 
     private fun complete() {
         isActive = false
-        capacity = 0f
+        capacity = 0
+        loadedPaths.clear()
+    }
+
+    private suspend fun finalise(pendingLoad: PendingLoad) {
+        val resource: Resource = pendingLoad.resource ?: return
+        if (loadedPaths.contains(pendingLoad.path)) return // already loaded as dependency of previous resource
+
+        // prefetch failure is not reported here, load repeats the I/O on render thread and throws the actual error
+        val resourcePrefetch: ResourcePrefetch? = try {
+            pendingLoad.prefetch?.await()
+        } catch (e: Throwable) {
+            null
+        }
+        if (resourcePrefetch != null) {
+            resourcePrefetch.commit()
+            loadedBytes += resourcePrefetch.byteCount
+        }
+        contentTypeRegistry.loadResource(resource, loadingQueue)
+        for (loadedPath in loadingQueue) {
+            loadedPaths.add(loadedPath)
+            loadingPool.remove(loadedPath)
+        }
+        loadingQueue.clear()
     }
 
     private suspend fun updateProgress(progress: Float) {
         for (listener in loader.listeners) {
             listener.update(progress)
+            listener.updateBytes(loadedBytes)
         }
         if (progress == 1f) {
             // 1. listeners
@@ -118,3 +178,7 @@ class LoaderController(module: Module) : ApplicationController(module) {
     }
 
 }
+
+/*internals*/
+
+private class PendingLoad(val path: String, val resource: Resource?, val prefetch: Deferred<ResourcePrefetch?>?)
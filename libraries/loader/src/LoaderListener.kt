@@ -2,6 +2,12 @@ package featurea.loader
 
 interface LoaderListener {
     fun start() {}
-    fun update(progress: Float) {}
+    fun update(progress: Float) {} // ratio of finalised resources, 0 to 1
+    /*
+    raw counter, not a ratio: bytes read and decoded by prefetch since the current loading pass started
+    a resource reports its size only once it is prefetched, so no total is known before the pass completes;
+    grows monotonically within a pass and starts over from 0 with the next one, use update for a progress bar
+    */
+    fun updateBytes(loadedBytes: Long) {}
     fun complete() {}
 }
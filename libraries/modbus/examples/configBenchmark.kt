@@ -0,0 +1,49 @@
+package featurea.modbus.test
+
+import featurea.modbus.ModbusConfig
+import featurea.modbus.config.Channel
+import featurea.modbus.config.Connection
+import featurea.modbus.config.Directory
+import featurea.modbus.config.Region
+import featurea.modbus.support.DataType
+import featurea.utils.log
+
+// synthetic station of 200 connections with 1000 Float32 holding channels each, timed from inflate to index
+fun configBenchmark() = TestRuntime {
+    val connectionCount = 200
+    val channelCount = 1000
+
+    val inflateStartTime: Long = System.nanoTime()
+    val modbusConfig = ModbusConfig()
+    modbusConfig.directory = Directory {
+        name = "station"
+        for (connectionIndex in 0 until connectionCount) {
+            Connection {
+                name = "connection$connectionIndex"
+                ip = "127.0.0.1"
+                port = 502
+                for (channelIndex in 0 until channelCount) {
+                    Channel {
+                        name = "channel${connectionIndex}_$channelIndex"
+                        region = Region.Holdings
+                        type = DataType.Float32
+                        address = (2 * channelIndex).toShort()
+                    }
+                }
+            }
+        }
+    }
+    val buildStartTime: Long = System.nanoTime()
+    modbusConfig.build()
+    val buildFinishTime: Long = System.nanoTime()
+
+    val channels: List<Channel> = modbusConfig.channels
+    check(channels.size == connectionCount * channelCount)
+    var checksum = 0
+    for (channel in channels) {
+        checksum += channel.connection.port
+    }
+    val connectionFinishTime: Long = System.nanoTime()
+    log("ConfigBenchmark: checksum=$checksum")
+    log("ConfigBenchmark: ${channels.size} channels, inflate ${(buildStartTime - inflateStartTime) / 1_000_000} ms, build ${(buildFinishTime - buildStartTime) / 1_000_000} ms, Channel.connection ${(connectionFinishTime - buildFinishTime) / channels.size} ns")
+}
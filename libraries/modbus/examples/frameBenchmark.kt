@@ -0,0 +1,60 @@
+package featurea.modbus.test
+
+import featurea.modbus.support.DataType
+import featurea.modbus.support.toFloat
+import featurea.modbus.transaction.Request
+import featurea.modbus.transaction.Response
+import featurea.modbus.transaction.ResponsePool
+import featurea.utils.ByteQueue
+import featurea.utils.log
+import java.lang.management.ManagementFactory
+import com.sun.management.ThreadMXBean
+
+// allocated bytes per poll cycle of one 125 register read: encode the request, decode the response, read 62 Float32 channels
+fun frameBenchmark() {
+    val cycleCount = 100_000
+    val registerCount = 125
+    val responseFrame: ByteArray = responseFrame(registerCount)
+    val byteQueue = ByteQueue()
+    val responsePool = ResponsePool()
+    var checksum = 0.0
+
+    fun pollCycle(cycle: Int) {
+        val request: Request = Request.readHoldings(cycle.toShort(), 0, registerCount.toShort())
+        checksum += request.message.size
+        byteQueue.pushAll(responseFrame)
+        val response: Response = responsePool.acquire()
+        check(response.readFrom(byteQueue))
+        for (channelIndex in 0 until registerCount / 2) {
+            checksum += response.toFloat(2 * channelIndex, DataType.Float32)
+        }
+        responsePool.release(response)
+    }
+
+    val threadMXBean = ManagementFactory.getThreadMXBean() as ThreadMXBean
+    val threadId: Long = Thread.currentThread().id
+    repeat(cycleCount) { pollCycle(it) } // warmup
+    val startBytes: Long = threadMXBean.getThreadAllocatedBytes(threadId)
+    val startTime: Long = System.nanoTime()
+    repeat(cycleCount) { pollCycle(it) }
+    val finishTime: Long = System.nanoTime()
+    val allocatedBytes: Long = threadMXBean.getThreadAllocatedBytes(threadId) - startBytes
+    log("FrameBenchmark: checksum=$checksum")
+    log("FrameBenchmark: ${(finishTime - startTime) / cycleCount} ns/cycle, ${allocatedBytes / cycleCount} bytes/cycle (the request message is the only allocation)")
+}
+
+/*internals*/
+
+private fun responseFrame(registerCount: Int): ByteArray {
+    val result = ByteArray(9 + 2 * registerCount)
+    val length: Int = 3 + 2 * registerCount
+    result[4] = (length shr 8).toByte()
+    result[5] = length.toByte()
+    result[6] = 1 // slave id
+    result[7] = 3 // read holding registers
+    result[8] = (2 * registerCount).toByte()
+    for (index in 0 until 2 * registerCount) {
+        result[9 + index] = index.toByte()
+    }
+    return result
+}
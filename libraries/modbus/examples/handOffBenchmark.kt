@@ -0,0 +1,53 @@
+package featurea.modbus.test
+
+import featurea.utils.BufferedMap
+import featurea.utils.SpscQueue
+import featurea.utils.log
+import kotlin.concurrent.thread
+
+// response hand-off between a network thread and the update thread at full speed: BufferedMap as before, SpscQueue now
+fun handOffBenchmark() {
+    val transactionCount = 10_000_000
+    repeat(2) { // warmup
+        bufferedMapHandOff(transactionCount)
+        spscQueueHandOff(transactionCount)
+    }
+    log("HandOffBenchmark: BufferedMap ${bufferedMapHandOff(transactionCount)} transactions/s")
+    log("HandOffBenchmark: SpscQueue ${spscQueueHandOff(transactionCount)} transactions/s")
+}
+
+/*internals*/
+
+private class Completion(val id: Short)
+
+private fun bufferedMapHandOff(transactionCount: Int): Long {
+    val map = BufferedMap<Short, Completion>()
+    val startTime: Long = System.nanoTime()
+    val producer = thread {
+        for (index in 0 until transactionCount) {
+            // transaction ids are bytes in RequestQueue, at most 256 are in flight
+            map.put(index.toByte().toShort(), Completion(index.toShort()))
+        }
+    }
+    while (producer.isAlive) {
+        map.swapBuffers().clear()
+    }
+    map.swapBuffers().clear()
+    return transactionCount * 1_000_000_000L / (System.nanoTime() - startTime)
+}
+
+private fun spscQueueHandOff(transactionCount: Int): Long {
+    val queue = SpscQueue<Completion>(1024)
+    val startTime: Long = System.nanoTime()
+    thread {
+        for (index in 0 until transactionCount) {
+            val completion = Completion(index.toShort())
+            while (!queue.offer(completion)) Thread.yield()
+        }
+    }
+    var consumedCount = 0
+    while (consumedCount < transactionCount) {
+        if (queue.poll() != null) consumedCount++ else Thread.yield()
+    }
+    return transactionCount * 1_000_000_000L / (System.nanoTime() - startTime)
+}
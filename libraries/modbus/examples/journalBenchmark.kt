@@ -0,0 +1,39 @@
+package featurea.modbus.test
+
+import featurea.modbus.MappedJournalStorage
+import featurea.modbus.support.ChannelJournal
+import featurea.utils.log
+import java.io.File
+
+// one week of 1 second samples for 100 channels with a slowly drifting value, then a one day query downsampled to minutes
+fun journalBenchmark() {
+    val channelCount = 100
+    val sampleCount = 7 * 24 * 60 * 60
+    val startTime = 1_600_000_000_000L
+    val file: File = File.createTempFile("journal", ".bin")
+    file.deleteOnExit()
+    val journal = ChannelJournal(MappedJournalStorage(file))
+
+    val appendStartTime: Long = System.nanoTime()
+    for (sampleIndex in 0 until sampleCount) {
+        val time: Long = startTime + sampleIndex * 1000L
+        for (channelIndex in 0 until channelCount) {
+            val value: Double = 20.0 + ((sampleIndex / 60 + channelIndex) % 100) / 10.0
+            journal.append(channelIndex, time, value)
+        }
+    }
+    val appendFinishTime: Long = System.nanoTime()
+    val totalSampleCount: Long = sampleCount.toLong() * channelCount
+    val storageSize: Long = journal.storage.blockCount.toLong() * journal.storage.blockSize
+    log("JournalBenchmark: ${(appendFinishTime - appendStartTime) / totalSampleCount} ns/append, ${storageSize.toDouble() / totalSampleCount} bytes/sample")
+
+    var checksum = 0.0
+    val queryStartTime: Long = System.nanoTime()
+    val from: Long = startTime + 3 * 24 * 60 * 60 * 1000L
+    journal.downsample(channelCount / 2, from, from + 24 * 60 * 60 * 1000L, 60 * 1000L) { _, _, min, max, average ->
+        checksum += min + max + average
+    }
+    val queryFinishTime: Long = System.nanoTime()
+    log("JournalBenchmark: checksum=$checksum, one day downsampled in ${(queryFinishTime - queryStartTime) / 1000} us")
+    journal.close()
+}
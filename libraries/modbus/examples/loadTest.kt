@@ -0,0 +1,17 @@
+package featurea.modbus.test
+
+import featurea.modbus.ModbusClient
+import featurea.modbus.simulator.ModbusLoadTest
+import featurea.utils.log
+
+// 1000 simulated devices of 100 channels polled every second, devices answer within 5..15 ms and fail 1% of reads
+fun loadTest() = TestRuntime {
+    val modbusClient: ModbusClient = module.importComponent()
+    val loadTest = ModbusLoadTest(modbusClient)
+    loadTest.deviceCount = 1000
+    loadTest.channelCount = 100
+    loadTest.latency = 5
+    loadTest.jitter = 10
+    loadTest.errorRate = 0.01
+    log("LoadTest: ${loadTest.run()}")
+}
@@ -5,6 +5,7 @@ import featurea.modbus.config.Connection
 import featurea.modbus.master.Logger
 import featurea.modbus.master.Master
 import featurea.modbus.support.ConnectionProvider
+import featurea.modbus.support.JournalSystem
 import featurea.runtime.*
 
 class ModbusClient constructor(override val module: Module) : Component {
@@ -19,9 +20,11 @@ class ModbusClient constructor(override val module: Module) : Component {
     val masters: Collection<Master> get() = masterMap.values
     val isConnect: Boolean get() = state == ModbusClientState.CONNECT
     val isDestroy: Boolean get() = state == ModbusClientState.DESTROY
+    var wakeUp: () -> Unit = {} // new transactions or responses are waiting
 
     // import
     val connectionProvider: ConnectionProvider = import()
+    val journalSystem: JournalSystem = import()
 
     fun findMasterOrNull(connection: Connection): Master? = masterMap[connection]
 
@@ -121,6 +124,11 @@ class ModbusClient constructor(override val module: Module) : Component {
 
 }
 
+// milliseconds until the next channel group of any master is due
+val ModbusClient.nextPollDelay: Double get() = masters.minOfOrNull { it.nextPollDelay } ?: Double.POSITIVE_INFINITY
+
+val ModbusClient.hasTransactionsInFlight: Boolean get() = masters.any { it.hasTransactionsInFlight }
+
 fun DependencyBuilder.ModbusClientPlugin(plugin: Plugin<ModbusClient>) = install(plugin)
 
 fun ModbusClient.findQuotaChannels(): List<Channel> {
@@ -3,6 +3,7 @@ package featurea.modbus
 import featurea.utils.StringBlock
 import featurea.modbus.config.Channel
 import featurea.modbus.support.MasterNotifier
+import featurea.modbus.transaction.Transaction
 
 interface ModbusClientListener {
     fun onInit() {}
@@ -12,6 +13,7 @@ interface ModbusClientListener {
     fun onDestroy() {}
     fun onTick(elapsedTime: Float) {}
     fun onTickChannel(channel: Channel, elapsedTime: Float, notifier: MasterNotifier) {}
+    fun onResponse(transaction: Transaction) {} // update thread, before the response is released
 }
 
 // constructor
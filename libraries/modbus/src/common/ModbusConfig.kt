@@ -22,9 +22,8 @@ class ModbusConfig(override val module: Module) : Component {
     lateinit var directory: Directory
     var readChannels: ReadChannels? = null
 
-    private val connectionByChannelMap = mutableMapOf<Channel, Connection>()
-    internal fun connectionOf(channel: Channel): Connection = connectionByChannelMap[channel]!!
-    val channels: List<Channel> get() = connectionByChannelMap.keys.toList()
+    private val channelList = ArrayList<Channel>()
+    val channels: List<Channel> get() = channelList
     private val channelMap = linkedMapOf<String, Channel>()
     val connections = linkedSetOf<Connection>()
 
@@ -32,7 +31,9 @@ class ModbusConfig(override val module: Module) : Component {
         // 1. inflate
         traverseNodes { currentConnection, currentChannel ->
             connections.add(currentConnection)
-            connectionByChannelMap[currentChannel] = currentConnection
+            // traverseNodes reports a channel again for each nested node, the connection reference tells the first time
+            if (currentChannel.connectionOrNull == null) channelList.add(currentChannel)
+            currentChannel.connectionOrNull = currentConnection
             if (currentChannel.isLocal) currentChannel.region = Region.Holdings // quickfix todo improve
             val region = currentChannel.region
             if (region != null) {
@@ -44,12 +45,12 @@ class ModbusConfig(override val module: Module) : Component {
         // 2. sort
         for (connection in connections) {
             for (channels in connection.channelByRegionMap.values) {
-                channels.sort { it.address }
+                if (!channels.isSortedByAddress()) channels.sort { it.address } // station files mostly list channels by address already
             }
         }
 
         // 3. index
-        for ((name, channel) in channelMap) {
+        for (channel in channelMap.values) {
             indexScope.indexChannel(channel)
         }
     }
@@ -64,5 +65,16 @@ class ModbusConfig(override val module: Module) : Component {
 
 }
 
+/*internals*/
+
+private fun Collection<Channel>.isSortedByAddress(): Boolean {
+    var previousAddress: Short = Short.MIN_VALUE
+    for (channel in this) {
+        if (channel.address < previousAddress) return false
+        previousAddress = channel.address
+    }
+    return true
+}
+
 // constructor
 fun Component.ModbusConfig(init: ModbusConfig.() -> Unit = {}) = create(init)
@@ -36,7 +36,8 @@ class Channel(module: Module) : Directory(module) {
     val finishAddress: Short get() = (address + registerCount - 1).toShort()
     val registerCount: Short get() = if (hasDiapason) diapason else type.size
     val hasDiapason: Boolean get() = diapason != (-1).toShort()
-    val connection: Connection get() = config.connectionOf(this) // todo precalculate
+    internal var connectionOrNull: Connection? = null // resolved once by ModbusConfig.build
+    val connection: Connection get() = checkNotNull(connectionOrNull)
     val isVirtual: Boolean get() = address.toInt() == -1
     var isEnable: Boolean = false
 
@@ -61,16 +62,6 @@ class Channel(module: Module) : Directory(module) {
         writeNotifiers.add(listener)
     }
 
-    private var updateProgress: Float = 0f
-    var shouldRead: Boolean = false
-    fun updateProgress(elapsedTime: Float) {
-        updateProgress += elapsedTime
-        shouldRead = updateProgress >= updateInterval
-        if (shouldRead) {
-            updateProgress = 0f
-        }
-    }
-
     /*dangerSound*/
 
     var dangerFormula: Formula<Boolean>? = null
@@ -5,17 +5,25 @@ import featurea.runtime.Component
 import featurea.runtime.create
 import featurea.script.Script
 import featurea.socket.SocketConnectionConfig
+import kotlin.jvm.Volatile
 
 class Connection(module: Module) : Directory(module) {
 
     var ip: String? = null
     var port: Int = -1
     var responseTimeout: Int = -1
-    var retriesCount: Int = -1
+    var transactionTimeout: Int = -1 // milliseconds until an unanswered transaction is retried, capped below responseTimeout
+    var retriesCount: Int = -1 // reconnect attempts
+    var transactionRetriesCount: Int = -1 // resends of one unanswered transaction, -1 for MODBUS_DEFAULT_TRANSACTION_RETRIES_COUNT
     var retryTimeout: Int = -1
     var registerCount: Int = -1
-    var hasRequest: Boolean = false
-    var hasResponse: Boolean = false
+    var windowSize: Int = -1
+    var maxGap: Int = -1 // registers a read request may skip between channels, -1 for any
+    var isMultiplexed: Boolean = false
+    @Volatile
+    var hasRequest: Boolean = false // request thread
+    @Volatile
+    var hasResponse: Boolean = false // network thread
     val channelByRegionMap = mutableMapOf<Region, LinkedHashSet<Channel>>()
     val channelCount: Int get() = channelByRegionMap.values.sumBy { it.size }
 
@@ -42,5 +50,6 @@ fun Connection.toSocketConnectionConfig(): SocketConnectionConfig? {
         retriesCount = connection.retriesCount
         responseTimeout = connection.responseTimeout
         retryTimeout = connection.retryTimeout
+        isMultiplexed = connection.isMultiplexed
     }
 }
@@ -0,0 +1,98 @@
+package featurea.modbus.master
+
+import kotlin.jvm.Synchronized
+
+enum class FrameDirection { SEND, RECEIVE }
+
+/*
+request thread:  record (send)
+network thread:  record (receive)
+any thread:      dump
+*/
+// binary ring buffer of raw frames, each record is timestamp (8 bytes), direction (1 byte), size (2 bytes) and the frame itself
+class FrameJournal(val capacity: Int = 64 * 1024) {
+
+    private val buffer: ByteArray = ByteArray(capacity)
+    private var head: Int = 0
+    private var tail: Int = 0
+    private var used: Int = 0
+    var recordCount: Int = 0
+        private set
+
+    @Synchronized
+    fun record(timestamp: Long, direction: FrameDirection, bytes: ByteArray, offset: Int = 0, size: Int = bytes.size - offset) {
+        val recordSize: Int = RECORD_HEADER_SIZE + size
+        if (recordSize > capacity) return
+        while (capacity - used < recordSize) {
+            dropOldest()
+        }
+        var index: Int = tail
+        for (shift in 56 downTo 0 step 8) {
+            buffer[index] = (timestamp shr shift).toByte()
+            index = next(index)
+        }
+        buffer[index] = direction.ordinal.toByte()
+        index = next(index)
+        buffer[index] = (size shr 8).toByte()
+        index = next(index)
+        buffer[index] = size.toByte()
+        index = next(index)
+        for (byteIndex in offset until offset + size) {
+            buffer[index] = bytes[byteIndex]
+            index = next(index)
+        }
+        tail = index
+        used += recordSize
+        recordCount++
+    }
+
+    @Synchronized
+    fun dump(result: StringBuilder = StringBuilder()): StringBuilder {
+        var index: Int = head
+        repeat(recordCount) {
+            var timestamp: Long = 0
+            repeat(8) {
+                timestamp = (timestamp shl 8) or (buffer[index].toLong() and 0xff)
+                index = next(index)
+            }
+            val direction: FrameDirection = FrameDirection.values()[buffer[index].toInt()]
+            index = next(index)
+            val size: Int = ((buffer[index].toInt() and 0xff) shl 8) or (buffer[next(index)].toInt() and 0xff)
+            index = next(next(index))
+            result.append(timestamp).append(' ').append(direction).append(" [")
+            for (byteIndex in 0 until size) {
+                if (byteIndex != 0) result.append(", ")
+                result.append(buffer[index])
+                index = next(index)
+            }
+            result.append("]\n")
+        }
+        return result
+    }
+
+    @Synchronized
+    fun clear() {
+        head = 0
+        tail = 0
+        used = 0
+        recordCount = 0
+    }
+
+    /*internals*/
+
+    private fun dropOldest() {
+        val sizeIndex: Int = (head + 9) % capacity
+        val size: Int = ((buffer[sizeIndex].toInt() and 0xff) shl 8) or (buffer[next(sizeIndex)].toInt() and 0xff)
+        val recordSize: Int = RECORD_HEADER_SIZE + size
+        head = (head + recordSize) % capacity
+        used -= recordSize
+        recordCount--
+    }
+
+    private fun next(index: Int): Int = if (index + 1 == capacity) 0 else index + 1
+
+    companion object {
+        private const val RECORD_HEADER_SIZE: Int = 11
+    }
+
+}
@@ -1,10 +1,15 @@
 package featurea.modbus.master
 
 import featurea.modbus.config.Channel
+import featurea.modbus.master.LoggerLevel.*
 import featurea.modbus.transaction.ChannelGroup
+import featurea.modbus.transaction.Response
 import featurea.modbus.transaction.Transaction
+import featurea.utils.getTimeMillis
 import featurea.utils.nowString
 
+enum class LoggerLevel { DEBUG, INFO, ERROR }
+
 class Logger {
 
     fun interface Source {
@@ -12,26 +17,43 @@ class Logger {
     }
 
     var isEnable: Boolean = false
+    var level: LoggerLevel = LoggerLevel.DEBUG
     val sources = mutableListOf<Source>()
+    var journal: FrameJournal? = null
+
+    fun isLoggable(level: LoggerLevel): Boolean = isEnable && level >= this.level
 
-    fun logThreadStart(ip: String, port: Int) = log("Start thread $ip:$port")
-    fun logThreadStop(ip: String, port: Int) = log("Stop thread $ip:$port")
-    fun logConnect(ip: String, port: Int) = log("Connect $ip:$port")
+    fun logThreadStart(ip: String, port: Int) = log(INFO) { "Start thread $ip:$port" }
+    fun logThreadStop(ip: String, port: Int) = log(INFO) { "Stop thread $ip:$port" }
+    fun logConnect(ip: String, port: Int) = log(INFO) { "Connect $ip:$port" }
     fun logConnectionFailed(ip: String, port: Int, e: Throwable) =
-        log("Error. Connection failed $ip:$port", e)
+        log(ERROR) { "Error. Connection failed $ip:$port" }
 
-    fun logDisconnect(ip: String, port: Int) = log("Disconnect $ip:$port")
+    fun logDisconnect(ip: String, port: Int) = log(INFO) { "Disconnect $ip:$port" }
 
     fun onReconnectSuccessSocketConnection(ip: String, port: Int, responseTimeout: Int, e: Throwable) =
-        log("Error. Reconnect $ip:$port, responseTimeout: $responseTimeout", e)
+        log(ERROR) { "Error. Reconnect $ip:$port, responseTimeout: $responseTimeout" }
 
     fun onReconnectFailedSocketConnection(ip: String, port: Int, responseTimeout: Int, e: Throwable) =
-        log("Error. Reconnect failed $ip:$port, responseTimeout: $responseTimeout", e)
+        log(ERROR) { "Error. Reconnect failed $ip:$port, responseTimeout: $responseTimeout" }
+
+    fun logSend(bytes: ByteArray) {
+        journal?.record(getTimeMillis().toLong(), FrameDirection.SEND, bytes)
+        log(DEBUG) { "send ${bytes.toList()}" }
+    }
 
-    fun logWriteSucceed(transaction: Transaction) {
+    fun logReceive(ip: String?, port: Int, response: Response) {
+        journal?.record(getTimeMillis().toLong(), FrameDirection.RECEIVE, response.frame, 0, response.frameSize)
+        log(DEBUG) { "recv ($ip:$port) $response" }
+    }
+
+    fun logResponseTime(channelGroup: ChannelGroup, transaction: Transaction) =
+        log(DEBUG) { "[Response Time] [${nowString()}] ${channelGroup.debugString(transaction.id)}: ${transaction.deltaTime}ms" }
+
+    fun logWriteSucceed(transaction: Transaction) = log(INFO) {
         val channel = transaction.channel
         val value = channel!!.readValueWithReadFormula
-        log("""[${nowString()}] Write ${channel.debugString(transaction.id)}: $value (${channel.updateInterval}ms)""")
+        """[${nowString()}] Write ${channel.debugString(transaction.id)}: $value (${channel.updateInterval}ms)"""
     }
 
     fun logWriteFormulaEvaluationError(formula: String) {
@@ -39,22 +61,39 @@ class Logger {
     }
 
     fun logReadSuccess(transaction: Transaction) {
+        if (!isLoggable(DEBUG)) return
         val channelGroup = transaction.channelGroup!!
         log("Read succeed channels " + channelGroup.debugString(transaction.id))
         val channels: Collection<Channel> = channelGroup.channels
         for (channel in channels) log("Read ${channel.name}: ${channel.readValueWithReadFormula} (${channel.updateInterval}ms)")
     }
 
-    fun logReadFailed(transaction: Transaction, exceptionCode: Byte, exceptionMessage: String) {
+    fun logReadFailed(transaction: Transaction, exceptionCode: Byte, exceptionMessage: String) = log(ERROR) {
         val channelGroup = transaction.channelGroup!!
-        log("Error. Read failed ${channelGroup.debugString(transaction.id)}, exceptionCode: $exceptionCode,  exceptionMessage: $exceptionMessage")
+        "Error. Read failed ${channelGroup.debugString(transaction.id)}, exceptionCode: $exceptionCode,  exceptionMessage: $exceptionMessage"
+    }
+
+    fun logTimeout(transaction: Transaction) = log(ERROR) {
+        val debugString: String = transaction.channelGroup?.debugString(transaction.id) ?: transaction.channel?.debugString(transaction.id) ?: "${transaction.id}"
+        "Error. Timeout $debugString, retryCount: ${transaction.retryCount}"
     }
 
     fun logReadFormulaEvaluationError(formula: String) {
         error("[${nowString()}] Error. Read formula evaluation $formula")
     }
 
-    fun logDeviceNotValidError(ip: String, port: Int) = log("Error. Device not valid $ip:$port")
+    fun logDeviceNotValidError(ip: String, port: Int) = log(ERROR) { "Error. Device not valid $ip:$port" }
+
+    fun dumpJournal() {
+        val journal: FrameJournal = journal ?: return
+        log(journal.dump().toString())
+    }
+
+    // the message is only built if the level is enabled
+    inline fun log(level: LoggerLevel = DEBUG, message: () -> String) {
+        if (!isLoggable(level)) return
+        log(message())
+    }
 
     fun log(message: String) {
         /*
@@ -68,12 +107,6 @@ class Logger {
         }
     }
 
-    /*internals*/
-
-    private fun log(message: String, e: Throwable) {
-        log(message)
-    }
-
 }
 
 fun Channel.debugString(transactionId: Short): String {
@@ -15,6 +15,7 @@ import featurea.runtime.import
 import featurea.socket.SocketConnection
 import featurea.socket.SocketConnectionConfig
 import featurea.socket.SocketConnectionListener
+import kotlin.jvm.Volatile
 
 class Master(override val module: Module) : Component, SocketConnectionListener() {
 
@@ -25,7 +26,8 @@ class Master(override val module: Module) : Component, SocketConnectionListener(
     var socketConnection: SocketConnection? = null
     private val responseQueue = ResponseQueue(this)
     private val requestQueue = RequestQueue(this)
-    var shouldRequest: Boolean = false
+    @Volatile
+    var shouldRequest: Boolean = false // written by the request and network threads
         internal set
 
     var hasConnection: Boolean = false
@@ -126,14 +128,17 @@ class Master(override val module: Module) : Component, SocketConnectionListener(
         requestQueue.produceWriteRequest(channel, value)
     }
 
-    fun commitTransaction(transactionId: Short): Transaction {
-        return requestQueue.completeCurrentTransaction(transactionId)
+    fun commitTransaction(transactionId: Short): Transaction? {
+        return requestQueue.completeTransaction(transactionId)
     }
 
     fun requestTransactionFromQueue() {
         requestQueue.requestTransactionFromQueue()
     }
 
+    val nextPollDelay: Double get() = requestQueue.nextPollDelay
+    val hasTransactionsInFlight: Boolean get() = requestQueue.hasTransactionsInFlight
+
     fun updateQueues(elapsedTime: Float) {
         requestQueue.produceReadRequests(elapsedTime)
         responseQueue.consumeResponses()
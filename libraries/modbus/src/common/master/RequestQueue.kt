@@ -1,6 +1,7 @@
 package featurea.modbus.master
 
 import featurea.modbus.config.Channel
+import featurea.modbus.config.Connection
 import featurea.modbus.transaction.*
 import featurea.socket.SocketConnection
 import featurea.utils.AtomicByte
@@ -12,25 +13,28 @@ class RequestQueue(private val master: Master) {
 
     private val readTransactionQueue: ArrayDeque<Transaction> = ArrayDeque()
     private val writeTransactionQueue: ArrayDeque<Transaction> = ArrayDeque()
-    private var currentTransaction: Transaction? = null
+    private val retryTransactionQueue: ArrayDeque<Transaction> = ArrayDeque() // ordered by retryTime, every retry waits the same retryTimeout
+    private val transactionWindow: TransactionWindow = TransactionWindow()
+    private val expiredTransactions: MutableList<Transaction> = ArrayList()
     private var currentTransactionId: AtomicByte = AtomicByte()
     private val channelGroups: MutableList<ChannelGroup> = ArrayList()
+    private val pollScheduler: PollScheduler by lazy { PollScheduler(master.connection, master.quota.channelLimit) }
+    val nextPollDelay: Double get() = pollScheduler.nextDelay
+    val hasTransactionsInFlight: Boolean get() = transactionWindow.size > 0 || retryTransactionQueue.isNotEmpty()
 
-    fun completeCurrentTransaction(transactionId: Short): Transaction {
+    fun completeTransaction(transactionId: Short): Transaction? {
         // log("[RequestQueue] response: ${master.connection} ($transactionId)")
-        val currentTransaction: Transaction = currentTransaction ?: error("currentTransaction not defined")
-        check(currentTransaction.id == transactionId) { "transaction id not matched" }
-        val result: Transaction = currentTransaction
-        resetCurrentTransaction()
-        return result
+        return transactionWindow.remove(transactionId)
     }
 
     fun produceReadRequests(elapsedTime: Float) {
-        master.connection.updateChannelGroups(channelGroups, elapsedTime, master.quota.channelLimit)
+        pollScheduler.update(elapsedTime, channelGroups)
+        if (channelGroups.isEmpty()) return
         for (channelGroup in channelGroups) {
             produceReadRequest(channelGroup)
         }
         channelGroups.clear()
+        master.modbusClient.wakeUp()
     }
 
     fun produceReadRequest(channelGroup: ChannelGroup) = master.modbusClient.config.indexScope {
@@ -51,6 +55,7 @@ class RequestQueue(private val master: Master) {
         val request: Request = channel.createWriteRequest(nextTransactionId().toShort(), text)
         val transaction: Transaction = Transaction(request, channel)
         writeTransactionQueue.add(transaction)
+        master.modbusClient.wakeUp()
     }
 
     fun produceWriteRequest(channel: Channel, writeValueWithWriteFormula: Double) {
@@ -58,23 +63,23 @@ class RequestQueue(private val master: Master) {
         val request: Request = channel.createWriteRequest(nextTransactionId().toShort(), writeValueWithWriteFormula)
         val transaction: Transaction = Transaction(request, channel)
         writeTransactionQueue.add(transaction)
+        master.modbusClient.wakeUp()
     }
 
     fun reset() {
         currentTransactionId.setValue(0)
         readTransactionQueue.clear()
         writeTransactionQueue.clear()
+        retryTransactionQueue.clear()
         master.connection.hasRequest = false
-        resetCurrentTransaction() // the line I spent 4 hours on
+        transactionWindow.clear() // the line I spent 4 hours on
     }
 
-    private fun request(transaction: Transaction) {
-        val socketConnection = master.socketConnection ?: return
+    private fun request(socketConnection: SocketConnection, transaction: Transaction) {
         val bytes: ByteArray = transaction.request.message
         transaction.startTime = getTimeMillis().toLong()
 
-        val bytesText: String = bytes.toList().toString()
-        master.logger.log("send $bytesText")
+        master.logger.logSend(bytes)
 
         // log("[RequestQueue] request: ${master.connection} (${transaction.id})")
         if (socketConnection.write(bytes)) {
@@ -85,6 +90,8 @@ class RequestQueue(private val master: Master) {
                 transaction.isReadRequest -> master.readRequestCount++
             }
             // log("[${master}] [${nowString()}] request: complete")
+        } else {
+            transactionWindow.remove(transaction.id)
         }
     }
 
@@ -93,38 +100,62 @@ class RequestQueue(private val master: Master) {
     fun requestTransactionFromQueue() {
         val socketConnection: SocketConnection = master.socketConnection ?: return
         if (!socketConnection.isConnected()) return
-        val currentTransaction: Transaction? = currentTransaction
-        if (currentTransaction != null) {
-            // log("[RequestQueue] cancel: ${master.connection} (${currentTransaction.id})")
-            return
-        }
-        if (writeTransactionQueue.isNotEmpty()) {
-            requestWriteTransactionFromQueue()
-        } else {
-            requestReadTransactionFromQueue()
+        val now: Long = getTimeMillis().toLong()
+        retryExpiredTransactions(now)
+        val windowSize: Int = master.connection.windowSize.coerceIn(1, MODBUS_MAX_WINDOW_SIZE)
+        while (transactionWindow.size < windowSize) {
+            val transaction: Transaction = popTransactionOrNull(now) ?: break
+            if (!transactionWindow.put(transaction)) {
+                // a retried transaction with the same id is still in flight, sending stalls until it completes or expires
+                pushTransactionFirst(transaction)
+                break
+            }
+            request(socketConnection, transaction)
         }
     }
 
-    private fun requestReadTransactionFromQueue() {
-        resetCurrentTransaction()
-        currentTransaction = readTransactionQueue.popOrNull()
-        val currentTransaction = currentTransaction
-        if (currentTransaction != null) {
-            request(currentTransaction)
+    // due retries go first so that a lost response does not reorder the polling cycle
+    private fun popTransactionOrNull(now: Long): Transaction? {
+        val retryTransaction: Transaction? = retryTransactionQueue.firstOrNull()
+        if (retryTransaction != null && retryTransaction.retryTime <= now) return retryTransactionQueue.removeFirst()
+        return writeTransactionQueue.popOrNull() ?: readTransactionQueue.popOrNull()
+    }
+
+    private fun pushTransactionFirst(transaction: Transaction) {
+        when {
+            transaction.retryCount > 0 -> retryTransactionQueue.addFirst(transaction)
+            transaction.isWriteRequest -> writeTransactionQueue.addFirst(transaction)
+            else -> readTransactionQueue.addFirst(transaction)
         }
     }
 
-    private fun requestWriteTransactionFromQueue() {
-        resetCurrentTransaction()
-        currentTransaction = writeTransactionQueue.popOrNull()
-        val currentTransaction = currentTransaction
-        if (currentTransaction != null) {
-            request(currentTransaction)
+    private fun retryExpiredTransactions(now: Long) {
+        val transactionTimeout: Int = transactionTimeout()
+        if (transactionTimeout <= 0) return
+        transactionWindow.removeExpired(now, transactionTimeout.toLong(), expiredTransactions)
+        val connection: Connection = master.connection
+        val transactionRetriesCount: Int = if (connection.transactionRetriesCount >= 0) {
+            connection.transactionRetriesCount
+        } else {
+            MODBUS_DEFAULT_TRANSACTION_RETRIES_COUNT
+        }
+        for (transaction in expiredTransactions) {
+            master.logger.logTimeout(transaction)
+            if (transaction.retryCount < transactionRetriesCount) {
+                transaction.retryCount++
+                transaction.retryTime = now + connection.retryTimeout.coerceAtLeast(0)
+                retryTransactionQueue.addLast(transaction)
+            }
         }
+        expiredTransactions.clear()
     }
 
-    private fun resetCurrentTransaction() {
-        currentTransaction = null
+    // responseTimeout is also the read deadline that reconnects, expiry has to come first so a lost response is retried on the same socket
+    private fun transactionTimeout(): Int {
+        val connection: Connection = master.connection
+        val responseTimeout: Int = connection.responseTimeout
+        val transactionTimeout: Int = if (connection.transactionTimeout > 0) connection.transactionTimeout else responseTimeout / 2
+        return if (responseTimeout > 0) transactionTimeout.coerceAtMost(responseTimeout / 2) else transactionTimeout
     }
 
 }
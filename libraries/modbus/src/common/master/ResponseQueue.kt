@@ -5,46 +5,75 @@ import featurea.modbus.transaction.*
 import featurea.runtime.import
 import featurea.socket.SocketConnectionResponseListener
 import featurea.utils.*
+import kotlin.jvm.Volatile
 
 /*
 graphics thread:  produce, request and consume
-network thread:   response
+network thread:   response, reset
+
+completed read transactions are handed from the network thread to the update thread through a lock-free SpscQueue,
+when it is full the socket stops being read until the update thread has drained it, so other connections sharing the network thread go on,
+reset starts a new generation and the update thread releases transactions of older generations as it drains them
 */
 class ResponseQueue(private val master: Master) : SocketConnectionResponseListener() {
 
-    private val transactionsMap: BufferedMap<Short, Transaction> = BufferedMap()
+    private val completedTransactions: SpscQueue<Transaction> = SpscQueue(MODBUS_COMPLETED_TRANSACTION_CAPACITY)
+    private var pendingTransaction: Transaction? = null // network thread only, waits for room in completedTransactions
+    @Volatile
+    private var isPaused: Boolean = false
+    @Volatile
+    private var generation: Int = 0
+    private val responsePool: ResponsePool = ResponsePool()
     private val modbusClient = master.import<ModbusClient>()
 
     override fun onResponse(byteQueue: ByteQueue) {
+        if (!offerPendingTransaction()) return
         if (byteQueue.isEmpty) {
             log("[${master}] [${nowString()}] byteQueue is empty")
         }
-        var response: Response?
         while (true) {
-            response = Response.readOrNull(byteQueue)
-            if (response == null) {
+            val response: Response = responsePool.acquire()
+            if (!response.readFrameFrom(byteQueue)) {
+                responsePool.release(response)
                 break
             }
-            val transaction: Transaction = master.commitTransaction(response.transactionId)
-            transaction.response = response
-            transaction.finishTime = getTimeMillis().toLong()
-            if (transaction.isReadRequest) {
-                transactionsMap.put(transaction.id, transaction)
-                val responseText: String = response.allBytes.toString()
-                master.logger.log("recv (${master.connection.ip}:${master.connection.port}) $responseText")
+            // every frame on the wire is journaled, before it is decoded and matched to a transaction
+            master.logger.logReceive(master.connection.ip, master.connection.port, response)
+            response.decodeFrame()
+            // late responses of expired transactions are dropped
+            val transaction: Transaction? = master.commitTransaction(response.transactionId)
+            if (transaction == null) {
+                responsePool.release(response)
+                continue
             }
+            transaction.finishTime = getTimeMillis().toLong()
             master.connection.hasResponse = true
             master.shouldRequest = true
+            if (transaction.isReadRequest) {
+                // released by consumeResponses once the channels are updated
+                transaction.response = response
+                transaction.generation = generation
+                pendingTransaction = transaction
+                if (!offerPendingTransaction()) return
+            } else {
+                responsePool.release(response)
+            }
         }
+        modbusClient.wakeUp()
     }
 
     fun consumeResponses() = modbusClient.config.indexScope {
-        val usedRespondedTransactions: MutableMap<Short, Transaction> = transactionsMap.swapBuffers()
-        for (transaction in usedRespondedTransactions.values) {
+        while (true) {
+            val transaction: Transaction = completedTransactions.poll() ?: break
+            if (transaction.generation != generation) {
+                // completed before the connection was reset, its channels are not updated
+                responsePool.release(transaction.response)
+                continue
+            }
             val channelGroup: ChannelGroup? = transaction.channelGroup
             if (channelGroup != null) {
                 with(channelGroup) {
-                    master.logger.log("[Response Time] [${nowString()}] ${channelGroup.debugString(transaction.id)}: ${transaction.deltaTime}ms")
+                    master.logger.logResponseTime(channelGroup, transaction)
                     if (!transaction.response.isError) {
                         if (master.notifier.isNotEmpty) {
                             master.notifier.notify { notificationBuilder ->
@@ -65,13 +94,42 @@ class ResponseQueue(private val master: Master) : SocketConnectionResponseListen
             if (transaction.channel != null && !transaction.response.isError) {
                 master.logger.logWriteSucceed(transaction)
             }
+            for (listener in modbusClient.listeners) {
+                listener.onResponse(transaction)
+            }
+            responsePool.release(transaction.response)
+        }
+        if (isPaused) {
+            isPaused = false
+            master.socketConnection?.resumeResponses()
         }
-        usedRespondedTransactions.clear()
     }
 
     fun reset() {
-        transactionsMap.clear()
+        generation++
+        val pendingTransaction: Transaction? = pendingTransaction
+        if (pendingTransaction != null) {
+            this.pendingTransaction = null
+            responsePool.release(pendingTransaction.response)
+        }
+        isPaused = false
         master.connection.hasResponse = false
     }
 
+    /*internals*/
+
+    // false while completedTransactions is full, the socket is paused until consumeResponses has made room
+    private fun offerPendingTransaction(): Boolean {
+        val transaction: Transaction = pendingTransaction ?: return true
+        if (!completedTransactions.offer(transaction)) {
+            // paused before the flag is raised, so a resume seen by consumeResponses always follows the pause
+            master.socketConnection?.pauseResponses()
+            isPaused = true
+            modbusClient.wakeUp()
+            return false
+        }
+        pendingTransaction = null
+        return true
+    }
+
 }
@@ -0,0 +1,84 @@
+package featurea.modbus.master
+
+import featurea.modbus.transaction.Transaction
+import kotlin.jvm.Synchronized
+
+/*
+request thread:  put and removeExpired
+network thread:  remove
+transaction ids are single byte counter values, slot is `id and SLOT_MASK` so nothing is boxed on lookup;
+a retried transaction can still be in flight when the counter wraps around to its id,
+put refuses the newer one then because a response could not tell the two apart
+*/
+class TransactionWindow {
+
+    private val transactions: Array<Transaction?> = arrayOfNulls(SLOT_COUNT)
+    private val occupiedSlots: IntArray = IntArray(SLOT_COUNT) // dense, removeExpired visits only transactions in flight
+    private val slotPositions: IntArray = IntArray(SLOT_COUNT) // slot to its position in occupiedSlots
+
+    var size: Int = 0
+        @Synchronized get
+        private set
+
+    // false when the slot is taken by another transaction
+    @Synchronized
+    fun put(transaction: Transaction): Boolean {
+        val slot: Int = transaction.id.toInt() and SLOT_MASK
+        val occupyingTransaction: Transaction? = transactions[slot]
+        if (occupyingTransaction != null) return occupyingTransaction === transaction
+        occupiedSlots[size] = slot
+        slotPositions[slot] = size
+        size++
+        transactions[slot] = transaction
+        return true
+    }
+
+    @Synchronized
+    fun remove(transactionId: Short): Transaction? {
+        val slot: Int = transactionId.toInt() and SLOT_MASK
+        val transaction: Transaction = transactions[slot] ?: return null
+        if (transaction.id != transactionId) return null // response id from the wire is out of counter range
+        removeSlot(slot)
+        return transaction
+    }
+
+    @Synchronized
+    fun removeExpired(now: Long, timeout: Long, result: MutableList<Transaction>) {
+        var position: Int = 0
+        while (position < size) {
+            val slot: Int = occupiedSlots[position]
+            val transaction: Transaction = transactions[slot]!!
+            if (now - transaction.startTime >= timeout) {
+                removeSlot(slot) // last occupied slot moves here, so position is visited again
+                result.add(transaction)
+            } else {
+                position++
+            }
+        }
+    }
+
+    @Synchronized
+    fun clear() {
+        for (position in 0 until size) {
+            transactions[occupiedSlots[position]] = null
+        }
+        size = 0
+    }
+
+    /*internals*/
+
+    private fun removeSlot(slot: Int) {
+        transactions[slot] = null
+        val position: Int = slotPositions[slot]
+        size--
+        val lastSlot: Int = occupiedSlots[size]
+        occupiedSlots[position] = lastSlot
+        slotPositions[lastSlot] = position
+    }
+
+}
+
+/*internals*/
+
+private const val SLOT_COUNT: Int = 256
+private const val SLOT_MASK: Int = SLOT_COUNT - 1
@@ -44,9 +44,14 @@ class DirectoryDocket(override val module: Module) : Component, Script {
                                 "ip" -> ip = value
                                 "port" -> port = value.toInt()
                                 "responseTimeout" -> responseTimeout = value.toInt()
+                                "transactionTimeout" -> transactionTimeout = value.toInt()
                                 "retriesCount" -> retriesCount = value.toInt()
+                                "transactionRetriesCount" -> transactionRetriesCount = value.toInt()
                                 "retryTimeout" -> retryTimeout = value.toInt()
                                 "registerCount" -> registerCount = value.toInt()
+                                "windowSize" -> windowSize = value.toInt()
+                                "maxGap" -> maxGap = value.toInt()
+                                "isMultiplexed" -> isMultiplexed = value.toBoolean()
                             }
                         }
                         if (this is Channel) {
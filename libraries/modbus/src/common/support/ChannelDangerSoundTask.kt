@@ -2,6 +2,8 @@ package featurea.modbus.support
 
 import featurea.System
 import featurea.audio.Audio
+import featurea.formula.Formula
+import featurea.formula.FormulaVariable
 import featurea.modbus.ModbusClient
 import featurea.modbus.ModbusClientListener
 import featurea.modbus.config.Channel
@@ -14,6 +16,8 @@ class DangerService(val channel: Channel) {
     var checkDangerProgress: Double = 0.0
     val hasDangerFeature: Boolean get() = channel.dangerFormula != null && channel.dangerSound != null
     var hasDangerSound: Boolean = true
+    var boundDangerFormula: Formula<Boolean>? = null
+    var boundDangerValue: FormulaVariable? = null
 }
 
 class ChannelDangerSoundTask(override val module: Module) : Component {
@@ -47,8 +51,12 @@ private fun ModbusClient.checkDanger(channel: Channel, dt: Float) = config.index
         val dangerFormula = channel.dangerFormula ?: return@indexScope
         val dangerSound = channel.dangerSound ?: return@indexScope
 
-        dangerFormula.setVariable("\${value}", channel.readValueWithReadFormula)
-        val shouldPlaySound = dangerFormula.calculate()
+        if (dangerFormula !== dangerService.boundDangerFormula) {
+            dangerService.boundDangerFormula = dangerFormula
+            dangerService.boundDangerValue = dangerFormula.compiled.variable(FORMULA_VALUE_VARIABLE)
+        }
+        dangerService.boundDangerValue?.value = channel.readValueWithReadFormula
+        val shouldPlaySound = dangerFormula.compiled.calculateBoolean()
         if (shouldPlaySound) {
             if (channel.checkDangerPeriod != 0.0 || !dangerService.hasDangerSound) {
                 val system: System = channel.import()
@@ -1,6 +1,8 @@
 package featurea.modbus.support
 
-import featurea.utils.calibrateByFractionSizeToString
+import featurea.formula.Formula
+import featurea.formula.FormulaVariable
+import featurea.utils.roundByFractionSize
 import featurea.modbus.config.Channel
 
 @OptIn(ExperimentalStdlibApi::class)
@@ -10,6 +12,10 @@ class ChannelFormula(val channel: Channel, val indexScope: IndexScope) {
         private set
     var hasWriteFormulaError: Boolean = false
         private set
+    private var boundReadFormula: Formula<Double>? = null
+    private var boundReadValue: FormulaVariable? = null
+    private var boundWriteFormula: Formula<Double>? = null
+    private var boundWriteValue: FormulaVariable? = null
 
     fun applyWriteValueWithoutWriteFormula(writeValueWithoutWriteFormula: Double): Double = indexScope {
         var writeValueWithWriteFormula: Double = writeValueWithoutWriteFormula
@@ -17,8 +23,12 @@ class ChannelFormula(val channel: Channel, val indexScope: IndexScope) {
         var result = writeValueWithoutWriteFormula
         if (writeFormula != null) {
             try {
-                writeFormula.setVariable("\${value}", result)
-                result = writeFormula.calculate()
+                if (writeFormula !== boundWriteFormula) {
+                    boundWriteFormula = writeFormula
+                    boundWriteValue = writeFormula.compiled.variable(FORMULA_VALUE_VARIABLE)
+                }
+                boundWriteValue?.value = result
+                result = writeFormula.compiled.calculateDouble()
                 hasWriteFormulaError = false
             } catch (e: Throwable) {
                 hasWriteFormulaError = true
@@ -37,18 +47,24 @@ class ChannelFormula(val channel: Channel, val indexScope: IndexScope) {
         var result: Double = readValueWithoutReadFormula
         if (readFormula != null) {
             try {
-                readFormula.setVariable("\${value}", readValueWithoutReadFormula)
-                result = readFormula.calculate()
+                if (readFormula !== boundReadFormula) {
+                    boundReadFormula = readFormula
+                    boundReadValue = readFormula.compiled.variable(FORMULA_VALUE_VARIABLE)
+                }
+                boundReadValue?.value = readValueWithoutReadFormula
+                result = readFormula.compiled.calculateDouble()
                 hasReadFormulaError = false
             } catch (e: Throwable) {
                 hasReadFormulaError = true
             }
         }
         if (!hasReadFormulaError) {
-            result = result.calibrateByFractionSizeToString(channel.fractionSize).toDouble()
+            result = result.roundByFractionSize(channel.fractionSize)
             channel.readValueWithReadFormula = result
         } else {
             /*onReadFormulaError()*/
         }
     }
 }
+
+const val FORMULA_VALUE_VARIABLE: String = "\${value}"
@@ -0,0 +1,402 @@
+package featurea.modbus.support
+
+import featurea.modbus.config.Channel
+import kotlin.jvm.Synchronized
+
+fun interface JournalVisitor {
+    fun visit(time: Long, value: Double)
+}
+
+fun interface JournalBucketVisitor {
+    fun visit(startTime: Long, count: Int, min: Double, max: Double, average: Double)
+}
+
+/*
+update thread: append
+any thread:    query, downsample
+
+columnar Gorilla style time series of channel values keyed by Channel.index:
+- every block of JournalStorage belongs to one channel and holds a timestamp column and a value column
+- timestamps are delta-of-delta encoded, a steady poll interval costs one bit per sample
+- values are XOR-ed with the previous value and only the meaningful bits are kept
+- block header: channel index + 1 (4 bytes), sample count (4), first time (8), last time (8), time bit count (4), value bit count (4)
+- the header is rewritten after every append, so a reopened storage is readable up to the last sample;
+  on reopen the tail of every channel is decoded from its last block, appending goes on in that block
+  and a sample older than the last one is still rejected
+*/
+class ChannelJournal(val storage: JournalStorage) {
+
+    private val blockSize: Int = storage.blockSize
+    private val timeColumnSize: Int = (blockSize - BLOCK_HEADER_SIZE) / 4
+    private val valueColumnOffset: Int = BLOCK_HEADER_SIZE + timeColumnSize
+    private val valueColumnSize: Int = blockSize - valueColumnOffset
+    private val blocksByChannel = ArrayList<MutableList<Int>?>()
+    private val tails = ArrayList<JournalTail?>()
+    private val timeCursor = BitCursor()
+    private val valueCursor = BitCursor()
+    private val readTail = JournalTail()
+
+    init {
+        check(valueColumnSize * 8 >= MAX_VALUE_BIT_COUNT && timeColumnSize * 8 >= MAX_TIME_BIT_COUNT)
+        for (blockIndex in 0 until storage.blockCount) {
+            val channelIndex: Int = storage.getInt(blockIndex, CHANNEL_OFFSET) - 1
+            if (channelIndex < 0) continue
+            blocksOf(channelIndex).add(blockIndex)
+        }
+        for (channelIndex in blocksByChannel.indices) {
+            val blocks: List<Int> = blocksByChannel[channelIndex] ?: continue
+            restoreTail(channelIndex, blocks)
+        }
+    }
+
+    fun append(channel: Channel, time: Long, value: Double): Boolean {
+        return append(channel.index, time, value)
+    }
+
+    fun query(channel: Channel, from: Long, to: Long, visitor: JournalVisitor) {
+        query(channel.index, from, to, visitor)
+    }
+
+    fun downsample(channel: Channel, from: Long, to: Long, bucketSize: Long, visitor: JournalBucketVisitor) {
+        downsample(channel.index, from, to, bucketSize, visitor)
+    }
+
+    // false when time is older than the last sample of the channel, the journal is append-only
+    @Synchronized
+    fun append(channelIndex: Int, time: Long, value: Double): Boolean {
+        val tail: JournalTail = tailOf(channelIndex)
+        if (time < tail.lastTime) return false
+        val valueBits: Long = value.toRawBits()
+        if (tail.blockIndex == -1 || !tail.hasRoom()) {
+            openBlock(channelIndex, tail, time, valueBits)
+            return true
+        }
+
+        // time column
+        val delta: Long = time - tail.lastTime
+        val deltaOfDelta: Long = delta - tail.lastDelta
+        timeCursor.reset(tail.blockIndex, BLOCK_HEADER_SIZE, tail.timeBitCount)
+        when (deltaOfDelta) {
+            0L -> timeCursor.write(0, 1)
+            in -64L..63L -> {
+                timeCursor.write(0b10, 2)
+                timeCursor.write(deltaOfDelta, 7)
+            }
+            in -256L..255L -> {
+                timeCursor.write(0b110, 3)
+                timeCursor.write(deltaOfDelta, 9)
+            }
+            in -2048L..2047L -> {
+                timeCursor.write(0b1110, 4)
+                timeCursor.write(deltaOfDelta, 12)
+            }
+            else -> {
+                timeCursor.write(0b1111, 4)
+                timeCursor.write(deltaOfDelta, 64)
+            }
+        }
+
+        // value column
+        val xor: Long = valueBits xor tail.lastValueBits
+        valueCursor.reset(tail.blockIndex, valueColumnOffset, tail.valueBitCount)
+        if (xor == 0L) {
+            valueCursor.write(0, 1)
+        } else {
+            val leadingZeros: Int = minOf(xor.countLeadingZeroBits(), 31)
+            val trailingZeros: Int = xor.countTrailingZeroBits()
+            if (tail.leadingZeros != -1 && leadingZeros >= tail.leadingZeros && trailingZeros >= tail.trailingZeros) {
+                // fits into the previous window of meaningful bits
+                valueCursor.write(0b10, 2)
+                valueCursor.write(xor ushr tail.trailingZeros, 64 - tail.leadingZeros - tail.trailingZeros)
+            } else {
+                val meaningfulBitCount: Int = 64 - leadingZeros - trailingZeros
+                valueCursor.write(0b11, 2)
+                valueCursor.write(leadingZeros.toLong(), 5)
+                valueCursor.write((meaningfulBitCount - 1).toLong(), 6)
+                valueCursor.write(xor ushr trailingZeros, meaningfulBitCount)
+                tail.leadingZeros = leadingZeros
+                tail.trailingZeros = trailingZeros
+            }
+        }
+
+        tail.count++
+        tail.lastTime = time
+        tail.lastDelta = delta
+        tail.lastValueBits = valueBits
+        tail.timeBitCount = timeCursor.position
+        tail.valueBitCount = valueCursor.position
+        writeHeader(tail)
+        return true
+    }
+
+    // visits the samples of [from, to] in time order
+    @Synchronized
+    fun query(channelIndex: Int, from: Long, to: Long, visitor: JournalVisitor) {
+        val blocks: List<Int> = blocksByChannel.getOrNull(channelIndex) ?: return
+        for (index in firstBlockIndex(blocks, from) until blocks.size) {
+            val blockIndex: Int = blocks[index]
+            if (storage.getLong(blockIndex, FIRST_TIME_OFFSET) > to) break
+            readBlock(blockIndex, from, to, visitor)
+        }
+    }
+
+    // aggregates the samples of [from, to] into buckets of bucketSize milliseconds aligned to from, empty buckets are skipped
+    fun downsample(channelIndex: Int, from: Long, to: Long, bucketSize: Long, visitor: JournalBucketVisitor) {
+        check(bucketSize > 0)
+        val bucket = JournalBucket(from, bucketSize, visitor)
+        query(channelIndex, from, to, bucket)
+        bucket.flush()
+    }
+
+    @Synchronized
+    fun flush() {
+        storage.flush()
+    }
+
+    @Synchronized
+    fun close() {
+        storage.close()
+    }
+
+    /*internals*/
+
+    private fun blocksOf(channelIndex: Int): MutableList<Int> {
+        while (blocksByChannel.size <= channelIndex) blocksByChannel.add(null)
+        return blocksByChannel[channelIndex] ?: ArrayList<Int>().also { blocksByChannel[channelIndex] = it }
+    }
+
+    private fun tailOf(channelIndex: Int): JournalTail {
+        while (tails.size <= channelIndex) tails.add(null)
+        return tails[channelIndex] ?: JournalTail().also { tails[channelIndex] = it }
+    }
+
+    private fun JournalTail.hasRoom(): Boolean {
+        return timeBitCount + MAX_TIME_BIT_COUNT <= timeColumnSize * 8 && valueBitCount + MAX_VALUE_BIT_COUNT <= valueColumnSize * 8
+    }
+
+    private fun openBlock(channelIndex: Int, tail: JournalTail, time: Long, valueBits: Long) {
+        val blockIndex: Int = storage.allocateBlock()
+        storage.putInt(blockIndex, CHANNEL_OFFSET, channelIndex + 1)
+        storage.putLong(blockIndex, FIRST_TIME_OFFSET, time)
+        valueCursor.reset(blockIndex, valueColumnOffset, 0)
+        valueCursor.write(valueBits, 64)
+        tail.blockIndex = blockIndex
+        tail.count = 1
+        tail.lastTime = time
+        tail.lastDelta = 0
+        tail.lastValueBits = valueBits
+        tail.leadingZeros = -1
+        tail.trailingZeros = 0
+        tail.timeBitCount = 0
+        tail.valueBitCount = valueCursor.position
+        writeHeader(tail)
+        blocksOf(channelIndex).add(blockIndex)
+    }
+
+    private fun writeHeader(tail: JournalTail) {
+        val blockIndex: Int = tail.blockIndex
+        storage.putLong(blockIndex, LAST_TIME_OFFSET, tail.lastTime)
+        storage.putInt(blockIndex, TIME_BIT_COUNT_OFFSET, tail.timeBitCount)
+        storage.putInt(blockIndex, VALUE_BIT_COUNT_OFFSET, tail.valueBitCount)
+        storage.putInt(blockIndex, COUNT_OFFSET, tail.count) // IMPORTANT goes last
+    }
+
+    // binary search of the first block that ends at or after from
+    private fun firstBlockIndex(blocks: List<Int>, from: Long): Int {
+        var low: Int = 0
+        var high: Int = blocks.size
+        while (low < high) {
+            val middle: Int = (low + high) ushr 1
+            if (storage.getLong(blocks[middle], LAST_TIME_OFFSET) < from) low = middle + 1 else high = middle
+        }
+        return low
+    }
+
+    private fun readBlock(blockIndex: Int, from: Long, to: Long, visitor: JournalVisitor) {
+        val count: Int = storage.getInt(blockIndex, COUNT_OFFSET)
+        if (count == 0) return
+        val sample: JournalTail = readTail
+        sample.startDecoding(blockIndex)
+        while (true) {
+            if (sample.lastTime > to) return
+            if (sample.lastTime >= from) visitor.visit(sample.lastTime, Double.fromBits(sample.lastValueBits))
+            if (sample.count == count) return
+            sample.decodeNext()
+        }
+    }
+
+    // the last block with samples gives the encoder state back
+    private fun restoreTail(channelIndex: Int, blocks: List<Int>) {
+        for (index in blocks.indices.reversed()) {
+            val blockIndex: Int = blocks[index]
+            val count: Int = storage.getInt(blockIndex, COUNT_OFFSET)
+            if (count == 0) continue
+            val tail: JournalTail = tailOf(channelIndex)
+            tail.startDecoding(blockIndex)
+            while (tail.count < count) tail.decodeNext()
+            tail.timeBitCount = timeCursor.position
+            tail.valueBitCount = valueCursor.position
+            // an append interrupted before its count was written leaves bits behind the last sample
+            timeCursor.clearRest(timeColumnSize)
+            valueCursor.clearRest(valueColumnSize)
+            writeHeader(tail)
+            return
+        }
+    }
+
+    // positions the cursors right after the first sample of the block
+    private fun JournalTail.startDecoding(blockIndex: Int) {
+        timeCursor.reset(blockIndex, BLOCK_HEADER_SIZE, 0)
+        valueCursor.reset(blockIndex, valueColumnOffset, 0)
+        this.blockIndex = blockIndex
+        count = 1
+        lastTime = storage.getLong(blockIndex, FIRST_TIME_OFFSET)
+        lastDelta = 0
+        lastValueBits = valueCursor.read(64)
+        leadingZeros = -1
+        trailingZeros = 0
+    }
+
+    // mirrors append
+    private fun JournalTail.decodeNext() {
+        val deltaOfDelta: Long = when {
+            timeCursor.read(1) == 0L -> 0
+            timeCursor.read(1) == 0L -> timeCursor.readSigned(7)
+            timeCursor.read(1) == 0L -> timeCursor.readSigned(9)
+            timeCursor.read(1) == 0L -> timeCursor.readSigned(12)
+            else -> timeCursor.read(64)
+        }
+        lastDelta += deltaOfDelta
+        lastTime += lastDelta
+        if (valueCursor.read(1) != 0L) {
+            if (valueCursor.read(1) != 0L) {
+                leadingZeros = valueCursor.read(5).toInt()
+                val meaningfulBitCount: Int = valueCursor.read(6).toInt() + 1
+                trailingZeros = 64 - leadingZeros - meaningfulBitCount
+            }
+            lastValueBits = lastValueBits xor (valueCursor.read(64 - leadingZeros - trailingZeros) shl trailingZeros)
+        }
+        count++
+    }
+
+    // encoder state of the block a channel is currently appending to
+    private class JournalTail {
+        var blockIndex: Int = -1
+        var count: Int = 0
+        var lastTime: Long = Long.MIN_VALUE
+        var lastDelta: Long = 0
+        var lastValueBits: Long = 0
+        var leadingZeros: Int = -1
+        var trailingZeros: Int = 0
+        var timeBitCount: Int = 0
+        var valueBitCount: Int = 0
+    }
+
+    // bit stream over one column of one block, bits are packed most significant first
+    private inner class BitCursor {
+
+        private var blockIndex: Int = -1
+        private var offset: Int = 0
+        var position: Int = 0
+            private set
+
+        fun reset(blockIndex: Int, offset: Int, position: Int) {
+            this.blockIndex = blockIndex
+            this.offset = offset
+            this.position = position
+        }
+
+        // IMPORTANT relies on the block being zero filled
+        fun write(value: Long, bitCount: Int) {
+            var remaining: Int = bitCount
+            while (remaining > 0) {
+                val byteOffset: Int = offset + (position ushr 3)
+                val freeBitCount: Int = 8 - (position and 7)
+                val chunkSize: Int = minOf(freeBitCount, remaining)
+                val chunk: Int = ((value ushr (remaining - chunkSize)).toInt()) and ((1 shl chunkSize) - 1)
+                val current: Int = storage.getByte(blockIndex, byteOffset).toInt()
+                storage.putByte(blockIndex, byteOffset, (current or (chunk shl (freeBitCount - chunkSize))).toByte())
+                position += chunkSize
+                remaining -= chunkSize
+            }
+        }
+
+        fun read(bitCount: Int): Long {
+            var result: Long = 0
+            var remaining: Int = bitCount
+            while (remaining > 0) {
+                val byteOffset: Int = offset + (position ushr 3)
+                val availableBitCount: Int = 8 - (position and 7)
+                val chunkSize: Int = minOf(availableBitCount, remaining)
+                val byte: Int = storage.getByte(blockIndex, byteOffset).toInt() and 0xff
+                val chunk: Int = (byte ushr (availableBitCount - chunkSize)) and ((1 shl chunkSize) - 1)
+                result = (result shl chunkSize) or chunk.toLong()
+                position += chunkSize
+                remaining -= chunkSize
+            }
+            return result
+        }
+
+        fun readSigned(bitCount: Int): Long = (read(bitCount) shl (64 - bitCount)) shr (64 - bitCount)
+
+        // zero fills the column of columnSize bytes after position, so write can go on from there
+        fun clearRest(columnSize: Int) {
+            var byteOffset: Int = offset + (position ushr 3)
+            val usedBitCount: Int = position and 7
+            if (usedBitCount != 0) {
+                val current: Int = storage.getByte(blockIndex, byteOffset).toInt() and 0xff
+                val cleared: Int = current and (0xff shl (8 - usedBitCount)) and 0xff
+                if (cleared != current) storage.putByte(blockIndex, byteOffset, cleared.toByte())
+                byteOffset++
+            }
+            for (index in byteOffset until offset + columnSize) {
+                if (storage.getByte(blockIndex, index) != 0.toByte()) storage.putByte(blockIndex, index, 0)
+            }
+        }
+
+    }
+
+    private class JournalBucket(val from: Long, val bucketSize: Long, val visitor: JournalBucketVisitor) : JournalVisitor {
+
+        private var startTime: Long = Long.MIN_VALUE
+        private var count: Int = 0
+        private var min: Double = 0.0
+        private var max: Double = 0.0
+        private var sum: Double = 0.0
+
+        override fun visit(time: Long, value: Double) {
+            val bucketStartTime: Long = from + (time - from) / bucketSize * bucketSize
+            if (bucketStartTime != startTime) {
+                flush()
+                startTime = bucketStartTime
+                min = value
+                max = value
+            }
+            count++
+            if (value < min) min = value
+            if (value > max) max = value
+            sum += value
+        }
+
+        fun flush() {
+            if (count == 0) return
+            visitor.visit(startTime, count, min, max, sum / count)
+            count = 0
+            sum = 0.0
+        }
+
+    }
+
+    companion object {
+        private const val CHANNEL_OFFSET: Int = 0
+        private const val COUNT_OFFSET: Int = 4
+        private const val FIRST_TIME_OFFSET: Int = 8
+        private const val LAST_TIME_OFFSET: Int = 16
+        private const val TIME_BIT_COUNT_OFFSET: Int = 24
+        private const val VALUE_BIT_COUNT_OFFSET: Int = 28
+        private const val BLOCK_HEADER_SIZE: Int = 32
+        private const val MAX_TIME_BIT_COUNT: Int = 4 + 64
+        private const val MAX_VALUE_BIT_COUNT: Int = 2 + 5 + 6 + 64
+    }
+
+}
@@ -67,7 +67,7 @@ class Float32(val initialValue: Float) {
 
 /*internals*/
 
-private fun normalize(floatValue: Float, floatMin: Float, floatMax: Float): Float {
+internal fun normalize(floatValue: Float, floatMin: Float, floatMax: Float): Float {
     val value = floatValue.toDouble()
     val min = floatMin.toDouble()
     val max = floatMax.toDouble()
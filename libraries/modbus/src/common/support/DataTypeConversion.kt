@@ -1,5 +1,6 @@
 package featurea.modbus.support
 
+import featurea.modbus.transaction.Response
 import featurea.utils.Encoding.BIG_ENDIAN
 import featurea.utils.encodeToFloat
 import featurea.utils.encodeToInt
@@ -35,6 +36,30 @@ fun ShortArray.toFloat(type: DataType): Float {
     }
 }
 
+// same as registers(registerIndex, type.size).toFloat(type) but reads the registers straight from the frame
+fun Response.toFloat(registerIndex: Int, type: DataType): Float {
+    val response: Response = this
+    when (type) {
+        DataType.Int16 -> {
+            return normalize(response.register(registerIndex).toFloat(), Int16.MIN_VALUE, Int16.MAX_VALUE)
+        }
+        DataType.UInt16 -> {
+            return normalize(response.register(registerIndex).toFloat(), UInt16.MIN_VALUE, UInt16.MAX_VALUE)
+        }
+        DataType.Int32 -> {
+            val initialValue = response.registerInt(registerIndex).toFloat()
+            return normalize(initialValue, Int32.MIN_VALUE, Int32.MAX_VALUE)
+        }
+        DataType.UInt32 -> {
+            val initialValue = response.registerInt(registerIndex).toFloat()
+            return normalize(initialValue, UInt32.MIN_VALUE, UInt32.MAX_VALUE)
+        }
+        DataType.Float32 -> {
+            return Float.fromBits(response.registerInt(registerIndex))
+        }
+    }
+}
+
 fun Float.toShortArray(type: DataType): ShortArray {
     val initialValue: Float = this
     val normalizedValue: Float = type.normalize(initialValue)
@@ -46,3 +71,12 @@ fun Float.toShortArray(type: DataType): ShortArray {
         DataType.Float32 -> normalizedValue.encodeToTwoShorts(encoding = BIG_ENDIAN)
     }
 }
+
+/*internals*/
+
+// big endian like TwoShorts.encodeToInt(BIG_ENDIAN)
+private fun Response.registerInt(registerIndex: Int): Int {
+    val first: Int = register(registerIndex).toInt() and 0xffff
+    val second: Int = register(registerIndex + 1).toInt() and 0xffff
+    return (first shl 16) or second
+}
@@ -17,12 +17,14 @@ class IndexScope {
     val Channel.dangerService: DangerService get() = dangerServices[index]
     val Channel.journalService: JournalService get() = journalServices[index]
     val Channel.formulaService: ChannelFormula get() = formulaServices[index]
+    var journal: ChannelJournal? = null
 
     fun indexChannel(channel: Channel) {
-        if (channels.contains(channel)) {
+        // identity check, the index is assigned once
+        if (channel.index != -1) {
             breakpoint()
         }
-        check(!channels.contains(channel))
+        check(channel.index == -1)
         channels.add(channel)
         channel.index = channels.size - 1
         dangerServices.add(DangerService(channel))
@@ -37,7 +39,7 @@ class IndexScope {
     val Master.quotaChannels: MutableMap<String, Channel> get() = quotaMasterServices[index].quotaChannels
 
     fun indexMaster(master: Master) {
-        check(!masters.contains(master))
+        check(master.index == -1)
         masters.add(master)
         master.index = masters.size - 1
         quotaMasterServices.add(master.quota)
@@ -0,0 +1,66 @@
+package featurea.modbus.support
+
+/*
+append-only sequence of fixed size blocks:
+- allocateBlock returns the next block index, a new block is zero filled
+- blocks are never freed or moved, so a block index stays valid for the lifetime of the storage
+*/
+interface JournalStorage {
+    val blockSize: Int
+    val blockCount: Int
+    fun allocateBlock(): Int
+    fun getByte(blockIndex: Int, offset: Int): Byte
+    fun putByte(blockIndex: Int, offset: Int, value: Byte)
+    fun flush() {}
+    fun close() {}
+}
+
+class MemoryJournalStorage(override val blockSize: Int = JOURNAL_BLOCK_SIZE) : JournalStorage {
+
+    private val blocks = ArrayList<ByteArray>()
+    override val blockCount: Int get() = blocks.size
+
+    override fun allocateBlock(): Int {
+        blocks.add(ByteArray(blockSize))
+        return blocks.size - 1
+    }
+
+    override fun getByte(blockIndex: Int, offset: Int): Byte = blocks[blockIndex][offset]
+
+    override fun putByte(blockIndex: Int, offset: Int, value: Byte) {
+        blocks[blockIndex][offset] = value
+    }
+
+}
+
+const val JOURNAL_BLOCK_SIZE: Int = 4096
+
+/*internals*/
+
+internal fun JournalStorage.getInt(blockIndex: Int, offset: Int): Int {
+    var result: Int = 0
+    for (index in 0 until 4) {
+        result = (result shl 8) or (getByte(blockIndex, offset + index).toInt() and 0xff)
+    }
+    return result
+}
+
+internal fun JournalStorage.putInt(blockIndex: Int, offset: Int, value: Int) {
+    for (index in 0 until 4) {
+        putByte(blockIndex, offset + index, (value shr (24 - 8 * index)).toByte())
+    }
+}
+
+internal fun JournalStorage.getLong(blockIndex: Int, offset: Int): Long {
+    var result: Long = 0
+    for (index in 0 until 8) {
+        result = (result shl 8) or (getByte(blockIndex, offset + index).toLong() and 0xff)
+    }
+    return result
+}
+
+internal fun JournalStorage.putLong(blockIndex: Int, offset: Int, value: Long) {
+    for (index in 0 until 8) {
+        putByte(blockIndex, offset + index, (value shr (56 - 8 * index)).toByte())
+    }
+}
@@ -1,8 +1,13 @@
 package featurea.modbus.support
 
+import featurea.modbus.ModbusClient
+import featurea.modbus.ModbusClientListener
 import featurea.modbus.config.Channel
+import featurea.modbus.config.shouldJournal
 import featurea.runtime.Component
 import featurea.runtime.Module
+import featurea.runtime.import
+import kotlin.math.abs
 
 class JournalService(val channel: Channel) {
     var hasJournalValueEver: Boolean = false
@@ -17,9 +22,52 @@ class JournalService(val channel: Channel) {
 
 
     var journalTimeoutProgress: Double = 0.0
-    var journalValue: Float = 0f
+    var journalValue: Double = 0.0
+    var journalTime: Long = -1L
+
+    // the first value is always recorded, then a value is recorded once it moves by journalDelta or journalTimeout milliseconds pass
+    fun record(journal: ChannelJournal, time: Long, value: Double) {
+        if (!channel.shouldJournal) return
+        if (hasJournalValue) {
+            journalTimeoutProgress = (time - journalTime).toDouble()
+            val isTimeout: Boolean = channel.journalTimeout != 0.0 && journalTimeoutProgress >= channel.journalTimeout
+            val isDelta: Boolean = channel.journalDelta != 0.0 && abs(value - journalValue) >= channel.journalDelta
+            if (!isTimeout && !isDelta) return
+        }
+        if (!journal.append(channel, time, value)) return
+        journalValue = value
+        journalTime = time
+        journalTimeoutProgress = 0.0
+        hasJournalValue = true
+    }
 }
 
 class JournalSystem(override val module: Module) : Component {
-    // todo add JournalService to index
-}
\ No newline at end of file
+
+    private val modbusClient: ModbusClient = import()
+
+    var journal: ChannelJournal? = null
+        private set
+
+    override fun onCreateComponent() {
+        modbusClient.listeners.add(object : ModbusClientListener {
+            override fun onDestroy() = close()
+        })
+    }
+
+    // the storage outlives the process when it is file backed, so the same config must be used to keep Channel.index stable
+    fun open(storage: JournalStorage) {
+        close()
+        val journal = ChannelJournal(storage)
+        this.journal = journal
+        modbusClient.config.indexScope.journal = journal
+    }
+
+    fun close() {
+        val journal: ChannelJournal = journal ?: return
+        this.journal = null
+        modbusClient.config.indexScope.journal = null
+        journal.close()
+    }
+
+}
@@ -27,21 +27,24 @@ class ChannelGroup(val connection: Connection, val region: Region, val channels:
 
     init {
         startAddress = channels.first().startAddress
-        finishAddress = channels.last().finishAddress
+        finishAddress = channels.maxOf { it.finishAddress }
     }
 
     fun IndexScope.applyResponseVirtual(logger: Logger, notificationBuilder: StringBuilder? = null) {
+        val time: Double = getTimeMillis()
         for (channel in channels) {
             channel.formulaService.applyReadValueWithoutReadFormula(channel.writeValueWithWriteFormula)
             if (channel.formulaService.hasReadFormulaError) {
                 logger.logReadFormulaEvaluationError(channel.readFormula!!.value)
+            } else {
+                journal?.let { channel.journalService.record(it, time.toLong(), channel.readValueWithReadFormula) }
             }
             if (!channel.isLocal) { // quickfix todo improve
                 notificationBuilder?.append("${channel.name}=${channel.readValueWithReadFormula},")
             }
         }
         // >> IMPORTANT order matters
-        connection.config.readChannels?.invoke(channels, getTimeMillis())
+        connection.config.readChannels?.invoke(channels, time)
         for (channel in channels) {
             channel.isReadValueWithReadFormulaValid = true
         }
@@ -51,17 +54,29 @@ class ChannelGroup(val connection: Connection, val region: Region, val channels:
     fun IndexScope.applyResponse(logger: Logger, transaction: Transaction, notificationBuilder: StringBuilder? = null) {
         val response: Response = transaction.response
         val minAddress = channels.first().startAddress
+        val isBitRegion: Boolean = region.bitSize == 1 // one request reads up to 2000 coils, packed eight per byte
         for (channel in channels) {
             val from: Int = channel.startAddress - minAddress
-            val to: Int = from + channel.registerCount
-            val shortArray: ShortArray = checkNotNull(response.values).sliceArray(from until to)
             if (channel.hasDiapason) {
-                channel.readValueInDiapason = shortArray
+                val registerCount: Int = channel.registerCount
+                val readValueInDiapason: ShortArray? = channel.readValueInDiapason
+                val destination: ShortArray = if (readValueInDiapason?.size == registerCount) readValueInDiapason else ShortArray(registerCount)
+                channel.readValueInDiapason = if (isBitRegion) {
+                    response.bits(from, registerCount, destination)
+                } else {
+                    response.registers(from, registerCount, destination)
+                }
             } else {
-                val value: Double = shortArray.toFloat(channel.type).toDouble()
+                val value: Double = if (isBitRegion) {
+                    if (response.bit(from)) 1.0 else 0.0
+                } else {
+                    response.toFloat(from, channel.type).toDouble()
+                }
                 channel.formulaService.applyReadValueWithoutReadFormula(value)
                 if (channel.formulaService.hasReadFormulaError) {
                     logger.logReadFormulaEvaluationError(channel.readFormula!!.value)
+                } else {
+                    journal?.let { channel.journalService.record(it, transaction.startTime, channel.readValueWithReadFormula) }
                 }
                 if (!channel.isLocal) { // quickfix todo improve
                     notificationBuilder?.append("${channel.name}=${channel.readValueWithReadFormula},")
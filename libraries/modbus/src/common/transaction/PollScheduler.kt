@@ -0,0 +1,148 @@
+package featurea.modbus.transaction
+
+import featurea.modbus.config.Channel
+import featurea.modbus.config.Connection
+import featurea.modbus.config.Region
+
+/*
+channels are bucketed by updateInterval once:
+- the buckets are kept in a min-heap ordered by their due time, a tick only pops the due buckets
+- the channel groups of each combination of due buckets are planned by ReadPlanner once and cached
+*/
+class PollScheduler(val connection: Connection, val channelLimit: Int) {
+
+    private val channels: List<Channel> = limitedChannels()
+    private val intervals: FloatArray = channels.map { maxOf(it.updateInterval, MODBUS_MIN_UPDATE_INTERVAL) }.distinct().sorted().toFloatArray()
+    private val intervalIndexes: Map<Channel, Int> = channels.associateWith { intervals.indexOfFirst { interval -> interval == maxOf(it.updateInterval, MODBUS_MIN_UPDATE_INTERVAL) } }
+    private val dueTimes = DoubleArray(intervals.size) { intervals[it].toDouble() }
+    private val heap = IntArray(intervals.size) { it }
+    private var heapSize: Int = intervals.size
+    private val dueIntervals = IntArray(intervals.size)
+    private val isDueInterval = BooleanArray(intervals.size)
+    private val plans = HashMap<Long, List<ChannelGroup>>()
+    private val readPlanners: Map<Region, ReadPlanner> = Region.values().associateWith { connection.createReadPlanner(it) }
+    private var time: Double = 0.0
+
+    // milliseconds until the next bucket is due
+    val nextDelay: Double get() = if (heapSize == 0) Double.POSITIVE_INFINITY else maxOf(0.0, dueTimes[heap[0]] - time)
+
+    fun update(elapsedTime: Float, result: MutableList<ChannelGroup>) {
+        time += elapsedTime
+        var dueCount: Int = 0
+        var dueMask: Long = 0
+        while (heapSize > 0 && dueTimes[heap[0]] <= time) {
+            val intervalIndex: Int = popHeap()
+            dueIntervals[dueCount++] = intervalIndex
+            isDueInterval[intervalIndex] = true
+            if (intervalIndex < Long.SIZE_BITS) dueMask = dueMask or (1L shl intervalIndex)
+        }
+        if (dueCount == 0) return
+        if (intervals.size <= Long.SIZE_BITS) {
+            result.addAll(plans.getOrPut(dueMask) { buildPlan() })
+        } else {
+            result.addAll(buildPlan())
+        }
+        for (index in 0 until dueCount) {
+            val intervalIndex: Int = dueIntervals[index]
+            isDueInterval[intervalIndex] = false
+            // like Channel.updateProgress the next poll is counted from this tick
+            dueTimes[intervalIndex] = time + intervals[intervalIndex]
+            pushHeap(intervalIndex)
+        }
+    }
+
+    /*internals*/
+
+    private fun buildPlan(): List<ChannelGroup> {
+        val result = ArrayList<ChannelGroup>()
+        val virtualChannelGroup = mutableListOf<Channel>()
+        val dueChannels = ArrayList<Channel>()
+        val channelGroups = ArrayList<List<Channel>>()
+        for ((region, channels) in channelsByRegion()) {
+            for (channel in channels) {
+                if (!isDueInterval[intervalIndexes.getValue(channel)]) continue
+                if (channel.isVirtual) {
+                    virtualChannelGroup.add(channel)
+                } else {
+                    dueChannels.add(channel)
+                }
+            }
+            readPlanners.getValue(region).plan(dueChannels, channelGroups)
+            for (channelGroup in channelGroups) {
+                result.add(ChannelGroup(connection, region, channelGroup))
+            }
+            dueChannels.clear()
+            channelGroups.clear()
+        }
+        if (virtualChannelGroup.isNotEmpty()) result.add(0, ChannelGroup(connection, virtualChannelGroup)) // IMPORTANT goes first
+        return result
+    }
+
+    private fun limitedChannels(): List<Channel> {
+        val result = ArrayList<Channel>()
+        for (channels in connection.channelByRegionMap.values) {
+            for (channel in channels) {
+                if (result.size >= channelLimit) return result
+                result.add(channel)
+            }
+        }
+        return result
+    }
+
+    private fun channelsByRegion(): Map<Region, List<Channel>> {
+        val result = LinkedHashMap<Region, MutableList<Channel>>()
+        for ((region, channels) in connection.channelByRegionMap) {
+            for (channel in channels) {
+                if (!intervalIndexes.containsKey(channel)) continue
+                result.getOrPut(region) { ArrayList() }.add(channel)
+            }
+        }
+        return result
+    }
+
+    private fun popHeap(): Int {
+        val result: Int = heap[0]
+        heapSize--
+        if (heapSize > 0) {
+            heap[0] = heap[heapSize]
+            siftDown(0)
+        }
+        return result
+    }
+
+    private fun pushHeap(intervalIndex: Int) {
+        heap[heapSize] = intervalIndex
+        siftUp(heapSize)
+        heapSize++
+    }
+
+    private fun siftUp(index: Int) {
+        var child: Int = index
+        while (child > 0) {
+            val parent: Int = (child - 1) / 2
+            if (dueTimes[heap[parent]] <= dueTimes[heap[child]]) break
+            swap(parent, child)
+            child = parent
+        }
+    }
+
+    private fun siftDown(index: Int) {
+        var parent: Int = index
+        while (true) {
+            val left: Int = 2 * parent + 1
+            if (left >= heapSize) break
+            val right: Int = left + 1
+            val child: Int = if (right < heapSize && dueTimes[heap[right]] < dueTimes[heap[left]]) right else left
+            if (dueTimes[heap[parent]] <= dueTimes[heap[child]]) break
+            swap(parent, child)
+            parent = child
+        }
+    }
+
+    private fun swap(index1: Int, index2: Int) {
+        val intervalIndex: Int = heap[index1]
+        heap[index1] = heap[index2]
+        heap[index2] = intervalIndex
+    }
+
+}
@@ -0,0 +1,75 @@
+package featurea.modbus.transaction
+
+import featurea.modbus.config.Channel
+import featurea.modbus.config.Connection
+import featurea.modbus.config.Region
+
+/*
+splits the channels of one region sorted by address into the minimum number of read requests:
+- a request spans at most maxReadCount registers (or coils) and never bridges a gap wider than maxGap
+- among the plans with the fewest requests the one reading the fewest registers wins
+*/
+class ReadPlanner(val maxReadCount: Int, val maxGap: Int = -1) {
+
+    fun plan(channels: List<Channel>, result: MutableList<List<Channel>>) {
+        val size: Int = channels.size
+        if (size == 0) return
+        val startAddresses = IntArray(size) { channels[it].startAddress.toInt() }
+        val finishAddresses = IntArray(size) { channels[it].finishAddress.toInt() }
+        val ranges: MutableList<IntRange> = ArrayList()
+        plan(startAddresses, finishAddresses, ranges)
+        for (range in ranges) {
+            result.add(channels.subList(range.first, range.last + 1).toList())
+        }
+    }
+
+    // channel index ranges of the requests in address order, addresses are inclusive and sorted by start
+    fun plan(startAddresses: IntArray, finishAddresses: IntArray, result: MutableList<IntRange>) {
+        val size: Int = startAddresses.size
+        if (size == 0) return
+        // requestCounts[index] and readCounts[index] are the best plan of the first index channels
+        val requestCounts = IntArray(size + 1) { Int.MAX_VALUE }
+        val readCounts = IntArray(size + 1) { Int.MAX_VALUE }
+        val segmentStarts = IntArray(size + 1)
+        requestCounts[0] = 0
+        readCounts[0] = 0
+        for (start in 0 until size) {
+            if (requestCounts[start] == Int.MAX_VALUE) continue
+            val startAddress: Int = startAddresses[start]
+            var finishAddress: Int = Int.MIN_VALUE
+            for (finish in start until size) {
+                if (finish > start) {
+                    val gap: Int = startAddresses[finish] - finishAddress - 1
+                    if (maxGap >= 0 && gap > maxGap) break
+                }
+                finishAddress = maxOf(finishAddress, finishAddresses[finish])
+                val readCount: Int = finishAddress - startAddress + 1
+                // a single channel wider than the limit still gets its own request
+                if (readCount > maxReadCount && finish > start) break
+                val requestCount: Int = requestCounts[start] + 1
+                val totalReadCount: Int = readCounts[start] + readCount
+                val isBetter: Boolean = requestCount < requestCounts[finish + 1] ||
+                        requestCount == requestCounts[finish + 1] && totalReadCount < readCounts[finish + 1]
+                if (isBetter) {
+                    requestCounts[finish + 1] = requestCount
+                    readCounts[finish + 1] = totalReadCount
+                    segmentStarts[finish + 1] = start
+                }
+                if (readCount > maxReadCount) break
+            }
+        }
+        val firstIndex: Int = result.size
+        var finish: Int = size
+        while (finish > 0) {
+            val start: Int = segmentStarts[finish]
+            result.add(firstIndex, start until finish)
+            finish = start
+        }
+    }
+}
+
+fun Connection.createReadPlanner(region: Region): ReadPlanner {
+    val protocolLimit: Int = if (region.bitSize == 1) MODBUS_MAX_READ_COIL_COUNT else MODBUS_MAX_READ_REGISTER_COUNT
+    val maxReadCount: Int = if (registerCount > 0) minOf(registerCount, protocolLimit) else protocolLimit
+    return ReadPlanner(maxReadCount, maxGap)
+}
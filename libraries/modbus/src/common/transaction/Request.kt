@@ -1,8 +1,5 @@
 package featurea.modbus.transaction
 
-import featurea.utils.ByteQueue
-import featurea.utils.Encoding.BIG_ENDIAN
-import featurea.utils.encodeToByteArray
 import featurea.modbus.support.DataType
 import featurea.modbus.support.toShortArray
 import featurea.modbus.transaction.RequestFunction.*
@@ -44,36 +41,41 @@ class Request private constructor(val id: Short, val message: ByteArray) {
             values: ShortArray? = null,
             type: DataType? = null
         ): ByteArray {
-            val result: ByteQueue = ByteQueue()
-            result.pushShort(transactionId)
-            result.pushShort(MODBUS_TCP_PROTOCOL_ID)
-            val payload: ByteQueue = ByteQueue()
-            payload.pushByte(MODBUS_TCP_SLAVE_ID)
-            payload.pushByte(function.code)
-            payload.pushShort(offset)
+            // the frame is encoded in place: header, slave id, function code and offset followed by the payload
+            val payloadSize: Int = when (function) {
+                READ_COILS, READ_DISCRETE_INPUTS, READ_HOLDING_REGISTERS, READ_INPUT_REGISTERS -> 2
+                WRITE_COIL -> 2
+                WRITE_HOLDING_REGISTER -> 2 * checkNotNull(type).size
+                WRITE_MULTIPLE_HOLDING_REGISTERS -> 3 + 2 * checkNotNull(values).size
+                else -> throw IllegalArgumentException("function: $function")
+            }
+            val length: Int = 4 + payloadSize
+            val result = ByteArray(MODBUS_TCP_HEADER_SIZE + length)
+            result.putShort(0, transactionId)
+            result.putShort(2, MODBUS_TCP_PROTOCOL_ID)
+            result.putShort(4, length.toShort())
+            result[6] = MODBUS_TCP_SLAVE_ID
+            result[7] = function.code
+            result.putShort(8, offset)
             when (function) {
                 READ_COILS, READ_DISCRETE_INPUTS, READ_HOLDING_REGISTERS, READ_INPUT_REGISTERS -> {
-                    payload.pushShort(count)
+                    result.putShort(10, count)
                 }
                 WRITE_COIL -> {
-                    payload.pushShort(if (coilValue) MODBUS_COIL_ENABLE_VALUE else 0)
+                    result.putShort(10, if (coilValue) MODBUS_COIL_ENABLE_VALUE else 0)
                 }
                 WRITE_HOLDING_REGISTER -> {
                     val shortArray: ShortArray = value.toShortArray(checkNotNull(type))
-                    val bytes = shortArray.encodeToByteArray(encoding = BIG_ENDIAN)
-                    payload.pushAll(bytes)
+                    for ((index, short) in shortArray.withIndex()) result.putShort(10 + 2 * index, short)
                 }
                 WRITE_MULTIPLE_HOLDING_REGISTERS -> {
                     checkNotNull(values)
-                    payload.pushShort(values.size.toShort())
-                    val bytes: ByteArray = values.encodeToByteArray(encoding = BIG_ENDIAN)
-                    payload.pushByte(bytes.size.toByte())
-                    payload.pushAll(bytes)
+                    result.putShort(10, values.size.toShort())
+                    result[12] = (2 * values.size).toByte()
+                    for ((index, short) in values.withIndex()) result.putShort(13 + 2 * index, short)
                 }
             }
-            result.pushShort(payload.size.toShort())
-            result.pushAll(payload)
-            return result.toByteArray()
+            return result
         }
 
     }
@@ -19,4 +19,8 @@ enum class RequestFunction(val code: Byte, val isError: Boolean = code < 0) {
     WRITE_MULTIPLE_HOLDING_REGISTERS_ERROR((16 + MODBUS_ERROR_DELTA).toByte());
 }
 
-fun Byte.toFunction(): RequestFunction = RequestFunction.values().find { it.code == this } ?: error("code: $this")
\ No newline at end of file
+fun Byte.toFunction(): RequestFunction = functions.find { it.code == this } ?: error("code: $this")
+
+/*internals*/
+
+private val functions: Array<RequestFunction> = RequestFunction.values()
\ No newline at end of file
@@ -1,92 +1,152 @@
 package featurea.modbus.transaction
 
-import featurea.utils.Encoding.BIG_ENDIAN
 import featurea.modbus.transaction.RequestFunction.*
 import featurea.utils.ByteQueue
-import featurea.utils.Encoding
-import featurea.utils.encodeToShortArray
-import featurea.utils.encodeToTwoBytes
-
-class Response internal constructor(
-    val transactionId: Short,
-    val bytes: ByteArray?,
-    val error: ResponseError? = null,
-    val allBytes: List<Byte>
-) {
-    val isError: Boolean = error != null
-    val values: ShortArray? = bytes?.encodeToShortArray(encoding = BIG_ENDIAN)
-    val value: Short get() = values!![0]
-
-    companion object {
-
-        fun readOrNull(queue: ByteQueue): Response? {
-            val responseBytes = mutableListOf<Byte>()
-
-            queue.mark()
-            if (queue.size < 6) {
-                queue.reset()
-                return null
-            }
+import kotlin.jvm.Synchronized
 
-            val transactionId: Short = queue.popShort()
-            val protocolId: Short = queue.popShort()
-            check(protocolId == MODBUS_TCP_PROTOCOL_ID)
-            val count: Short = queue.popShort()
-            check(count > 0)
+/*
+flyweight over one Modbus TCP frame:
+- readFrom pops the frame from ByteQueue into the pooled byte array once
+- registers and bits are decoded from the frame by offset, no intermediate arrays
+*/
+class Response internal constructor() {
 
-            if (queue.size < count) {
-                queue.reset()
-                return null
-            }
+    internal val frame: ByteArray = ByteArray(MODBUS_TCP_MAX_FRAME_SIZE)
+    var frameSize: Int = 0
+        private set
+    var transactionId: Short = 0
+        private set
+    var error: ResponseError? = null
+        private set
+    val isError: Boolean get() = error != null
+    private var payloadOffset: Int = 0
+    var payloadSize: Int = 0
+        private set
+    val registerCount: Int get() = payloadSize / 2
+    val value: Short get() = register(0)
+
+    fun register(index: Int): Short {
+        val offset: Int = payloadOffset + 2 * index
+        check(index >= 0 && offset < payloadOffset + payloadSize)
+        val high: Int = frame[offset].toInt() and 0xff
+        val low: Int = if (offset + 1 < payloadOffset + payloadSize) frame[offset + 1].toInt() and 0xff else 0
+        return ((high shl 8) or low).toShort()
+    }
+
+    fun registers(from: Int, count: Int, destination: ShortArray = ShortArray(count)): ShortArray {
+        for (index in 0 until count) {
+            destination[index] = register(from + index)
+        }
+        return destination
+    }
+
+    // coils and discretes are packed eight per byte, first one in the least significant bit
+    fun bit(index: Int): Boolean {
+        val offset: Int = payloadOffset + index / 8
+        check(index >= 0 && offset < payloadOffset + payloadSize)
+        return (frame[offset].toInt() shr (index % 8)) and 1 == 1
+    }
+
+    fun bits(from: Int, count: Int, destination: ShortArray = ShortArray(count)): ShortArray {
+        for (index in 0 until count) {
+            destination[index] = if (bit(from + index)) 1 else 0
+        }
+        return destination
+    }
+
+    fun readFrom(queue: ByteQueue): Boolean {
+        if (!readFrameFrom(queue)) return false
+        decodeFrame()
+        return true
+    }
+
+    // pops one whole frame without looking past its header, so it can be journaled before decoding
+    fun readFrameFrom(queue: ByteQueue): Boolean {
+        if (queue.size < MODBUS_TCP_HEADER_SIZE) {
+            return false
+        }
+        queue.mark()
+        val transactionId: Short = queue.popShort()
+        val protocolId: Short = queue.popShort()
+        check(protocolId == MODBUS_TCP_PROTOCOL_ID)
+        val count: Short = queue.popShort()
+        check(count > 0 && MODBUS_TCP_HEADER_SIZE + count <= MODBUS_TCP_MAX_FRAME_SIZE)
+        if (queue.size < count) {
+            queue.reset()
+            return false
+        }
+
+        this.transactionId = transactionId
+        frame.putShort(0, transactionId)
+        frame.putShort(2, protocolId)
+        frame.putShort(4, count)
+        queue.pop(frame, MODBUS_TCP_HEADER_SIZE, count.toInt())
+        frameSize = MODBUS_TCP_HEADER_SIZE + count
+        return true
+    }
 
-            val slaveId: Byte = queue.popByte()
-            check(slaveId == MODBUS_TCP_SLAVE_ID)
-            val functionCode: Byte = queue.popByte()
-            val function: RequestFunction = functionCode.toFunction()
-
-            responseBytes.addAll(transactionId.encodeToTwoBytes(Encoding.BIG_ENDIAN).toList())
-            responseBytes.addAll(protocolId.encodeToTwoBytes(Encoding.BIG_ENDIAN).toList())
-            responseBytes.addAll(count.encodeToTwoBytes(Encoding.BIG_ENDIAN).toList())
-            responseBytes.add(slaveId)
-            responseBytes.add(functionCode)
-
-            if (function.isError) {
-                val errorCode: Byte = queue.popByte()
-                responseBytes.add(errorCode)
-                val error: ResponseError = errorCode.toError()
-                return Response(transactionId, bytes = null, error = error, allBytes = responseBytes)
-            } else {
-                return when (function) {
-                    READ_COILS, READ_DISCRETE_INPUTS, READ_HOLDING_REGISTERS, READ_INPUT_REGISTERS -> {
-                        val countByte = queue.popByte()
-                        val count: Int = countByte.toUByte().toInt()
-                        check(queue.size >= count)
-                        val bytes = ByteArray(count)
-                        queue.pop(bytes)
-                        responseBytes.add(countByte)
-                        responseBytes.addAll(bytes.toList())
-                        Response(transactionId, bytes, allBytes = responseBytes)
-                    }
-                    WRITE_COIL, WRITE_HOLDING_REGISTER -> {
-                        val offset: Short = queue.popShort()
-                        val value: Short = queue.popShort()
-                        val twoBytes: ByteArray = value.encodeToTwoBytes(encoding = BIG_ENDIAN)
-                        responseBytes.addAll(offset.encodeToTwoBytes(Encoding.BIG_ENDIAN).toList())
-                        responseBytes.addAll(twoBytes.toList())
-                        Response(transactionId, twoBytes, allBytes = responseBytes)
-                    }
-                    WRITE_MULTIPLE_HOLDING_REGISTERS -> {
-                        val offset: Short = queue.popShort()
-                        val sizeOfWrittenRegisters: Short = queue.popShort()
-                        emptyResponse(transactionId) // todo make use of `offset` and `sizeOfWrittenRegisters`
-                    }
-                    else -> error(function)
+    fun decodeFrame() {
+        val slaveId: Byte = frame[6]
+        check(slaveId == MODBUS_TCP_SLAVE_ID)
+        val function: RequestFunction = frame[7].toFunction()
+        error = null
+        payloadOffset = 8
+        payloadSize = 0
+        if (function.isError) {
+            error = frame[8].toError()
+        } else {
+            when (function) {
+                READ_COILS, READ_DISCRETE_INPUTS, READ_HOLDING_REGISTERS, READ_INPUT_REGISTERS -> {
+                    payloadOffset = 9
+                    payloadSize = frame[8].toInt() and 0xff
+                    check(payloadOffset + payloadSize <= frameSize)
+                }
+                WRITE_COIL, WRITE_HOLDING_REGISTER -> {
+                    // offset is followed by the written value
+                    payloadOffset = 10
+                    payloadSize = 2
                 }
+                WRITE_MULTIPLE_HOLDING_REGISTERS -> {
+                    // todo make use of `offset` and `sizeOfWrittenRegisters`
+                }
+                else -> throw IllegalStateException("function: $function")
             }
         }
+    }
+
+    override fun toString(): String {
+        val result: StringBuilder = StringBuilder().append('[')
+        for (index in 0 until frameSize) {
+            if (index != 0) result.append(", ")
+            result.append(frame[index])
+        }
+        return result.append(']').toString()
+    }
+
+}
+
+/*
+network thread:  acquire
+graphics thread: release after the response is applied
+*/
+class ResponsePool {
 
+    private val responses = ArrayDeque<Response>()
+
+    @Synchronized
+    fun acquire(): Response = responses.removeLastOrNull() ?: Response()
+
+    @Synchronized
+    fun release(response: Response) {
+        responses.addLast(response)
     }
 
 }
 
-fun emptyResponse(transactionId: Short): Response = Response(transactionId, ByteArray(0), allBytes = emptyList())
\ No newline at end of file
+/*internals*/
+
+internal fun ByteArray.putShort(index: Int, value: Short) {
+    val int: Int = value.toInt()
+    this[index] = (0xff and (int shr 8)).toByte()
+    this[index + 1] = (0xff and int).toByte()
+}
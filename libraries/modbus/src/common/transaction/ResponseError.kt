@@ -12,4 +12,8 @@ enum class ResponseError(val code: Byte, val message: String) {
     GATEWAY_TARGET_DEVICE_FAILED_TO_RESPOND(0xb.toByte(), "Gateway target device failed to respond");
 }
 
-fun Byte.toError(): ResponseError = ResponseError.values().find { it.code == this } ?: error("code: $this")
\ No newline at end of file
+fun Byte.toError(): ResponseError = errors.find { it.code == this } ?: error("code: $this")
+
+/*internals*/
+
+private val errors: Array<ResponseError> = ResponseError.values()
\ No newline at end of file
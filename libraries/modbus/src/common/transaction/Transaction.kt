@@ -6,13 +6,23 @@ const val MODBUS_TCP_PROTOCOL_ID: Short = 0
 const val MODBUS_TCP_SLAVE_ID: Byte = 1
 const val MODBUS_COIL_ENABLE_VALUE: Short = 0xFF00.toShort()
 const val MODBUS_MAX_READ_REGISTER_COUNT: Int = 125
+const val MODBUS_MAX_READ_COIL_COUNT: Int = 2000
 const val MODBUS_MAX_WRITE_REGISTER_COUNT: Int = 120
+const val MODBUS_MAX_WINDOW_SIZE: Int = 16
+const val MODBUS_DEFAULT_TRANSACTION_RETRIES_COUNT: Int = 2
+const val MODBUS_COMPLETED_TRANSACTION_CAPACITY: Int = 1024 // read responses waiting for the update thread, per Master
+const val MODBUS_MIN_UPDATE_INTERVAL: Float = 100f // milliseconds, the former tick of the polling thread
+const val MODBUS_TCP_HEADER_SIZE: Int = 6
+const val MODBUS_TCP_MAX_FRAME_SIZE: Int = 260
 
 class Transaction(val request: Request, val channel: Channel?, val channelGroup: ChannelGroup?) {
 
     lateinit var response: Response
     var startTime: Long = -1L
     var finishTime: Long = -1L
+    var retryCount: Int = 0
+    var retryTime: Long = -1L // not resent before, retryTimeout after it expired
+    var generation: Int = 0 // connection generation of the ResponseQueue that completed it
     val deltaTime: Long get() = finishTime - startTime
     val id: Short get() = request.id
 
@@ -0,0 +1,89 @@
+package featurea.modbus
+
+import featurea.modbus.support.JOURNAL_BLOCK_SIZE
+import featurea.modbus.support.JournalStorage
+import java.io.File
+import java.io.RandomAccessFile
+import java.nio.MappedByteBuffer
+import java.nio.channels.FileChannel
+import kotlin.jvm.Synchronized
+
+/*
+journal file: header page (magic, block size, block count) followed by the blocks
+- the file is mapped in chunks of chunkBlockCount blocks, a new chunk grows the file
+- blocks are addressed by index, so appending never remaps the chunks already mapped
+- block count is kept in the header page, so reopening the file gives back every block and ChannelJournal
+  restores the channel tails from them
+*/
+class MappedJournalStorage(val file: File, override val blockSize: Int = JOURNAL_BLOCK_SIZE, val chunkBlockCount: Int = 16 * 1024) : JournalStorage {
+
+    private val randomAccessFile = RandomAccessFile(file, "rw")
+    private val channel: FileChannel = randomAccessFile.channel
+    private val header: MappedByteBuffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, blockSize.toLong())
+    private val chunks = ArrayList<MappedByteBuffer>()
+    override var blockCount: Int = 0
+        private set
+
+    init {
+        if (header.getInt(MAGIC_OFFSET) == MAGIC) {
+            check(header.getInt(BLOCK_SIZE_OFFSET) == blockSize) { "blockSize: ${header.getInt(BLOCK_SIZE_OFFSET)}" }
+            blockCount = header.getInt(BLOCK_COUNT_OFFSET)
+        } else {
+            header.putInt(MAGIC_OFFSET, MAGIC)
+            header.putInt(BLOCK_SIZE_OFFSET, blockSize)
+            header.putInt(BLOCK_COUNT_OFFSET, 0)
+        }
+        while (chunks.size * chunkBlockCount < blockCount) mapChunk()
+    }
+
+    @Synchronized
+    override fun allocateBlock(): Int {
+        val blockIndex: Int = blockCount
+        if (blockIndex == chunks.size * chunkBlockCount) mapChunk()
+        val chunk: MappedByteBuffer = chunks[blockIndex / chunkBlockCount]
+        val blockOffset: Int = (blockIndex % chunkBlockCount) * blockSize
+        for (offset in 0 until blockSize) {
+            chunk.put(blockOffset + offset, 0)
+        }
+        blockCount++
+        header.putInt(BLOCK_COUNT_OFFSET, blockCount)
+        return blockIndex
+    }
+
+    override fun getByte(blockIndex: Int, offset: Int): Byte {
+        return chunks[blockIndex / chunkBlockCount].get((blockIndex % chunkBlockCount) * blockSize + offset)
+    }
+
+    override fun putByte(blockIndex: Int, offset: Int, value: Byte) {
+        chunks[blockIndex / chunkBlockCount].put((blockIndex % chunkBlockCount) * blockSize + offset, value)
+    }
+
+    @Synchronized
+    override fun flush() {
+        header.force()
+        for (chunk in chunks) chunk.force()
+    }
+
+    @Synchronized
+    override fun close() {
+        flush()
+        channel.close()
+        randomAccessFile.close()
+    }
+
+    /*internals*/
+
+    private fun mapChunk() {
+        val chunkSize: Long = chunkBlockCount.toLong() * blockSize
+        val position: Long = blockSize + chunks.size * chunkSize
+        chunks.add(channel.map(FileChannel.MapMode.READ_WRITE, position, chunkSize))
+    }
+
+    companion object {
+        private const val MAGIC: Int = 0x4A524E4C // JRNL
+        private const val MAGIC_OFFSET: Int = 0
+        private const val BLOCK_SIZE_OFFSET: Int = 4
+        private const val BLOCK_COUNT_OFFSET: Int = 8
+    }
+
+}
@@ -1,17 +1,28 @@
 package featurea.modbus
 
 import featurea.utils.log
+import kotlin.math.ceil
 
 class ModbusThread(modbusClient: ModbusClient) {
 
-    private val requestTransactionFromQueueThread = ModbusClientThread(modbusClient) {
+    // wakes up on new transactions and responses, and while transactions are in flight often enough to expire them
+    private val requestTransactionFromQueueThread = ModbusClientThread(modbusClient, nextDelay = {
+        if (modbusClient.hasTransactionsInFlight) TRANSACTION_CHECK_DELAY else MAXIMUM_DELAY
+    }) {
         modbusClient.requestTransactionFromQueue()
     }
 
-    private val updateQueuesThread = ModbusClientThread(modbusClient) { elapsedTime: Float ->
+    // sleeps until the next channel group is due or a response is waiting to be consumed
+    private val updateQueuesThread = ModbusClientThread(modbusClient, nextDelay = {
+        ceil(modbusClient.nextPollDelay).toLong().coerceIn(1L, MAXIMUM_DELAY)
+    }) { elapsedTime: Float ->
         modbusClient.updateQueues(elapsedTime)
     }
 
+    init {
+        modbusClient.wakeUp = { update() }
+    }
+
     fun start() {
         requestTransactionFromQueueThread.start()
         updateQueuesThread.start()
@@ -26,11 +37,19 @@ class ModbusThread(modbusClient: ModbusClient) {
 
 /*internals*/
 
-private class ModbusClientThread(val modbusClient: ModbusClient, val action: (elapsedTime: Float) -> Unit) : Thread() {
+private const val TRANSACTION_CHECK_DELAY: Long = 100L
+private const val MAXIMUM_DELAY: Long = 1000L
+
+private class ModbusClientThread(
+    val modbusClient: ModbusClient,
+    val nextDelay: () -> Long,
+    val action: (elapsedTime: Float) -> Unit
+) : Thread() {
 
     private var now: Long = 0
     @Suppress("PLATFORM_CLASS_MAPPED_TO_KOTLIN")
     private val lockObject: Object = Object()
+    private var isNotified: Boolean = false
 
     override fun run() {
         try {
@@ -55,6 +74,7 @@ private class ModbusClientThread(val modbusClient: ModbusClient, val action: (el
 
     fun update() {
         synchronized(lockObject) {
+            isNotified = true
             lockObject.notify()
         }
     }
@@ -62,9 +82,12 @@ private class ModbusClientThread(val modbusClient: ModbusClient, val action: (el
     /*internals*/
 
     private fun waitWhileShouldRequest() {
+        val delay: Long = nextDelay()
         synchronized(lockObject) {
             try {
-                lockObject.wait(100)
+                // a notification that came while the action was running is not lost
+                if (!isNotified) lockObject.wait(delay)
+                isNotified = false
             } catch (e: InterruptedException) {
                 e.printStackTrace()
             }
@@ -0,0 +1,206 @@
+package featurea.modbus.simulator
+
+import featurea.modbus.ModbusClient
+import featurea.modbus.ModbusClientListener
+import featurea.modbus.ModbusConfig
+import featurea.modbus.ModbusThread
+import featurea.modbus.config.Channel
+import featurea.modbus.config.Connection
+import featurea.modbus.config.Directory
+import featurea.modbus.config.Region
+import featurea.modbus.support.DataType
+import featurea.modbus.transaction.Transaction
+import kotlinx.coroutines.runBlocking
+import java.lang.management.ManagementFactory
+import kotlin.jvm.Synchronized
+import kotlin.math.ceil
+import com.sun.management.ThreadMXBean
+
+/*
+drives ModbusClient against a ModbusSimulator on localhost:
+- every simulated device gets one Connection with channelCount Float32 holding channels
+- after warmup, responses are counted and their transaction latency is recorded for measureTime
+- allocation is measured on every thread but the simulator one, all masters share the client threads so it is reported per Master on average
+*/
+class ModbusLoadTest(val modbusClient: ModbusClient) {
+
+    var deviceCount: Int = 100
+    var channelCount: Int = 100
+    var channelUpdateInterval: Float = 1000f
+    var windowSize: Int = 1
+    var isMultiplexed: Boolean = true
+    var latency: Long = 0
+    var jitter: Long = 0
+    var errorRate: Double = 0.0
+    var dropRate: Double = 0.0
+    var warmupTime: Long = 5000
+    var measureTime: Long = 30_000
+
+    fun run(): LoadTestReport {
+        val simulator = ModbusSimulator()
+        repeat(deviceCount) {
+            simulator.addDevice(registerCount = 2 * channelCount) {
+                latency = this@ModbusLoadTest.latency
+                jitter = this@ModbusLoadTest.jitter
+                errorRate = this@ModbusLoadTest.errorRate
+                dropRate = this@ModbusLoadTest.dropRate
+                fillHoldings { address -> address.toShort() }
+            }
+        }
+        simulator.start()
+
+        val histogram = LatencyHistogram()
+        val modbusConfig: ModbusConfig = modbusClient.ModbusConfig()
+        modbusConfig.directory = modbusClient.Directory {
+            name = "loadTest"
+            for (device in simulator.devices) {
+                Connection {
+                    name = "device${device.port}"
+                    ip = simulator.host
+                    port = device.port
+                    responseTimeout = 3000
+                    retriesCount = 3
+                    retryTimeout = 3000
+                    registerCount = 125
+                    windowSize = this@ModbusLoadTest.windowSize
+                    isMultiplexed = this@ModbusLoadTest.isMultiplexed
+                    for (channelIndex in 0 until channelCount) {
+                        Channel {
+                            name = "device${device.port}_$channelIndex"
+                            region = Region.Holdings
+                            type = DataType.Float32
+                            address = (2 * channelIndex).toShort()
+                            updateInterval = channelUpdateInterval
+                        }
+                    }
+                }
+            }
+        }
+        modbusConfig.build()
+        modbusClient.listeners.add(object : ModbusClientListener {
+            override fun onResponse(transaction: Transaction) = histogram.record(transaction)
+        })
+        modbusClient.init(modbusConfig)
+        modbusClient.create()
+        runBlocking {
+            modbusClient.connect {
+                ModbusThread(modbusClient).start()
+            }
+        }
+
+        Thread.sleep(warmupTime)
+        val threadMXBean = ManagementFactory.getThreadMXBean() as ThreadMXBean
+        val startAllocatedBytes: Map<Long, Long> = allocatedBytes(threadMXBean, simulator.threadId)
+        val startReadRequestCount: Long = readRequestCount()
+        val startTime: Long = System.nanoTime()
+        histogram.isEnable = true
+        Thread.sleep(measureTime)
+        histogram.isEnable = false
+        val elapsedTime: Double = (System.nanoTime() - startTime) / 1_000_000_000.0
+        val finishAllocatedBytes: Map<Long, Long> = allocatedBytes(threadMXBean, simulator.threadId)
+        val readRequestCount: Long = readRequestCount() - startReadRequestCount
+
+        modbusClient.destroy()
+        simulator.stop()
+
+        var allocatedBytes: Long = 0
+        for ((threadId, bytes) in finishAllocatedBytes) {
+            allocatedBytes += maxOf(0, bytes - (startAllocatedBytes[threadId] ?: 0))
+        }
+        val masterCount: Int = modbusClient.masters.size
+        return LoadTestReport(
+            masterCount = masterCount,
+            channelCount = deviceCount * channelCount,
+            pollsPerSecond = histogram.count / elapsedTime,
+            requestsPerSecond = readRequestCount / elapsedTime,
+            errorCount = histogram.errorCount,
+            p50Latency = histogram.percentile(0.5),
+            p99Latency = histogram.percentile(0.99),
+            maxLatency = histogram.maxLatency,
+            allocationRatePerMaster = allocatedBytes / elapsedTime / maxOf(1, masterCount)
+        )
+    }
+
+    /*internals*/
+
+    private fun readRequestCount(): Long {
+        var result: Long = 0
+        for (master in modbusClient.masters) result += master.readRequestCount
+        return result
+    }
+
+    private fun allocatedBytes(threadMXBean: ThreadMXBean, excludedThreadId: Long): Map<Long, Long> {
+        val threadIds: LongArray = threadMXBean.allThreadIds.filter { it != excludedThreadId }.toLongArray()
+        val bytes: LongArray = threadMXBean.getThreadAllocatedBytes(threadIds)
+        val result = HashMap<Long, Long>()
+        for (index in threadIds.indices) {
+            if (bytes[index] >= 0) result[threadIds[index]] = bytes[index]
+        }
+        return result
+    }
+
+}
+
+class LoadTestReport(
+    val masterCount: Int,
+    val channelCount: Int,
+    val pollsPerSecond: Double,
+    val requestsPerSecond: Double,
+    val errorCount: Long,
+    val p50Latency: Long,
+    val p99Latency: Long,
+    val maxLatency: Long,
+    val allocationRatePerMaster: Double
+) {
+    override fun toString(): String {
+        return "LoadTestReport(masters=$masterCount, channels=$channelCount, polls/s=${pollsPerSecond.toInt()}, requests/s=${requestsPerSecond.toInt()}, " +
+                "errors=$errorCount, p50=${p50Latency}ms, p99=${p99Latency}ms, max=${maxLatency}ms, allocation/master=${allocationRatePerMaster.toLong()} bytes/s)"
+    }
+}
+
+/*internals*/
+
+/*
+update thread: record
+runner thread: percentile
+*/
+// transaction times are whole milliseconds, so one bucket per millisecond is exact
+private class LatencyHistogram {
+
+    @Volatile
+    var isEnable: Boolean = false
+    private val buckets = LongArray(MAX_LATENCY + 1)
+    var count: Long = 0
+        private set
+    var errorCount: Long = 0
+        private set
+    var maxLatency: Long = 0
+        private set
+
+    @Synchronized
+    fun record(transaction: Transaction) {
+        if (!isEnable) return
+        val latency: Long = transaction.deltaTime
+        buckets[latency.coerceIn(0, MAX_LATENCY.toLong()).toInt()]++
+        count++
+        if (transaction.response.isError) errorCount++
+        if (latency > maxLatency) maxLatency = latency
+    }
+
+    @Synchronized
+    fun percentile(percentile: Double): Long {
+        if (count == 0L) return 0
+        val target: Long = maxOf(1, ceil(percentile * count).toLong())
+        var cumulative: Long = 0
+        for (latency in buckets.indices) {
+            cumulative += buckets[latency]
+            if (cumulative >= target) return latency.toLong()
+        }
+        return MAX_LATENCY.toLong()
+    }
+
+    companion object {
+        private const val MAX_LATENCY: Int = 60_000
+    }
+
+}
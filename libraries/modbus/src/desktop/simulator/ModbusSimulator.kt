@@ -0,0 +1,307 @@
+package featurea.modbus.simulator
+
+import featurea.modbus.transaction.MODBUS_TCP_HEADER_SIZE
+import featurea.modbus.transaction.MODBUS_TCP_MAX_FRAME_SIZE
+import featurea.modbus.transaction.ResponseError
+import java.io.IOException
+import java.net.InetSocketAddress
+import java.nio.ByteBuffer
+import java.nio.channels.SelectionKey
+import java.nio.channels.Selector
+import java.nio.channels.ServerSocketChannel
+import java.nio.channels.SocketChannel
+import java.util.PriorityQueue
+import java.util.Random
+
+/*
+any thread:       addDevice (before start), start, stop
+simulator thread: accept, read, serve and write for every device
+
+Modbus TCP slave simulator, one NIO selector thread hosts all devices:
+- every device listens on its own localhost port, so thousands of devices behave like thousands of PLCs
+- responses are delayed by latency plus jitter on a due time queue, responses of one connection keep their order
+- function codes 1, 2, 3, 4, 5, 6 and 16 are served from the device register maps
+*/
+class ModbusSimulator(val host: String = "127.0.0.1") {
+
+    private val selector: Selector = Selector.open()
+    private val random: Random = Random()
+    private val pendingResponses = PriorityQueue<PendingResponse>()
+    private var pendingResponseCounter: Long = 0
+    private val deviceList = ArrayList<SimulatorDevice>()
+    val devices: List<SimulatorDevice> get() = deviceList
+    private var thread: Thread? = null
+    internal val threadId: Long get() = thread?.id ?: -1L
+    @Volatile
+    private var isRunning: Boolean = false
+
+    // port 0 binds a free port, the bound one is SimulatorDevice.port
+    fun addDevice(port: Int = 0, registerCount: Int = 1024, init: SimulatorDevice.() -> Unit = {}): SimulatorDevice {
+        check(thread == null) { "devices are added before start" }
+        val device = SimulatorDevice(registerCount).apply(init)
+        val serverChannel: ServerSocketChannel = ServerSocketChannel.open()
+        serverChannel.configureBlocking(false)
+        serverChannel.socket().reuseAddress = true
+        serverChannel.socket().bind(InetSocketAddress(host, port), ACCEPT_BACKLOG)
+        device.port = serverChannel.socket().localPort
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT, device)
+        deviceList.add(device)
+        return device
+    }
+
+    fun start() {
+        check(thread == null)
+        isRunning = true
+        thread = Thread({ loop() }, "ModbusSimulator").apply {
+            isDaemon = true
+            start()
+        }
+    }
+
+    fun stop() {
+        val thread: Thread = thread ?: return
+        isRunning = false
+        selector.wakeup()
+        thread.join()
+        for (key in selector.keys()) {
+            key.channel().close()
+        }
+        selector.close()
+    }
+
+    /*internals*/
+
+    private fun loop() {
+        while (isRunning) {
+            val pendingResponse: PendingResponse? = pendingResponses.peek()
+            if (pendingResponse == null) {
+                selector.select()
+            } else {
+                val delay: Long = (pendingResponse.dueTime - System.nanoTime()) / 1_000_000
+                if (delay <= 0) selector.selectNow() else selector.select(delay)
+            }
+            val selectedKeys: MutableIterator<SelectionKey> = selector.selectedKeys().iterator()
+            while (selectedKeys.hasNext()) {
+                val key: SelectionKey = selectedKeys.next()
+                selectedKeys.remove()
+                try {
+                    if (key.isValid && key.isAcceptable) accept(key)
+                    if (key.isValid && key.isReadable) read(key)
+                    if (key.isValid && key.isWritable) flush(key)
+                } catch (e: IOException) {
+                    close(key)
+                }
+            }
+            sendDueResponses()
+        }
+    }
+
+    private fun accept(key: SelectionKey) {
+        val serverChannel: ServerSocketChannel = key.channel() as ServerSocketChannel
+        val channel: SocketChannel = serverChannel.accept() ?: return
+        channel.configureBlocking(false)
+        channel.socket().tcpNoDelay = true
+        val session = SimulatorSession(key.attachment() as SimulatorDevice)
+        session.key = channel.register(selector, SelectionKey.OP_READ, session)
+    }
+
+    private fun read(key: SelectionKey) {
+        val session: SimulatorSession = key.attachment() as SimulatorSession
+        val channel: SocketChannel = key.channel() as SocketChannel
+        val buffer: ByteBuffer = session.readBuffer
+        if (channel.read(buffer) < 0) {
+            close(key)
+            return
+        }
+        buffer.flip()
+        while (buffer.remaining() >= MODBUS_TCP_HEADER_SIZE) {
+            val offset: Int = buffer.position()
+            val length: Int = buffer.getShort(offset + 4).toInt() and 0xffff
+            if (MODBUS_TCP_HEADER_SIZE + length > MODBUS_TCP_MAX_FRAME_SIZE || length < 2) {
+                close(key)
+                return
+            }
+            if (buffer.remaining() < MODBUS_TCP_HEADER_SIZE + length) break
+            serve(session, buffer, offset)
+            buffer.position(offset + MODBUS_TCP_HEADER_SIZE + length)
+        }
+        buffer.compact()
+    }
+
+    private fun serve(session: SimulatorSession, request: ByteBuffer, offset: Int) {
+        val device: SimulatorDevice = session.device
+        device.requestCount++
+        if (device.dropRate > 0 && random.nextDouble() < device.dropRate) return
+        val response: ByteArray = if (device.errorRate > 0 && random.nextDouble() < device.errorRate) {
+            errorResponse(request, offset, device.error)
+        } else {
+            response(device, request, offset)
+        }
+
+        val now: Long = System.nanoTime()
+        val jitter: Long = if (device.jitter > 0) (random.nextDouble() * (device.jitter + 1)).toLong() else 0
+        val dueTime: Long = maxOf(now + (device.latency + jitter) * 1_000_000, session.lastDueTime)
+        if (dueTime <= now) {
+            write(session, response)
+        } else {
+            session.lastDueTime = dueTime
+            pendingResponses.add(PendingResponse(session, response, dueTime, pendingResponseCounter++))
+        }
+    }
+
+    private fun response(device: SimulatorDevice, request: ByteBuffer, offset: Int): ByteArray {
+        val function: Int = request.get(offset + 7).toInt() and 0xff
+        val address: Int = request.getShort(offset + 8).toInt() and 0xffff
+        val count: Int = request.getShort(offset + 10).toInt() and 0xffff
+        when (function) {
+            READ_COILS, READ_DISCRETE_INPUTS -> {
+                if (count < 1 || count > 2000) return errorResponse(request, offset, ResponseError.ILLEGAL_DATA_VALUE)
+                if (address + count > device.registerCount) return errorResponse(request, offset, ResponseError.ILLEGAL_DATA_ADDRESS)
+                val bits: BooleanArray = if (function == READ_COILS) device.coils else device.discreteInputs
+                val byteCount: Int = (count + 7) / 8
+                val result: ByteArray = responseFrame(request, offset, 2 + byteCount)
+                result[8] = byteCount.toByte()
+                for (index in 0 until count) {
+                    if (bits[address + index]) {
+                        result[9 + index / 8] = (result[9 + index / 8].toInt() or (1 shl (index % 8))).toByte()
+                    }
+                }
+                return result
+            }
+            READ_HOLDING_REGISTERS, READ_INPUT_REGISTERS -> {
+                if (count < 1 || count > 125) return errorResponse(request, offset, ResponseError.ILLEGAL_DATA_VALUE)
+                if (address + count > device.registerCount) return errorResponse(request, offset, ResponseError.ILLEGAL_DATA_ADDRESS)
+                val registers: ShortArray = if (function == READ_HOLDING_REGISTERS) device.holdings else device.inputs
+                val result: ByteArray = responseFrame(request, offset, 2 + 2 * count)
+                result[8] = (2 * count).toByte()
+                for (index in 0 until count) {
+                    val register: Int = registers[address + index].toInt()
+                    result[9 + 2 * index] = (register shr 8).toByte()
+                    result[10 + 2 * index] = register.toByte()
+                }
+                return result
+            }
+            WRITE_COIL -> {
+                // count is the written value here
+                if (address >= device.registerCount) return errorResponse(request, offset, ResponseError.ILLEGAL_DATA_ADDRESS)
+                if (count != 0xff00 && count != 0) return errorResponse(request, offset, ResponseError.ILLEGAL_DATA_VALUE)
+                device.coils[address] = count == 0xff00
+                return echoResponse(request, offset)
+            }
+            WRITE_HOLDING_REGISTER -> {
+                // count is the written value here
+                if (address >= device.registerCount) return errorResponse(request, offset, ResponseError.ILLEGAL_DATA_ADDRESS)
+                device.holdings[address] = count.toShort()
+                return echoResponse(request, offset)
+            }
+            WRITE_MULTIPLE_HOLDING_REGISTERS -> {
+                if (count < 1 || count > 123) return errorResponse(request, offset, ResponseError.ILLEGAL_DATA_VALUE)
+                if (address + count > device.registerCount) return errorResponse(request, offset, ResponseError.ILLEGAL_DATA_ADDRESS)
+                for (index in 0 until count) {
+                    device.holdings[address + index] = request.getShort(offset + 13 + 2 * index)
+                }
+                return echoResponse(request, offset)
+            }
+            else -> return errorResponse(request, offset, ResponseError.ILLEGAL_FUNCTION)
+        }
+    }
+
+    // header of the request with the given pdu size, the function code is copied
+    private fun responseFrame(request: ByteBuffer, offset: Int, pduSize: Int): ByteArray {
+        val result = ByteArray(MODBUS_TCP_HEADER_SIZE + 1 + pduSize)
+        result[0] = request.get(offset)
+        result[1] = request.get(offset + 1)
+        result[4] = ((1 + pduSize) shr 8).toByte()
+        result[5] = (1 + pduSize).toByte()
+        result[6] = request.get(offset + 6)
+        result[7] = request.get(offset + 7)
+        return result
+    }
+
+    // function, address and value or count of the request
+    private fun echoResponse(request: ByteBuffer, offset: Int): ByteArray {
+        val result: ByteArray = responseFrame(request, offset, 5)
+        for (index in 8 until 12) {
+            result[index] = request.get(offset + index)
+        }
+        return result
+    }
+
+    private fun errorResponse(request: ByteBuffer, offset: Int, error: ResponseError): ByteArray {
+        val result: ByteArray = responseFrame(request, offset, 2)
+        result[7] = (result[7].toInt() or 0x80).toByte()
+        result[8] = error.code
+        return result
+    }
+
+    private fun sendDueResponses() {
+        val now: Long = System.nanoTime()
+        while (true) {
+            val pendingResponse: PendingResponse = pendingResponses.peek() ?: break
+            if (pendingResponse.dueTime > now) break
+            pendingResponses.poll()
+            write(pendingResponse.session, pendingResponse.response)
+        }
+    }
+
+    private fun write(session: SimulatorSession, response: ByteArray) {
+        val key: SelectionKey = session.key ?: return
+        if (!key.isValid) return
+        session.writeQueue.addLast(ByteBuffer.wrap(response))
+        try {
+            flush(key)
+        } catch (e: IOException) {
+            close(key)
+        }
+    }
+
+    private fun flush(key: SelectionKey) {
+        val session: SimulatorSession = key.attachment() as SimulatorSession
+        val channel: SocketChannel = key.channel() as SocketChannel
+        while (session.writeQueue.isNotEmpty()) {
+            val buffer: ByteBuffer = session.writeQueue.first()
+            channel.write(buffer)
+            if (buffer.hasRemaining()) {
+                key.interestOps(SelectionKey.OP_READ or SelectionKey.OP_WRITE)
+                return
+            }
+            session.writeQueue.removeFirst()
+        }
+        key.interestOps(SelectionKey.OP_READ)
+    }
+
+    private fun close(key: SelectionKey) {
+        key.cancel()
+        try {
+            key.channel().close()
+        } catch (e: IOException) {
+            // already closed
+        }
+    }
+
+    private class SimulatorSession(val device: SimulatorDevice) {
+        var key: SelectionKey? = null
+        val readBuffer: ByteBuffer = ByteBuffer.allocate(4 * MODBUS_TCP_MAX_FRAME_SIZE)
+        val writeQueue = ArrayDeque<ByteBuffer>()
+        var lastDueTime: Long = 0
+    }
+
+    private class PendingResponse(val session: SimulatorSession, val response: ByteArray, val dueTime: Long, val order: Long) : Comparable<PendingResponse> {
+        override fun compareTo(other: PendingResponse): Int {
+            if (dueTime != other.dueTime) return dueTime.compareTo(other.dueTime)
+            return order.compareTo(other.order)
+        }
+    }
+
+    companion object {
+        private const val ACCEPT_BACKLOG: Int = 64
+        private const val READ_COILS: Int = 1
+        private const val READ_DISCRETE_INPUTS: Int = 2
+        private const val READ_HOLDING_REGISTERS: Int = 3
+        private const val READ_INPUT_REGISTERS: Int = 4
+        private const val WRITE_COIL: Int = 5
+        private const val WRITE_HOLDING_REGISTER: Int = 6
+        private const val WRITE_MULTIPLE_HOLDING_REGISTERS: Int = 16
+    }
+
+}
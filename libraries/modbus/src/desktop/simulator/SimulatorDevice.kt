@@ -0,0 +1,39 @@
+package featurea.modbus.simulator
+
+import featurea.modbus.transaction.ResponseError
+
+/*
+simulator thread: serve
+any thread:       register maps and fault settings, plain fields so a load test can change them on the fly
+*/
+class SimulatorDevice(val registerCount: Int = 1024) {
+
+    var port: Int = 0
+        internal set
+    val holdings: ShortArray = ShortArray(registerCount)
+    val inputs: ShortArray = ShortArray(registerCount)
+    val coils: BooleanArray = BooleanArray(registerCount)
+    val discreteInputs: BooleanArray = BooleanArray(registerCount)
+
+    // milliseconds before a response is sent, jitter is added uniformly on top of latency
+    var latency: Long = 0
+    var jitter: Long = 0
+
+    // share of requests answered with error, and share of requests never answered to provoke timeouts
+    var error: ResponseError = ResponseError.SLAVE_DEVICE_FAILURE
+    var errorRate: Double = 0.0
+    var dropRate: Double = 0.0
+
+    @Volatile
+    var requestCount: Long = 0
+        internal set
+
+    fun fillHoldings(value: (address: Int) -> Short) {
+        for (address in 0 until registerCount) holdings[address] = value(address)
+    }
+
+    fun fillInputs(value: (address: Int) -> Short) {
+        for (address in 0 until registerCount) inputs[address] = value(address)
+    }
+
+}
@@ -0,0 +1,157 @@
+package featurea.modbus.support
+
+import kotlin.random.Random
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertFalse
+import kotlin.test.assertTrue
+
+class ChannelJournalTest {
+
+    @Test
+    fun roundTripAcrossBlocks() {
+        val storage = MemoryJournalStorage(BLOCK_SIZE)
+        val journal = ChannelJournal(storage)
+        val expected: List<Sample> = samples(2000)
+        for (sample in expected) {
+            assertTrue(journal.append(0, sample.time, sample.value))
+        }
+        assertTrue(storage.blockCount > 1, "blockCount: ${storage.blockCount}")
+        assertSamples(expected, query(journal, 0, Long.MIN_VALUE, Long.MAX_VALUE))
+    }
+
+    @Test
+    fun channelsAreKeptApart() {
+        val journal = ChannelJournal(MemoryJournalStorage(BLOCK_SIZE))
+        val expected: List<Sample> = samples(500)
+        for (sample in expected) {
+            journal.append(0, sample.time, sample.value)
+            journal.append(2, sample.time, -sample.value)
+        }
+        assertSamples(expected, query(journal, 0, Long.MIN_VALUE, Long.MAX_VALUE))
+        assertSamples(expected.map { Sample(it.time, -it.value) }, query(journal, 2, Long.MIN_VALUE, Long.MAX_VALUE))
+        assertEquals(emptyList<Sample>(), query(journal, 1, Long.MIN_VALUE, Long.MAX_VALUE))
+    }
+
+    @Test
+    fun queryIsInclusive() {
+        val journal = ChannelJournal(MemoryJournalStorage(BLOCK_SIZE))
+        val expected: List<Sample> = samples(1000)
+        for (sample in expected) {
+            journal.append(0, sample.time, sample.value)
+        }
+        val from: Long = expected[100].time
+        val to: Long = expected[700].time
+        assertSamples(expected.subList(100, 701), query(journal, 0, from, to))
+    }
+
+    @Test
+    fun downsampleAggregatesBuckets() {
+        val journal = ChannelJournal(MemoryJournalStorage(BLOCK_SIZE))
+        for (index in 0 until 10) {
+            journal.append(0, 100L + index * 10, index.toDouble())
+        }
+        val buckets = ArrayList<String>()
+        journal.downsample(0, 100, 200, 50) { startTime, count, min, max, average ->
+            buckets.add("$startTime $count $min $max $average")
+        }
+        assertEquals(listOf("100 5 0.0 4.0 2.0", "150 5 5.0 9.0 7.0"), buckets)
+    }
+
+    @Test
+    fun olderSampleIsRejected() {
+        val journal = ChannelJournal(MemoryJournalStorage(BLOCK_SIZE))
+        assertTrue(journal.append(0, 1000, 1.0))
+        assertFalse(journal.append(0, 999, 2.0))
+        assertTrue(journal.append(0, 1000, 3.0))
+        assertSamples(listOf(Sample(1000, 1.0), Sample(1000, 3.0)), query(journal, 0, Long.MIN_VALUE, Long.MAX_VALUE))
+    }
+
+    @Test
+    fun reopenRestoresTail() {
+        val storage = MemoryJournalStorage(BLOCK_SIZE)
+        val expected = ArrayList<Sample>((0 until 30).map { Sample(1000L * it, (it % 4) * 0.5) })
+        val journal = ChannelJournal(storage)
+        for (sample in expected) {
+            journal.append(0, sample.time, sample.value)
+        }
+        val blockCount: Int = storage.blockCount
+
+        val reopenedJournal = ChannelJournal(storage)
+        val lastTime: Long = expected.last().time
+        assertFalse(reopenedJournal.append(0, lastTime - 1, 0.0))
+        val sample = Sample(lastTime + 1000, 42.5)
+        assertTrue(reopenedJournal.append(0, sample.time, sample.value))
+        expected.add(sample)
+        assertEquals(blockCount, storage.blockCount) // appending goes on in the last block
+        assertSamples(expected, query(reopenedJournal, 0, Long.MIN_VALUE, Long.MAX_VALUE))
+    }
+
+    @Test
+    fun reopenAfterInterruptedAppend() {
+        val storage = MemoryJournalStorage(BLOCK_SIZE)
+        val expected = ArrayList<Sample>(samples(8))
+        val journal = ChannelJournal(storage)
+        for (sample in expected) {
+            journal.append(0, sample.time, sample.value)
+        }
+        // columns of the next sample are written but its count is not
+        journal.append(0, expected.last().time + 12345, Double.MAX_VALUE)
+        assertEquals(1, storage.blockCount)
+        storage.putInt(0, 4, expected.size)
+
+        val reopenedJournal = ChannelJournal(storage)
+        assertSamples(expected, query(reopenedJournal, 0, Long.MIN_VALUE, Long.MAX_VALUE))
+        val sample = Sample(expected.last().time + 7, 0.25)
+        assertTrue(reopenedJournal.append(0, sample.time, sample.value))
+        expected.add(sample)
+        assertSamples(expected, query(reopenedJournal, 0, Long.MIN_VALUE, Long.MAX_VALUE))
+    }
+
+    /*internals*/
+
+    private class Sample(val time: Long, val value: Double)
+
+    // steady poll interval with jitter and gaps, values with repeats, small steps, jumps and special values
+    private fun samples(count: Int): List<Sample> {
+        val random: Random = Random(17)
+        val result = ArrayList<Sample>(count)
+        var time: Long = 1_600_000_000_000
+        var value: Double = 20.0
+        for (index in 0 until count) {
+            time += when (index % 50) {
+                0 -> random.nextLong(0, 100_000_000)
+                in 1..5 -> random.nextLong(900, 1100)
+                else -> 1000
+            }
+            value = when (index % 7) {
+                0, 1 -> value
+                2 -> value + 0.5
+                3 -> random.nextDouble(-1e6, 1e6)
+                4 -> if (index % 3 == 0) Double.NaN else -0.0
+                else -> index.toDouble()
+            }
+            result.add(Sample(time, value))
+        }
+        return result
+    }
+
+    private fun query(journal: ChannelJournal, channelIndex: Int, from: Long, to: Long): List<Sample> {
+        val result = ArrayList<Sample>()
+        journal.query(channelIndex, from, to) { time, value -> result.add(Sample(time, value)) }
+        return result
+    }
+
+    private fun assertSamples(expected: List<Sample>, actual: List<Sample>) {
+        assertEquals(expected.size, actual.size, "size")
+        for (index in expected.indices) {
+            assertEquals(expected[index].time, actual[index].time, "time at $index")
+            assertEquals(expected[index].value.toRawBits(), actual[index].value.toRawBits(), "value at $index")
+        }
+    }
+
+}
+
+/*internals*/
+
+private const val BLOCK_SIZE: Int = 256
@@ -0,0 +1,73 @@
+package featurea.modbus.transaction
+
+import featurea.utils.ByteQueue
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertFalse
+import kotlin.test.assertTrue
+
+class ReadPlannerTest {
+
+    @Test
+    fun singleRequestWhenEverythingFits() {
+        val ranges: List<IntRange> = plan(ReadPlanner(125), intArrayOf(0, 10, 100), intArrayOf(1, 10, 101))
+        assertEquals(listOf(0..2), ranges)
+    }
+
+    @Test
+    fun splitAtReadLimit() {
+        // greedy reads 0..9 and 12 (11 registers), 0 and 5..12 needs the same two requests for 9 registers
+        val ranges: List<IntRange> = plan(ReadPlanner(10), intArrayOf(0, 5, 9, 12), intArrayOf(0, 5, 9, 12))
+        assertEquals(listOf(0..0, 1..3), ranges)
+    }
+
+    @Test
+    fun neverBridgeWiderGapThanMaxGap() {
+        val ranges: List<IntRange> = plan(ReadPlanner(125, maxGap = 3), intArrayOf(0, 4, 9), intArrayOf(0, 4, 9))
+        assertEquals(listOf(0..1, 2..2), ranges)
+    }
+
+    @Test
+    fun fewestRegistersAmongFewestRequests() {
+        // 0..8 and 20 read 10 registers, 0 and 8..20 read 14, both are two requests
+        val ranges: List<IntRange> = plan(ReadPlanner(13), intArrayOf(0, 8, 20), intArrayOf(0, 8, 20))
+        assertEquals(listOf(0..1, 2..2), ranges)
+    }
+
+    @Test
+    fun wideChannelGetsItsOwnRequest() {
+        val ranges: List<IntRange> = plan(ReadPlanner(4), intArrayOf(0, 2, 20), intArrayOf(0, 11, 20))
+        assertEquals(listOf(0..0, 1..1, 2..2), ranges)
+    }
+
+    @Test
+    fun wideChannelIsReadInFull() {
+        // second channel finishes before first one, request has to cover the first one to its end
+        val ranges: List<IntRange> = plan(ReadPlanner(8), intArrayOf(0, 1, 8), intArrayOf(7, 1, 8))
+        assertEquals(listOf(0..1, 2..2), ranges)
+    }
+
+    @Test
+    fun bitsArePackedLeastSignificantFirst() {
+        // read coils response with 10 coils: 0b10100101, 0b00000010
+        val queue = ByteQueue()
+        queue.pushAll(byteArrayOf(0, 7, 0, 0, 0, 5, MODBUS_TCP_SLAVE_ID, 1, 2, 0b10100101.toByte(), 0b00000010))
+        val response = Response()
+        assertTrue(response.readFrom(queue))
+        val expected = booleanArrayOf(true, false, true, false, false, true, false, true, false, true)
+        for ((index, bit) in expected.withIndex()) {
+            assertEquals(bit, response.bit(index), "index: $index")
+        }
+        assertFalse(response.bit(8))
+        assertEquals(listOf<Short>(1, 0, 1), response.bits(7, 3).toList())
+    }
+
+    /*internals*/
+
+    private fun plan(readPlanner: ReadPlanner, startAddresses: IntArray, finishAddresses: IntArray): List<IntRange> {
+        val result: MutableList<IntRange> = ArrayList()
+        readPlanner.plan(startAddresses, finishAddresses, result)
+        return result
+    }
+
+}
@@ -224,8 +224,15 @@ class OpenglImpl(module: Module) : Opengl(module) {
         glBufferData(target, data.intArraySizeInBytes(), intBuffer1M.rewindData(data), usage)
     }
 
+    override fun bufferData(target: Int, size: Long, usage: Int) {
+        glBufferData(target, size.toInt(), null, usage)
+    }
+
     override fun bufferSubData(target: Int, offset: Long, size: Long, data: FloatArray) {
-        glBufferSubData(target, offset.toInt(), size.toInt(), floatBuffer1M.rewindData(data))
+        val fromIndex: Int = (offset / Float.SIZE_BYTES).toInt()
+        val count: Int = (size / Float.SIZE_BYTES).toInt()
+        floatBuffer1M.apply { clear(); position(0); put(data, fromIndex, count); rewind() }
+        glBufferSubData(target, offset.toInt(), size.toInt(), floatBuffer1M)
     }
 
     override fun viewport(x: Int, y: Int, width: Int, height: Int) {
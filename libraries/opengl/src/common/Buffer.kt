@@ -12,15 +12,25 @@ abstract class Buffer(val drawCallSize: Int, val isMedium: Boolean) {
     var vertexCount: Int = 0
         private set
     var isDirty: Boolean = true
+        get() = field || data.isDirty
         internal set
     val isNotDirty: Boolean
         get() = !isDirty
     val isEmpty: Boolean get() = data.size == 0
     val isNotEmpty: Boolean get() = data.size != 0
 
+    // for geometry rebuilt every frame: storage is orphaned before upload so driver does not stall on draw still in flight
+    var isOrphaning: Boolean = false
+
+    // GPU side state used by Opengl.uploadBuffer, valid floats are 0 until uploadedSize
+    internal var allocatedLimit: Int = -1
+    internal var allocatedUsage: Int = -1
+    internal var uploadedSize: Int = 0
+
     fun vertex(vararg attributes: Float) {
         data.pushAll(attributes)
         vertexCount++
+        isDirty = true
     }
 
     fun clear(drawCallLimit: Int) {
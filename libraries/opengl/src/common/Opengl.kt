@@ -9,6 +9,7 @@ import featurea.runtime.Module
 import featurea.runtime.import
 import featurea.utils.Color
 import featurea.utils.Colors
+import featurea.utils.FloatBuffer
 import featurea.utils.Logger
 import featurea.utils.Stack
 import featurea.window.Window
@@ -344,7 +345,8 @@ abstract class Opengl(override val module: Module) : Component {
     abstract fun blendEquationSeparate(modeRGB: Int, modeAlpha: Int)
     abstract fun bufferData(target: Int, data: FloatArray, usage: Int)
     abstract fun bufferData(target: Int, data: IntArray, usage: Int)
-    abstract fun bufferSubData(target: Int, offset: Long, size: Long, data: FloatArray)
+    abstract fun bufferData(target: Int, size: Long, usage: Int) // allocates or orphans storage without data
+    abstract fun bufferSubData(target: Int, offset: Long, size: Long, data: FloatArray) // size bytes of data from offset, both in bytes
     abstract fun clear(mask: Int)
     abstract fun clearColor(red: Float, green: Float, blue: Float, alpha: Float)
     abstract fun compileShader(shader: Shader)
@@ -413,10 +415,7 @@ abstract class Opengl(override val module: Module) : Component {
         val program: Program = checkNotNull(program)
         program.bindBuffer(buffer)
         bindBuffer(ARRAY_BUFFER, buffer)
-        if (buffer.isDirty) {
-            bufferData(ARRAY_BUFFER, buffer.data.toFloatArray(), usage)
-            buffer.isDirty = false
-        }
+        uploadBuffer(buffer, usage)
         drawArrays(TRIANGLES, 0, buffer.vertexCount)
     }
 
@@ -424,10 +423,7 @@ abstract class Opengl(override val module: Module) : Component {
         val program: Program = checkNotNull(program)
         program.bindBuffer(buffer)
         bindBuffer(ARRAY_BUFFER, buffer)
-        if (buffer.isDirty) {
-            bufferData(ARRAY_BUFFER, buffer.data.toFloatArray(), usage)
-            buffer.isDirty = false
-        }
+        uploadBuffer(buffer, usage)
         drawArrays(TRIANGLE_FAN, 0, buffer.vertexCount)
     }
 
@@ -435,20 +431,14 @@ abstract class Opengl(override val module: Module) : Component {
         val program: Program = checkNotNull(program)
         program.bindBuffer(buffer)
         bindBuffer(ARRAY_BUFFER, buffer)
-        if (buffer.isDirty) {
-            bufferData(ARRAY_BUFFER, buffer.data.toFloatArray(), usage)
-            buffer.isDirty = false
-        }
+        uploadBuffer(buffer, usage)
         drawArrays(TRIANGLE_STRIP, 0, count)
     }
 
     fun drawLineLoop(buffer: Buffer, isSmooth: Boolean = false) {
         val program: Program = checkNotNull(program)
         program.bindBuffer(buffer)
-        if (buffer.isDirty) {
-            bufferData(ARRAY_BUFFER, buffer.data.toFloatArray(), STATIC_DRAW)
-            buffer.isDirty = false
-        }
+        uploadBuffer(buffer, STATIC_DRAW)
         if (isSmooth) {
             enable(LINE_SMOOTH)
         }
@@ -461,10 +451,7 @@ abstract class Opengl(override val module: Module) : Component {
     fun drawLines(buffer: Buffer, isSmooth: Boolean = false) {
         val program: Program = checkNotNull(program)
         program.bindBuffer(buffer)
-        if (buffer.isDirty) {
-            bufferData(ARRAY_BUFFER, buffer.data.toFloatArray(), STATIC_DRAW)
-            buffer.isDirty = false
-        }
+        uploadBuffer(buffer, STATIC_DRAW)
         if (isSmooth) {
             enable(LINE_SMOOTH)
         }
@@ -477,10 +464,7 @@ abstract class Opengl(override val module: Module) : Component {
     fun drawLineStrip(buffer: Buffer, count: Int = buffer.vertexCount, isSmooth: Boolean = false) {
         val program: Program = checkNotNull(program)
         program.bindBuffer(buffer)
-        if (buffer.isDirty) {
-            bufferData(ARRAY_BUFFER, buffer.data.toFloatArray(), STATIC_DRAW)
-            buffer.isDirty = false
-        }
+        uploadBuffer(buffer, STATIC_DRAW)
         if (isSmooth) {
             enable(LINE_SMOOTH)
         }
@@ -490,6 +474,31 @@ abstract class Opengl(override val module: Module) : Component {
         }
     }
 
+    // only floats touched since previous upload are sent, storage is allocated on first upload and on limit or usage change
+    fun uploadBuffer(buffer: Buffer, usage: Int = STATIC_DRAW) {
+        if (buffer.isNotDirty) return
+
+        val data: FloatBuffer = buffer.data
+        if (buffer.allocatedLimit != data.limit || buffer.allocatedUsage != usage || buffer.isOrphaning) {
+            bufferData(ARRAY_BUFFER, data.limit.toLong() * Float.SIZE_BYTES, usage)
+            buffer.allocatedLimit = data.limit
+            buffer.allocatedUsage = usage
+            buffer.uploadedSize = 0
+        }
+        var from: Int = data.dirtyFrom
+        var to: Int = min(data.dirtyTo, data.size)
+        if (data.size > buffer.uploadedSize) {
+            from = min(from, buffer.uploadedSize)
+            to = data.size
+        }
+        if (from < to) {
+            bufferSubData(ARRAY_BUFFER, from.toLong() * Float.SIZE_BYTES, (to - from).toLong() * Float.SIZE_BYTES, data.toFloatArray())
+        }
+        buffer.uploadedSize = data.size // dirty floats beyond size are dropped by markClean so they are not valid anymore
+        data.markClean()
+        buffer.isDirty = false
+    }
+
     fun scissor(camera: Camera, block: () -> Unit) {
         if (window.useCamera) {
             val (x1, y1, x2, y2) = camera.toScissorRectangle()
@@ -0,0 +1,130 @@
+package featurea.opengl
+
+import featurea.math.Matrix
+import featurea.runtime.Module
+
+/*
+no context, no thread checks: every call is counted and nothing is drawn
+used to verify how many bytes buffer uploads cost per frame
+*/
+class HeadlessOpengl(module: Module) : Opengl(module) {
+
+    var frameCount: Int = 0
+        private set
+    var bufferDataCount: Int = 0
+        private set
+    var bufferSubDataCount: Int = 0
+        private set
+    var drawCount: Int = 0
+        private set
+    var uploadedBytes: Long = 0
+        private set
+    var frameUploadedBytes: Long = 0
+        private set
+    private var nextInstanceId: Int = 1
+
+    // closes current frame, per frame counters start over and totals keep growing
+    fun frame(): Long {
+        val result: Long = frameUploadedBytes
+        frameCount++
+        frameUploadedBytes = 0
+        return result
+    }
+
+    fun resetCounters() {
+        frameCount = 0
+        bufferDataCount = 0
+        bufferSubDataCount = 0
+        drawCount = 0
+        uploadedBytes = 0
+        frameUploadedBytes = 0
+    }
+
+    override fun bufferData(target: Int, data: FloatArray, usage: Int) {
+        bufferDataCount++
+        countUploadedBytes(data.size.toLong() * Float.SIZE_BYTES)
+    }
+
+    override fun bufferData(target: Int, data: IntArray, usage: Int) {
+        bufferDataCount++
+        countUploadedBytes(data.size.toLong() * Int.SIZE_BYTES)
+    }
+
+    override fun bufferData(target: Int, size: Long, usage: Int) {
+        bufferDataCount++
+    }
+
+    override fun bufferSubData(target: Int, offset: Long, size: Long, data: FloatArray) {
+        check(offset + size <= data.size.toLong() * Float.SIZE_BYTES) { "offset: $offset, size: $size, data: ${data.size}" }
+        bufferSubDataCount++
+        countUploadedBytes(size)
+    }
+
+    override fun drawArrays(mode: Int, first: Int, count: Int) {
+        drawCount++
+    }
+
+    override fun drawElements(mode: Int, count: Int, type: Int, indices: IntArray) {
+        drawCount++
+    }
+
+    override fun createBuffer(drawCallSize: Int, isMedium: Boolean): Buffer = BufferImpl(drawCallSize, isMedium, nextInstanceId++)
+    override fun createProgram(): Program = ProgramImpl(module, nextInstanceId++)
+    override fun createShader(type: Int): Shader = Shader(nextInstanceId++)
+    override fun createTexture(texturePath: String): Texture = Texture(nextInstanceId++)
+    override fun getAttributeLocation(program: Program, name: String): Int = 0
+    override fun getProgramInfoLog(program: Program): String = ""
+    override fun getProgramParameter(program: Program, parameter: Int): Int = TRUE
+    override fun getShaderInfoLog(shader: Shader): String = ""
+    override fun getShaderParameter(shader: Shader, parameter: Int): Int = TRUE
+    override fun getString(name: Int): String = "headless"
+    override fun getUniformLocation(program: Program, name: String): UniformLocation = UniformLocation(0)
+
+    override fun activeTexture(texture: Int) {}
+    override fun attachShader(program: Program, shader: Shader) {}
+    override fun bindAttributeLocation(program: Program, index: Int, name: String) {}
+    override fun bindBuffer(target: Int, buffer: Buffer?) {}
+    override fun bindTexture(target: Int, texture: Texture?) {}
+    override fun blendColor(red: Float, green: Float, blue: Float, alpha: Float) {}
+    override fun blendEquation(mode: Int) {}
+    override fun blendFunction(sourceFactor: Int, destinationFactor: Int) {}
+    override fun blendFunctionSeparate(srcRgb: Int, dstRgb: Int, srcAlpha: Int, dstAlpha: Int) {}
+    override fun blendEquationSeparate(modeRGB: Int, modeAlpha: Int) {}
+    override fun clear(mask: Int) {}
+    override fun clearColor(red: Float, green: Float, blue: Float, alpha: Float) {}
+    override fun compileShader(shader: Shader) {}
+    override fun cullFace(mode: Int) {}
+    override fun deleteBuffer(buffer: Buffer) {}
+    override fun deleteShader(shader: Shader) {}
+    override fun deleteTexture(texture: Texture) {}
+    override fun depthFunction(function: Int) {}
+    override fun disable(capability: Int) {}
+    override fun disableVertexAttributeArray(index: Int) {}
+    override fun enable(capability: Int) {}
+    override fun enableVertexAttribArray(index: Int) {}
+    override fun generateMipmap(target: Int) {}
+    override fun lineWidth(width: Float) {}
+    override fun linkProgram(program: Program) {}
+    override fun pixelStore(parameter: Int, value: Int) {}
+    override fun polygonMode(face: Int, mode: Int) {}
+    override fun scissor(x: Int, y: Int, width: Int, height: Int) {}
+    override fun shaderSource(shader: Shader, source: String) {}
+    override fun textureParameter(target: Int, parameter: Int, value: Int) {}
+    override fun uniform(location: UniformLocation, float: Float) {}
+    override fun uniform(location: UniformLocation, int: Int) {}
+    override fun uniform(location: UniformLocation, float1: Float, float2: Float) {}
+    override fun uniform(location: UniformLocation, float1: Float, float2: Float, float3: Float) {}
+    override fun uniform(location: UniformLocation, float1: Float, float2: Float, float3: Float, float4: Float) {}
+    override fun uniform(location: UniformLocation, matrix: Matrix) {}
+    override fun useProgram(program: Program?) {}
+    override fun vertexAttributePointer(index: Int, size: Int, type: Int, stride: Int, offset: Int) {}
+    override fun viewport(x: Int, y: Int, width: Int, height: Int) {}
+
+    /*internals*/
+
+    private fun countUploadedBytes(byteCount: Long) {
+        uploadedBytes += byteCount
+        frameUploadedBytes += byteCount
+    }
+
+}
@@ -295,9 +295,17 @@ class OpenglImpl(module: Module) : Opengl(module) {
         context.bufferData(intBuffer1M, target, data, usage)
     }
 
+    override fun bufferData(target: Int, size: Long, usage: Int) {
+        checkAwtThread("bufferData")
+        context.glBufferData(target, size, null, usage)
+    }
+
     override fun bufferSubData(target: Int, offset: Long, size: Long, data: FloatArray) {
-        floatBuffer1M.apply { clear(); position(0); put(data, 0, data.size); rewind() }
-        context.glBufferSubData(target, offset, data.floatArraySizeInBytes().toLong(), floatBuffer1M)
+        checkAwtThread("bufferSubData")
+        val fromIndex: Int = (offset / Float.SIZE_BYTES).toInt()
+        val count: Int = (size / Float.SIZE_BYTES).toInt()
+        floatBuffer1M.apply { clear(); position(0); put(data, fromIndex, count); rewind() } // only dirty range goes through staging buffer
+        context.glBufferSubData(target, offset, size, floatBuffer1M)
     }
 
     override fun viewport(x: Int, y: Int, width: Int, height: Int) {
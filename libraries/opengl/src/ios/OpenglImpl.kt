@@ -244,8 +244,13 @@ class OpenglImpl(module: Module) : Opengl(module) {
         glBufferData(target = target, size = size.toLong(), data = data.refTo(0), usage = usage)
     }
 
+    override fun bufferData(target: Int, size: Long, usage: Int) {
+        glBufferData(target = target.toUInt(), size = size, data = null, usage = usage.toUInt())
+    }
+
     override fun bufferSubData(target: Int, offset: Long, size: Long, data: FloatArray) {
-        glBufferSubData(target.toUInt(), offset, size, data.refTo(0))
+        val fromIndex: Int = (offset / Float.SIZE_BYTES).toInt()
+        glBufferSubData(target.toUInt(), offset, size, data.refTo(fromIndex))
     }
 
     override fun viewport(x: Int, y: Int, width: Int, height: Int) {
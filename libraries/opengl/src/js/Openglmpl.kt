@@ -213,9 +213,16 @@ class OpenglImpl(module: Module) : Opengl(module) {
         context.bufferData(target, data as BufferDataSource, usage)
     }
 
+    override fun bufferData(target: Int, size: Long, usage: Int) {
+        context.bufferData(target, size.toInt(), usage)
+    }
+
     override fun bufferSubData(target: Int, offset: Long, size: Long, data: FloatArray) {
-        @Suppress("UNCHECKED_CAST_TO_EXTERNAL_INTERFACE", "CAST_NEVER_SUCCEEDS")
-        context.bufferSubData(target, offset.toInt(), data as BufferDataSource)
+        val fromIndex: Int = (offset / Float.SIZE_BYTES).toInt()
+        val toIndex: Int = fromIndex + (size / Float.SIZE_BYTES).toInt()
+        val range: dynamic = data.asDynamic().subarray(fromIndex, toIndex) // view without copy, FloatArray is Float32Array
+        @Suppress("UNCHECKED_CAST_TO_EXTERNAL_INTERFACE")
+        context.bufferSubData(target, offset.toInt(), range as BufferDataSource)
     }
 
     override fun viewport(x: Int, y: Int, width: Int, height: Int) {
@@ -0,0 +1,48 @@
+package org.dyn4j.benchmark
+
+import org.dyn4j.dynamics.World
+
+/**
+ * Minimal JMH-style harness: runs warmup iterations, then measured iterations, and prints the
+ * average time per operation. Each iteration runs the setup once and then `operations` calls.
+ */
+class Benchmark(val name: String, val warmupIterations: Int = 5, val measurementIterations: Int = 10) {
+
+    fun <T> run(label: String, operations: Int, setup: () -> T, operation: (T) -> Unit): Double {
+        repeat(warmupIterations) {
+            measure(operations, setup(), operation)
+        }
+        var totalNanos = 0L
+        repeat(measurementIterations) {
+            totalNanos += measure(operations, setup(), operation)
+        }
+        val nanosPerOperation = totalNanos.toDouble() / (measurementIterations.toLong() * operations)
+        println("$name $label: ${"%.3f".format(nanosPerOperation / 1_000_000.0)} ms/op")
+        return nanosPerOperation
+    }
+
+    private fun <T> measure(operations: Int, state: T, operation: (T) -> Unit): Long {
+        val start = System.nanoTime()
+        repeat(operations) {
+            operation(state)
+        }
+        return System.nanoTime() - start
+    }
+
+}
+
+/**
+ * Returns true if the bodies of both worlds have bit-identical transforms.
+ */
+fun isBitIdentical(world1: World, world2: World): Boolean {
+    if (world1.bodyCount != world2.bodyCount) return false
+    for (i in 0 until world1.bodyCount) {
+        val transform1 = world1.getBody(i)!!.transform!!
+        val transform2 = world2.getBody(i)!!.transform!!
+        if (transform1.x.toRawBits() != transform2.x.toRawBits()) return false
+        if (transform1.y.toRawBits() != transform2.y.toRawBits()) return false
+        if (transform1.cost.toRawBits() != transform2.cost.toRawBits()) return false
+        if (transform1.sint.toRawBits() != transform2.sint.toRawBits()) return false
+    }
+    return true
+}
@@ -0,0 +1,54 @@
+package org.dyn4j.benchmark
+
+import org.dyn4j.collision.broadphase.BroadphaseDetector
+import org.dyn4j.collision.broadphase.BruteForceBroadphase
+import org.dyn4j.collision.broadphase.DynamicAABBTree
+import org.dyn4j.collision.broadphase.LazyAABBTree
+import org.dyn4j.collision.broadphase.Sap
+import org.dyn4j.dynamics.Body
+import org.dyn4j.dynamics.BodyFixture
+import org.dyn4j.geometry.Geometry
+import org.dyn4j.geometry.MassType
+import java.lang.management.ManagementFactory
+
+/**
+ * Measures [BroadphaseDetector.update] of every body of a world, the call [org.dyn4j.dynamics.World.detect]
+ * makes each step, and the bytes it allocates per body update.
+ */
+fun main() {
+    val threadMXBean = ManagementFactory.getThreadMXBean() as com.sun.management.ThreadMXBean
+    val benchmark = Benchmark("BroadphaseDetector.update")
+    val bodyCount = 5_000
+    val bodies = List(bodyCount) { i ->
+        val body = Body()
+        body.addFixture(Geometry.createSquare(0.5))
+        body.setMass(MassType.NORMAL)
+        body.translate((i % 100).toDouble(), (i / 100).toDouble())
+        body
+    }
+    val detectors = listOf<Pair<String, () -> BroadphaseDetector<Body, BodyFixture>>>(
+        "Sap" to { Sap() },
+        "DynamicAABBTree" to { DynamicAABBTree() },
+        "LazyAABBTree" to { LazyAABBTree() },
+        "BruteForceBroadphase" to { BruteForceBroadphase() }
+    )
+    for ((label, factory) in detectors) {
+        val setup = {
+            val detector = factory()
+            for (body in bodies) detector.add(body)
+            detector
+        }
+        benchmark.run(label, 100, setup) { detector ->
+            for (body in bodies) detector.update(body)
+        }
+
+        val detector = setup()
+        val threadId = Thread.currentThread().id
+        val start = threadMXBean.getThreadAllocatedBytes(threadId)
+        repeat(100) {
+            for (body in bodies) detector.update(body)
+        }
+        val bytes = (threadMXBean.getThreadAllocatedBytes(threadId) - start) / (100L * bodyCount)
+        println("BroadphaseDetector.update $label: $bytes bytes/update")
+    }
+}
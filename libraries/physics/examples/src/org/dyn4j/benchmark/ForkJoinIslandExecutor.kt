@@ -0,0 +1,50 @@
+package org.dyn4j.benchmark
+
+import org.dyn4j.dynamics.IslandExecutor
+import org.dyn4j.dynamics.IslandTask
+import java.util.concurrent.ForkJoinPool
+import java.util.concurrent.RecursiveAction
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * [IslandExecutor] solving the islands on a [ForkJoinPool].
+ *
+ *
+ * Each worker thread claims islands from a shared counter, so large and small islands are balanced
+ * between the workers without allocating a task per island.
+ */
+class ForkJoinIslandExecutor(val pool: ForkJoinPool) : IslandExecutor {
+
+    constructor(parallelism: Int) : this(ForkJoinPool(parallelism))
+
+    override val parallelism: Int = pool.parallelism
+
+    private val nextIsland = AtomicInteger()
+
+    override fun invokeAll(islandCount: Int, task: IslandTask) {
+        if (islandCount == 0) return
+        if (islandCount == 1 || parallelism == 1) {
+            IslandExecutor.SERIAL.invokeAll(islandCount, task)
+            return
+        }
+        nextIsland.set(0)
+        val workerCount = minOf(parallelism, islandCount)
+        pool.invoke(object : RecursiveAction() {
+            override fun compute() {
+                val workers = Array(workerCount) { worker -> Worker(worker, islandCount, task) }
+                invokeAll(*workers)
+            }
+        })
+    }
+
+    private inner class Worker(val worker: Int, val islandCount: Int, val task: IslandTask) : RecursiveAction() {
+        override fun compute() {
+            while (true) {
+                val island = nextIsland.getAndIncrement()
+                if (island >= islandCount) return
+                task.solve(worker, island)
+            }
+        }
+    }
+
+}
@@ -0,0 +1,44 @@
+package org.dyn4j.benchmark
+
+import org.dyn4j.dynamics.NarrowphaseExecutor
+import org.dyn4j.dynamics.NarrowphaseTask
+import java.util.concurrent.ForkJoinPool
+import java.util.concurrent.RecursiveAction
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * [NarrowphaseExecutor] running the narrow-phase batches on a [ForkJoinPool].
+ */
+class ForkJoinNarrowphaseExecutor(val pool: ForkJoinPool) : NarrowphaseExecutor {
+
+    constructor(parallelism: Int) : this(ForkJoinPool(parallelism))
+
+    private val nextBatch = AtomicInteger()
+
+    override fun invokeAll(batchCount: Int, task: NarrowphaseTask) {
+        if (batchCount == 0) return
+        if (batchCount == 1 || pool.parallelism == 1) {
+            NarrowphaseExecutor.SERIAL.invokeAll(batchCount, task)
+            return
+        }
+        nextBatch.set(0)
+        val workerCount = minOf(pool.parallelism, batchCount)
+        pool.invoke(object : RecursiveAction() {
+            override fun compute() {
+                val workers = Array(workerCount) { Worker(batchCount, task) }
+                invokeAll(*workers)
+            }
+        })
+    }
+
+    private inner class Worker(val batchCount: Int, val task: NarrowphaseTask) : RecursiveAction() {
+        override fun compute() {
+            while (true) {
+                val batch = nextBatch.getAndIncrement()
+                if (batch >= batchCount) return
+                task.detect(batch)
+            }
+        }
+    }
+
+}
@@ -0,0 +1,70 @@
+package org.dyn4j.benchmark
+
+import org.dyn4j.collision.broadphase.BatchBroadphaseDetector
+import org.dyn4j.collision.broadphase.BroadphaseDetector
+import org.dyn4j.collision.broadphase.BruteForceBroadphase
+import org.dyn4j.collision.broadphase.DynamicAABBTree
+import org.dyn4j.collision.broadphase.LazyAABBTree
+import org.dyn4j.collision.broadphase.Sap
+import org.dyn4j.collision.broadphase.UniformGrid
+import org.dyn4j.dynamics.Body
+import org.dyn4j.dynamics.BodyFixture
+import org.dyn4j.geometry.Geometry
+import org.dyn4j.geometry.MassType
+import kotlin.math.sqrt
+import kotlin.random.Random
+
+/**
+ * Compares the pair finding time of the broad-phase detectors on uniformly distributed
+ * small bodies, the top-down arena case, at 1k, 10k and 50k bodies. Each operation moves
+ * every body, updates the detector and finds all pairs, like a [org.dyn4j.dynamics.World] step.
+ */
+fun main() {
+    val benchmark = Benchmark("BroadphaseDetector.detect", 3, 5)
+    for (bodyCount in intArrayOf(1_000, 10_000, 50_000)) {
+        val bodies = arena(bodyCount)
+        val detectors = mutableListOf<Pair<String, () -> BroadphaseDetector<Body, BodyFixture>>>(
+            "UniformGrid" to { UniformGrid(1.0) },
+            "Sap" to { Sap() },
+            "DynamicAABBTree" to { DynamicAABBTree() },
+            "LazyAABBTree" to { LazyAABBTree() }
+        )
+        // the brute force detector is O(n^2)
+        if (bodyCount <= 1_000) detectors.add("BruteForceBroadphase" to { BruteForceBroadphase() })
+
+        for ((label, factory) in detectors) {
+            val setup = {
+                val detector = factory()
+                for (body in bodies) detector.add(body)
+                detector
+            }
+            // the pair counts differ slightly since not all detectors expand the AABBs
+            val pairs = setup().detect().size
+
+            var direction = 1.0
+            benchmark.run("$label bodies=$bodyCount pairs=$pairs", 10, setup) { detector ->
+                direction = -direction
+                for (body in bodies) body.translate(0.01 * direction, 0.0)
+                if (detector is BatchBroadphaseDetector) {
+                    detector.batchUpdate()
+                } else {
+                    for (body in bodies) detector.update(body)
+                }
+                detector.detect()
+            }
+        }
+    }
+}
+
+private fun arena(bodyCount: Int): List<Body> {
+    val random = Random(0)
+    // keep the density the same for all counts
+    val size = sqrt(bodyCount.toDouble()) * 2.0
+    return List(bodyCount) {
+        val body = Body()
+        body.addFixture(Geometry.createCircle(0.25))
+        body.setMass(MassType.NORMAL)
+        body.translate(random.nextDouble() * size, random.nextDouble() * size)
+        body
+    }
+}
@@ -0,0 +1,52 @@
+package org.dyn4j.benchmark
+
+import org.dyn4j.dynamics.Body
+import org.dyn4j.dynamics.World
+import org.dyn4j.geometry.Geometry
+import org.dyn4j.geometry.MassType
+
+/**
+ * Compares the serial step with the [ForkJoinIslandExecutor] step on a world made of many
+ * independent stacks, and checks that both produce bit-identical body transforms.
+ */
+fun main() {
+    val benchmark = Benchmark("World.step")
+    val stackCount = 400
+    val stackHeight = 10
+    val steps = 20
+
+    val expected = stackedWorld(stackCount, stackHeight, null).apply { step(steps) }
+    for (threads in intArrayOf(1, 2, 4, 8)) {
+        val executor = ForkJoinIslandExecutor(threads)
+        val actual = stackedWorld(stackCount, stackHeight, executor).apply { step(steps) }
+        check(isBitIdentical(expected, actual)) { "parallel step differs from serial step with $threads threads" }
+        benchmark.run("threads=$threads", steps, { stackedWorld(stackCount, stackHeight, executor).apply { step(10) } }) { world ->
+            world.step(1)
+        }
+        executor.pool.shutdown()
+    }
+    benchmark.run("serial", steps, { stackedWorld(stackCount, stackHeight, null).apply { step(10) } }) { world ->
+        world.step(1)
+    }
+}
+
+private fun stackedWorld(stackCount: Int, stackHeight: Int, executor: ForkJoinIslandExecutor?): World {
+    val world = World()
+    world.islandExecutor = executor
+    for (stack in 0 until stackCount) {
+        val x = stack * 3.0
+        val floor = Body()
+        floor.addFixture(Geometry.createRectangle(2.0, 0.5))
+        floor.setMass(MassType.INFINITE)
+        floor.translate(x, 0.0)
+        world.addBody(floor)
+        for (level in 0 until stackHeight) {
+            val box = Body()
+            box.addFixture(Geometry.createSquare(1.0))
+            box.setMass(MassType.NORMAL)
+            box.translate(x, 0.75 + level * 1.01)
+            world.addBody(box)
+        }
+    }
+    return world
+}
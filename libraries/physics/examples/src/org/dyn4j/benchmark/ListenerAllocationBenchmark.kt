@@ -0,0 +1,59 @@
+package org.dyn4j.benchmark
+
+import org.dyn4j.collision.BoundsAdapter
+import org.dyn4j.dynamics.Body
+import org.dyn4j.dynamics.CollisionAdapter
+import org.dyn4j.dynamics.StepAdapter
+import org.dyn4j.dynamics.TimeOfImpactAdapter
+import org.dyn4j.dynamics.World
+import org.dyn4j.dynamics.contact.ContactAdapter
+import org.dyn4j.geometry.Geometry
+import org.dyn4j.geometry.MassType
+import java.lang.management.ManagementFactory
+
+/**
+ * Counts the bytes allocated per [World.step] with and without listeners attached. The listener
+ * dispatch is allocation-free when both counts are the same.
+ */
+fun main() {
+    val threadMXBean = ManagementFactory.getThreadMXBean() as com.sun.management.ThreadMXBean
+    val steps = 10_000
+
+    fun allocatedBytesPerStep(listenerCount: Int): Long {
+        val world = World()
+        repeat(listenerCount) {
+            world.addListener(StepAdapter())
+            world.addListener(ContactAdapter())
+            world.addListener(BoundsAdapter())
+            world.addListener(CollisionAdapter())
+            world.addListener(TimeOfImpactAdapter())
+        }
+        val floor = Body()
+        floor.addFixture(Geometry.createRectangle(100.0, 1.0))
+        floor.setMass(MassType.INFINITE)
+        world.addBody(floor)
+        for (i in 0 until 100) {
+            val body = Body()
+            body.addFixture(Geometry.createSquare(0.5))
+            body.setMass(MassType.NORMAL)
+            body.translate(i - 50.0, 1.0)
+            world.addBody(body)
+        }
+        // let the bodies come to rest
+        world.step(1000)
+        val threadId = Thread.currentThread().id
+        val start = threadMXBean.getThreadAllocatedBytes(threadId)
+        world.step(steps)
+        return (threadMXBean.getThreadAllocatedBytes(threadId) - start) / steps
+    }
+
+    // warmup
+    allocatedBytesPerStep(0)
+    allocatedBytesPerStep(8)
+
+    val withoutListeners = allocatedBytesPerStep(0)
+    val withListeners = allocatedBytesPerStep(8)
+    println("World.step without listeners: $withoutListeners bytes/step")
+    println("World.step with 40 listeners: $withListeners bytes/step")
+    println("listener dispatch: ${withListeners - withoutListeners} bytes/step")
+}
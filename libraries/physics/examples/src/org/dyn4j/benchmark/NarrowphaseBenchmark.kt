@@ -0,0 +1,48 @@
+package org.dyn4j.benchmark
+
+import org.dyn4j.dynamics.Body
+import org.dyn4j.dynamics.World
+import org.dyn4j.geometry.Geometry
+import org.dyn4j.geometry.MassType
+
+/**
+ * Compares the pair by pair narrow-phase with the [ForkJoinNarrowphaseExecutor] batches on a dense
+ * pile of 5k bodies, and checks that both produce bit-identical body transforms.
+ */
+fun main() {
+    val benchmark = Benchmark("World.detect")
+    val bodyCount = 5000
+    val steps = 20
+
+    val expected = pileWorld(bodyCount, null).apply { step(steps) }
+    for (threads in intArrayOf(1, 2, 4, 8)) {
+        val executor = ForkJoinNarrowphaseExecutor(threads)
+        val actual = pileWorld(bodyCount, executor).apply { step(steps) }
+        check(isBitIdentical(expected, actual)) { "batched narrow-phase differs from serial with $threads threads" }
+        benchmark.run("threads=$threads", steps, { pileWorld(bodyCount, executor).apply { step(10) } }) { world ->
+            world.step(1)
+        }
+        executor.pool.shutdown()
+    }
+    benchmark.run("serial", steps, { pileWorld(bodyCount, null).apply { step(10) } }) { world ->
+        world.step(1)
+    }
+}
+
+private fun pileWorld(bodyCount: Int, executor: ForkJoinNarrowphaseExecutor?): World {
+    val world = World()
+    world.narrowphaseExecutor = executor
+    val columns = 100
+    val floor = Body()
+    floor.addFixture(Geometry.createRectangle(columns * 1.0 + 2.0, 1.0))
+    floor.setMass(MassType.INFINITE)
+    world.addBody(floor)
+    for (i in 0 until bodyCount) {
+        val body = Body()
+        if (i % 2 == 0) body.addFixture(Geometry.createSquare(0.9)) else body.addFixture(Geometry.createCircle(0.45))
+        body.setMass(MassType.NORMAL)
+        body.translate((i % columns) - columns / 2.0, 1.0 + (i / columns) * 0.95)
+        world.addBody(body)
+    }
+    return world
+}
@@ -0,0 +1,51 @@
+package org.dyn4j.benchmark
+
+import org.dyn4j.dynamics.Body
+import org.dyn4j.dynamics.World
+import org.dyn4j.geometry.Geometry
+import org.dyn4j.geometry.MassType
+
+/**
+ * Compares the object island solver with the packed island solver on a world made of a few
+ * wide pyramids, and checks that both produce bit-identical body transforms.
+ */
+fun main() {
+    val benchmark = Benchmark("Island.solve")
+    val pyramidCount = 4
+    val pyramidBase = 40
+    val steps = 20
+
+    val expected = pyramidWorld(pyramidCount, pyramidBase, false).apply { step(steps) }
+    val actual = pyramidWorld(pyramidCount, pyramidBase, true).apply { step(steps) }
+    check(isBitIdentical(expected, actual)) { "packed solving differs from object solving" }
+
+    for (isPacked in booleanArrayOf(false, true)) {
+        benchmark.run("packed=$isPacked", steps, { pyramidWorld(pyramidCount, pyramidBase, isPacked).apply { step(10) } }) { world ->
+            world.step(1)
+        }
+    }
+}
+
+private fun pyramidWorld(pyramidCount: Int, pyramidBase: Int, isPacked: Boolean): World {
+    val world = World()
+    world.settings.isPackedSolvingEnabled = isPacked
+    world.settings.isAutoSleepingEnabled = false
+    for (pyramid in 0 until pyramidCount) {
+        val x = pyramid * (pyramidBase + 5.0)
+        val floor = Body()
+        floor.addFixture(Geometry.createRectangle(pyramidBase + 2.0, 0.5))
+        floor.setMass(MassType.INFINITE)
+        floor.translate(x, 0.0)
+        world.addBody(floor)
+        for (row in 0 until pyramidBase) {
+            for (column in 0 until pyramidBase - row) {
+                val box = Body()
+                box.addFixture(Geometry.createSquare(1.0))
+                box.setMass(MassType.NORMAL)
+                box.translate(x - (pyramidBase - row) * 0.5 + column + 0.5, 0.75 + row * 1.01)
+                world.addBody(box)
+            }
+        }
+    }
+    return world
+}
@@ -0,0 +1,50 @@
+package org.dyn4j.benchmark
+
+import org.dyn4j.collision.broadphase.DynamicAABBTree
+import org.dyn4j.collision.broadphase.LazyAABBTree
+import org.dyn4j.dynamics.Body
+import org.dyn4j.dynamics.World
+import org.dyn4j.geometry.Geometry
+import org.dyn4j.geometry.MassType
+
+/**
+ * Measures [World.step] on a world where most bodies are asleep, with and without resting contact
+ * caching, to show that the step cost follows the number of moving bodies.
+ */
+fun main() {
+    val benchmark = Benchmark("World.step (sleeping)")
+    val bodyCount = 10_000
+    for (awakeCount in intArrayOf(bodyCount, 1_000, 100)) {
+        for (isLazy in booleanArrayOf(false, true)) {
+            for (isCaching in booleanArrayOf(false, true)) {
+                val label = "awake=$awakeCount lazy=$isLazy caching=$isCaching"
+                benchmark.run(label, 10, { sleepingWorld(bodyCount, awakeCount, isLazy, isCaching).apply { step(1) } }) { world ->
+                    world.step(1)
+                }
+            }
+        }
+    }
+}
+
+private fun sleepingWorld(bodyCount: Int, awakeCount: Int, isLazy: Boolean, isCaching: Boolean): World {
+    val world = World()
+    world.gravity = World.ZERO_GRAVITY
+    world.settings.isRestingContactCachingEnabled = isCaching
+    world.broadphaseDetector = if (isLazy) LazyAABBTree() else DynamicAABBTree()
+    val columns = 100
+    for (i in 0 until bodyCount) {
+        val body = Body()
+        body.addFixture(Geometry.createSquare(1.0))
+        body.setMass(MassType.NORMAL)
+        // the sleeping bodies are packed in touching rows so they keep their contacts
+        body.translate((i % columns) * 1.0, (i / columns) * 2.0)
+        if (i < awakeCount) {
+            body.setLinearVelocity(0.0, -0.5)
+            body.setAutoSleepingEnabled(false)
+        } else {
+            body.setAsleep(true)
+        }
+        world.addBody(body)
+    }
+    return world
+}
@@ -0,0 +1,84 @@
+package org.dyn4j.benchmark
+
+import org.dyn4j.dynamics.Body
+import org.dyn4j.dynamics.World
+import org.dyn4j.dynamics.WorldSnapshot
+import org.dyn4j.dynamics.joint.RevoluteJoint
+import org.dyn4j.geometry.Geometry
+import org.dyn4j.geometry.MassType
+import org.dyn4j.geometry.Vector2
+
+/**
+ * Measures [World.snapshot] and [World.restore] per 1k bodies on a world of stacked boxes and
+ * pendulum chains, and checks that restoring and stepping again is bit-identical.
+ */
+fun main() {
+    val benchmark = Benchmark("World.snapshot")
+    val steps = 30
+
+    // only the second world takes a snapshot, then runs ahead and rewinds
+    val expected = snapshotWorld(1_000).apply { step(60) }
+    val actual = snapshotWorld(1_000).apply { step(60) }
+    val snapshot = actual.snapshot()
+    expected.step(steps)
+    actual.step(steps + 15)
+    actual.restore(snapshot)
+    actual.step(steps)
+    check(isBitIdentical(expected, actual)) { "restored world differs from the original" }
+
+    for (bodyCount in intArrayOf(1_000, 10_000)) {
+        val perThousand = bodyCount / 1_000.0
+        val setup = { snapshotWorld(bodyCount).apply { step(60) } to WorldSnapshot() }
+        val snapshotNanos = benchmark.run("snapshot bodies=$bodyCount", 10, setup) { (world, snapshot) ->
+            world.snapshot(snapshot)
+        }
+        val restoreNanos = benchmark.run("restore bodies=$bodyCount", 10, { setup().also { (world, snapshot) -> world.snapshot(snapshot) } }) { (world, snapshot) ->
+            world.restore(snapshot)
+        }
+        val size = setup().let { (world, snapshot) -> world.snapshot(snapshot).size }
+        println("World.snapshot bodies=$bodyCount: " +
+                "${"%.3f".format(snapshotNanos / perThousand / 1_000.0)} us/1k bodies snapshot, " +
+                "${"%.3f".format(restoreNanos / perThousand / 1_000.0)} us/1k bodies restore, " +
+                "${size / perThousand / 1_024.0} KiB/1k bodies")
+    }
+}
+
+private fun snapshotWorld(bodyCount: Int): World {
+    val world = World()
+    val columns = 50
+    val floor = Body()
+    floor.addFixture(Geometry.createRectangle(columns * 2.0, 1.0))
+    floor.setMass(MassType.INFINITE)
+    world.addBody(floor)
+    // half of the bodies are stacked boxes and half are pendulum chains
+    val boxCount = bodyCount / 2
+    for (i in 0 until boxCount) {
+        val box = Body()
+        box.addFixture(Geometry.createSquare(1.0))
+        box.setMass(MassType.NORMAL)
+        box.translate((i % columns) * 2.0 - columns, 1.0 + (i / columns) * 1.01)
+        world.addBody(box)
+    }
+    val chainLength = 10
+    var previous = floor
+    for (i in boxCount until bodyCount - 1) {
+        val link = i - boxCount
+        val x = (link / chainLength) * 2.0 - columns
+        val y = 200.0 - (link % chainLength)
+        val body = Body()
+        body.addFixture(Geometry.createRectangle(0.25, 1.0))
+        body.setMass(MassType.NORMAL)
+        body.translate(x + 0.5, y)
+        world.addBody(body)
+        if (link % chainLength == 0) {
+            val anchor = Body()
+            anchor.setMass(MassType.INFINITE)
+            anchor.translate(x, y + 0.5)
+            world.addBody(anchor)
+            previous = anchor
+        }
+        world.addJoint(RevoluteJoint(previous, body, Vector2(x, y + 0.5)))
+        previous = body
+    }
+    return world
+}
@@ -79,6 +79,15 @@ open class Fixture : DataContainer {
     /** The user data  */
     override var userData: Any? = null
 
+    /** The broad-phase detector that stored [broadphaseProxy]  */
+    internal var broadphaseDetector: Any? = null
+
+    /** The [Collidable] this fixture was added to the [broadphaseDetector] with  */
+    internal var broadphaseCollidable: Collidable<*>? = null
+
+    /** The [broadphaseDetector]'s proxy for this fixture; avoids a map look up per update  */
+    internal var broadphaseProxy: Any? = null
+
     /**
      * Minimal constructor.
      * @param shape the [Convex] [Shape] for this fixture
@@ -144,6 +144,49 @@ abstract class AbstractBroadphaseDetector<E : Collidable<T>, T : Fixture> : Broa
         return true
     }
 
+    /**
+     * Stores the given proxy on the given [Fixture] so that later look ups
+     * for the same [Collidable] don't need to create a [BroadphaseKey].
+     * @param collidable the collidable
+     * @param fixture the fixture
+     * @param proxy this detector's proxy for the collidable-fixture pair
+     * @since 3.4.1
+     */
+    protected fun attachProxy(collidable: E, fixture: T, proxy: Any) {
+        fixture.broadphaseDetector = this
+        fixture.broadphaseCollidable = collidable
+        fixture.broadphaseProxy = proxy
+    }
+
+    /**
+     * Removes the given proxy from the given [Fixture] if it's the one stored on it.
+     * @param fixture the fixture
+     * @param proxy this detector's proxy for the collidable-fixture pair
+     * @since 3.4.1
+     */
+    protected fun detachProxy(fixture: Fixture, proxy: Any) {
+        if (fixture.broadphaseProxy !== proxy) return
+        fixture.broadphaseDetector = null
+        fixture.broadphaseCollidable = null
+        fixture.broadphaseProxy = null
+    }
+
+    /**
+     * Returns the proxy stored on the given [Fixture] by this detector for the given [Collidable].
+     *
+     *
+     * Returns null when the fixture isn't in this detector or when its proxy was stored by another
+     * detector or for another collidable; callers should then fall back to a [BroadphaseKey] look up.
+     * @param collidable the collidable
+     * @param fixture the fixture
+     * @return Any the proxy or null
+     * @since 3.4.1
+     */
+    protected fun getAttachedProxy(collidable: E, fixture: T?): Any? {
+        if (fixture == null || fixture.broadphaseDetector !== this || fixture.broadphaseCollidable !== collidable) return null
+        return fixture.broadphaseProxy
+    }
+
     /**
      * Returns true if the ray and AABB intersect.
      *
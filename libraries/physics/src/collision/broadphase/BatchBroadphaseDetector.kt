@@ -45,4 +45,19 @@ interface BatchBroadphaseDetector<E : Collidable<T>, T : Fixture> : BroadphaseDe
      * Updates all the [Fixture]s on all the [Collidable]s that have been added to this [BroadphaseDetector] up until now.
      */
     fun batchUpdate()
+
+    /**
+     * Updates all the [Fixture]s of the given [Collidable]s only, for example the ones that moved since the last update.
+     *
+     *
+     * By default each [Collidable] is updated on its own.
+     * @param collidables the [Collidable]s to update
+     * @since 3.4.1
+     */
+    fun batchUpdate(collidables: List<E>) {
+        val size = collidables.size
+        for (i in 0 until size) {
+            update(collidables[i])
+        }
+    }
 }
\ No newline at end of file
@@ -81,4 +81,18 @@ interface BroadphaseFilter<E : Collidable<T>, T : Fixture> {
      * @return boolean
      */
     fun isAllowed(ray: Ray?, length: Double, collidable: E, fixture: T): Boolean
+
+    /**
+     * Returns true if the given [Collidable] is at rest.
+     *
+     *
+     * A filter returning true for both collidables of a pair must not allow the pair, so the
+     * [BroadphaseDetector.detect] methods can skip testing such pairs altogether.
+     * @param collidable the [Collidable]
+     * @return boolean
+     * @since 3.4.1
+     */
+    fun isAtRest(collidable: E): Boolean {
+        return false
+    }
 }
\ No newline at end of file
@@ -44,35 +44,39 @@ class BroadphasePair<E : Collidable<T>, T : Fixture>
  * @param collidable2 the second collidable
  * @param fixture2 the second collidable's fixture
  */(
+    collidable1: E,
+    fixture1: T,
+    collidable2: E,
+    fixture2: T
+) {
     /** The first [Collidable]  */
-    val collidable1: E,
+    var collidable1: E = collidable1
+        private set
+
     /** The first [Collidable]'s [Fixture]  */
-    val fixture1: T,
+    var fixture1: T = fixture1
+        private set
+
     /** The second [Collidable]  */
-    val collidable2: E,
-    /** The second [Collidable]'s [Fixture]  */
-    val fixture2: T
-) {
-    // the first
-    /**
-     * Returns the first [Collidable].
-     * @return E
-     */
+    var collidable2: E = collidable2
+        private set
 
-    /**
-     * Returns the first [Fixture].
-     * @return T
-     */
-    // the second
-    /**
-     * Returns the second [Collidable].
-     * @return E
-     */
+    /** The second [Collidable]'s [Fixture]  */
+    var fixture2: T = fixture2
+        private set
 
     /**
-     * Returns the second [Fixture].
-     * @return T
+     * Swaps the first and the second side of this pair in place.
+     * @since 3.4.1
      */
+    internal fun flip() {
+        val collidable = collidable1
+        val fixture = fixture1
+        collidable1 = collidable2
+        fixture1 = fixture2
+        collidable2 = collidable
+        fixture2 = fixture
+    }
 
     /* (non-Javadoc)
 	 * @see java.lang.Object#equals(java.lang.Object)
@@ -75,25 +75,38 @@ class BruteForceBroadphase<E : Collidable<T>, T : Fixture> : AbstractBroadphaseD
      * @see org.dyn4j.collision.broadphase.BroadphaseDetector#add(org.dyn4j.collision.Collidable, org.dyn4j.collision.Fixture)
      */
     override fun add(collidable: E, fixture: T) {
-        val key = BroadphaseKey[collidable, fixture]
-        val node = this.map[key]
+        val node = getNode(collidable, fixture)
         if (node != null) {
             // if the collidable-fixture has already been added just update it
             node.updateAABB()
         } else {
             // else add the new node
-            this.map[key] = BruteForceBroadphaseNode<E, T>(collidable, fixture)
+            val newNode = BruteForceBroadphaseNode<E, T>(collidable, fixture)
+            this.map[BroadphaseKey[collidable, fixture]] = newNode
+            attachProxy(collidable, fixture, newNode)
         }
     }
 
+    /**
+     * Returns the node for the given [Collidable] [Fixture] or null if it's not in this broad-phase.
+     * @param collidable the collidable
+     * @param fixture the fixture
+     * @return [BruteForceBroadphaseNode]
+     */
+    @Suppress("UNCHECKED_CAST")
+    private fun getNode(collidable: E, fixture: T): BruteForceBroadphaseNode<E, T>? {
+        return getAttachedProxy(collidable, fixture) as BruteForceBroadphaseNode<E, T>? ?: this.map[BroadphaseKey[collidable, fixture]]
+    }
+
     /* (non-Javadoc)
      * @see org.dyn4j.collision.broadphase.BroadphaseDetector#remove(org.dyn4j.collision.Collidable, org.dyn4j.collision.Fixture)
      */
 	override fun remove(collidable: E, fixture: T?): Boolean {
         val key = BroadphaseKey.get(collidable, fixture)
         // find the node in the map
-        val node = this.map.remove(key)
-        return node != null
+        val node = this.map.remove(key) ?: return false
+        detachProxy(node.fixture, node)
+        return true
     }
 
     /* (non-Javadoc)
@@ -107,8 +120,7 @@ class BruteForceBroadphase<E : Collidable<T>, T : Fixture> : AbstractBroadphaseD
      * @see org.dyn4j.collision.broadphase.BroadphaseDetector#getAABB(org.dyn4j.collision.Collidable, org.dyn4j.collision.Fixture)
      */
 	override fun getAABB(collidable: E, fixture: T): AABB? {
-        val key = BroadphaseKey.get(collidable, fixture)
-        val node = this.map.get(key)
+        val node = getNode(collidable, fixture)
         if (node != null) {
             return node.aabb
         }
@@ -119,14 +131,16 @@ class BruteForceBroadphase<E : Collidable<T>, T : Fixture> : AbstractBroadphaseD
      * @see org.dyn4j.collision.broadphase.BroadphaseDetector#contains(org.dyn4j.collision.Collidable, org.dyn4j.collision.Fixture)
      */
     override fun contains(collidable: E, fixture: T): Boolean {
-        val key = BroadphaseKey.get(collidable, fixture)
-        return this.map.containsKey(key)
+        return getNode(collidable, fixture) != null
     }
 
     /* (non-Javadoc)
      * @see org.dyn4j.collision.broadphase.BroadphaseDetector#clear()
      */
     override fun clear() {
+        for (node in this.map.values) {
+            detachProxy(node.fixture, node)
+        }
         this.map.clear()
     }
 
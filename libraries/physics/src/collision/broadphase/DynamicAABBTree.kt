@@ -59,13 +59,12 @@ class DynamicAABBTree<E : Collidable<T>, T : Fixture> constructor(initialCapacit
 	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#add(org.dyn4j.collision.Collidable, org.dyn4j.collision.Fixture)
 	 */
     override fun add(collidable: E, fixture: T) {
-        val key = BroadphaseKey.get(collidable, fixture)
         // see if the collidable-fixture has already been added
-        val node = map[key]
+        val node = getNode(collidable, fixture)
         if (node != null) {
-            this.update(key, node, collidable, fixture)
+            this.update(null, node, collidable, fixture)
         } else {
-            this.add(key, collidable, fixture)
+            this.add(BroadphaseKey.get(collidable, fixture), collidable, fixture)
         }
     }
 
@@ -89,6 +88,7 @@ class DynamicAABBTree<E : Collidable<T>, T : Fixture> constructor(initialCapacit
         node.aabb = aabb
         // add the proxy to the map
         map[key] = node
+        attachProxy(collidable, fixture, node)
         // insert the node into the tree
         insert(node)
     }
@@ -102,6 +102,7 @@ class DynamicAABBTree<E : Collidable<T>, T : Fixture> constructor(initialCapacit
         val node = map.remove(key)
         // make sure it was found
         if (node != null) {
+            detachProxy(node.fixture, node)
             // remove the node from the tree
             this.remove(node)
             return true
@@ -113,25 +114,38 @@ class DynamicAABBTree<E : Collidable<T>, T : Fixture> constructor(initialCapacit
 	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#update(org.dyn4j.collision.Collidable, org.dyn4j.collision.Fixture)
 	 */
     override fun update(collidable: E, fixture: T) {
-        val key = BroadphaseKey.get(collidable, fixture)
-        // get the node from the map
-        val node = map[key]
+        // get the node from the fixture or the map
+        val node = getNode(collidable, fixture)
         // make sure we found it
         if (node != null) {
             // update the node
-            this.update(key, node, collidable, fixture)
+            this.update(null, node, collidable, fixture)
         } else {
             // add the node
-            this.add(key, collidable, fixture)
+            this.add(BroadphaseKey.get(collidable, fixture), collidable, fixture)
         }
     }
 
+    /**
+     * Returns the leaf for the given [Collidable] [Fixture] or null if it's not in this broad-phase.
+     *
+     *
+     * The leaf stored on the fixture is used when possible, otherwise it's looked up in the [map].
+     * @param collidable the collidable
+     * @param fixture the fixture
+     * @return [DynamicAABBTreeLeaf]
+     */
+    @Suppress("UNCHECKED_CAST")
+    private fun getNode(collidable: E, fixture: T): DynamicAABBTreeLeaf<E, T>? {
+        return getAttachedProxy(collidable, fixture) as DynamicAABBTreeLeaf<E, T>? ?: map[BroadphaseKey.get(collidable, fixture)]
+    }
+
     /**
      * Internal update method.
      *
      *
      * This method assumes the given arguments are all non-null.
-     * @param key the key for the collidable-fixture pair
+     * @param key the key for the collidable-fixture pair; unused
      * @param node the current node in the tree
      * @param collidable the collidable
      * @param fixture the fixture
@@ -159,8 +173,7 @@ class DynamicAABBTree<E : Collidable<T>, T : Fixture> constructor(initialCapacit
 	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#getAABB(org.dyn4j.collision.Collidable, org.dyn4j.collision.Fixture)
 	 */
     override fun getAABB(collidable: E, fixture: T): AABB? {
-        val key = BroadphaseKey.get(collidable, fixture)
-        val node = map[key]
+        val node = getNode(collidable, fixture)
         return node?.aabb ?: fixture!!.shape.createAABB(collidable!!.transform)
     }
 
@@ -168,14 +181,16 @@ class DynamicAABBTree<E : Collidable<T>, T : Fixture> constructor(initialCapacit
 	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#contains(org.dyn4j.collision.Collidable, org.dyn4j.collision.Fixture)
 	 */
     override fun contains(collidable: E, fixture: T): Boolean {
-        val key = BroadphaseKey.get(collidable, fixture)
-        return map.containsKey(key)
+        return getNode(collidable, fixture) != null
     }
 
     /* (non-Javadoc)
 	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#clear()
 	 */
     override fun clear() {
+        for (node in map.values) {
+            detachProxy(node.fixture, node)
+        }
         map.clear()
         root = null
     }
@@ -205,6 +220,9 @@ class DynamicAABBTree<E : Collidable<T>, T : Fixture> constructor(initialCapacit
 
         // test each collidable in the list
         for (node in nodes) {
+            // pairs of collidables at rest aren't allowed, so a collidable at rest is
+            // only tested when the tree is searched for the other collidable of a pair
+            if (filter.isAtRest(node.collidable)) continue
             // perform a stackless detection routine
             detectNonRecursive(node, root, filter, pairs)
             // update the tested flag
@@ -98,9 +98,7 @@ class LazyAABBTree<E : Collidable<T>, T : Fixture> constructor(initialCapacity:
 	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#add(org.dyn4j.collision.Collidable, org.dyn4j.collision.Fixture)
 	 */
     override fun add(collidable: E, fixture: T) {
-        // create a new node for the collidable
-        val key = BroadphaseKey[collidable, fixture]
-        val existing: LazyAABBTreeLeaf<E, T>? = elementMap.get(key)
+        val existing: LazyAABBTreeLeaf<E, T>? = getLeaf(collidable, fixture)
         if (existing != null) {
             // update existing node
             if (existing.isOnTree()) {
@@ -109,9 +107,10 @@ class LazyAABBTree<E : Collidable<T>, T : Fixture> constructor(initialCapacity:
             }
             existing.updateAABB()
         } else {
-            // add new node
+            // create a new node for the collidable
             val node = LazyAABBTreeLeaf(collidable, fixture)
-            elementMap[key] = node
+            elementMap[BroadphaseKey[collidable, fixture]] = node
+            attachProxy(collidable, fixture, node)
             elements.add(node)
             sorted = false
         }
@@ -127,6 +126,7 @@ class LazyAABBTree<E : Collidable<T>, T : Fixture> constructor(initialCapacity:
         val node: LazyAABBTreeLeaf<E, T>? = elementMap.remove(key)
         // make sure it was found
         if (node != null) {
+            detachProxy(node.fixture, node)
             if (node.isOnTree()) {
                 // remove the node from the tree
                 // since the node is on the tree we know that the root is not null
@@ -140,6 +140,46 @@ class LazyAABBTree<E : Collidable<T>, T : Fixture> constructor(initialCapacity:
         return false
     }
 
+    /* (non-Javadoc)
+	 * @see org.dyn4j.collision.broadphase.BatchBroadphaseDetector#batchUpdate(java.util.List)
+	 */
+    override fun batchUpdate(collidables: List<E>) {
+        // the tree is rebuilt by the next detection anyway, so only the AABBs are updated
+        for (node in elements) {
+            node.setOnTree(false)
+        }
+        root = null
+        val size = collidables.size
+        for (i in 0 until size) {
+            val collidable = collidables[i]
+            val fSize = collidable.fixtureCount
+            for (j in 0 until fSize) {
+                val fixture = collidable.getFixture(j)
+                val leaf = getLeaf(collidable, fixture)
+                if (leaf != null) {
+                    leaf.updateAABB()
+                } else {
+                    add(collidable, fixture)
+                }
+            }
+        }
+        pendingInserts = true
+    }
+
+    /**
+     * Returns the leaf for the given [Collidable] [Fixture] or null if it's not in this broad-phase.
+     *
+     *
+     * The leaf stored on the fixture is used when possible, otherwise it's looked up in the [elementMap].
+     * @param collidable the collidable
+     * @param fixture the fixture
+     * @return [LazyAABBTreeLeaf]
+     */
+    @Suppress("UNCHECKED_CAST")
+    private fun getLeaf(collidable: E, fixture: T): LazyAABBTreeLeaf<E, T>? {
+        return getAttachedProxy(collidable, fixture) as LazyAABBTreeLeaf<E, T>? ?: elementMap[BroadphaseKey[collidable, fixture]]
+    }
+
     /**
      * Internal method to remove a leaf from the tree.
      * Assumes the root is not null.
@@ -192,8 +232,7 @@ class LazyAABBTree<E : Collidable<T>, T : Fixture> constructor(initialCapacity:
 	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#getAABB(org.dyn4j.collision.Collidable, org.dyn4j.collision.Fixture)
 	 */
     override fun getAABB(collidable: E, fixture: T): AABB? {
-        val key = BroadphaseKey[collidable, fixture]
-        val node: LazyAABBTreeLeaf<E, T>? = elementMap.get(key)
+        val node: LazyAABBTreeLeaf<E, T>? = getLeaf(collidable, fixture)
         return if (node != null && !node.mustRemove()) {
             node.aabb
         } else fixture.shape.createAABB(collidable.transform)
@@ -203,14 +242,16 @@ class LazyAABBTree<E : Collidable<T>, T : Fixture> constructor(initialCapacity:
 	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#contains(org.dyn4j.collision.Collidable, org.dyn4j.collision.Fixture)
 	 */
     override fun contains(collidable: E, fixture: T): Boolean {
-        val key = BroadphaseKey[collidable, fixture]
-        return elementMap.containsKey(key)
+        return getLeaf(collidable, fixture) != null
     }
 
     /* (non-Javadoc)
 	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#clear()
 	 */
     override fun clear() {
+        for (node in elementMap.values) {
+            detachProxy(node.fixture, node)
+        }
         elementMap.clear()
         elements.clear()
         root = null
@@ -355,9 +396,22 @@ class LazyAABBTree<E : Collidable<T>, T : Fixture> constructor(initialCapacity:
         doPendingRemoves()
         ensureSorted()
         val size = elements.size
+        if (filter == null) {
+            for (i in 0 until size) {
+                val node = elements[i]
+                this.insertAndDetect(node, filter, pairs)
+            }
+            return
+        }
+        // pairs of collidables at rest aren't allowed, so they are inserted first without
+        // detection and found while the remaining collidables are inserted
+        for (i in 0 until size) {
+            val node = elements[i]
+            if (filter.isAtRest(node.collidable)) this.insert(node)
+        }
         for (i in 0 until size) {
             val node = elements[i]
-            this.insertAndDetect(node, filter, pairs)
+            if (!node.isOnTree()) this.insertAndDetect(node, filter, pairs)
         }
     }
 
@@ -85,12 +85,11 @@ class Sap<E : Collidable<T>, T : Fixture> : AbstractBroadphaseDetector<E, T>, Br
 	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#add(org.dyn4j.collision.Collidable, org.dyn4j.collision.Fixture)
 	 */
     override fun add(collidable: E, fixture: T) {
-        val key = BroadphaseKey[collidable, fixture]
-        val proxy = map!![key]
+        val proxy = getProxy(collidable, fixture)
         if (proxy == null) {
-            this.add(key, collidable, fixture)
+            this.add(BroadphaseKey[collidable, fixture], collidable, fixture)
         } else {
-            this.update(key, proxy, collidable, fixture)
+            this.update(null, proxy, collidable, fixture)
         }
     }
 
@@ -113,6 +112,7 @@ class Sap<E : Collidable<T>, T : Fixture> : AbstractBroadphaseDetector<E, T>, Br
         val proxy = SapProxy(collidable, fixture, aabb)
         // add the proxy to the map
         map!![key] = proxy
+        attachProxy(collidable, fixture, proxy)
         // insert the node into the tree
         tree.insert(proxy)
     }
@@ -126,6 +126,7 @@ class Sap<E : Collidable<T>, T : Fixture> : AbstractBroadphaseDetector<E, T>, Br
         val proxy = map!!.remove(key)
         // make sure it was found
         if (proxy != null) {
+            detachProxy(proxy.fixture, proxy)
             // remove the proxy from the tree
             tree.remove(proxy)
             return true
@@ -137,27 +138,40 @@ class Sap<E : Collidable<T>, T : Fixture> : AbstractBroadphaseDetector<E, T>, Br
 	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#update(org.dyn4j.collision.Collidable, org.dyn4j.collision.Fixture)
 	 */
     override fun update(collidable: E, fixture: T) {
-        val key = BroadphaseKey[collidable, fixture]
-        val proxy = map!![key]
+        val proxy = getProxy(collidable, fixture)
         if (proxy != null) {
-            this.update(key, proxy, collidable, fixture)
+            this.update(null, proxy, collidable, fixture)
         } else {
-            this.add(key, collidable, fixture)
+            this.add(BroadphaseKey[collidable, fixture], collidable, fixture)
         }
     }
 
+    /**
+     * Returns the proxy for the given [Collidable] [Fixture] or null if it's not in this broad-phase.
+     *
+     *
+     * The proxy stored on the fixture is used when possible, otherwise it's looked up in the [map].
+     * @param collidable the collidable
+     * @param fixture the fixture
+     * @return [SapProxy]
+     */
+    @Suppress("UNCHECKED_CAST")
+    private fun getProxy(collidable: E, fixture: T): SapProxy<E, T>? {
+        return getAttachedProxy(collidable, fixture) as SapProxy<E, T>? ?: map!![BroadphaseKey[collidable, fixture]]
+    }
+
 
     /**
      * Internal update method.
      *
      *
      * This method assumes the given arguments are all non-null.
-     * @param key the key for the collidable-fixture pair
+     * @param key the key for the collidable-fixture pair; unused
      * @param proxy the current node in the tree
      * @param collidable the collidable
      * @param fixture the fixture
      */
-    fun update(key: BroadphaseKey, proxy: SapProxy<E, T>, collidable: E, fixture: T) {
+    fun update(key: BroadphaseKey?, proxy: SapProxy<E, T>, collidable: E, fixture: T) {
         val tx = collidable.transform
         // create the new aabb
         val aabb = fixture.shape.createAABB(tx)
@@ -181,8 +195,7 @@ class Sap<E : Collidable<T>, T : Fixture> : AbstractBroadphaseDetector<E, T>, Br
 	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#getAABB(org.dyn4j.collision.Collidable, org.dyn4j.collision.Fixture)
 	 */
     override fun getAABB(collidable: E, fixture: T): AABB? {
-        val key = BroadphaseKey[collidable, fixture]
-        val proxy = map!![key]
+        val proxy = getProxy(collidable, fixture)
         return proxy?.aabb ?: fixture.shape.createAABB(collidable.transform)
     }
 
@@ -190,14 +203,16 @@ class Sap<E : Collidable<T>, T : Fixture> : AbstractBroadphaseDetector<E, T>, Br
 	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#contains(org.dyn4j.collision.Collidable, org.dyn4j.collision.Fixture)
 	 */
     override fun contains(collidable: E, fixture: T): Boolean {
-        val key = BroadphaseKey[collidable, fixture]
-        return map!!.containsKey(key)
+        return getProxy(collidable, fixture) != null
     }
 
     /* (non-Javadoc)
 	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#clear()
 	 */
     override fun clear() {
+        for (proxy in map!!.values) {
+            detachProxy(proxy.fixture, proxy)
+        }
         map!!.clear()
         tree.clear()
     }
@@ -0,0 +1,548 @@
+package org.dyn4j.collision.broadphase
+
+import org.dyn4j.collision.Collidable
+import org.dyn4j.collision.Collisions
+import org.dyn4j.collision.Fixture
+import org.dyn4j.geometry.AABB
+import org.dyn4j.geometry.Ray
+import org.dyn4j.geometry.Vector2
+import org.dyn4j.resources.message
+import kotlin.math.floor
+import kotlin.math.max
+import kotlin.math.min
+
+/**
+ * Implementation of a uniform grid (spatial hash) broad-phase collision detection algorithm.
+ *
+ *
+ * The AABBs of all [Collidable] [Fixture]s are stored in primitive arrays. Before each query the grid is
+ * rebuilt in O(n) with a counting sort of the cells each AABB overlaps into a hashed bucket table, after
+ * which [detect] only tests AABBs that share a cell. A pair that shares more than one cell is only
+ * reported by the cell containing the minimum corner of the overlap of both AABBs.
+ *
+ *
+ * This algorithm is best suited to large worlds of similarly sized, uniformly distributed collidables
+ * where the cell size is close to the typical AABB size. AABBs spanning more than [MAXIMUM_CELLS_PER_PROXY]
+ * cells (a floor for example) are kept out of the grid and tested against every other AABB.
+ * @param <E> the [Collidable] type
+ * @param <T> the [Fixture] type
+</T></E> */
+class UniformGrid<E : Collidable<T>, T : Fixture> constructor(
+    cellSize: Double = DEFAULT_CELL_SIZE,
+    initialCapacity: Int = BroadphaseDetector.DEFAULT_INITIAL_CAPACITY
+) : AbstractBroadphaseDetector<E, T>(), BatchBroadphaseDetector<E, T> {
+
+    /** The width and height of a cell  */
+    val cellSize: Double
+
+    /** The inverse of the cell size  */
+    private val invCellSize: Double
+
+    /** Id to proxy map for fast lookup  */
+    internal val map: MutableMap<BroadphaseKey, UniformGridProxy<E, T>>
+
+    /** The proxies by index  */
+    private val proxies: MutableList<UniformGridProxy<E, T>>
+
+    // the AABBs by proxy index
+
+    private var minX: DoubleArray
+    private var minY: DoubleArray
+    private var maxX: DoubleArray
+    private var maxY: DoubleArray
+
+    /** True if the proxy spans too many cells to be put in the grid  */
+    private var isLarge: BooleanArray
+
+    /** The query stamp per proxy used to report a proxy once per query  */
+    private var stamps: IntArray
+
+    /** The current query stamp  */
+    private var stamp = 0
+
+    /** The indices of the large proxies  */
+    private var largeProxies = IntArray(0)
+
+    /** The number of large proxies  */
+    private var largeCount = 0
+
+    /** The bucket table size minus one; the table size is a power of two  */
+    private var mask = 0
+
+    /** The start of each bucket in the entry arrays; the last element is the entry count  */
+    private var bucketStart = IntArray(1)
+
+    /** The next free entry of each bucket while filling  */
+    private var bucketCursor = IntArray(0)
+
+    // the grid entries sorted by bucket
+
+    private var entryProxy = IntArray(0)
+    private var entryCellX = IntArray(0)
+    private var entryCellY = IntArray(0)
+
+    /** True if the grid must be rebuilt before the next query  */
+    private var dirty = false
+
+    init {
+        if (cellSize <= 0.0) throw IllegalArgumentException(message("collision.broadphase.uniformGrid.invalidCellSize"))
+        if (initialCapacity < 0) throw IllegalArgumentException(message("collision.broadphase.invalidInitialCapacity"))
+        this.cellSize = cellSize
+        invCellSize = 1.0 / cellSize
+        // 0.75 = 3/4, we can garuantee that the hashmap will not need to be rehashed
+        // if we take capacity / load factor
+        map = LinkedHashMap(initialCapacity * 4 / 3 + 1, 0.75f)
+        proxies = ArrayList(initialCapacity)
+        minX = DoubleArray(initialCapacity)
+        minY = DoubleArray(initialCapacity)
+        maxX = DoubleArray(initialCapacity)
+        maxY = DoubleArray(initialCapacity)
+        isLarge = BooleanArray(initialCapacity)
+        stamps = IntArray(initialCapacity)
+    }
+
+    /* (non-Javadoc)
+	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#add(org.dyn4j.collision.Collidable, org.dyn4j.collision.Fixture)
+	 */
+    override fun add(collidable: E, fixture: T) {
+        val proxy = getProxy(collidable, fixture)
+        if (proxy != null) {
+            update(proxy)
+            return
+        }
+        val index = proxies.size
+        ensureCapacity(index + 1)
+        val newProxy = UniformGridProxy(collidable, fixture)
+        newProxy.index = index
+        proxies.add(newProxy)
+        map[BroadphaseKey[collidable, fixture]] = newProxy
+        attachProxy(collidable, fixture, newProxy)
+        val aabb = fixture.shape.createAABB(collidable.transform)
+        aabb.expand(expansion)
+        setAABB(index, aabb)
+        dirty = true
+    }
+
+    /* (non-Javadoc)
+	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#remove(org.dyn4j.collision.Collidable, org.dyn4j.collision.Fixture)
+	 */
+    override fun remove(collidable: E, fixture: T?): Boolean {
+        val key = BroadphaseKey[collidable, fixture]
+        val proxy = map.remove(key) ?: return false
+        detachProxy(proxy.fixture, proxy)
+        // move the last proxy into the free index
+        val index = proxy.index
+        val last = proxies.size - 1
+        if (index != last) {
+            val moved = proxies[last]
+            moved.index = index
+            proxies[index] = moved
+            minX[index] = minX[last]
+            minY[index] = minY[last]
+            maxX[index] = maxX[last]
+            maxY[index] = maxY[last]
+        }
+        proxies.removeAt(last)
+        dirty = true
+        return true
+    }
+
+    /* (non-Javadoc)
+	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#update(org.dyn4j.collision.Collidable, org.dyn4j.collision.Fixture)
+	 */
+    override fun update(collidable: E, fixture: T) {
+        val proxy = getProxy(collidable, fixture)
+        if (proxy != null) {
+            update(proxy)
+        } else {
+            add(collidable, fixture)
+        }
+    }
+
+    /**
+     * Updates the AABB of the given proxy if it has left its expanded AABB.
+     * @param proxy the proxy
+     */
+    private fun update(proxy: UniformGridProxy<E, T>) {
+        val index = proxy.index
+        val aabb = proxy.fixture.shape.createAABB(proxy.collidable.transform)
+        // see if the old aabb contains the new one
+        if (minX[index] <= aabb.minX && maxX[index] >= aabb.maxX && minY[index] <= aabb.minY && maxY[index] >= aabb.maxY) {
+            // if so, don't do anything
+            return
+        }
+        aabb.expand(expansion)
+        setAABB(index, aabb)
+        dirty = true
+    }
+
+    /* (non-Javadoc)
+	 * @see org.dyn4j.collision.broadphase.BatchBroadphaseDetector#batchUpdate()
+	 */
+    override fun batchUpdate() {
+        val size = proxies.size
+        for (i in 0 until size) {
+            update(proxies[i])
+        }
+    }
+
+    /**
+     * Returns the proxy for the given [Collidable] [Fixture] or null if it's not in this broad-phase.
+     * @param collidable the collidable
+     * @param fixture the fixture
+     * @return [UniformGridProxy]
+     */
+    @Suppress("UNCHECKED_CAST")
+    private fun getProxy(collidable: E, fixture: T): UniformGridProxy<E, T>? {
+        return getAttachedProxy(collidable, fixture) as UniformGridProxy<E, T>? ?: map[BroadphaseKey[collidable, fixture]]
+    }
+
+    /* (non-Javadoc)
+	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#getAABB(org.dyn4j.collision.Collidable, org.dyn4j.collision.Fixture)
+	 */
+    override fun getAABB(collidable: E, fixture: T): AABB? {
+        val proxy = getProxy(collidable, fixture) ?: return fixture.shape.createAABB(collidable.transform)
+        val index = proxy.index
+        return AABB(minX[index], minY[index], maxX[index], maxY[index])
+    }
+
+    /* (non-Javadoc)
+	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#contains(org.dyn4j.collision.Collidable, org.dyn4j.collision.Fixture)
+	 */
+    override fun contains(collidable: E, fixture: T): Boolean {
+        return getProxy(collidable, fixture) != null
+    }
+
+    /* (non-Javadoc)
+	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#clear()
+	 */
+    override fun clear() {
+        for (proxy in proxies) {
+            detachProxy(proxy.fixture, proxy)
+        }
+        map.clear()
+        proxies.clear()
+        dirty = true
+    }
+
+    /* (non-Javadoc)
+	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#size()
+	 */
+    override fun size(): Int {
+        return proxies.size
+    }
+
+    /* (non-Javadoc)
+	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#detect(org.dyn4j.collision.broadphase.BroadphaseFilter)
+	 */
+    override fun detect(filter: BroadphaseFilter<E, T>): List<BroadphasePair<E, T>> {
+        val size = proxies.size
+        if (size == 0) return emptyList()
+        rebuild()
+
+        // the estimated size of the pair list
+        val eSize = Collisions.getEstimatedCollisionPairs(size)
+        val pairs = ArrayList<BroadphasePair<E, T>>(eSize)
+
+        // test the proxies sharing a cell
+        val tableSize = mask + 1
+        for (b in 0 until tableSize) {
+            val end = bucketStart[b + 1]
+            for (e1 in bucketStart[b] until end) {
+                val i = entryProxy[e1]
+                val cx = entryCellX[e1]
+                val cy = entryCellY[e1]
+                for (e2 in e1 + 1 until end) {
+                    // different cells can share a bucket
+                    if (entryCellX[e2] != cx || entryCellY[e2] != cy) continue
+                    val j = entryProxy[e2]
+                    if (!overlaps(i, j)) continue
+                    // only report the pair in the cell containing the minimum corner of the overlap
+                    if (cell(max(minX[i], minX[j])) != cx || cell(max(minY[i], minY[j])) != cy) continue
+                    addPair(i, j, filter, pairs)
+                }
+            }
+        }
+
+        // test the large proxies against all others
+        for (k in 0 until largeCount) {
+            val i = largeProxies[k]
+            for (j in 0 until size) {
+                // pairs of large proxies are tested once
+                if (j == i || (isLarge[j] && j < i)) continue
+                if (overlaps(i, j)) addPair(i, j, filter, pairs)
+            }
+        }
+        return pairs
+    }
+
+    /* (non-Javadoc)
+	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#detect(org.dyn4j.geometry.AABB, org.dyn4j.collision.broadphase.BroadphaseFilter)
+	 */
+    override fun detect(aabb: AABB, filter: BroadphaseFilter<E, T>): List<BroadphaseItem<E, T>> {
+        if (proxies.isEmpty()) return emptyList()
+        val list = ArrayList<BroadphaseItem<E, T>>(Collisions.estimatedCollisionsPerObject)
+        forEachCandidate(aabb.minX, aabb.minY, aabb.maxX, aabb.maxY) { i ->
+            if (minX[i] <= aabb.maxX && maxX[i] >= aabb.minX && minY[i] <= aabb.maxY && maxY[i] >= aabb.minY) {
+                val proxy = proxies[i]
+                if (filter.isAllowed(aabb, proxy.collidable, proxy.fixture)) {
+                    list.add(BroadphaseItem(proxy.collidable, proxy.fixture))
+                }
+            }
+        }
+        return list
+    }
+
+    /* (non-Javadoc)
+	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#raycast(org.dyn4j.geometry.Ray, double, org.dyn4j.collision.broadphase.BroadphaseFilter)
+	 */
+    override fun raycast(ray: Ray, length: Double, filter: BroadphaseFilter<E, T>): List<BroadphaseItem<E, T>> {
+        if (proxies.isEmpty()) return emptyList()
+
+        // create an aabb from the ray
+        val s = ray.start!!
+        val d = ray.directionVector
+
+        // get the length
+        var l = length
+        if (length <= 0.0) l = Double.MAX_VALUE
+
+        // compute the coordinates
+        val x1 = s.x
+        val x2 = s.x + d.x * l
+        val y1 = s.y
+        val y2 = s.y + d.y * l
+
+        // precompute
+        val invDx = 1.0 / d.x
+        val invDy = 1.0 / d.y
+
+        val eSize = Collisions.getEstimatedRaycastCollisions(proxies.size)
+        val list = ArrayList<BroadphaseItem<E, T>>(eSize)
+        forEachCandidate(min(x1, x2), min(y1, y2), max(x1, x2), max(y1, y2)) { i ->
+            if (raycast(s, l, invDx, invDy, i)) {
+                val proxy = proxies[i]
+                if (filter.isAllowed(ray, length, proxy.collidable, proxy.fixture)) {
+                    list.add(BroadphaseItem(proxy.collidable, proxy.fixture))
+                }
+            }
+        }
+        return list
+    }
+
+    /* (non-Javadoc)
+	 * @see org.dyn4j.geometry.Shiftable#shift(org.dyn4j.geometry.Vector2)
+	 */
+    override fun shift(shift: Vector2) {
+        val size = proxies.size
+        for (i in 0 until size) {
+            minX[i] += shift.x
+            minY[i] += shift.y
+            maxX[i] += shift.x
+            maxY[i] += shift.y
+        }
+        dirty = true
+    }
+
+    /**
+     * Calls the given action once for each proxy that may overlap the given AABB.
+     *
+     *
+     * Walks the cells of the AABB when there are fewer of them than proxies, otherwise all proxies.
+     */
+    private inline fun forEachCandidate(qMinX: Double, qMinY: Double, qMaxX: Double, qMaxY: Double, action: (Int) -> Unit) {
+        val size = proxies.size
+        val cMinX = cell(qMinX)
+        val cMinY = cell(qMinY)
+        val cMaxX = cell(qMaxX)
+        val cMaxY = cell(qMaxY)
+        val cells = (cMaxX.toLong() - cMinX + 1) * (cMaxY.toLong() - cMinY + 1)
+        if (cells > size) {
+            for (i in 0 until size) action(i)
+            return
+        }
+        rebuild()
+        val stamp = nextStamp()
+        for (cy in cMinY..cMaxY) {
+            for (cx in cMinX..cMaxX) {
+                val b = bucket(cx, cy)
+                for (e in bucketStart[b] until bucketStart[b + 1]) {
+                    val i = entryProxy[e]
+                    if (entryCellX[e] != cx || entryCellY[e] != cy || stamps[i] == stamp) continue
+                    stamps[i] = stamp
+                    action(i)
+                }
+            }
+        }
+        for (k in 0 until largeCount) {
+            action(largeProxies[k])
+        }
+    }
+
+    /**
+     * Rebuilds the grid if any AABB changed since the last rebuild.
+     */
+    private fun rebuild() {
+        if (!dirty) return
+        dirty = false
+        val size = proxies.size
+
+        // find the large proxies and count the entries
+        largeCount = 0
+        var entryCount = 0L
+        for (i in 0 until size) {
+            val cells = (cell(maxX[i]).toLong() - cell(minX[i]) + 1) * (cell(maxY[i]).toLong() - cell(minY[i]) + 1)
+            if (cells > MAXIMUM_CELLS_PER_PROXY) {
+                isLarge[i] = true
+                if (largeCount == largeProxies.size) largeProxies = largeProxies.copyOf(max(4, largeCount * 2))
+                largeProxies[largeCount++] = i
+            } else {
+                isLarge[i] = false
+                entryCount += cells
+            }
+        }
+        val count = entryCount.toInt()
+
+        // size the bucket table to twice the entries
+        var tableSize = 16
+        while (tableSize < count * 2) tableSize = tableSize shl 1
+        mask = tableSize - 1
+        if (bucketStart.size < tableSize + 1) {
+            bucketStart = IntArray(tableSize + 1)
+            bucketCursor = IntArray(tableSize)
+        } else {
+            bucketStart.fill(0, 0, tableSize + 1)
+        }
+        if (entryProxy.size < count) {
+            val capacity = max(count, entryProxy.size * 2)
+            entryProxy = IntArray(capacity)
+            entryCellX = IntArray(capacity)
+            entryCellY = IntArray(capacity)
+        }
+
+        // count the entries per bucket
+        for (i in 0 until size) {
+            if (isLarge[i]) continue
+            for (cy in cell(minY[i])..cell(maxY[i])) {
+                for (cx in cell(minX[i])..cell(maxX[i])) {
+                    bucketStart[bucket(cx, cy) + 1]++
+                }
+            }
+        }
+        for (b in 0 until tableSize) {
+            bucketStart[b + 1] += bucketStart[b]
+            bucketCursor[b] = bucketStart[b]
+        }
+
+        // fill the entries
+        for (i in 0 until size) {
+            if (isLarge[i]) continue
+            for (cy in cell(minY[i])..cell(maxY[i])) {
+                for (cx in cell(minX[i])..cell(maxX[i])) {
+                    val e = bucketCursor[bucket(cx, cy)]++
+                    entryProxy[e] = i
+                    entryCellX[e] = cx
+                    entryCellY[e] = cy
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds the pair of the given proxies to the list if they're allowed by the filter.
+     */
+    private fun addPair(i: Int, j: Int, filter: BroadphaseFilter<E, T>, pairs: MutableList<BroadphasePair<E, T>>) {
+        // order the pair by index so the result doesn't depend on the cell order
+        val a = proxies[min(i, j)]
+        val b = proxies[max(i, j)]
+        // dont compare objects against themselves
+        if (a.collidable === b.collidable) return
+        if (filter.isAllowed(a.collidable, a.fixture, b.collidable, b.fixture)) {
+            pairs.add(BroadphasePair(a.collidable, a.fixture, b.collidable, b.fixture))
+        }
+    }
+
+    /**
+     * Returns true if the AABBs of the given proxies overlap.
+     */
+    private fun overlaps(i: Int, j: Int): Boolean {
+        return minX[i] <= maxX[j] && maxX[i] >= minX[j] && minY[i] <= maxY[j] && maxY[i] >= minY[j]
+    }
+
+    /**
+     * Returns true if the ray and the AABB of the given proxy intersect.
+     * @see AbstractBroadphaseDetector.raycast
+     */
+    private fun raycast(start: Vector2, length: Double, invDx: Double, invDy: Double, i: Int): Boolean {
+        val tx1 = (minX[i] - start.x) * invDx
+        val tx2 = (maxX[i] - start.x) * invDx
+        var tmin = min(tx1, tx2)
+        var tmax = max(tx1, tx2)
+        val ty1 = (minY[i] - start.y) * invDy
+        val ty2 = (maxY[i] - start.y) * invDy
+        tmin = max(tmin, min(ty1, ty2))
+        tmax = min(tmax, max(ty1, ty2))
+        // the ray is pointing in the opposite direction
+        if (tmax < 0) return false
+        // consider the ray length
+        return if (tmin > length) false else tmax >= tmin
+    }
+
+    /**
+     * Returns the cell coordinate of the given world coordinate.
+     */
+    private fun cell(value: Double): Int {
+        return floor(value * invCellSize).toInt()
+    }
+
+    /**
+     * Returns the bucket of the given cell.
+     */
+    private fun bucket(cx: Int, cy: Int): Int {
+        return ((cx * 73856093) xor (cy * 19349663)) and mask
+    }
+
+    /**
+     * Returns a new query stamp, resetting the stamps when they wrap around.
+     */
+    private fun nextStamp(): Int {
+        if (stamp == Int.MAX_VALUE) {
+            stamps.fill(0)
+            stamp = 0
+        }
+        return ++stamp
+    }
+
+    /**
+     * Stores the given AABB at the given index.
+     */
+    private fun setAABB(index: Int, aabb: AABB) {
+        minX[index] = aabb.minX
+        minY[index] = aabb.minY
+        maxX[index] = aabb.maxX
+        maxY[index] = aabb.maxY
+    }
+
+    /**
+     * Grows the per proxy arrays to hold at least the given number of proxies.
+     */
+    private fun ensureCapacity(capacity: Int) {
+        if (minX.size >= capacity) return
+        val size = max(capacity, minX.size * 2)
+        minX = minX.copyOf(size)
+        minY = minY.copyOf(size)
+        maxX = maxX.copyOf(size)
+        maxY = maxY.copyOf(size)
+        isLarge = isLarge.copyOf(size)
+        stamps = stamps.copyOf(size)
+    }
+
+    companion object {
+        /** The default cell size  */
+        const val DEFAULT_CELL_SIZE = 2.0
+
+        /** The maximum number of cells an AABB can span before it's tested against every other AABB  */
+        const val MAXIMUM_CELLS_PER_PROXY = 64
+    }
+
+}
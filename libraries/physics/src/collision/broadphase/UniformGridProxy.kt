@@ -0,0 +1,35 @@
+package org.dyn4j.collision.broadphase
+
+import org.dyn4j.collision.Collidable
+import org.dyn4j.collision.Fixture
+
+/**
+ * Represents a [Collidable] [Fixture] in the [UniformGrid].
+ *
+ *
+ * The AABB of the proxy is stored in the primitive arrays of the [UniformGrid] at [index].
+ * @param <E> the [Collidable] type
+ * @param <T> the [Fixture] type
+</T></E> */
+internal class UniformGridProxy<E : Collidable<T>, T : Fixture>(
+    /** The collidable  */
+    val collidable: E,
+    /** The fixture  */
+    val fixture: T
+) {
+
+    /** The index of this proxy in the [UniformGrid] arrays  */
+    var index = 0
+
+    /* (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+    override fun toString(): String {
+        val sb: StringBuilder = StringBuilder()
+        sb.append("UniformGridProxy[Index=").append(index)
+            .append("|Fixture=").append(fixture.hashCode())
+            .append("]")
+        return sb.toString()
+    }
+
+}
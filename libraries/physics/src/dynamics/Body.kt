@@ -158,6 +158,22 @@ open class Body : AbstractCollidable1<BodyFixture>, Collidable<BodyFixture>, Tra
     /** The [Body]'s state  */
     private var state = 0
 
+    /** The index of this [Body] on the [Island] being built; used by packed solving  */
+    internal var islandIndex = -1
+
+    /** The index of this [Body] in its [World]; updated on each detection and snapshot  */
+    internal var worldIndex = -1
+
+    // the transform at the last broad-phase update
+
+    private var broadphaseX = Double.NaN
+    private var broadphaseY = Double.NaN
+    private var broadphaseCost = Double.NaN
+    private var broadphaseSint = Double.NaN
+
+    /** True if this [Body] is asleep and hasn't moved since the previous detection; set by the [World]  */
+    internal var isResting = false
+
     /** The world this body belongs to  */
     @JvmField
     var world: World? = null
@@ -1042,6 +1058,67 @@ open class Body : AbstractCollidable1<BodyFixture>, Collidable<BodyFixture>, Tra
         return getState(Body.ASLEEP)
     }
 
+    /**
+     * Returns true if the transform of this [Body] changed since the last [setBroadphaseUpdated] call.
+     */
+    internal fun isBroadphaseDirty(): Boolean {
+        val transform = transform!!
+        return transform.x != broadphaseX || transform.y != broadphaseY || transform.cost != broadphaseCost || transform.sint != broadphaseSint
+    }
+
+    /**
+     * Records the current transform as the one the broad-phase was last updated with.
+     */
+    internal fun setBroadphaseUpdated() {
+        val transform = transform!!
+        broadphaseX = transform.x
+        broadphaseY = transform.y
+        broadphaseCost = transform.cost
+        broadphaseSint = transform.sint
+    }
+
+    /**
+     * Forces the next broad-phase update of this [Body] even if it hasn't moved.
+     */
+    internal fun setBroadphaseDirty() {
+        broadphaseX = Double.NaN
+        isResting = false
+    }
+
+    /**
+     * Writes the transform, velocity and sleep state of this [Body] to the given snapshot.
+     * @param snapshot the snapshot
+     */
+    internal fun writeState(snapshot: WorldSnapshot) {
+        val transform = transform!!
+        snapshot.putDouble(transform.x)
+        snapshot.putDouble(transform.y)
+        snapshot.putDouble(transform.cost)
+        snapshot.putDouble(transform.sint)
+        snapshot.putDouble(velocity.x)
+        snapshot.putDouble(velocity.y)
+        snapshot.putDouble(angularVelocity)
+        snapshot.putDouble(sleepTime)
+        snapshot.putInt(state)
+    }
+
+    /**
+     * Reads the state written by [writeState] from the given snapshot.
+     * @param snapshot the snapshot
+     */
+    internal fun readState(snapshot: WorldSnapshot) {
+        val transform = transform!!
+        transform.x = snapshot.getDouble()
+        transform.y = snapshot.getDouble()
+        transform.cost = snapshot.getDouble()
+        transform.sint = snapshot.getDouble()
+        velocity.x = snapshot.getDouble()
+        velocity.y = snapshot.getDouble()
+        angularVelocity = snapshot.getDouble()
+        sleepTime = snapshot.getDouble()
+        state = snapshot.getInt()
+    }
+
     /**
      * Sets whether this [Body] is awake or not.
      *
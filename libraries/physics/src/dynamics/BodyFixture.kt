@@ -63,6 +63,9 @@ class BodyFixture(shape: Convex) : Fixture(shape), DataContainer {
             field = value
         }
 
+    /** The index of this fixture in its [Body]; kept up to date by the [World] when [Settings.isDeterministicPairOrderEnabled]  */
+    internal var bodyIndex = -1
+
     /* (non-Javadoc)
 	 * @see java.lang.Object#toString()
 	 */
@@ -51,6 +51,11 @@ import org.dyn4j.geometry.Shape
  *
  * Modification of the [World] is permitted in these methods.  Modification of the [Body]'s
  * fixtures is not permitted (adding/removing will cause a runtime exception).
+ *
+ *
+ * The [Penetration] and [Manifold] objects passed to these methods are reused by the [World] for
+ * the next pair and are only valid until the method returns.  Listeners that keep them must
+ * copy them.
  * @author William Bittle
  * @version 3.2.0
  * @since 1.0.0
@@ -99,6 +104,9 @@ interface CollisionListener : Listener {
      * will be used to generate the contact manifold in the [ManifoldSolver].
      *
      *
+     * The [Penetration] object is reused for the next pair; copy it to keep it after this method returns.
+     *
+     *
      * Return false from this method to stop processing of this collision.  Other
      * [CollisionListener]s will still be notified of this event, however, no further
      * collision or contact events will occur for this pair.
@@ -133,6 +141,9 @@ interface CollisionListener : Listener {
      * constraints.
      *
      *
+     * The [Manifold] object may be reused for the next pair; copy it to keep it after this method returns.
+     *
+     *
      * Return false from this method to stop processing of this collision.  Other
      * [CollisionListener]s will still be notified of this event, however, no further
      * collision or contact events will occur for this pair.
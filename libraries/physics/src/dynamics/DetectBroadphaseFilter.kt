@@ -45,6 +45,8 @@ class DetectBroadphaseFilter : DefaultBroadphaseFilter<Body, BodyFixture>(), Bro
 	 * @see org.dyn4j.collision.broadphase.BroadphaseFilter#isAllowed(org.dyn4j.collision.Collidable, org.dyn4j.collision.Fixture, org.dyn4j.collision.Collidable, org.dyn4j.collision.Fixture)
 	 */
     override fun isAllowed(body1: Body, fixture1: BodyFixture, body2: Body, fixture2: BodyFixture): Boolean {
+        // the contacts of resting bodies are kept from the previous detection
+        if (body1.isResting && body2.isResting) return false
         // inactive objects don't have collision detection/response
         if (!body1.isActive() || !body2.isActive()) return false
         // one body must be dynamic (unless one is a sensor)
@@ -53,4 +55,11 @@ class DetectBroadphaseFilter : DefaultBroadphaseFilter<Body, BodyFixture>(), Bro
         return if (body1.isConnected(body2, false)) false else super.isAllowed(body1, fixture1, body2, fixture2)
     }
 
+    /* (non-Javadoc)
+	 * @see org.dyn4j.collision.broadphase.BroadphaseFilter#isAtRest(org.dyn4j.collision.Collidable)
+	 */
+    override fun isAtRest(body: Body): Boolean {
+        return body.isResting
+    }
+
 }
@@ -28,6 +28,7 @@ import org.dyn4j.Epsilon
 import org.dyn4j.collision.Collisions.getEstimatedCollisionPairs
 import org.dyn4j.dynamics.contact.ContactConstraint
 import org.dyn4j.dynamics.contact.ContactConstraintSolver
+import org.dyn4j.dynamics.contact.SequentialImpulses
 import org.dyn4j.dynamics.joint.Joint
 import org.dyn4j.geometry.Interval
 import org.dyn4j.geometry.Vector2
@@ -57,6 +58,17 @@ internal class Island constructor(initialCapacity: Capacity? = Capacity.DEFAULT_
     @JvmField
     val contactConstraints: MutableList<ContactConstraint>
 
+    /** The list of static [Body]s on this [Island]; static bodies can be shared by many islands  */
+    @JvmField
+    val staticBodies: MutableList<Body> = ArrayList()
+
+    /** The packed solver used when [Settings.isPackedSolvingEnabled]; created on first use  */
+    private var packedSolver: PackedIslandSolver? = null
+
+    /** True if the last [solve] put this [Island] to sleep  */
+    var isAsleep: Boolean = false
+        private set
+
     /**
      * Clears the island.
      */
@@ -64,6 +76,8 @@ internal class Island constructor(initialCapacity: Capacity? = Capacity.DEFAULT_
         bodies.clear()
         joints.clear()
         contactConstraints.clear()
+        staticBodies.clear()
+        isAsleep = false
     }
 
     /**
@@ -72,6 +86,56 @@ internal class Island constructor(initialCapacity: Capacity? = Capacity.DEFAULT_
      */
     fun add(body: Body) {
         bodies.add(body)
+        if (body.isStatic()) staticBodies.add(body)
+    }
+
+    /**
+     * Allows the static [Body]s of this [Island] to participate in other islands.
+     */
+    fun releaseStaticBodies() {
+        val size = staticBodies.size
+        for (i in 0 until size) {
+            staticBodies[i].setOnIsland(false)
+        }
+    }
+
+    /**
+     * Applies the sleep state of this [Island] to its static [Body]s.
+     *
+     *
+     * Static bodies are shared between islands so [solve] never writes their sleep state. This
+     * method replays the wake up done while building the island followed by the sleep done by
+     * [solve], so calling it for each island in build order gives the same result regardless of
+     * the order the islands were solved in.
+     */
+    fun updateStaticBodies() {
+        val size = staticBodies.size
+        for (i in 0 until size) {
+            val body = staticBodies[i]
+            body.setAsleep(false)
+            if (isAsleep) body.setAsleep(true)
+        }
+    }
+
+    /**
+     * Stores the index of each [Body] in this [Island] and copies the indices of
+     * the constraint bodies to the [ContactConstraint]s for the [PackedIslandSolver].
+     *
+     *
+     * Must be called right after the island is built since static bodies are shared
+     * between islands.
+     */
+    fun assignIndices() {
+        val size = bodies.size
+        for (i in 0 until size) {
+            bodies[i].islandIndex = i
+        }
+        val cSize = contactConstraints.size
+        for (i in 0 until cSize) {
+            val contactConstraint = contactConstraints[i]
+            contactConstraint.islandIndex1 = contactConstraint.body1!!.islandIndex
+            contactConstraint.islandIndex2 = contactConstraint.body2!!.islandIndex
+        }
     }
 
     /**
@@ -112,6 +176,78 @@ internal class Island constructor(initialCapacity: Capacity? = Capacity.DEFAULT_
         val sleepLinearVelocitySquared = settings.sleepLinearVelocitySquared
         val sleepTime = settings.getSleepTime()
         val size = bodies.size
+
+        // islands without joints can be solved over packed arrays
+        val positionConstraintsSolved = if (settings.isPackedSolvingEnabled && joints.isEmpty() && solver::class == SequentialImpulses::class) {
+            var packedSolver = packedSolver
+            if (packedSolver == null) {
+                packedSolver = PackedIslandSolver()
+                this.packedSolver = packedSolver
+            }
+            packedSolver.solve(bodies, contactConstraints, gravity, step, settings)
+        } else {
+            integrateAndSolve(solver, gravity, step, settings, velocitySolverIterations, positionSolverIterations)
+        }
+
+        // see if sleep is enabled
+        if (settings.isAutoSleepingEnabled) {
+            var minSleepTime = Double.MAX_VALUE
+            // check for sleep-able bodies
+            for (i in 0 until size) {
+                val body: Body = bodies[i]
+                // just skip static bodies
+                if (body.isStatic()) continue
+                // see if the body is allowed to sleep
+                if (body.isAutoSleepingEnabled()) {
+                    // check the linear and angular velocity
+                    if (body.velocity.magnitudeSquared > sleepLinearVelocitySquared || body.angularVelocity > sleepAngularVelocity) {
+                        // if either the linear or angular velocity is above the 
+                        // threshold then reset the sleep time
+                        body.sleepTime = 0.0
+                        minSleepTime = 0.0
+                    } else {
+                        // then increment the sleep time
+                        body.sleepTime += step.dt
+                        minSleepTime = min(minSleepTime, body.sleepTime)
+                    }
+                } else {
+                    body.sleepTime = 0.0
+                    minSleepTime = 0.0
+                }
+            }
+
+            // check the min sleep time
+            if (minSleepTime >= sleepTime && positionConstraintsSolved) {
+                isAsleep = true
+                for (i in 0 until size) {
+                    val body: Body = bodies[i]
+                    // static bodies are put to sleep by updateStaticBodies
+                    if (body.isStatic()) continue
+                    body.setAsleep(true)
+                }
+            }
+        }
+    }
+
+    /**
+     * Integrates the [Body]s and solves all [ContactConstraint]s and [Joint]s.
+     * @param solver the contact constraint solver
+     * @param gravity the gravity vector
+     * @param step the time step information
+     * @param settings the current world settings
+     * @param velocitySolverIterations the number of velocity iterations
+     * @param positionSolverIterations the number of position iterations
+     * @return boolean true if the position constraints have been solved
+     */
+    private fun integrateAndSolve(
+        solver: ContactConstraintSolver,
+        gravity: Vector2,
+        step: Step,
+        settings: Settings,
+        velocitySolverIterations: Int,
+        positionSolverIterations: Int
+    ): Boolean {
+        val size = bodies.size
         val jSize = joints.size
         val dt: Double = step.dt
         var invM: Double
@@ -235,43 +371,9 @@ internal class Island constructor(initialCapacity: Capacity? = Capacity.DEFAULT_
                 break
             }
         }
-
-        // see if sleep is enabled
-        if (settings.isAutoSleepingEnabled) {
-            var minSleepTime = Double.MAX_VALUE
-            // check for sleep-able bodies
-            for (i in 0 until size) {
-                val body: Body = bodies[i]
-                // just skip static bodies
-                if (body.isStatic()) continue
-                // see if the body is allowed to sleep
-                if (body.isAutoSleepingEnabled()) {
-                    // check the linear and angular velocity
-                    if (body.velocity.magnitudeSquared > sleepLinearVelocitySquared || body.angularVelocity > sleepAngularVelocity) {
-                        // if either the linear or angular velocity is above the 
-                        // threshold then reset the sleep time
-                        body.sleepTime = 0.0
-                        minSleepTime = 0.0
-                    } else {
-                        // then increment the sleep time
-                        body.sleepTime += step.dt
-                        minSleepTime = min(minSleepTime, body.sleepTime)
-                    }
-                } else {
-                    body.sleepTime = 0.0
-                    minSleepTime = 0.0
-                }
-            }
-
-            // check the min sleep time
-            if (minSleepTime >= sleepTime && positionConstraintsSolved) {
-                for (i in 0 until size) {
-                    val body: Body = bodies[i]
-                    body.setAsleep(true)
-                }
-            }
-        }
+        return positionConstraintsSolved
     }
+
     /**
      * Full constructor.
      * @param initialCapacity the initial capacity of the island
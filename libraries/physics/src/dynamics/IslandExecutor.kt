@@ -0,0 +1,55 @@
+package org.dyn4j.dynamics
+
+/**
+ * Represents a strategy for solving the independent islands of a [World] step.
+ *
+ *
+ * When a [World.islandExecutor] is set, the [World] first collects all the islands of the
+ * current step and then hands them to this executor. Each island only touches its own bodies,
+ * joints and contact constraints, so islands can be solved concurrently.
+ *
+ *
+ * Implementations must call [IslandTask.solve] exactly once for every index in `0 until islandCount`
+ * and must not return until all calls have completed. The worker index passed to the task must be
+ * in `0 until parallelism` and must not be used by two threads at the same time; the [World] keeps
+ * one [org.dyn4j.dynamics.contact.ContactConstraintSolver] per worker index.
+ */
+interface IslandExecutor {
+
+    /**
+     * The maximum number of islands this executor solves at the same time.
+     */
+    val parallelism: Int
+
+    /**
+     * Solves all the islands and returns when every island has been solved.
+     * @param islandCount the number of islands
+     * @param task the task solving one island
+     */
+    fun invokeAll(islandCount: Int, task: IslandTask)
+
+    companion object {
+        /** Solves the islands one after another on the calling thread  */
+        val SERIAL: IslandExecutor = object : IslandExecutor {
+            override val parallelism: Int = 1
+
+            override fun invokeAll(islandCount: Int, task: IslandTask) {
+                for (i in 0 until islandCount) {
+                    task.solve(0, i)
+                }
+            }
+        }
+    }
+}
+
+/**
+ * Solves one island of a [World] step.
+ */
+interface IslandTask {
+    /**
+     * Solves the island at the given index.
+     * @param worker the worker index in `0 until` [IslandExecutor.parallelism]
+     * @param island the island index
+     */
+    fun solve(worker: Int, island: Int)
+}
@@ -0,0 +1,96 @@
+package org.dyn4j.dynamics
+
+import org.dyn4j.Listener
+import org.dyn4j.collision.BoundsListener
+import org.dyn4j.dynamics.contact.ContactListener
+
+/**
+ * Keeps the listeners of a [World] together with a list per listener type.
+ *
+ *
+ * The typed lists are rebuilt by [add] and [remove] and never modified afterwards, so the
+ * [World] can read and iterate them on every step without allocating or filtering. A listener
+ * added or removed while a typed list is being iterated only affects the next read.
+ */
+internal class ListenerRegistry(initialCapacity: Int) {
+
+    /** All the listeners in the order they were added  */
+    private val listeners: MutableList<Listener> = ArrayList(initialCapacity)
+
+    var stepListeners: List<StepListener> = emptyList()
+        private set
+
+    var contactListeners: List<ContactListener> = emptyList()
+        private set
+
+    var boundsListeners: List<BoundsListener> = emptyList()
+        private set
+
+    var collisionListeners: List<CollisionListener> = emptyList()
+        private set
+
+    var timeOfImpactListeners: List<TimeOfImpactListener> = emptyList()
+        private set
+
+    var raycastListeners: List<RaycastListener> = emptyList()
+        private set
+
+    var convexCastListeners: List<ConvexCastListener> = emptyList()
+        private set
+
+    var detectListeners: List<DetectListener> = emptyList()
+        private set
+
+    var destructionListeners: List<DestructionListener> = emptyList()
+        private set
+
+    val size: Int get() = listeners.size
+
+    operator fun get(index: Int): Listener = listeners[index]
+
+    operator fun contains(listener: Listener?): Boolean = listeners.contains(listener)
+
+    fun isEmpty(): Boolean = listeners.isEmpty()
+
+    fun add(listener: Listener) {
+        listeners.add(listener)
+        rebuild()
+    }
+
+    fun remove(listener: Listener?): Boolean {
+        val isRemoved = listeners.remove(listener)
+        if (isRemoved) rebuild()
+        return isRemoved
+    }
+
+    fun removeIf(predicate: (Listener) -> Boolean): Int {
+        var count = 0
+        val listenerIterator = listeners.iterator()
+        while (listenerIterator.hasNext()) {
+            if (predicate(listenerIterator.next())) {
+                listenerIterator.remove()
+                count++
+            }
+        }
+        if (count > 0) rebuild()
+        return count
+    }
+
+    fun clear() {
+        listeners.clear()
+        rebuild()
+    }
+
+    private fun rebuild() {
+        stepListeners = listeners.filterIsInstance<StepListener>()
+        contactListeners = listeners.filterIsInstance<ContactListener>()
+        boundsListeners = listeners.filterIsInstance<BoundsListener>()
+        collisionListeners = listeners.filterIsInstance<CollisionListener>()
+        timeOfImpactListeners = listeners.filterIsInstance<TimeOfImpactListener>()
+        raycastListeners = listeners.filterIsInstance<RaycastListener>()
+        convexCastListeners = listeners.filterIsInstance<ConvexCastListener>()
+        detectListeners = listeners.filterIsInstance<DetectListener>()
+        destructionListeners = listeners.filterIsInstance<DestructionListener>()
+    }
+
+}
@@ -0,0 +1,49 @@
+package org.dyn4j.dynamics
+
+/**
+ * Represents a strategy for running the narrow-phase of [World.detect] in batches.
+ *
+ *
+ * When a [World.narrowphaseExecutor] is set, the [World] splits the broad-phase pairs into batches
+ * of [World.narrowphaseBatchSize] pairs and hands them to this executor. Each batch runs the
+ * [org.dyn4j.collision.narrowphase.NarrowphaseDetector], the
+ * [org.dyn4j.collision.narrowphase.NarrowphasePostProcessor] and the
+ * [org.dyn4j.collision.manifold.ManifoldSolver] into its own result objects, so these must be
+ * thread-safe (the default implementations are stateless). The contact manager and the
+ * [CollisionListener]s are then notified on the calling thread in pair order.
+ *
+ *
+ * Implementations must call [NarrowphaseTask.detect] exactly once for every index in `0 until batchCount`
+ * and must not return until all calls have completed.
+ */
+interface NarrowphaseExecutor {
+
+    /**
+     * Runs all the batches and returns when every batch has been run.
+     * @param batchCount the number of batches
+     * @param task the task running one batch
+     */
+    fun invokeAll(batchCount: Int, task: NarrowphaseTask)
+
+    companion object {
+        /** Runs the batches one after another on the calling thread  */
+        val SERIAL: NarrowphaseExecutor = object : NarrowphaseExecutor {
+            override fun invokeAll(batchCount: Int, task: NarrowphaseTask) {
+                for (i in 0 until batchCount) {
+                    task.detect(i)
+                }
+            }
+        }
+    }
+}
+
+/**
+ * Runs the narrow-phase for one batch of broad-phase pairs.
+ */
+interface NarrowphaseTask {
+    /**
+     * Runs the narrow-phase for the batch at the given index.
+     * @param batch the batch index
+     */
+    fun detect(batch: Int)
+}
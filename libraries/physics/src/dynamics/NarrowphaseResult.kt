@@ -0,0 +1,64 @@
+package org.dyn4j.dynamics
+
+import org.dyn4j.collision.broadphase.BroadphasePair
+import org.dyn4j.collision.manifold.Manifold
+import org.dyn4j.collision.manifold.ManifoldSolver
+import org.dyn4j.collision.narrowphase.NarrowphaseDetector
+import org.dyn4j.collision.narrowphase.NarrowphasePostProcessor
+import org.dyn4j.collision.narrowphase.Penetration
+
+/**
+ * The reusable narrow-phase result of one broad-phase pair.
+ *
+ *
+ * Computed on a [NarrowphaseExecutor] worker and read back by the [World] on the calling thread.
+ */
+internal class NarrowphaseResult {
+    /** The penetration of the pair  */
+    val penetration: Penetration = Penetration()
+
+    /** The contact manifold of the pair  */
+    val manifold: Manifold = Manifold()
+
+    /** True if the pair is penetrating with a non-zero depth  */
+    var isPenetrating: Boolean = false
+        private set
+
+    /** True if a non-empty contact manifold was found  */
+    var hasManifold: Boolean = false
+        private set
+
+    /**
+     * Runs the narrow-phase and manifold solving for the given pair.
+     * @param pair the broad-phase pair
+     * @param narrowphaseDetector the narrow-phase detector
+     * @param narrowphasePostProcessor the narrow-phase post processor; can be null
+     * @param manifoldSolver the manifold solver
+     */
+    fun detect(
+        pair: BroadphasePair<Body, BodyFixture>,
+        narrowphaseDetector: NarrowphaseDetector,
+        narrowphasePostProcessor: NarrowphasePostProcessor?,
+        manifoldSolver: ManifoldSolver
+    ) {
+        isPenetrating = false
+        hasManifold = false
+        val transform1 = pair.collidable1.transform!!
+        val transform2 = pair.collidable2.transform!!
+        val convex1 = pair.fixture1.shape!!
+        val convex2 = pair.fixture2.shape!!
+        // test the two convex shapes
+        if (!narrowphaseDetector.detect(convex1, transform1, convex2, transform2, penetration)) return
+        // check for zero penetration
+        // this should only happen if numerical error occurs
+        if (penetration.depth == 0.0) return
+        // perform post processing
+        narrowphasePostProcessor?.process(convex1, transform1, convex2, transform2, penetration)
+        isPenetrating = true
+        // find a contact manifold using the filled in penetration object
+        if (!manifoldSolver.getManifold(penetration, convex1, transform1, convex2, transform2, manifold)) return
+        // check for zero points
+        hasManifold = manifold.points.size != 0
+    }
+
+}
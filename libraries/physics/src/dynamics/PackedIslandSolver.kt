@@ -0,0 +1,705 @@
+package org.dyn4j.dynamics
+
+import org.dyn4j.Epsilon
+import org.dyn4j.dynamics.contact.ContactConstraint
+import org.dyn4j.geometry.Interval
+import org.dyn4j.geometry.MassType
+import org.dyn4j.geometry.Vector2
+import kotlin.math.abs
+import kotlin.math.cos
+import kotlin.math.max
+import kotlin.math.min
+import kotlin.math.sin
+import kotlin.math.sqrt
+
+/**
+ * Solves an [Island] without joints over packed primitive arrays.
+ *
+ *
+ * The bodies' transforms, velocities and inverse mass/inertia and the contacts' points and accumulated
+ * impulses are copied into [DoubleArray]s once, the velocity integration, warm start, velocity and position
+ * iterations of [org.dyn4j.dynamics.contact.SequentialImpulses] and the position integration run over
+ * those arrays, and the results are written back once. The math is the same as the object based path.
+ *
+ *
+ * The arrays only grow, so an instance reused across steps doesn't allocate.
+ */
+internal class PackedIslandSolver {
+
+    // bodies
+
+    private var bodyCount = 0
+    private var tx = DoubleArray(0)
+    private var ty = DoubleArray(0)
+    private var cost = DoubleArray(0)
+    private var sint = DoubleArray(0)
+    private var lcx = DoubleArray(0)
+    private var lcy = DoubleArray(0)
+    private var vx = DoubleArray(0)
+    private var vy = DoubleArray(0)
+    private var av = DoubleArray(0)
+    private var invM = DoubleArray(0)
+    private var invI = DoubleArray(0)
+    private var dvx = DoubleArray(0)
+    private var dvy = DoubleArray(0)
+    private var dav = DoubleArray(0)
+    private var linearDamping = DoubleArray(0)
+    private var angularDamping = DoubleArray(0)
+    private var isInfinite = BooleanArray(0)
+    private var isWriteBack = BooleanArray(0)
+
+    // contact constraints
+
+    private var constraintCount = 0
+    private var body1 = IntArray(0)
+    private var body2 = IntArray(0)
+    private var contactStart = IntArray(0)
+    private var contactCount = IntArray(0)
+    private var nx = DoubleArray(0)
+    private var ny = DoubleArray(0)
+    private var friction = DoubleArray(0)
+    private var restitution = DoubleArray(0)
+    private var tangentSpeed = DoubleArray(0)
+    private var k00 = DoubleArray(0)
+    private var k01 = DoubleArray(0)
+    private var k10 = DoubleArray(0)
+    private var k11 = DoubleArray(0)
+    private var invK00 = DoubleArray(0)
+    private var invK01 = DoubleArray(0)
+    private var invK10 = DoubleArray(0)
+    private var invK11 = DoubleArray(0)
+
+    // contacts
+
+    private var contactTotal = 0
+    private var px = DoubleArray(0)
+    private var py = DoubleArray(0)
+    private var p1x = DoubleArray(0)
+    private var p1y = DoubleArray(0)
+    private var p2x = DoubleArray(0)
+    private var p2y = DoubleArray(0)
+    private var depth = DoubleArray(0)
+    private var r1x = DoubleArray(0)
+    private var r1y = DoubleArray(0)
+    private var r2x = DoubleArray(0)
+    private var r2y = DoubleArray(0)
+    private var massN = DoubleArray(0)
+    private var massT = DoubleArray(0)
+    private var vb = DoubleArray(0)
+    private var jn = DoubleArray(0)
+    private var jt = DoubleArray(0)
+    private var jp = DoubleArray(0)
+
+    /**
+     * Integrates the bodies and solves the contact constraints of the given island.
+     * @param bodies the island bodies; the [Body.islandIndex] of each body must be its index in this list
+     * @param contactConstraints the island contact constraints
+     * @param gravity the gravity vector
+     * @param step the time step information
+     * @param settings the current world settings
+     * @return boolean true if the position constraints have been solved
+     */
+    fun solve(bodies: List<Body>, contactConstraints: List<ContactConstraint>, gravity: Vector2, step: Step, settings: Settings): Boolean {
+        val dt = step.dt
+        packBodies(bodies, gravity, dt)
+        packContactConstraints(contactConstraints)
+
+        // integrate the velocities
+        for (i in 0 until bodyCount) {
+            if (invM[i] > Epsilon.E) {
+                vx[i] += dvx[i]
+                vy[i] += dvy[i]
+            }
+            if (invI[i] > Epsilon.E) {
+                av[i] += dav[i]
+            }
+            vx[i] *= linearDamping[i]
+            vy[i] *= linearDamping[i]
+            av[i] *= angularDamping[i]
+        }
+
+        // initialize and warm start the contact constraints
+        initialize(contactConstraints, settings)
+        warmStart(step)
+
+        // solve the velocity constraints
+        if (constraintCount != 0) {
+            val velocitySolverIterations = settings.getVelocityConstraintSolverIterations()
+            for (i in 0 until velocitySolverIterations) {
+                solveVelocityConstraints()
+            }
+        }
+
+        // integrate the positions
+        integratePositions(dt, settings)
+
+        // solve the position constraints
+        var positionConstraintsSolved = false
+        val positionSolverIterations = settings.getPositionConstraintSolverIterations()
+        for (i in 0 until positionSolverIterations) {
+            if (solvePositionConstraints(settings)) {
+                positionConstraintsSolved = true
+                break
+            }
+        }
+
+        unpack(bodies, contactConstraints)
+        return positionConstraintsSolved
+    }
+
+    private fun packBodies(bodies: List<Body>, gravity: Vector2, dt: Double) {
+        bodyCount = bodies.size
+        ensureBodyCapacity(bodyCount)
+        for (i in 0 until bodyCount) {
+            val body = bodies[i]
+            val transform = body.transform!!
+            val mass = body.mass!!
+            val center = mass.center!!
+            tx[i] = transform.x
+            ty[i] = transform.y
+            cost[i] = transform.cost
+            sint[i] = transform.sint
+            lcx[i] = center.x
+            lcy[i] = center.y
+            vx[i] = body.velocity.x
+            vy[i] = body.velocity.y
+            av[i] = body.angularVelocity
+            invM[i] = mass.inverseMass
+            invI[i] = mass.inverseInertia
+            isInfinite[i] = mass.type === MassType.INFINITE
+            // static bodies can be shared by other islands and are never changed by the solver
+            isWriteBack[i] = !body.isStatic()
+            if (body.isDynamic()) {
+                // accumulate the forces and torques
+                body.accumulate(dt)
+                // v1 = v0 + (f / m) + g) * dt
+                dvx[i] = (body.force!!.x * invM[i] + gravity.x * body.gravityScale) * dt
+                dvy[i] = (body.force!!.y * invM[i] + gravity.y * body.gravityScale) * dt
+                // av1 = av0 + (t / I) * dt
+                dav[i] = dt * invI[i] * body.torque
+                linearDamping[i] = if (body.linearDamping != 0.0) Interval.clamp(1.0 - dt * body.linearDamping, 0.0, 1.0) else 1.0
+                angularDamping[i] = Interval.clamp(1.0 - dt * body.angularDamping, 0.0, 1.0)
+            } else {
+                dvx[i] = 0.0
+                dvy[i] = 0.0
+                dav[i] = 0.0
+                linearDamping[i] = 1.0
+                angularDamping[i] = 1.0
+            }
+        }
+    }
+
+    private fun packContactConstraints(contactConstraints: List<ContactConstraint>) {
+        constraintCount = contactConstraints.size
+        ensureConstraintCapacity(constraintCount)
+        var total = 0
+        for (k in 0 until constraintCount) {
+            total += contactConstraints[k].contacts.size
+        }
+        contactTotal = total
+        ensureContactCapacity(total)
+        var m = 0
+        for (k in 0 until constraintCount) {
+            val contactConstraint = contactConstraints[k]
+            val normal = contactConstraint.normal!!
+            body1[k] = contactConstraint.islandIndex1
+            body2[k] = contactConstraint.islandIndex2
+            nx[k] = normal.x
+            ny[k] = normal.y
+            friction[k] = contactConstraint.friction
+            restitution[k] = contactConstraint.restitution
+            tangentSpeed[k] = contactConstraint.tangentSpeed
+            val contacts = contactConstraint.contacts
+            val cSize = contacts.size
+            contactStart[k] = m
+            contactCount[k] = cSize
+            for (j in 0 until cSize) {
+                val contact = contacts[j]
+                px[m] = contact.p.x
+                py[m] = contact.p.y
+                p1x[m] = contact.p1!!.x
+                p1y[m] = contact.p1!!.y
+                p2x[m] = contact.p2!!.x
+                p2y[m] = contact.p2!!.y
+                depth[m] = contact.depth
+                jn[m] = contact.jn
+                jt[m] = contact.jt
+                jp[m] = contact.jp
+                m++
+            }
+        }
+    }
+
+    private fun unpack(bodies: List<Body>, contactConstraints: List<ContactConstraint>) {
+        for (i in 0 until bodyCount) {
+            if (!isWriteBack[i]) continue
+            val body = bodies[i]
+            val transform = body.transform!!
+            transform.x = tx[i]
+            transform.y = ty[i]
+            transform.cost = cost[i]
+            transform.sint = sint[i]
+            body.velocity.x = vx[i]
+            body.velocity.y = vy[i]
+            body.angularVelocity = av[i]
+        }
+        for (k in 0 until constraintCount) {
+            val contacts = contactConstraints[k].contacts
+            val start = contactStart[k]
+            val cSize = contacts.size
+            for (j in 0 until cSize) {
+                val contact = contacts[j]
+                contact.jn = jn[start + j]
+                contact.jt = jt[start + j]
+                contact.jp = jp[start + j]
+            }
+        }
+    }
+
+    private fun initialize(contactConstraints: List<ContactConstraint>, settings: Settings) {
+        // get the restitution velocity from the settings object
+        val restitutionVelocity = settings.getRestitutionVelocity()
+        for (k in 0 until constraintCount) {
+            val b1 = body1[k]
+            val b2 = body2[k]
+            val invM1 = invM[b1]
+            val invM2 = invM[b2]
+            val invI1 = invI[b1]
+            val invI2 = invI[b2]
+            val nx = nx[k]
+            val ny = ny[k]
+            // the tangent is the left hand orthogonal vector of the normal
+            val tx = ny
+            val ty = -nx
+
+            // get the transformed centers of mass
+            val c1x = cost[b1] * lcx[b1] - sint[b1] * lcy[b1] + this.tx[b1]
+            val c1y = sint[b1] * lcx[b1] + cost[b1] * lcy[b1] + this.ty[b1]
+            val c2x = cost[b2] * lcx[b2] - sint[b2] * lcy[b2] + this.tx[b2]
+            val c2y = sint[b2] * lcx[b2] + cost[b2] * lcy[b2] + this.ty[b2]
+
+            val start = contactStart[k]
+            val end = start + contactCount[k]
+            for (m in start until end) {
+                // calculate ra and rb
+                r1x[m] = px[m] - c1x
+                r1y[m] = py[m] - c1y
+                r2x[m] = px[m] - c2x
+                r2y[m] = py[m] - c2y
+
+                // pre calculate the mass normal and tangent
+                massN[m] = 1.0 / massCoefficient(invM1, invM2, invI1, invI2, r1x[m], r1y[m], r2x[m], r2y[m], nx, ny)
+                massT[m] = 1.0 / massCoefficient(invM1, invM2, invI1, invI2, r1x[m], r1y[m], r2x[m], r2y[m], tx, ty)
+                // set the velocity bias
+                vb[m] = 0.0
+
+                // find the relative velocity and project it onto the penetration normal
+                val rvn = relativeVelocityAlong(b1, b2, m, nx, ny)
+
+                // if its negative then the bodies are moving away from one another
+                if (rvn < -restitutionVelocity) {
+                    // use the coefficient of elasticity
+                    vb[m] += -restitution[k] * rvn
+                }
+            }
+
+            // does this contact have 2 points?
+            if (contactCount[k] == 2) {
+                val m1 = start
+                val m2 = start + 1
+                val rn1A = r1x[m1] * ny - r1y[m1] * nx
+                val rn1B = r2x[m1] * ny - r2y[m1] * nx
+                val rn2A = r1x[m2] * ny - r1y[m2] * nx
+                val rn2B = r2x[m2] * ny - r2y[m2] * nx
+
+                // compute the K matrix for the constraints
+                val a00 = invM1 + invM2 + invI1 * rn1A * rn1A + invI2 * rn1B * rn1B
+                val a01 = invM1 + invM2 + invI1 * rn1A * rn2A + invI2 * rn1B * rn2B
+                val a11 = invM1 + invM2 + invI1 * rn2A * rn2A + invI2 * rn2B * rn2B
+                val determinant = a00 * a11 - a01 * a01
+
+                // check the condition number of the matrix
+                val maxCondition = 1000.0
+                if (a00 * a00 < maxCondition * determinant) {
+                    k00[k] = a00
+                    k01[k] = a01
+                    k10[k] = a01
+                    k11[k] = a11
+                    // invert K
+                    var det = determinant
+                    if (abs(det) > Epsilon.E) {
+                        det = 1.0 / det
+                    }
+                    invK00[k] = det * a11
+                    invK01[k] = -det * a01
+                    invK10[k] = -det * a01
+                    invK11[k] = det * a00
+                } else {
+                    // the matrix is ill conditioned so only solve the deepest point
+                    val contacts = contactConstraints[k].contacts
+                    if (depth[m1] > depth[m2]) {
+                        contacts.removeAt(1)
+                    } else {
+                        contacts.removeAt(0)
+                        contactStart[k] = m2
+                    }
+                    contactCount[k] = 1
+                }
+            }
+        }
+    }
+
+    private fun warmStart(step: Step) {
+        // pre divide for performance
+        val ratio = 1.0 / step.deltaTimeRatio
+        for (k in 0 until constraintCount) {
+            val nx = nx[k]
+            val ny = ny[k]
+            val start = contactStart[k]
+            val end = start + contactCount[k]
+            for (m in start until end) {
+                // scale the accumulated impulses by the delta time ratio
+                jn[m] *= ratio
+                jt[m] *= ratio
+                // apply accumulated impulses to warm start the solver
+                val jx = nx * jn[m] + ny * jt[m]
+                val jy = ny * jn[m] + -nx * jt[m]
+                applyImpulse(k, m, jx, jy)
+            }
+        }
+    }
+
+    private fun solveVelocityConstraints() {
+        for (k in 0 until constraintCount) {
+            val cSize = contactCount[k]
+            if (cSize == 0) continue
+            val b1 = body1[k]
+            val b2 = body2[k]
+            val nx = nx[k]
+            val ny = ny[k]
+            val tx = ny
+            val ty = -nx
+            val start = contactStart[k]
+
+            // evaluate friction impulse
+            for (m in start until start + cSize) {
+                // project the relative velocity onto the tangent normal
+                val rvt = relativeVelocityAlong(b1, b2, m, tx, ty) - tangentSpeed[k]
+                // calculate the tangential impulse
+                var j = massT[m] * -rvt
+                // apply the coefficient of friction
+                val maxJt = friction[k] * jn[m]
+                // clamp the accumulated tangential impulse
+                val jt0 = jt[m]
+                jt[m] = max(-maxJt, min(jt0 + j, maxJt))
+                j = jt[m] - jt0
+                // apply to the bodies immediately
+                applyImpulse(k, m, tx * j, ty * j)
+            }
+
+            // evaluate the normal impulse
+            if (cSize == 1) {
+                val m = start
+                // get the relative velocity and project it onto the penetration normal
+                val rvn = relativeVelocityAlong(b1, b2, m, nx, ny)
+                // calculate the impulse using the velocity bias
+                var j = -massN[m] * (rvn - vb[m])
+                // clamp the accumulated impulse
+                val j0 = jn[m]
+                jn[m] = max(j0 + j, 0.0)
+                j = jn[m] - j0
+                applyImpulse(k, m, nx * j, ny * j)
+            } else {
+                // solve the two contacts simultaneously using the block solver (see SequentialImpulses)
+                val m1 = start
+                val m2 = start + 1
+                val ax = jn[m1]
+                val ay = jn[m2]
+                val rvn1 = relativeVelocityAlong(b1, b2, m1, nx, ny)
+                val rvn2 = relativeVelocityAlong(b1, b2, m2, nx, ny)
+                val bx = rvn1 - vb[m1] - (k00[k] * ax + k01[k] * ay)
+                val by = rvn2 - vb[m2] - (k10[k] * ax + k11[k] * ay)
+
+                // Case 1: vn = 0
+                var xx = -(invK00[k] * bx + invK01[k] * by)
+                var xy = -(invK10[k] * bx + invK11[k] * by)
+                if (xx >= 0.0 && xy >= 0.0) {
+                    applyBlockImpulse(k, xx, xy, ax, ay)
+                    continue
+                }
+
+                // Case 2: vn1 = 0 and x2 = 0
+                xx = -massN[m1] * bx
+                xy = 0.0
+                if (xx >= 0.0 && k10[k] * xx + by >= 0.0) {
+                    applyBlockImpulse(k, xx, xy, ax, ay)
+                    continue
+                }
+
+                // Case 3: vn2 = 0 and x1 = 0
+                xx = 0.0
+                xy = -massN[m2] * by
+                if (xy >= 0.0 && k01[k] * xy + bx >= 0.0) {
+                    applyBlockImpulse(k, xx, xy, ax, ay)
+                    continue
+                }
+
+                // Case 4: x1 = 0 and x2 = 0
+                if (bx >= 0.0 && by >= 0.0) {
+                    applyBlockImpulse(k, 0.0, 0.0, ax, ay)
+                }
+                // No solution, give up
+            }
+        }
+    }
+
+    private fun integratePositions(dt: Double, settings: Settings) {
+        // the max settings
+        val maxTranslation = settings.getMaximumTranslation()
+        val maxRotation = settings.getMaximumRotation()
+        val maxTranslationSqrd = settings.maximumTranslationSquared
+        for (i in 0 until bodyCount) {
+            // skip static bodies
+            if (isInfinite[i] && abs(vx[i]) <= Epsilon.E && abs(vy[i]) <= Epsilon.E && abs(av[i]) <= Epsilon.E) continue
+
+            // compute the translation and rotation for this time step
+            var translationX = vx[i] * dt
+            var translationY = vy[i] * dt
+            val translationMagnitudeSquared = translationX * translationX + translationY * translationY
+
+            // make sure the translation is not over the maximum
+            if (translationMagnitudeSquared > maxTranslationSqrd) {
+                val ratio = maxTranslation / sqrt(translationMagnitudeSquared)
+                vx[i] *= ratio
+                vy[i] *= ratio
+                translationX *= ratio
+                translationY *= ratio
+            }
+            var rotation = av[i] * dt
+
+            // make sure the rotation is not over the maximum
+            if (rotation > maxRotation) {
+                val ratio = maxRotation / abs(rotation)
+                av[i] *= ratio
+                rotation *= ratio
+            }
+
+            tx[i] += translationX
+            ty[i] += translationY
+            // rotate about the world center
+            val cx = cost[i] * lcx[i] - sint[i] * lcy[i] + tx[i]
+            val cy = sint[i] * lcx[i] + cost[i] * lcy[i] + ty[i]
+            rotate(i, rotation, cx, cy)
+        }
+    }
+
+    private fun solvePositionConstraints(settings: Settings): Boolean {
+        // immediately return true if there are no contact constraints to solve
+        if (constraintCount == 0) return true
+
+        // track the minimum separation
+        var minSeparation = 0.0
+
+        val maxLinearCorrection = settings.getMaximumLinearCorrection()
+        val allowedPenetration = settings.getLinearTolerance()
+        val baumgarte = settings.getBaumgarte()
+
+        for (k in 0 until constraintCount) {
+            val cSize = contactCount[k]
+            if (cSize == 0) continue
+            val b1 = body1[k]
+            val b2 = body2[k]
+            val invM1 = invM[b1]
+            val invM2 = invM[b2]
+            val invI1 = invI[b1]
+            val invI2 = invI[b2]
+            val nx = nx[k]
+            val ny = ny[k]
+            val start = contactStart[k]
+            for (m in start until start + cSize) {
+                // get the world centers of mass
+                val c1x = cost[b1] * lcx[b1] - sint[b1] * lcy[b1] + tx[b1]
+                val c1y = sint[b1] * lcx[b1] + cost[b1] * lcy[b1] + ty[b1]
+                val c2x = cost[b2] * lcx[b2] - sint[b2] * lcy[b2] + tx[b2]
+                val c2y = sint[b2] * lcx[b2] + cost[b2] * lcy[b2] + ty[b2]
+
+                // get r1 and r2
+                val d1x = p1x[m] - lcx[b1]
+                val d1y = p1y[m] - lcy[b1]
+                val r1x = cost[b1] * d1x - sint[b1] * d1y
+                val r1y = sint[b1] * d1x + cost[b1] * d1y
+                val d2x = p2x[m] - lcx[b2]
+                val d2y = p2y[m] - lcy[b2]
+                val r2x = cost[b2] * d2x - sint[b2] * d2y
+                val r2y = sint[b2] * d2x + cost[b2] * d2y
+
+                // estimate the current penetration
+                val dpx = (c1x + r1x) - (c2x + r2x)
+                val dpy = (c1y + r1y) - (c2y + r2y)
+                val penetration = (dpx * nx + dpy * ny) - depth[m]
+
+                // track the maximum error
+                minSeparation = min(minSeparation, penetration)
+
+                // allow for penetration to avoid jitter
+                val cp = baumgarte * Interval.clamp(penetration + allowedPenetration, -maxLinearCorrection, 0.0)
+
+                // compute the position impulse
+                val K = massCoefficient(invM1, invM2, invI1, invI2, r1x, r1y, r2x, r2y, nx, ny)
+                var j = if (K > Epsilon.E) -cp / K else 0.0
+
+                // clamp the accumulated position impulse
+                val jp0 = jp[m]
+                jp[m] = max(jp0 + j, 0.0)
+                j = jp[m] - jp0
+                val jx = nx * j
+                val jy = ny * j
+
+                // translate and rotate the objects
+                tx[b1] += jx * invM1
+                ty[b1] += jy * invM1
+                rotate(b1, invI1 * (r1x * jy - r1y * jx), c1x, c1y)
+                tx[b2] += jx * -invM2
+                ty[b2] += jy * -invM2
+                rotate(b2, -invI2 * (r2x * jy - r2y * jx), c2x, c2y)
+            }
+        }
+        // check if the minimum separation between all objects is still
+        // greater than or equal to allowed penetration plus half of allowed penetration
+        return minSeparation >= -3.0 * allowedPenetration
+    }
+
+    private fun massCoefficient(
+        invM1: Double, invM2: Double, invI1: Double, invI2: Double,
+        r1x: Double, r1y: Double, r2x: Double, r2y: Double, nx: Double, ny: Double
+    ): Double {
+        val r1CrossN = r1x * ny - r1y * nx
+        val r2CrossN = r2x * ny - r2y * nx
+        return invM1 + invM2 + invI1 * r1CrossN * r1CrossN + invI2 * r2CrossN * r2CrossN
+    }
+
+    private fun relativeVelocityAlong(b1: Int, b2: Int, m: Int, nx: Double, ny: Double): Double {
+        val rvx = (-r1y[m] * av[b1] + vx[b1]) - (-r2y[m] * av[b2] + vx[b2])
+        val rvy = (r1x[m] * av[b1] + vy[b1]) - (r2x[m] * av[b2] + vy[b2])
+        return nx * rvx + ny * rvy
+    }
+
+    private fun applyImpulse(k: Int, m: Int, jx: Double, jy: Double) {
+        val b1 = body1[k]
+        val b2 = body2[k]
+        vx[b1] += jx * invM[b1]
+        vy[b1] += jy * invM[b1]
+        av[b1] = av[b1] + invI[b1] * (r1x[m] * jy - r1y[m] * jx)
+        vx[b2] -= jx * invM[b2]
+        vy[b2] -= jy * invM[b2]
+        av[b2] = av[b2] - invI[b2] * (r2x[m] * jy - r2y[m] * jx)
+    }
+
+    private fun applyBlockImpulse(k: Int, xx: Double, xy: Double, ax: Double, ay: Double) {
+        val b1 = body1[k]
+        val b2 = body2[k]
+        val m1 = contactStart[k]
+        val m2 = m1 + 1
+        // apply the incremental impulse
+        val j1x = nx[k] * (xx - ax)
+        val j1y = ny[k] * (xx - ax)
+        val j2x = nx[k] * (xy - ay)
+        val j2y = ny[k] * (xy - ay)
+        val jx = j1x + j2x
+        val jy = j1y + j2y
+        vx[b1] += jx * invM[b1]
+        vy[b1] += jy * invM[b1]
+        av[b1] = av[b1] + invI[b1] * ((r1x[m1] * j1y - r1y[m1] * j1x) + (r1x[m2] * j2y - r1y[m2] * j2x))
+        vx[b2] -= jx * invM[b2]
+        vy[b2] -= jy * invM[b2]
+        av[b2] = av[b2] - invI[b2] * ((r2x[m1] * j1y - r2y[m1] * j1x) + (r2x[m2] * j2y - r2y[m2] * j2x))
+        // set the new accumulated impulse
+        jn[m1] = xx
+        jn[m2] = xy
+    }
+
+    /**
+     * Rotates the packed transform of the given body like [org.dyn4j.geometry.Transform.rotate].
+     */
+    private fun rotate(i: Int, theta: Double, x: Double, y: Double) {
+        val c = cos(theta)
+        val s = sin(theta)
+        if (s == 0.0 && c == 1.0) return
+        val cost = c * cost[i] - s * sint[i]
+        val sint = s * this.cost[i] + c * sint[i]
+        this.cost[i] = cost
+        this.sint[i] = sint
+        val cx = tx[i] - x
+        val cy = ty[i] - y
+        tx[i] = c * cx - s * cy + x
+        ty[i] = s * cx + c * cy + y
+    }
+
+    private fun ensureBodyCapacity(capacity: Int) {
+        if (tx.size >= capacity) return
+        val size = max(capacity, tx.size * 2)
+        tx = DoubleArray(size)
+        ty = DoubleArray(size)
+        cost = DoubleArray(size)
+        sint = DoubleArray(size)
+        lcx = DoubleArray(size)
+        lcy = DoubleArray(size)
+        vx = DoubleArray(size)
+        vy = DoubleArray(size)
+        av = DoubleArray(size)
+        invM = DoubleArray(size)
+        invI = DoubleArray(size)
+        dvx = DoubleArray(size)
+        dvy = DoubleArray(size)
+        dav = DoubleArray(size)
+        linearDamping = DoubleArray(size)
+        angularDamping = DoubleArray(size)
+        isInfinite = BooleanArray(size)
+        isWriteBack = BooleanArray(size)
+    }
+
+    private fun ensureConstraintCapacity(capacity: Int) {
+        if (body1.size >= capacity) return
+        val size = max(capacity, body1.size * 2)
+        body1 = IntArray(size)
+        body2 = IntArray(size)
+        contactStart = IntArray(size)
+        contactCount = IntArray(size)
+        nx = DoubleArray(size)
+        ny = DoubleArray(size)
+        friction = DoubleArray(size)
+        restitution = DoubleArray(size)
+        tangentSpeed = DoubleArray(size)
+        k00 = DoubleArray(size)
+        k01 = DoubleArray(size)
+        k10 = DoubleArray(size)
+        k11 = DoubleArray(size)
+        invK00 = DoubleArray(size)
+        invK01 = DoubleArray(size)
+        invK10 = DoubleArray(size)
+        invK11 = DoubleArray(size)
+    }
+
+    private fun ensureContactCapacity(capacity: Int) {
+        if (px.size >= capacity) return
+        val size = max(capacity, px.size * 2)
+        px = DoubleArray(size)
+        py = DoubleArray(size)
+        p1x = DoubleArray(size)
+        p1y = DoubleArray(size)
+        p2x = DoubleArray(size)
+        p2y = DoubleArray(size)
+        depth = DoubleArray(size)
+        r1x = DoubleArray(size)
+        r1y = DoubleArray(size)
+        r2x = DoubleArray(size)
+        r2y = DoubleArray(size)
+        massN = DoubleArray(size)
+        massT = DoubleArray(size)
+        vb = DoubleArray(size)
+        jn = DoubleArray(size)
+        jt = DoubleArray(size)
+        jp = DoubleArray(size)
+    }
+
+}
@@ -81,6 +81,33 @@ class Settings
     /** Whether on an engine level [Body]s are automatically put to sleep  */
     var isAutoSleepingEnabled = true
 
+    /**
+     * Whether islands without joints are solved over packed primitive arrays of body and contact state.
+     *
+     *
+     * Only used with the [org.dyn4j.dynamics.contact.SequentialImpulses] contact constraint solver.
+     */
+    var isPackedSolvingEnabled = false
+
+    /**
+     * Whether the contacts between [Body]s that are asleep and haven't moved are kept from the previous
+     * detection instead of being detected again.
+     *
+     *
+     * The [CollisionListener]s are not notified of kept contacts.
+     */
+    var isRestingContactCachingEnabled = false
+
+    /**
+     * Whether the broad-phase pairs are sorted by [Body] and [BodyFixture] index before the narrow-phase.
+     *
+     *
+     * The order of the pairs a [org.dyn4j.collision.broadphase.BroadphaseDetector] reports depends on how
+     * it got to its current state, which carries over to the order the contacts are solved in. Stepping
+     * on from [World.restore] is only bit-identical to stepping on from [World.snapshot] when this is enabled.
+     */
+    var isDeterministicPairOrderEnabled = false
+
     /** The maximum linear velocity before a [Body] is considered to sleep  */
     private var sleepLinearVelocity = DEFAULT_SLEEP_LINEAR_VELOCITY
 
@@ -222,6 +249,9 @@ class Settings
             .append("|MaximumTranslation=").append(maximumTranslation)
             .append("|MaximumRotation=").append(maximumRotation)
             .append("|AutoSleepingEnabled=").append(isAutoSleepingEnabled)
+            .append("|PackedSolvingEnabled=").append(isPackedSolvingEnabled)
+            .append("|RestingContactCachingEnabled=").append(isRestingContactCachingEnabled)
+            .append("|DeterministicPairOrderEnabled=").append(isDeterministicPairOrderEnabled)
             .append("|SleepLinearVelocity=").append(sleepLinearVelocity)
             .append("|SleepAngularVelocity=").append(sleepAngularVelocity)
             .append("|SleepTime=").append(sleepTime)
@@ -251,6 +281,9 @@ class Settings
         maximumRotationSquared =
             DEFAULT_MAXIMUM_ROTATION * DEFAULT_MAXIMUM_ROTATION
         isAutoSleepingEnabled = true
+        isPackedSolvingEnabled = false
+        isRestingContactCachingEnabled = false
+        isDeterministicPairOrderEnabled = false
         sleepLinearVelocity = DEFAULT_SLEEP_LINEAR_VELOCITY
         sleepLinearVelocitySquared =
             DEFAULT_SLEEP_LINEAR_VELOCITY * DEFAULT_SLEEP_LINEAR_VELOCITY
@@ -37,7 +37,9 @@ import org.dyn4j.collision.continuous.ConservativeAdvancement
 import org.dyn4j.collision.continuous.TimeOfImpact
 import org.dyn4j.collision.continuous.TimeOfImpactDetector
 import org.dyn4j.collision.manifold.ClippingManifoldSolver
+import org.dyn4j.collision.manifold.IndexedManifoldPointId
 import org.dyn4j.collision.manifold.Manifold
+import org.dyn4j.collision.manifold.ManifoldPointId
 import org.dyn4j.collision.manifold.ManifoldSolver
 import org.dyn4j.collision.narrowphase.*
 import org.dyn4j.dynamics.contact.*
@@ -45,6 +47,7 @@ import org.dyn4j.dynamics.joint.Joint
 import org.dyn4j.geometry.*
 import org.dyn4j.resources.message
 import kotlin.jvm.JvmField
+import kotlin.math.min
 import kotlin.reflect.KClass
 
 /**
@@ -161,6 +164,39 @@ class World : Shiftable, DataContainer {
     /** The [ContactConstraintSolver]  */
     var contactConstraintSolver: ContactConstraintSolver? = null
 
+    /**
+     * The [IslandExecutor] used to solve the islands of a step; null to solve
+     * each island on the calling thread as soon as it's found.
+     *
+     *
+     * The result of a step is the same for both modes given the same body order.
+     */
+    var islandExecutor: IslandExecutor? = null
+
+    /**
+     * The [NarrowphaseExecutor] used to run the narrow-phase of [detect] in batches; null to run
+     * it pair by pair on the calling thread.
+     *
+     *
+     * In batch mode the manifold is solved before the [CollisionListener]s are notified of the
+     * penetration, so listeners must not modify the [Penetration] they're given.
+     */
+    var narrowphaseExecutor: NarrowphaseExecutor? = null
+
+    /** The number of broad-phase pairs in each [narrowphaseExecutor] batch  */
+    var narrowphaseBatchSize: Int = 64
+        set(value) {
+            if (value <= 0) throw IllegalArgumentException(message("dynamics.world.invalidNarrowphaseBatchSize"))
+            field = value
+        }
+
+    /** Creates the [ContactConstraintSolver] of each [islandExecutor] worker  */
+    var contactConstraintSolverFactory: () -> ContactConstraintSolver = { SequentialImpulses() }
+        set(value) {
+            field = value
+            islandSolvers.clear()
+        }
+
     /** The [TimeOfImpactSolver]  */
     lateinit var timeOfImpactSolver: TimeOfImpactSolver
 
@@ -173,8 +209,8 @@ class World : Shiftable, DataContainer {
 
     // internal
     // listeners and config
-    /** The list of listeners for this world  */
-    private lateinit var listeners: MutableList<Listener>
+    /** The listeners for this world  */
+    private lateinit var listeners: ListenerRegistry
 
     // bodies/joints
 
@@ -191,6 +227,63 @@ class World : Shiftable, DataContainer {
     /** The reusable island  */
     private var island: Island? = null
 
+    /** The reusable depth first search stack used to create the islands  */
+    private val islandStack: ArrayDeque<Body> = ArrayDeque()
+
+    /** The reusable list of bodies to update in the broad-phase  */
+    private val broadphaseUpdates: MutableList<Body> = ArrayList()
+
+    /** The reusable list of broad-phase pairs in body order  */
+    private val orderedPairs: MutableList<BroadphasePair<Body, BodyFixture>> = ArrayList()
+
+    /** Orders broad-phase pairs by [Body.worldIndex] and then by fixture index  */
+    private val pairComparator: Comparator<BroadphasePair<Body, BodyFixture>> = Comparator { pair1, pair2 ->
+        comparePairs(pair1.collidable1, pair1.fixture1, pair1.collidable2, pair1.fixture2, pair2.collidable1, pair2.fixture1, pair2.collidable2, pair2.fixture2)
+    }
+
+    /** The reusable contact constraints read from a [WorldSnapshot]  */
+    private val snapshotConstraints: MutableList<ContactConstraint> = ArrayList()
+
+    /** The reusable contact edges a [Body] had before restoring a [WorldSnapshot]  */
+    private val previousContacts: MutableList<ContactEdge> = ArrayList()
+
+    /** The reusable islands of the [islandExecutor]  */
+    private val islands: MutableList<Island> = ArrayList()
+
+    /** The number of islands collected for the [islandExecutor]  */
+    private var islandCount: Int = 0
+
+    /** The [ContactConstraintSolver] of each [islandExecutor] worker  */
+    private val islandSolvers: MutableList<ContactConstraintSolver> = ArrayList()
+
+    /** The reusable narrow-phase penetration  */
+    private val penetration: Penetration = Penetration()
+
+    /** The reusable narrow-phase results of the [narrowphaseExecutor], one per broad-phase pair  */
+    private val narrowphaseResults: MutableList<NarrowphaseResult> = ArrayList()
+
+    /** The broad-phase pairs of the running [narrowphaseExecutor] batches  */
+    private var narrowphasePairs: List<BroadphasePair<Body, BodyFixture>>? = null
+
+    /** The task running one batch of the narrow-phase  */
+    private val narrowphaseTask: NarrowphaseTask = object : NarrowphaseTask {
+        override fun detect(batch: Int) {
+            val pairs = narrowphasePairs!!
+            val start = batch * narrowphaseBatchSize
+            val end = min(start + narrowphaseBatchSize, pairs.size)
+            for (i in start until end) {
+                narrowphaseResults[i].detect(pairs[i], narrowphaseDetector!!, narrowphasePostProcessor, manifoldSolver!!)
+            }
+        }
+    }
+
+    /** The task solving the collected islands  */
+    private val islandTask: IslandTask = object : IslandTask {
+        override fun solve(worker: Int, island: Int) {
+            islands[island].solve(islandSolvers[worker], gravity, step!!, settings)
+        }
+    }
+
     /** The accumulated time  */
     private var time = 0.0
 
@@ -277,7 +370,7 @@ class World : Shiftable, DataContainer {
         bodies = ArrayList(initialCapacity.bodyCount)
         broadphaseDetector = DynamicAABBTree<Body, BodyFixture>(initialCapacity.bodyCount)
         joints = ArrayList(initialCapacity.jointCount)
-        listeners = ArrayList(initialCapacity.listenerCount)
+        listeners = ListenerRegistry(initialCapacity.listenerCount)
         island = Island(initialCapacity)
         time = 0.0
         isUpdateRequired = true
@@ -524,8 +617,8 @@ class World : Shiftable, DataContainer {
      */
     protected fun step() {
         // get all the step listeners
-        val stepListeners = this.getListeners(StepListener::class)!!
-        val contactListeners = this.getListeners(ContactListener::class)!!
+        val stepListeners = listeners.stepListeners
+        val contactListeners = listeners.contactListeners
         val sSize = stepListeners.size
 
         // notify the step listeners
@@ -579,102 +672,61 @@ class World : Shiftable, DataContainer {
 
         // perform a depth first search of the contact graph
         // to create islands for constraint solving
-        val stack = ArrayDeque<Body>(size)
-
-        // temp storage
-        // we put these here so we can implicitly convert from joint and
-        // contact constraint to constraint so that we have package private
-        // access to the isOnIsland and setOnIsland methods
-        var joint: Joint
-        var contactConstraint: ContactConstraint
-        var constraint: Constraint
+        val stack = islandStack
 
         // loop over the bodies and their contact edges to create the islands
-        for (i in 0 until size) {
-            val seed = bodies!![i]
-            // skip if asleep, in active, static, or already on an island
-            if (seed.isOnIsland() || seed.isAsleep() || !seed.isActive() || seed.isStatic()) continue
-
-            // set the island to the reusable island
-            val island = island
-            island!!.clear()
-            stack.clear()
-            stack.push(seed)
-            while (stack.size > 0) {
-                // get the next body
-                val body: Body = stack.pop()
-                // add it to the island
-                island.add(body)
-                // flag that it has been added
-                body.setOnIsland(true)
-                // make sure the body is awake
-                body.setAsleep(false)
-                // if its static then continue since we dont want the
-                // island to span more than one static object
-                // this keeps the size of the islands small
-                if (body.isStatic()) continue
-                // loop over the contact edges of this body
-                val ceSize = body.contacts.size
-                for (j in 0 until ceSize) {
-                    val contactEdge = body.contacts[j]
-                    // get the contact constraint
-                    contactConstraint = contactEdge.interaction
-                    constraint = contactConstraint
-                    // skip sensor contacts
-                    // check if the contact constraint has already been added to an island
-                    if (!contactConstraint.isEnabled || contactConstraint.isSensor || constraint.isOnIsland) continue
-                    // get the other body
-                    val other = contactEdge.other
-                    // add the contact constraint to the island list
-                    island.add(contactConstraint)
-                    // set the island flag on the contact constraint
-                    constraint.isOnIsland = true
-                    // has the other body been added to an island yet?
-                    if (!other.isOnIsland()) {
-                        // if not then add this body to the stack
-                        stack.push(other)
-                        other.setOnIsland(true)
-                    }
-                }
-                // loop over the joint edges of this body
-                val jeSize = body.joints.size
-                for (j in 0 until jeSize) {
-                    // get the joint edge
-                    val jointEdge: JointEdge = body.joints[j]
-                    // get the joint
-                    joint = jointEdge.interaction!!
-                    constraint = joint
-                    // check if the joint is inactive
-                    if (!joint.isActive || constraint.isOnIsland) continue
-                    // get the other body
-                    val other: Body = jointEdge.other
-                    // check if the joint has already been added to an island
-                    // or if the other body is not active
-                    if (!other.isActive()) continue
-                    // add the joint to the island
-                    island.add(joint)
-                    // set the island flag on the joint
-                    constraint.isOnIsland = true
-                    // check if the other body has been added to an island
-                    if (!other.isOnIsland()) {
-                        // if not then add the body to the stack
-                        stack.push(other)
-                        other.setOnIsland(true)
-                    }
-                }
+        val islandExecutor = islandExecutor
+        if (islandExecutor == null) {
+            for (i in 0 until size) {
+                val seed = bodies[i]
+                // skip if asleep, in active, static, or already on an island
+                if (seed.isOnIsland() || seed.isAsleep() || !seed.isActive() || seed.isStatic()) continue
+
+                // set the island to the reusable island
+                val island = island!!
+                island.clear()
+                buildIsland(seed, island, stack)
+
+                // solve the island
+                island.solve(contactConstraintSolver!!, gravity, step!!, settings)
+                island.updateStaticBodies()
+
+                // allow static bodies to participate in other islands
+                island.releaseStaticBodies()
+            }
+        } else {
+            // collect all the islands first
+            islandCount = 0
+            for (i in 0 until size) {
+                val seed = bodies[i]
+                // skip if asleep, in active, static, or already on an island
+                if (seed.isOnIsland() || seed.isAsleep() || !seed.isActive() || seed.isStatic()) continue
+
+                // reuse the islands of the previous steps
+                if (islandCount == islands.size) islands.add(Island())
+                val island = islands[islandCount++]
+                island.clear()
+                buildIsland(seed, island, stack)
+
+                // allow static bodies to participate in other islands
+                island.releaseStaticBodies()
+            }
+
+            // make sure each worker has its own solver
+            while (islandSolvers.size < islandExecutor.parallelism) {
+                islandSolvers.add(contactConstraintSolverFactory())
             }
 
-            // solve the island
-            island.solve(contactConstraintSolver!!, gravity, step!!, settings!!)
+            // solve the islands
+            islandExecutor.invokeAll(islandCount, islandTask)
 
-            // allow static bodies to participate in other islands
-            val isize = island.bodies.size
-            for (j in 0 until isize) {
-                val body = island.bodies[j]
-                if (body.isStatic()) {
-                    body.setOnIsland(false)
-                }
+            // static bodies are shared so their sleep state is updated in island order
+            for (i in 0 until islandCount) {
+                val island = islands[i]
+                island.updateStaticBodies()
+                island.clear()
             }
+            islandCount = 0
         }
 
         // allow memory to be reclaimed
@@ -711,6 +763,92 @@ class World : Shiftable, DataContainer {
         }
     }
 
+    /**
+     * Performs a depth first search of the contact graph starting at the given seed [Body]
+     * and adds all the connected bodies, contact constraints and joints to the given [Island].
+     * @param seed the first body of the island
+     * @param island the island to fill
+     * @param stack the reusable search stack
+     */
+    private fun buildIsland(seed: Body, island: Island, stack: ArrayDeque<Body>) {
+        // temp storage
+        // we put these here so we can implicitly convert from joint and
+        // contact constraint to constraint so that we have package private
+        // access to the isOnIsland and setOnIsland methods
+        var joint: Joint
+        var contactConstraint: ContactConstraint
+        var constraint: Constraint
+
+        stack.clear()
+        stack.push(seed)
+        while (stack.size > 0) {
+            // get the next body
+            val body: Body = stack.pop()
+            // add it to the island
+            island.add(body)
+            // flag that it has been added
+            body.setOnIsland(true)
+            // make sure the body is awake
+            body.setAsleep(false)
+            // if its static then continue since we dont want the
+            // island to span more than one static object
+            // this keeps the size of the islands small
+            if (body.isStatic()) continue
+            // loop over the contact edges of this body
+            val ceSize = body.contacts.size
+            for (j in 0 until ceSize) {
+                val contactEdge = body.contacts[j]
+                // get the contact constraint
+                contactConstraint = contactEdge.interaction
+                constraint = contactConstraint
+                // skip sensor contacts
+                // check if the contact constraint has already been added to an island
+                if (!contactConstraint.isEnabled || contactConstraint.isSensor || constraint.isOnIsland) continue
+                // get the other body
+                val other = contactEdge.other
+                // add the contact constraint to the island list
+                island.add(contactConstraint)
+                // set the island flag on the contact constraint
+                constraint.isOnIsland = true
+                // has the other body been added to an island yet?
+                if (!other.isOnIsland()) {
+                    // if not then add this body to the stack
+                    stack.push(other)
+                    other.setOnIsland(true)
+                }
+            }
+            // loop over the joint edges of this body
+            val jeSize = body.joints.size
+            for (j in 0 until jeSize) {
+                // get the joint edge
+                val jointEdge: JointEdge = body.joints[j]
+                // get the joint
+                joint = jointEdge.interaction!!
+                constraint = joint
+                // check if the joint is inactive
+                if (!joint.isActive || constraint.isOnIsland) continue
+                // get the other body
+                val other: Body = jointEdge.other
+                // check if the joint has already been added to an island
+                // or if the other body is not active
+                if (!other.isActive()) continue
+                // add the joint to the island
+                island.add(joint)
+                // set the island flag on the joint
+                constraint.isOnIsland = true
+                // check if the other body has been added to an island
+                if (!other.isOnIsland()) {
+                    // if not then add the body to the stack
+                    stack.push(other)
+                    other.setOnIsland(true)
+                }
+            }
+        }
+
+        // the packed solver addresses bodies by their index in the island
+        if (settings.isPackedSolvingEnabled) island.assignIndices()
+    }
+
     /**
      * Finds new contacts for all bodies in this world.
      *
@@ -736,8 +874,8 @@ class World : Shiftable, DataContainer {
      */
     protected fun detect() {
         // get the bounds listeners
-        val boundsListeners = this.getListeners(BoundsListener::class)!!
-        val collisionListeners = this.getListeners(CollisionListener::class)!!
+        val boundsListeners = listeners.boundsListeners
+        val collisionListeners = listeners.collisionListeners
 
         // get the number of bodies
         val size = bodies.size
@@ -748,104 +886,116 @@ class World : Shiftable, DataContainer {
         // clear the body contacts
         // update the broadphase
 
-        // Check if the current broad-phase detector support batch updates, and use it if so
-        if (broadphaseDetector is BatchBroadphaseDetector<*, *>) {
-            for (i in 0 until size) {
-                val body = bodies!![i]
-                // skip if already not active
-                if (!body.isActive()) continue
-                // clear all the old contacts
+        // only the bodies that moved since the last update are pushed to the broad-phase
+        val broadphaseUpdates = broadphaseUpdates
+        broadphaseUpdates.clear()
+        val isRestingContactCachingEnabled = settings.isRestingContactCachingEnabled
+        val isDeterministicPairOrderEnabled = settings.isDeterministicPairOrderEnabled
+        for (i in 0 until size) {
+            val body = bodies!![i]
+            body.worldIndex = i
+            if (isDeterministicPairOrderEnabled) {
+                val fixtures = body.fixtures
+                for (j in 0 until fixtures.size) {
+                    fixtures[j].bodyIndex = j
+                }
+            }
+            // skip if already not active
+            if (!body.isActive()) {
+                body.isResting = false
+                continue
+            }
+            // check if the body has moved
+            val moved = body.isBroadphaseDirty()
+            body.isResting = isRestingContactCachingEnabled && !moved && body.isAsleep()
+            // clear all the old contacts; resting bodies keep the ones with other resting bodies
+            if (!body.isResting) body.contacts.clear()
+            // check if bounds have been set
+            // check if the body is out of bounds
+            val bounds = bounds
+            if (bounds != null && bounds.isOutside(body)) {
+                // set the body to inactive
+                body.setActive(false)
+                body.isResting = false
                 body.contacts.clear()
-                // check if bounds have been set
-                // check if the body is out of bounds
-                val bounds = bounds
-                if (bounds != null && bounds.isOutside(body)) {
-                    // set the body to inactive
-                    body.setActive(false)
-                    // if so, notify via the listeners
-                    for (j in 0 until blSize) {
-                        val bl = boundsListeners[j]
-                        bl.outside(body)
-                    }
+                // if so, notify via the listeners
+                for (j in 0 until blSize) {
+                    val bl = boundsListeners[j]
+                    bl.outside(body)
                 }
             }
-            (broadphaseDetector as BatchBroadphaseDetector<*, *>?)!!.batchUpdate()
+            // bodies that are asleep and haven't moved keep their broad-phase AABBs
+            if (moved || !body.isAsleep()) broadphaseUpdates.add(body)
+        }
+        val uSize = broadphaseUpdates.size
+
+        // Check if the current broad-phase detector support batch updates, and use it if so
+        val broadphaseDetector = broadphaseDetector
+        if (broadphaseDetector is BatchBroadphaseDetector<Body, BodyFixture>) {
+            // updating everything at once is cheaper when most bodies moved
+            if (uSize * 2 > size) {
+                broadphaseDetector.batchUpdate()
+            } else if (uSize > 0) {
+                broadphaseDetector.batchUpdate(broadphaseUpdates)
+            }
         } else {
             // Else update each body separately
+            for (i in 0 until uSize) {
+                // update the broadphase with the new position/orientation
+                broadphaseDetector.update(broadphaseUpdates[i])
+            }
+        }
+        for (i in 0 until uSize) {
+            broadphaseUpdates[i].setBroadphaseUpdated()
+        }
+
+        // keep the contacts between resting bodies
+        if (isRestingContactCachingEnabled) {
             for (i in 0 until size) {
                 val body = bodies!![i]
-                // skip if already not active
-                if (!body.isActive()) continue
-                // clear all the old contacts
-                body.contacts.clear()
-                // check if bounds have been set
-                // check if the body is out of bounds
-                val bounds = bounds
-                if (bounds != null && bounds.isOutside(body)) {
-                    // set the body to inactive
-                    body.setActive(false)
-                    // if so, notify via the listeners
-                    for (j in 0 until blSize) {
-                        val bl = boundsListeners[j]
-                        bl.outside(body)
+                if (!body.isResting) continue
+                val contacts = body.contacts
+                var j = contacts.size - 1
+                while (j >= 0) {
+                    val contactEdge = contacts[j]
+                    if (!contactEdge.other.isResting) {
+                        contacts.removeAt(j)
+                    } else if (contactEdge.interaction.body1 === body) {
+                        // queue it once, from the first body
+                        val contactConstraint = contactEdge.interaction
+                        contactConstraint.isEnabled = true
+                        (contactConstraint as Constraint).isOnIsland = false
+                        contactManager!!.queue(contactConstraint)
                     }
+                    j--
                 }
-                // update the broadphase with the new position/orientation
-                broadphaseDetector!!.update(body)
             }
         }
 
         // make sure there are some bodies
         if (size > 0) {
-            // test for collisions via the broad-phase
-            val pairs =
-                broadphaseDetector.detect(detectBroadphaseFilter)
+            // test for collisions via the broad-phase, in body order if requested so that
+            // the steps don't depend on how the broad-phase got to its current state
+            val detectedPairs = broadphaseDetector.detect(detectBroadphaseFilter)
+            val pairs = if (isDeterministicPairOrderEnabled) orderPairs(detectedPairs) else detectedPairs
             val pSize = pairs.size
             var allow = true
 
-            // using the broad-phase results, test for narrow-phase
-            for (i in 0 until pSize) {
-                val pair = pairs[i]
-
-                // get the bodies
-                val body1 = pair.collidable1!!
-                val body2 = pair.collidable2!!
-                val fixture1 = pair.fixture1!!
-                val fixture2 = pair.fixture2!!
-                allow = true
-                for (j in 0 until clSize) {
-                    val cl = collisionListeners[j]
-                    if (!cl.collision(body1, fixture1, body2, fixture2)) {
-                        // if any collision listener returned false then skip this collision
-                        // we must allow all the listeners to get notified first, then skip
-                        // the collision
-                        allow = false
-                    }
-                }
-                if (!allow) continue
-
-                // get their transforms
-                val transform1: Transform = body1.transform!!
-                val transform2: Transform = body2.transform!!
-                val convex2: Convex = fixture2.shape!!
-                val convex1: Convex = fixture1.shape!!
-                val penetration = Penetration()
-                // test the two convex shapes
-                if (narrowphaseDetector!!.detect(convex1, transform1, convex2, transform2, penetration)) {
-                    // check for zero penetration
-                    if (penetration.depth == 0.0) {
-                        // this should only happen if numerical error occurs
-                        continue
-                    }
-                    // perform post processing
-                    if (narrowphasePostProcessor != null) {
-                        narrowphasePostProcessor!!.process(convex1, transform1, convex2, transform2, penetration)
-                    }
-                    // notify of the narrow-phase collision
+            val narrowphaseExecutor = narrowphaseExecutor
+            if (narrowphaseExecutor == null) {
+                // using the broad-phase results, test for narrow-phase
+                for (i in 0 until pSize) {
+                    val pair = pairs[i]
+
+                    // get the bodies
+                    val body1 = pair.collidable1!!
+                    val body2 = pair.collidable2!!
+                    val fixture1 = pair.fixture1!!
+                    val fixture2 = pair.fixture2!!
                     allow = true
                     for (j in 0 until clSize) {
                         val cl = collisionListeners[j]
-                        if (!cl.collision(body1, fixture1, body2, fixture2, penetration)) {
+                        if (!cl.collision(body1, fixture1, body2, fixture2)) {
                             // if any collision listener returned false then skip this collision
                             // we must allow all the listeners to get notified first, then skip
                             // the collision
@@ -853,20 +1003,29 @@ class World : Shiftable, DataContainer {
                         }
                     }
                     if (!allow) continue
-                    val manifold = Manifold()
-                    // if there is penetration then find a contact manifold
-                    // using the filled in penetration object
-                    if (manifoldSolver!!.getManifold(penetration, convex1, transform1, convex2, transform2, manifold)) {
-                        // check for zero points
-                        if (manifold.points.size == 0) {
+
+                    // get their transforms
+                    val transform1: Transform = body1.transform!!
+                    val transform2: Transform = body2.transform!!
+                    val convex2: Convex = fixture2.shape!!
+                    val convex1: Convex = fixture1.shape!!
+                    val penetration = this.penetration
+                    // test the two convex shapes
+                    if (narrowphaseDetector!!.detect(convex1, transform1, convex2, transform2, penetration)) {
+                        // check for zero penetration
+                        if (penetration.depth == 0.0) {
                             // this should only happen if numerical error occurs
                             continue
                         }
-                        // notify of the manifold solving result
+                        // perform post processing
+                        if (narrowphasePostProcessor != null) {
+                            narrowphasePostProcessor!!.process(convex1, transform1, convex2, transform2, penetration)
+                        }
+                        // notify of the narrow-phase collision
                         allow = true
                         for (j in 0 until clSize) {
                             val cl = collisionListeners[j]
-                            if (!cl.collision(body1, fixture1, body2, fixture2, manifold)) {
+                            if (!cl.collision(body1, fixture1, body2, fixture2, penetration)) {
                                 // if any collision listener returned false then skip this collision
                                 // we must allow all the listeners to get notified first, then skip
                                 // the collision
@@ -874,38 +1033,178 @@ class World : Shiftable, DataContainer {
                             }
                         }
                         if (!allow) continue
-                        // create a contact constraint
-                        val contactConstraint = ContactConstraint(body1, fixture1, body2, fixture2, manifold,
-                            coefficientMixer!!.mixFriction(fixture1.friction, fixture2.friction),
-                            coefficientMixer!!.mixRestitution(fixture1.restitution, fixture2.restitution)
-                        )
-                        allow = true
-                        // notify of the created contact constraint
-                        for (j in 0 until clSize) {
-                            val cl = collisionListeners[j]
-                            if (!cl.collision(contactConstraint)) {
-                                // if any collision listener returned false then skip this collision
-                                // we must allow all the listeners to get notified first, then skip
-                                // the collision
-                                allow = false
+                        val manifold = Manifold()
+                        // if there is penetration then find a contact manifold
+                        // using the filled in penetration object
+                        if (manifoldSolver!!.getManifold(penetration, convex1, transform1, convex2, transform2, manifold)) {
+                            // check for zero points
+                            if (manifold.points.size == 0) {
+                                // this should only happen if numerical error occurs
+                                continue
+                            }
+                            // notify of the manifold solving result
+                            allow = true
+                            for (j in 0 until clSize) {
+                                val cl = collisionListeners[j]
+                                if (!cl.collision(body1, fixture1, body2, fixture2, manifold)) {
+                                    // if any collision listener returned false then skip this collision
+                                    // we must allow all the listeners to get notified first, then skip
+                                    // the collision
+                                    allow = false
+                                }
                             }
+                            if (!allow) continue
+                            // create, notify and queue the contact constraint
+                            queueContactConstraint(body1, fixture1, body2, fixture2, manifold, collisionListeners)
                         }
-                        if (!allow) continue
-
-                        // add a contact edge to both bodies
-                        val contactEdge1 = ContactEdge(body2, contactConstraint)
-                        val contactEdge2 = ContactEdge(body1, contactConstraint)
-                        body1.contacts.add(contactEdge1)
-                        body2.contacts.add(contactEdge2)
-                        // add the contact constraint to the contact manager
-                        contactManager!!.queue(contactConstraint)
                     }
                 }
+            } else {
+                // run the narrow-phase and manifold solving in batches
+                while (narrowphaseResults.size < pSize) {
+                    narrowphaseResults.add(NarrowphaseResult())
+                }
+                narrowphasePairs = pairs
+                narrowphaseExecutor.invokeAll((pSize + narrowphaseBatchSize - 1) / narrowphaseBatchSize, narrowphaseTask)
+                narrowphasePairs = null
+
+                // merge the results in pair order
+                for (i in 0 until pSize) {
+                    val pair = pairs[i]
+
+                    // get the bodies
+                    val body1 = pair.collidable1
+                    val body2 = pair.collidable2
+                    val fixture1 = pair.fixture1
+                    val fixture2 = pair.fixture2
+                    allow = true
+                    for (j in 0 until clSize) {
+                        val cl = collisionListeners[j]
+                        if (!cl.collision(body1, fixture1, body2, fixture2)) {
+                            // if any collision listener returned false then skip this collision
+                            // we must allow all the listeners to get notified first, then skip
+                            // the collision
+                            allow = false
+                        }
+                    }
+                    if (!allow) continue
+                    val result = narrowphaseResults[i]
+                    if (!result.isPenetrating) continue
+                    // notify of the narrow-phase collision
+                    allow = true
+                    for (j in 0 until clSize) {
+                        val cl = collisionListeners[j]
+                        if (!cl.collision(body1, fixture1, body2, fixture2, result.penetration)) {
+                            allow = false
+                        }
+                    }
+                    if (!allow || !result.hasManifold) continue
+                    // notify of the manifold solving result
+                    allow = true
+                    for (j in 0 until clSize) {
+                        val cl = collisionListeners[j]
+                        if (!cl.collision(body1, fixture1, body2, fixture2, result.manifold)) {
+                            allow = false
+                        }
+                    }
+                    if (!allow) continue
+                    // create, notify and queue the contact constraint
+                    queueContactConstraint(body1, fixture1, body2, fixture2, result.manifold, collisionListeners)
+                }
             }
         }
 
         // warm start the contact constraints
-        contactManager!!.updateAndNotify(this.getListeners(ContactListener::class)!!, settings)
+        contactManager!!.updateAndNotify(listeners.contactListeners, settings)
+    }
+
+    /**
+     * Creates the [ContactConstraint] for the given manifold, notifies the [CollisionListener]s
+     * and, if allowed, adds it to both bodies and queues it on the [ContactManager].
+     * @param body1 the first body
+     * @param fixture1 the first body's fixture
+     * @param body2 the second body
+     * @param fixture2 the second body's fixture
+     * @param manifold the contact manifold
+     * @param collisionListeners the collision listeners
+     */
+    private fun queueContactConstraint(
+        body1: Body, fixture1: BodyFixture, body2: Body, fixture2: BodyFixture,
+        manifold: Manifold, collisionListeners: List<CollisionListener>
+    ) {
+        val clSize = collisionListeners.size
+        var allow: Boolean
+        // create a contact constraint
+        val contactConstraint = ContactConstraint(body1, fixture1, body2, fixture2, manifold,
+            coefficientMixer!!.mixFriction(fixture1.friction, fixture2.friction),
+            coefficientMixer!!.mixRestitution(fixture1.restitution, fixture2.restitution)
+        )
+        allow = true
+        // notify of the created contact constraint
+        for (j in 0 until clSize) {
+            val cl = collisionListeners[j]
+            if (!cl.collision(contactConstraint)) {
+                // if any collision listener returned false then skip this collision
+                // we must allow all the listeners to get notified first, then skip
+                // the collision
+                allow = false
+            }
+        }
+        if (!allow) return
+
+        // add a contact edge to both bodies
+        val contactEdge1 = ContactEdge(body2, contactConstraint)
+        val contactEdge2 = ContactEdge(body1, contactConstraint)
+        body1.contacts.add(contactEdge1)
+        body2.contacts.add(contactEdge2)
+        // add the contact constraint to the contact manager
+        contactManager!!.queue(contactConstraint)
+    }
+
+    /**
+     * Turns the given broad-phase pairs in place so that the lower [Body.worldIndex] comes first,
+     * copies them to [orderedPairs] and sorts them by body and fixture index.
+     *
+     *
+     * The order and the orientation of the pairs a [BroadphaseDetector] reports depend on its
+     * previous updates, which would otherwise leak into the order the contacts are solved in.
+     * @param pairs the broad-phase pairs
+     * @return List the ordered pairs; reused by the next call
+     */
+    private fun orderPairs(pairs: List<BroadphasePair<Body, BodyFixture>>): List<BroadphasePair<Body, BodyFixture>> {
+        val orderedPairs = orderedPairs
+        orderedPairs.clear()
+        val pSize = pairs.size
+        for (i in 0 until pSize) {
+            val pair = pairs[i]
+            if (comparePairBodies(pair.collidable1, pair.fixture1, pair.collidable2, pair.fixture2) > 0) pair.flip()
+            orderedPairs.add(pair)
+        }
+        orderedPairs.sortWith(pairComparator)
+        return orderedPairs
+    }
+
+    /**
+     * Compares the two sides of a broad-phase pair by [Body.worldIndex] and then by [BodyFixture.bodyIndex].
+     * @return int negative if the first side comes first
+     */
+    private fun comparePairBodies(body1: Body, fixture1: BodyFixture, body2: Body, fixture2: BodyFixture): Int {
+        val diff = body1.worldIndex - body2.worldIndex
+        if (diff != 0) return diff
+        return fixture1.bodyIndex - fixture2.bodyIndex
+    }
+
+    /**
+     * Compares two ordered broad-phase pairs side by side.
+     * @return int negative if the first pair comes first
+     */
+    private fun comparePairs(
+        body11: Body, fixture11: BodyFixture, body12: Body, fixture12: BodyFixture,
+        body21: Body, fixture21: BodyFixture, body22: Body, fixture22: BodyFixture
+    ): Int {
+        val diff = comparePairBodies(body11, fixture11, body21, fixture21)
+        if (diff != 0) return diff
+        return comparePairBodies(body12, fixture12, body22, fixture22)
     }
 
     /**
@@ -933,7 +1232,7 @@ class World : Shiftable, DataContainer {
      * @since 1.2.0
      */
     protected fun solveTOI(mode: ContinuousDetectionMode) {
-        val listeners: List<TimeOfImpactListener> = this.getListeners(TimeOfImpactListener::class)!!
+        val listeners: List<TimeOfImpactListener> = this.listeners.timeOfImpactListeners
         // get the number of bodies
         val size = bodies.size
 
@@ -1374,7 +1673,7 @@ class World : Shiftable, DataContainer {
      */
     fun raycast(ray: Ray, maxLength: Double, filter: Filter?, ignoreSensors: Boolean, ignoreInactive: Boolean,
         all: Boolean, results: MutableList<RaycastResult>): Boolean {
-        val listeners: List<RaycastListener> = this.getListeners(RaycastListener::class)!!
+        val listeners: List<RaycastListener> = this.listeners.raycastListeners
         val rlSize = listeners.size
         // check for the desired length
         var max = 0.0
@@ -1573,7 +1872,7 @@ class World : Shiftable, DataContainer {
      * @since 3.1.9
      */
     fun raycast(ray: Ray, body: Body, maxLength: Double, filter: Filter?, ignoreSensors: Boolean, result: RaycastResult): Boolean {
-        val listeners: List<RaycastListener> = this.getListeners(RaycastListener::class)!!
+        val listeners: List<RaycastListener> = this.listeners.raycastListeners
         val rlSize = listeners.size
         var allow = true
         // get the number of fixtures
@@ -1872,7 +2171,7 @@ class World : Shiftable, DataContainer {
         ignoreSensors: Boolean, ignoreInactive: Boolean, all: Boolean, results: MutableList<ConvexCastResult>
     ): Boolean {
         // get the listeners
-        val listeners: List<ConvexCastListener> = this.getListeners(ConvexCastListener::class)!!
+        val listeners: List<ConvexCastListener> = this.listeners.convexCastListeners
         val clSize = listeners.size
 
         // compute a conservative AABB for the motion of the convex
@@ -2082,7 +2381,7 @@ class World : Shiftable, DataContainer {
     fun convexCast(convex: Convex, transform: Transform, deltaPosition: Vector2, deltaAngle: Double, body: Body,
         filter: Filter?, ignoreSensors: Boolean, result: ConvexCastResult): Boolean {
         // get the listeners
-        val listeners: List<ConvexCastListener> = this.getListeners(ConvexCastListener::class)!!
+        val listeners: List<ConvexCastListener> = this.listeners.convexCastListeners
         val clSize = listeners.size
         var allow = true
         var found = false
@@ -2232,7 +2531,7 @@ class World : Shiftable, DataContainer {
      * @since 3.1.9
      */
     fun detect(aabb: AABB, filter: Filter?, ignoreSensors: Boolean, ignoreInactive: Boolean, results: MutableList<DetectResult>): Boolean {
-        val listeners: List<DetectListener> = this.getListeners(DetectListener::class)!!
+        val listeners: List<DetectListener> = this.listeners.detectListeners
         val dlSize = listeners.size
         val bpFilter = AABBBroadphaseFilter(ignoreInactive, ignoreSensors, filter)
         val collisions: List<BroadphaseItem<Body, BodyFixture>> = broadphaseDetector.detect(aabb, bpFilter)
@@ -2543,7 +2842,7 @@ class World : Shiftable, DataContainer {
      */
     fun detect(convex: Convex, transform: Transform, filter: Filter?, ignoreSensors: Boolean, ignoreInactive: Boolean,
         includeCollisionData: Boolean, results: MutableList<DetectResult>): Boolean {
-        val listeners: List<DetectListener> = this.getListeners(DetectListener::class)!!
+        val listeners: List<DetectListener> = this.listeners.detectListeners
         val dlSize = listeners.size
         var allow = true
 
@@ -2635,7 +2934,7 @@ class World : Shiftable, DataContainer {
      * @since 3.1.9
      */
     fun detect(aabb: AABB, body: Body, filter: Filter?, ignoreSensors: Boolean, results: MutableList<DetectResult>): Boolean {
-        val listeners: List<DetectListener> = this.getListeners(DetectListener::class)!!
+        val listeners: List<DetectListener> = this.listeners.detectListeners
         val dlSize = listeners.size
         var allow = true
         // test the AABBs
@@ -2833,7 +3132,7 @@ class World : Shiftable, DataContainer {
      */
     fun detect(convex: Convex, transform: Transform, body: Body, filter: Filter?, ignoreSensors: Boolean,
                includeCollisionData: Boolean, results: MutableList<DetectResult>): Boolean {
-        val listeners: List<DetectListener> = this.getListeners(DetectListener::class)!!
+        val listeners: List<DetectListener> = this.listeners.detectListeners
         val dlSize = listeners.size
         // make sure we can test the body
         var allow = true
@@ -2945,6 +3244,305 @@ class World : Shiftable, DataContainer {
         contactManager!!.shift(shift)
     }
 
+    /**
+     * Captures the simulation state of this [World] in the given snapshot.
+     *
+     *
+     * The snapshot holds the body transforms, velocities and sleep state, the accumulated time, the
+     * [Step], the joint impulses and the current contacts with their accumulated impulses used for
+     * warm starting. Restoring it with [restore] and stepping again gives bit-identical results to
+     * stepping on from this call when the same input is applied and [Settings.isDeterministicPairOrderEnabled]
+     * is enabled. The forces and torques applied to the bodies, the [Settings] and the listeners are not captured.
+     *
+     *
+     * Taking a snapshot only reads the state, the next steps are the same as without it. This method
+     * should be called between steps and not from a listener.
+     * @param snapshot the snapshot to reuse
+     * @return [WorldSnapshot] the given snapshot
+     * @since 3.4.1
+     */
+    fun snapshot(snapshot: WorldSnapshot = WorldSnapshot()): WorldSnapshot {
+        snapshot.clear()
+        val bSize = bodies.size
+        val jSize = joints.size
+        snapshot.putInt(bSize)
+        snapshot.putInt(jSize)
+        snapshot.putBoolean(isUpdateRequired)
+        snapshot.putDouble(time)
+        val step = step!!
+        snapshot.putDouble(step.dt0)
+        snapshot.putDouble(step.invdt0)
+        snapshot.putDouble(step.dt)
+        snapshot.putDouble(step.invdt)
+        snapshot.putDouble(step.dtRatio)
+
+        for (i in 0 until bSize) {
+            val body = bodies[i]
+            body.writeState(snapshot)
+            body.worldIndex = i
+            // clear the marks of the last snapshot
+            val contacts = body.contacts
+            for (j in 0 until contacts.size) {
+                contacts[j].interaction.snapshotIndex = -1
+            }
+        }
+        for (i in 0 until jSize) {
+            joints[i].writeState(snapshot)
+        }
+
+        // write the contact edges of each body in order, each contact
+        // constraint is written at its first edge and referenced by index after
+        var constraintCount = 0
+        for (i in 0 until bSize) {
+            val contacts = bodies[i].contacts
+            val ceSize = contacts.size
+            snapshot.putInt(ceSize)
+            for (j in 0 until ceSize) {
+                val contactConstraint = contacts[j].interaction
+                val index = contactConstraint.snapshotIndex
+                if (index >= 0) {
+                    snapshot.putInt(index)
+                } else {
+                    contactConstraint.snapshotIndex = constraintCount++
+                    snapshot.putInt(-1)
+                    writeContactConstraint(contactConstraint, snapshot)
+                }
+            }
+        }
+        return snapshot
+    }
+
+    /**
+     * Restores the simulation state captured by [snapshot].
+     *
+     *
+     * The [World] must have the same bodies, fixtures and joints, in the same order, as when the
+     * snapshot was taken. The contact listeners are not notified of the restored contacts.
+     * @param snapshot the snapshot to restore
+     * @throws IllegalArgumentException if the snapshot is empty or the number of bodies or joints differs
+     * @since 3.4.1
+     */
+    fun restore(snapshot: WorldSnapshot) {
+        if (snapshot.isEmpty()) throw IllegalArgumentException(message("dynamics.world.restoreEmptySnapshot"))
+        snapshot.rewind()
+        val bSize = bodies.size
+        val jSize = joints.size
+        if (snapshot.getInt() != bSize || snapshot.getInt() != jSize) {
+            throw IllegalArgumentException(message("dynamics.world.restoreOtherWorldSnapshot"))
+        }
+        isUpdateRequired = snapshot.getBoolean()
+        time = snapshot.getDouble()
+        val step = step!!
+        step.dt0 = snapshot.getDouble()
+        step.invdt0 = snapshot.getDouble()
+        step.dt = snapshot.getDouble()
+        step.invdt = snapshot.getDouble()
+        step.dtRatio = snapshot.getDouble()
+
+        for (i in 0 until bSize) {
+            bodies[i].readState(snapshot)
+        }
+        for (i in 0 until jSize) {
+            joints[i].readState(snapshot)
+        }
+
+        // rebuild the contact edges and the warm starting contacts, the contact constraints
+        // and edges the bodies still have for the same fixtures are overwritten in place
+        val contactManager = contactManager!!
+        contactManager.clear()
+        val constraints = snapshotConstraints
+        val previousContacts = previousContacts
+        for (i in 0 until bSize) {
+            val body = bodies[i]
+            val contacts = body.contacts
+            previousContacts.clear()
+            for (j in 0 until contacts.size) {
+                previousContacts.add(contacts[j])
+            }
+            contacts.clear()
+            val ceSize = snapshot.getInt()
+            for (j in 0 until ceSize) {
+                val index = snapshot.getInt()
+                val contactConstraint: ContactConstraint
+                if (index < 0) {
+                    contactConstraint = readContactConstraint(previousContacts, snapshot)
+                    constraints.add(contactConstraint)
+                    if (contactManager is DefaultContactManager) contactManager.restore(contactConstraint)
+                } else {
+                    contactConstraint = constraints[index]
+                }
+                contacts.add(getContactEdge(body, contactConstraint, previousContacts))
+            }
+        }
+        constraints.clear()
+        previousContacts.clear()
+
+        // the broad-phase bounds are updated by the next step
+        for (i in 0 until bSize) {
+            bodies[i].setBroadphaseDirty()
+        }
+    }
+
+    /**
+     * Returns the contact edge of the given [Body] for the given [ContactConstraint], reusing
+     * the previous one if there is one.
+     * @param body the body
+     * @param contactConstraint the contact constraint
+     * @param previousContacts the contact edges the body had before restoring
+     * @return [ContactEdge]
+     */
+    private fun getContactEdge(body: Body, contactConstraint: ContactConstraint, previousContacts: List<ContactEdge>): ContactEdge {
+        for (i in 0 until previousContacts.size) {
+            val contactEdge = previousContacts[i]
+            if (contactEdge.interaction === contactConstraint) return contactEdge
+        }
+        val other = if (contactConstraint.body1 === body) contactConstraint.body2 else contactConstraint.body1
+        return ContactEdge(other, contactConstraint)
+    }
+
+    /**
+     * Writes the given [ContactConstraint] and its contacts to the given snapshot.
+     * @param contactConstraint the contact constraint; the [Body.worldIndex] of its bodies must be up to date
+     * @param snapshot the snapshot
+     */
+    private fun writeContactConstraint(contactConstraint: ContactConstraint, snapshot: WorldSnapshot) {
+        val body1 = contactConstraint.body1
+        val body2 = contactConstraint.body2
+        snapshot.putInt(body1.worldIndex)
+        snapshot.putInt(body1.fixtures.indexOf(contactConstraint.fixture1))
+        snapshot.putInt(body2.worldIndex)
+        snapshot.putInt(body2.fixtures.indexOf(contactConstraint.fixture2))
+        snapshot.putBoolean(contactConstraint.isEnabled)
+        val normal = contactConstraint.normal!!
+        snapshot.putDouble(normal.x)
+        snapshot.putDouble(normal.y)
+        snapshot.putDouble(contactConstraint.friction)
+        snapshot.putDouble(contactConstraint.restitution)
+        snapshot.putDouble(contactConstraint.tangentSpeed)
+        val contacts = contactConstraint.contacts
+        val cSize = contacts.size
+        snapshot.putInt(cSize)
+        for (i in 0 until cSize) {
+            val contact = contacts[i]
+            // any id other than an indexed id is compared by distance
+            val id = contact.id
+            if (id is IndexedManifoldPointId) {
+                snapshot.putBoolean(true)
+                snapshot.putInt(id.referenceEdge)
+                snapshot.putInt(id.incidentEdge)
+                snapshot.putInt(id.incidentVertex)
+                snapshot.putBoolean(id.isFlipped)
+            } else {
+                snapshot.putBoolean(false)
+            }
+            snapshot.putDouble(contact.p.x)
+            snapshot.putDouble(contact.p.y)
+            snapshot.putDouble(contact.depth)
+            snapshot.putDouble(contact.p1!!.x)
+            snapshot.putDouble(contact.p1!!.y)
+            snapshot.putDouble(contact.p2!!.x)
+            snapshot.putDouble(contact.p2!!.y)
+            snapshot.putDouble(contact.jn)
+            snapshot.putDouble(contact.jt)
+            snapshot.putDouble(contact.jp)
+        }
+    }
+
+    /**
+     * Reads a [ContactConstraint] written by [writeContactConstraint] from the given snapshot.
+     *
+     *
+     * A previous contact constraint between the same fixtures is overwritten along with its contacts
+     * instead of creating a new one.
+     * @param previousContacts the contact edges the first body of the constraint had before restoring
+     * @param snapshot the snapshot
+     * @return [ContactConstraint]
+     */
+    private fun readContactConstraint(previousContacts: List<ContactEdge>, snapshot: WorldSnapshot): ContactConstraint {
+        val body1 = bodies[snapshot.getInt()]
+        val fixture1 = body1.getFixture(snapshot.getInt())
+        val body2 = bodies[snapshot.getInt()]
+        val fixture2 = body2.getFixture(snapshot.getInt())
+        val isEnabled = snapshot.getBoolean()
+        val normalX = snapshot.getDouble()
+        val normalY = snapshot.getDouble()
+        val friction = snapshot.getDouble()
+        val restitution = snapshot.getDouble()
+        val tangentSpeed = snapshot.getDouble()
+        val cSize = snapshot.getInt()
+        var contactConstraint: ContactConstraint? = null
+        for (i in 0 until previousContacts.size) {
+            val previousConstraint = previousContacts[i].interaction
+            if (previousConstraint.fixture1 === fixture1 && previousConstraint.fixture2 === fixture2) {
+                contactConstraint = previousConstraint
+                break
+            }
+        }
+        if (contactConstraint != null) {
+            contactConstraint.normal!!.set(normalX, normalY)
+            contactConstraint.tangent!!.set(normalX, normalY).left()
+            contactConstraint.K = null
+            contactConstraint.invK = null
+            (contactConstraint as Constraint).isOnIsland = false
+        } else {
+            contactConstraint = ContactConstraint(body1, fixture1, body2, fixture2, Vector2(normalX, normalY), cSize)
+        }
+        contactConstraint.isEnabled = isEnabled
+        contactConstraint.friction = friction
+        contactConstraint.restitution = restitution
+        contactConstraint.tangentSpeed = tangentSpeed
+        val contacts = contactConstraint.contacts
+        while (contacts.size > cSize) {
+            contacts.removeAt(contacts.size - 1)
+        }
+        for (i in 0 until cSize) {
+            val contact = if (i < contacts.size) contacts[i] else null
+            val id = readManifoldPointId(contact?.id, snapshot)
+            val x = snapshot.getDouble()
+            val y = snapshot.getDouble()
+            val depth = snapshot.getDouble()
+            val x1 = snapshot.getDouble()
+            val y1 = snapshot.getDouble()
+            val x2 = snapshot.getDouble()
+            val y2 = snapshot.getDouble()
+            val restoredContact: Contact
+            if (contact != null) {
+                contact.id = id
+                contact.p.set(x, y)
+                contact.depth = depth
+                contact.p1!!.set(x1, y1)
+                contact.p2!!.set(x2, y2)
+                restoredContact = contact
+            } else {
+                restoredContact = Contact(id, Vector2(x, y), depth, Vector2(x1, y1), Vector2(x2, y2))
+                contacts.add(restoredContact)
+            }
+            restoredContact.jn = snapshot.getDouble()
+            restoredContact.jt = snapshot.getDouble()
+            restoredContact.jp = snapshot.getDouble()
+        }
+        return contactConstraint
+    }
+
+    /**
+     * Reads a [ManifoldPointId] written by [writeContactConstraint] from the given snapshot.
+     * @param previousId the id to return if it's equal to the one read
+     * @param snapshot the snapshot
+     * @return [ManifoldPointId]
+     */
+    private fun readManifoldPointId(previousId: ManifoldPointId?, snapshot: WorldSnapshot): ManifoldPointId {
+        if (!snapshot.getBoolean()) return ManifoldPointId.DISTANCE
+        val referenceEdge = snapshot.getInt()
+        val incidentEdge = snapshot.getInt()
+        val incidentVertex = snapshot.getInt()
+        val isFlipped = snapshot.getBoolean()
+        if (previousId is IndexedManifoldPointId && previousId.referenceEdge == referenceEdge && previousId.incidentEdge == incidentEdge &&
+            previousId.incidentVertex == incidentVertex && previousId.isFlipped == isFlipped) {
+            return previousId
+        }
+        return IndexedManifoldPointId(referenceEdge, incidentEdge, incidentVertex, isFlipped)
+    }
+
     /**
      * Adds the given [Body] to the [World].
      * @param body the [Body] to add
@@ -3087,7 +3685,7 @@ class World : Shiftable, DataContainer {
     fun removeBody(body: Body?, notify: Boolean): Boolean {
         var listeners: List<DestructionListener>? = null
         if (notify) {
-            listeners = this.getListeners(DestructionListener::class)!!
+            listeners = this.listeners.destructionListeners
         }
         // check for null body
         if (body == null) return false
@@ -3288,7 +3886,7 @@ class World : Shiftable, DataContainer {
     fun removeAllBodiesAndJoints(notify: Boolean) {
         var listeners: List<DestructionListener>? = null
         if (notify) {
-            listeners = this.getListeners(DestructionListener::class)!!
+            listeners = this.listeners.destructionListeners
         }
         // loop over the bodies and clear the
         // joints and contacts
@@ -3418,7 +4016,7 @@ class World : Shiftable, DataContainer {
     fun removeAllJoints(notify: Boolean) {
         var listeners: List<DestructionListener>? = null
         if (notify) {
-            listeners = this.getListeners(DestructionListener::class)
+            listeners = this.listeners.destructionListeners
         }
         // get the number of joints
         val jSize = joints.size
@@ -3554,7 +4152,7 @@ class World : Shiftable, DataContainer {
         // make sure its not null
         if (listener == null) throw NullPointerException(message("dynamics.world.nullListener"))
         // make sure its not already been added
-        if (listeners!!.contains(listener)) throw IllegalArgumentException("dynamics.world.addExistingListener")
+        if (listeners.contains(listener)) throw IllegalArgumentException("dynamics.world.addExistingListener")
         // then add the listener
         listeners.add(listener)
     }
@@ -3566,7 +4164,7 @@ class World : Shiftable, DataContainer {
      * @since 3.1.1
      */
     fun containsListener(listener: Listener?): Boolean {
-        return listeners!!.contains(listener)
+        return listeners.contains(listener)
     }
 
     /**
@@ -3585,7 +4183,7 @@ class World : Shiftable, DataContainer {
      * @since 3.1.1
      */
     fun removeAllListeners(): Int {
-        val count = listeners!!.size
+        val count = listeners.size
         listeners.clear()
         return count
     }
@@ -3611,18 +4209,9 @@ class World : Shiftable, DataContainer {
         // if null, just return
         if (clazz == null) return 0
         // if empty list, return
-        if (listeners!!.isEmpty()) return 0
+        if (listeners.isEmpty()) return 0
         // loop over the list of listeners
-        var count = 0
-        val listenerIterator = listeners!!.iterator()
-        while (listenerIterator.hasNext()) {
-            val listener: Listener = listenerIterator.next()
-            if (clazz.isInstance(listener)) {
-                listenerIterator.remove()
-                count++
-            }
-        }
-        return count
+        return listeners.removeIf { clazz.isInstance(it) }
     }
 
     /**
@@ -3631,7 +4220,7 @@ class World : Shiftable, DataContainer {
      * @since 3.1.1
      */
     fun getListenerCount(): Int {
-        return listeners!!.size
+        return listeners.size
     }
 
     /**
@@ -3656,9 +4245,9 @@ class World : Shiftable, DataContainer {
         if (clazz == null) return 0
         // loop over the listeners
         var count = 0
-        val lSize = listeners!!.size
+        val lSize = listeners.size
         for (i in 0 until lSize) {
-            val listener: Listener = listeners!![i]
+            val listener: Listener = listeners[i]
             // check if the listener is of the given type
             if (clazz.isInstance(listener)) {
                 // if so, increment
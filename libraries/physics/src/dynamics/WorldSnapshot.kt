@@ -0,0 +1,122 @@
+package org.dyn4j.dynamics
+
+import org.dyn4j.dynamics.joint.LimitState
+
+/**
+ * Represents the simulation state of a [World] captured by [World.snapshot].
+ *
+ *
+ * The state is stored as raw primitives in two growable arrays that are reused by every
+ * [World.snapshot] call, so a snapshot only allocates while it grows to the largest state it has held.
+ *
+ *
+ * A snapshot only holds the state that changes while stepping: the body transforms, velocities and
+ * sleep state, the accumulated time, the [Step], the joint impulses and the contacts with their
+ * accumulated impulses used for warm starting. It can only be restored to the [World] it was taken from
+ * while that world has the same bodies, fixtures and joints in the same order.
+ */
+class WorldSnapshot {
+    /** The double values  */
+    private var doubles = DoubleArray(INITIAL_CAPACITY)
+
+    /** The int values  */
+    private var ints = IntArray(INITIAL_CAPACITY)
+
+    /** The number of double values  */
+    private var doubleCount = 0
+
+    /** The number of int values  */
+    private var intCount = 0
+
+    /** The read position in the double values  */
+    private var doubleIndex = 0
+
+    /** The read position in the int values  */
+    private var intIndex = 0
+
+    /**
+     * Returns the number of bytes the captured state takes.
+     * @return int
+     */
+    val size: Int
+        get() = doubleCount * 8 + intCount * 4
+
+    /**
+     * Returns true if no state has been captured yet.
+     * @return boolean
+     */
+    fun isEmpty(): Boolean {
+        return doubleCount == 0 && intCount == 0
+    }
+
+    /**
+     * Discards the captured state, keeping the allocated arrays.
+     */
+    internal fun clear() {
+        doubleCount = 0
+        intCount = 0
+        doubleIndex = 0
+        intIndex = 0
+    }
+
+    /**
+     * Moves the read position back to the start of the captured state.
+     */
+    internal fun rewind() {
+        doubleIndex = 0
+        intIndex = 0
+    }
+
+    internal fun putDouble(value: Double) {
+        if (doubleCount == doubles.size) doubles = doubles.copyOf(doubles.size * 2)
+        doubles[doubleCount++] = value
+    }
+
+    internal fun putInt(value: Int) {
+        if (intCount == ints.size) ints = ints.copyOf(ints.size * 2)
+        ints[intCount++] = value
+    }
+
+    internal fun putBoolean(value: Boolean) {
+        putInt(if (value) 1 else 0)
+    }
+
+    internal fun putLimitState(value: LimitState?) {
+        putInt(value?.ordinal ?: -1)
+    }
+
+    internal fun getDouble(): Double {
+        return doubles[doubleIndex++]
+    }
+
+    internal fun getInt(): Int {
+        return ints[intIndex++]
+    }
+
+    internal fun getBoolean(): Boolean {
+        return getInt() != 0
+    }
+
+    internal fun getLimitState(): LimitState? {
+        val ordinal = getInt()
+        return if (ordinal < 0) null else LIMIT_STATES[ordinal]
+    }
+
+    /* (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+    override fun toString(): String {
+        val sb: StringBuilder = StringBuilder()
+        sb.append("WorldSnapshot[Size=").append(size)
+            .append("]")
+        return sb.toString()
+    }
+
+    companion object {
+        /** The initial number of values of each array  */
+        private const val INITIAL_CAPACITY = 256
+
+        /** The limit states by ordinal  */
+        private val LIMIT_STATES = LimitState.values()
+    }
+}
@@ -78,6 +78,15 @@ class ContactConstraint : Constraint, Shiftable {
     /** The inverse of the [.K] matrix  */
     var invK: Matrix22? = null
 
+    /** The island index of the first body; used by packed solving  */
+    internal var islandIndex1 = -1
+
+    /** The island index of the second body; used by packed solving  */
+    internal var islandIndex2 = -1
+
+    /** The index of this [ContactConstraint] in the last snapshot; -1 until it's written  */
+    internal var snapshotIndex = -1
+
     constructor(
         body1: Body,
         fixture1: BodyFixture,
@@ -128,6 +137,34 @@ class ContactConstraint : Constraint, Shiftable {
         isEnabled = true
     }
 
+    /**
+     * Creates a contact constraint without contacts; used to restore a [org.dyn4j.dynamics.WorldSnapshot].
+     * @param body1 the first participating [Body]
+     * @param fixture1 the first participating [BodyFixture]
+     * @param body2 the second participating [Body]
+     * @param fixture2 the second participating [BodyFixture]
+     * @param normal the penetration normal
+     * @param contactCount the number of contacts that will be added
+     * @since 3.4.1
+     */
+    internal constructor(
+        body1: Body,
+        fixture1: BodyFixture,
+        body2: Body,
+        fixture2: BodyFixture,
+        normal: Vector2,
+        contactCount: Int
+    ) : super(body1, body2) {
+        this.fixture1 = fixture1
+        this.fixture2 = fixture2
+        id = ContactConstraintId(body1, fixture1, body2, fixture2)
+        contacts = ArrayList(contactCount)
+        this.normal = normal
+        tangent = normal.leftHandOrthogonalVector
+        isSensor = fixture1.isSensor || fixture2.isSensor
+        isEnabled = true
+    }
+
     /* (non-Javadoc)
 	 * @see java.lang.Object#toString()
 	 */
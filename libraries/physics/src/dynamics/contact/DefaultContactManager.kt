@@ -43,6 +43,13 @@ open class DefaultContactManager : ContactManager, Shiftable {
         return constraints.remove(constraint.id) != null
     }
 
+    // adds a contact constraint of a restored WorldSnapshot as if it was detected by the last update
+    internal fun restore(constraint: ContactConstraint) {
+        if (constraint.contacts.size > 0) {
+            constraints[constraint.id] = constraint
+        }
+    }
+
     override fun shift(shift: Vector2) {
         val iterator = constraints.values.iterator()
         while (iterator.hasNext()) {
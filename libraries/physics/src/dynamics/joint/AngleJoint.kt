@@ -29,6 +29,7 @@ import org.dyn4j.Epsilon
 import org.dyn4j.dynamics.Body
 import org.dyn4j.dynamics.Settings
 import org.dyn4j.dynamics.Step
+import org.dyn4j.dynamics.WorldSnapshot
 import org.dyn4j.geometry.*
 import org.dyn4j.resources.message
 import kotlin.math.PI
@@ -423,6 +424,22 @@ class AngleJoint(body1: Body, body2: Body) : Joint(body1, body2), Shiftable, Dat
         return impulse * invdt
     }
 
+    /* (non-Javadoc)
+	 * @see org.dyn4j.dynamics.joint.Joint#writeState(org.dyn4j.dynamics.WorldSnapshot)
+	 */
+    override fun writeState(snapshot: WorldSnapshot) {
+        snapshot.putLimitState(limitState)
+        snapshot.putDouble(impulse)
+    }
+
+    /* (non-Javadoc)
+	 * @see org.dyn4j.dynamics.joint.Joint#readState(org.dyn4j.dynamics.WorldSnapshot)
+	 */
+    override fun readState(snapshot: WorldSnapshot) {
+        limitState = snapshot.getLimitState()!!
+        impulse = snapshot.getDouble()
+    }
+
     /* (non-Javadoc)
 	 * @see org.dyn4j.geometry.Shiftable#shift(org.dyn4j.geometry.Vector2)
 	 */
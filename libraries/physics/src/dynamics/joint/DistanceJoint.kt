@@ -29,6 +29,7 @@ import org.dyn4j.Epsilon
 import org.dyn4j.dynamics.Body
 import org.dyn4j.dynamics.Settings
 import org.dyn4j.dynamics.Step
+import org.dyn4j.dynamics.WorldSnapshot
 import org.dyn4j.geometry.*
 import org.dyn4j.resources.Messages
 import org.dyn4j.resources.message
@@ -310,6 +311,20 @@ class DistanceJoint(body1: Body, body2: Body, anchor1: Vector2?, anchor2: Vector
         return 0.0
     }
 
+    /* (non-Javadoc)
+	 * @see org.dyn4j.dynamics.joint.Joint#writeState(org.dyn4j.dynamics.WorldSnapshot)
+	 */
+    override fun writeState(snapshot: WorldSnapshot) {
+        snapshot.putDouble(impulse)
+    }
+
+    /* (non-Javadoc)
+	 * @see org.dyn4j.dynamics.joint.Joint#readState(org.dyn4j.dynamics.WorldSnapshot)
+	 */
+    override fun readState(snapshot: WorldSnapshot) {
+        impulse = snapshot.getDouble()
+    }
+
     /* (non-Javadoc)
 	 * @see org.dyn4j.geometry.Shiftable#shift(org.dyn4j.geometry.Vector2)
 	 */
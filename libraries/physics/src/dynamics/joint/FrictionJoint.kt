@@ -29,6 +29,7 @@ import org.dyn4j.Epsilon
 import org.dyn4j.dynamics.Body
 import org.dyn4j.dynamics.Settings
 import org.dyn4j.dynamics.Step
+import org.dyn4j.dynamics.WorldSnapshot
 import org.dyn4j.geometry.*
 import org.dyn4j.resources.message
 
@@ -230,6 +231,24 @@ class FrictionJoint(body1: Body, body2: Body, anchor: Vector2?) : Joint(body1, b
         return angularImpulse * invdt
     }
 
+    /* (non-Javadoc)
+	 * @see org.dyn4j.dynamics.joint.Joint#writeState(org.dyn4j.dynamics.WorldSnapshot)
+	 */
+    override fun writeState(snapshot: WorldSnapshot) {
+        snapshot.putDouble(linearImpulse.x)
+        snapshot.putDouble(linearImpulse.y)
+        snapshot.putDouble(angularImpulse)
+    }
+
+    /* (non-Javadoc)
+	 * @see org.dyn4j.dynamics.joint.Joint#readState(org.dyn4j.dynamics.WorldSnapshot)
+	 */
+    override fun readState(snapshot: WorldSnapshot) {
+        linearImpulse.x = snapshot.getDouble()
+        linearImpulse.y = snapshot.getDouble()
+        angularImpulse = snapshot.getDouble()
+    }
+
     /* (non-Javadoc)
 	 * @see org.dyn4j.geometry.Shiftable#shift(org.dyn4j.geometry.Vector2)
 	 */
@@ -29,6 +29,7 @@ import org.dyn4j.dynamics.Body
 import org.dyn4j.dynamics.Constraint
 import org.dyn4j.dynamics.Settings
 import org.dyn4j.dynamics.Step
+import org.dyn4j.dynamics.WorldSnapshot
 import org.dyn4j.geometry.Shiftable
 import org.dyn4j.geometry.Vector2
 
@@ -125,6 +126,21 @@ abstract class Joint(body1: Body, body2: Body) :
      */
     abstract fun getReactionTorque(invdt: Double): Double
 
+    /**
+     * Writes the state of this [Joint] that carries over between steps, like the accumulated
+     * impulses used for warm starting, to the given snapshot.
+     * @param snapshot the snapshot
+     * @since 3.4.1
+     */
+    internal open fun writeState(snapshot: WorldSnapshot) {}
+
+    /**
+     * Reads the state written by [writeState] from the given snapshot.
+     * @param snapshot the snapshot
+     * @since 3.4.1
+     */
+    internal open fun readState(snapshot: WorldSnapshot) {}
+
     /**
      * Returns true if this [Joint] is active.
      *
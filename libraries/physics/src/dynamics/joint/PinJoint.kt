@@ -29,6 +29,7 @@ import org.dyn4j.Epsilon
 import org.dyn4j.dynamics.Body
 import org.dyn4j.dynamics.Settings
 import org.dyn4j.dynamics.Step
+import org.dyn4j.dynamics.WorldSnapshot
 import org.dyn4j.geometry.Geometry
 import org.dyn4j.geometry.Matrix22
 import org.dyn4j.geometry.Shiftable
@@ -272,6 +273,22 @@ class PinJoint(
      */
     override fun getReactionTorque(invdt: Double): Double = 0.0
 
+    /* (non-Javadoc)
+	 * @see org.dyn4j.dynamics.joint.Joint#writeState(org.dyn4j.dynamics.WorldSnapshot)
+	 */
+    override fun writeState(snapshot: WorldSnapshot) {
+        snapshot.putDouble(impulse.x)
+        snapshot.putDouble(impulse.y)
+    }
+
+    /* (non-Javadoc)
+	 * @see org.dyn4j.dynamics.joint.Joint#readState(org.dyn4j.dynamics.WorldSnapshot)
+	 */
+    override fun readState(snapshot: WorldSnapshot) {
+        impulse.x = snapshot.getDouble()
+        impulse.y = snapshot.getDouble()
+    }
+
 
     /* (non-Javadoc)
 	 * @see org.dyn4j.geometry.Shiftable#shift(org.dyn4j.geometry.Vector2)
@@ -29,6 +29,7 @@ import org.dyn4j.Epsilon
 import org.dyn4j.dynamics.Body
 import org.dyn4j.dynamics.Settings
 import org.dyn4j.dynamics.Step
+import org.dyn4j.dynamics.WorldSnapshot
 import org.dyn4j.geometry.*
 import org.dyn4j.resources.Messages.getString
 import kotlin.math.abs
@@ -719,6 +720,28 @@ class PrismaticJoint : Joint,
 	 */
     override fun getReactionTorque(invdt: Double): Double = invdt * impulse.y
 
+    /* (non-Javadoc)
+	 * @see org.dyn4j.dynamics.joint.Joint#writeState(org.dyn4j.dynamics.WorldSnapshot)
+	 */
+    override fun writeState(snapshot: WorldSnapshot) {
+        snapshot.putLimitState(limitState)
+        snapshot.putDouble(impulse.x)
+        snapshot.putDouble(impulse.y)
+        snapshot.putDouble(impulse.z)
+        snapshot.putDouble(motorImpulse)
+    }
+
+    /* (non-Javadoc)
+	 * @see org.dyn4j.dynamics.joint.Joint#readState(org.dyn4j.dynamics.WorldSnapshot)
+	 */
+    override fun readState(snapshot: WorldSnapshot) {
+        limitState = snapshot.getLimitState()!!
+        impulse.x = snapshot.getDouble()
+        impulse.y = snapshot.getDouble()
+        impulse.z = snapshot.getDouble()
+        motorImpulse = snapshot.getDouble()
+    }
+
     /* (non-Javadoc)
 	 * @see org.dyn4j.geometry.Shiftable#shift(org.dyn4j.geometry.Vector2)
 	 */
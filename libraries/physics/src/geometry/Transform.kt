@@ -159,6 +159,9 @@ class Transform : Transformable {
      * @since 3.4.0
      */
     fun rotate(c: Double, s: Double, x: Double, y: Double) {
+        // skip the identity rotation: the solvers rotate infinite mass bodies by zero and
+        // (this.x - x) + x is not exact, which would move static bodies shared between islands
+        if (s == 0.0 && c == 1.0) return
         // perform an optimized version of the matrix multiplication:
         // M(new) = inverse(T) * R * T * M(old)
         val cost = c * cost - s * sint
@@ -38,6 +38,7 @@ import org.dyn4j.collision.broadphase.DynamicAABBTree;
 import org.dyn4j.collision.broadphase.LazyAABBTree;
 import org.dyn4j.collision.broadphase.BruteForceBroadphase;
 import org.dyn4j.collision.broadphase.Sap;
+import org.dyn4j.collision.broadphase.UniformGrid;
 import org.dyn4j.geometry.AABB;
 import org.dyn4j.geometry.Geometry;
 import org.dyn4j.geometry.Ray;
@@ -73,7 +74,9 @@ public class BroadphaseTest {
     			/** The lazy aabb algorithm */
     			new Object[]{new LazyAABBTree<CollidableTest, Fixture>()},
     			/** The plain brute-force broadphase */
-    			new Object[]{new BruteForceBroadphase<CollidableTest, Fixture>()}
+    			new Object[]{new BruteForceBroadphase<CollidableTest, Fixture>()},
+    			/** The uniform grid algorithm */
+    			new Object[]{new UniformGrid<CollidableTest, Fixture>()}
     			);
     }
 	
@@ -49,10 +49,12 @@ import org.dyn4j.dynamics.contact.SequentialImpulses;
 import org.dyn4j.dynamics.joint.AngleJoint;
 import org.dyn4j.dynamics.joint.DistanceJoint;
 import org.dyn4j.dynamics.joint.Joint;
+import org.dyn4j.dynamics.joint.RevoluteJoint;
 import org.dyn4j.geometry.Circle;
 import org.dyn4j.geometry.Convex;
 import org.dyn4j.geometry.Geometry;
 import org.dyn4j.geometry.MassType;
+import org.dyn4j.geometry.Transform;
 import org.dyn4j.geometry.Vector2;
 import org.junit.Test;
 
@@ -1049,4 +1051,137 @@ public class WorldTest {
 		
 		world.step(1);
 	}
+	
+	/**
+	 * Tests that restoring a snapshot and stepping again gives the same transforms.
+	 * @since 3.4.1
+	 */
+	@Test
+	public void snapshotRestore() {
+		World world = this.createSnapshotWorld();
+		world.step(30);
+		WorldSnapshot snapshot = world.snapshot(new WorldSnapshot());
+		world.step(20);
+		double[] expected = this.getTransforms(world);
+		
+		// run ahead and rewind
+		world.step(15);
+		world.restore(snapshot);
+		world.step(20);
+		
+		this.assertTransforms(expected, world);
+	}
+	
+	/**
+	 * Tests that taking a snapshot doesn't change the following steps.
+	 * @since 3.4.1
+	 */
+	@Test
+	public void snapshotDoesNotChangeStep() {
+		World expected = this.createSnapshotWorld();
+		World actual = this.createSnapshotWorld();
+		expected.step(30);
+		actual.step(30);
+		
+		actual.snapshot(new WorldSnapshot());
+		expected.step(1);
+		actual.step(1);
+		this.assertTransforms(this.getTransforms(expected), actual);
+		
+		expected.step(20);
+		actual.step(20);
+		this.assertTransforms(this.getTransforms(expected), actual);
+	}
+	
+	/**
+	 * Tests restoring a snapshot taken from a world with other bodies.
+	 * @since 3.4.1
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void restoreOtherWorldSnapshot() {
+		World world = this.createSnapshotWorld();
+		WorldSnapshot snapshot = world.snapshot(new WorldSnapshot());
+		world.removeBody(world.getBody(world.getBodyCount() - 1));
+		world.restore(snapshot);
+	}
+	
+	/**
+	 * Tests restoring an empty snapshot.
+	 * @since 3.4.1
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void restoreEmptySnapshot() {
+		World world = this.createSnapshotWorld();
+		world.restore(new WorldSnapshot());
+	}
+	
+	/**
+	 * Returns a world of stacked boxes resting on a floor and a pendulum chain
+	 * falling across them, so that contacts, sleeping and joints are all captured.
+	 * @return {@link World}
+	 */
+	private World createSnapshotWorld() {
+		World world = new World();
+		world.getSettings().setDeterministicPairOrderEnabled(true);
+		
+		Body floor = new Body();
+		floor.addFixture(Geometry.createRectangle(20.0, 1.0));
+		floor.setMass(MassType.INFINITE);
+		world.addBody(floor);
+		
+		for (int i = 0; i < 30; i++) {
+			Body box = new Body();
+			box.addFixture(Geometry.createSquare(1.0));
+			box.setMass(MassType.NORMAL);
+			box.translate((i % 6) * 1.5 - 4.0, 1.0 + (i / 6) * 1.01);
+			world.addBody(box);
+		}
+		
+		Body anchor = new Body();
+		anchor.setMass(MassType.INFINITE);
+		anchor.translate(0.0, 12.0);
+		world.addBody(anchor);
+		Body previous = anchor;
+		for (int i = 0; i < 5; i++) {
+			Body link = new Body();
+			link.addFixture(Geometry.createRectangle(1.0, 0.25));
+			link.setMass(MassType.NORMAL);
+			link.translate(0.5 + i, 12.0);
+			world.addBody(link);
+			world.addJoint(new RevoluteJoint(previous, link, new Vector2(i, 12.0)));
+			previous = link;
+		}
+		return world;
+	}
+	
+	/**
+	 * Returns the transforms of all the bodies of the given world.
+	 * @param world the world
+	 * @return double[]
+	 */
+	private double[] getTransforms(World world) {
+		int size = world.getBodyCount();
+		double[] transforms = new double[size * 4];
+		for (int i = 0; i < size; i++) {
+			Transform transform = world.getBody(i).getTransform();
+			transforms[i * 4] = transform.x;
+			transforms[i * 4 + 1] = transform.y;
+			transforms[i * 4 + 2] = transform.cost;
+			transforms[i * 4 + 3] = transform.sint;
+		}
+		return transforms;
+	}
+	
+	/**
+	 * Asserts that the bodies of the given world have bit-identical transforms.
+	 * @param expected the expected transforms
+	 * @param world the world
+	 */
+	private void assertTransforms(double[] expected, World world) {
+		double[] actual = this.getTransforms(world);
+		TestCase.assertEquals(expected.length, actual.length);
+		for (int i = 0; i < expected.length; i++) {
+			TestCase.assertEquals(Double.doubleToRawLongBits(expected[i]), Double.doubleToRawLongBits(actual[i]));
+		}
+	}
 }
@@ -16,6 +16,7 @@ class ShaderContent(override val module: Module) : Component {
     private val textContent: TextContent = import()
 
     private val programs = mutableMapOf<String, Program>()
+    private val prefetchedSources = mutableMapOf<String, ShaderSource>()
 
     fun findProgram(shaderPath: String): Program {
         val program: Program? = programs[shaderPath]
@@ -33,7 +34,19 @@ class ShaderContent(override val module: Module) : Component {
         programs[shaderPath] = shaderProgram
     }
 
+    fun putPrefetchedSource(shaderPath: String, source: ShaderSource) {
+        prefetchedSources[shaderPath] = source
+    }
+
+    fun removePrefetchedSource(shaderPath: String) {
+        prefetchedSources.remove(shaderPath)
+    }
+
     suspend fun readShaderSource(shaderPath: String): ShaderSource {
+        val prefetchedSource: ShaderSource? = prefetchedSources.remove(shaderPath)
+        if (prefetchedSource != null) {
+            return prefetchedSource
+        }
         val text: String = textContent.findTextOrNull(shaderPath) ?: throw ResourceNotFoundException(shaderPath)
         val source: ShaderSource = transpileShaderSource(text)
         return source
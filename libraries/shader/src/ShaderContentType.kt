@@ -1,7 +1,9 @@
 package featurea.shader
 
+import featurea.System
 import featurea.content.ContentType
 import featurea.content.Resource
+import featurea.content.ResourcePrefetch
 import featurea.opengl.Opengl
 import featurea.opengl.OpenglProxy
 import featurea.opengl.Program
@@ -9,17 +11,29 @@ import featurea.runtime.Component
 import featurea.runtime.Module
 import featurea.runtime.import
 import featurea.shader.reader.ShaderSource
+import featurea.shader.reader.transpileShaderSource
+import featurea.utils.readTextOrNull
 
 class ShaderContentType(override val module: Module) : Component, ContentType {
 
     private val gl: Opengl = import(OpenglProxy)
     private val shaderContent: ShaderContent = import()
+    private val system: System = import()
+
+    override suspend fun prefetch(resource: Resource): ResourcePrefetch? {
+        val shaderPath: String = resource.path
+        val text: String = system.readTextOrNull(shaderPath) ?: return null
+        val source: ShaderSource = transpileShaderSource(text)
+        return ResourcePrefetch(text.length.toLong()) { shaderContent.putPrefetchedSource(shaderPath, source) }
+    }
 
     override suspend fun load(resource: Resource, loadingQueue: ArrayList<String>) {
         if (shaderContent[resource.path] == null) {
             val program: Program = gl.createProgram()
             program.compile(resource.path)
             shaderContent[resource.path] = program
+        } else {
+            shaderContent.removePrefetchedSource(resource.path) // program is reused, source prefetched for it is not
         }
         loadingQueue.add(resource.path)
     }
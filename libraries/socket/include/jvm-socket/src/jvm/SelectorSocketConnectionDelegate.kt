@@ -0,0 +1,307 @@
+package featurea.jvm.socket
+
+import featurea.utils.ByteQueue
+import java.io.IOException
+import java.net.InetSocketAddress
+import java.net.SocketException
+import java.net.SocketTimeoutException
+import java.net.StandardSocketOptions
+import java.nio.ByteBuffer
+import java.nio.channels.SelectionKey
+import java.nio.channels.SocketChannel
+import java.util.ArrayDeque
+
+/*
+caller thread:   start, connect, disconnect, destroy, write and resumeResponses
+selector thread: everything else, including all the listener callbacks
+*/
+class SelectorSocketConnectionDelegate(val socketConnection: SocketConnectionDelegateListeners) {
+
+    private val selector: SocketSelector = SocketSelector.next()
+    private val dataBuffer = ByteQueue()
+    private val pendingWrites = ArrayDeque<ByteBuffer>()
+    @Volatile
+    private var channel: SocketChannel? = null
+    private var key: SelectionKey? = null
+    @Volatile
+    private var isChannelConnected: Boolean = false
+    @Volatile
+    var isDestroyed = false
+        private set
+    var isCreated = false
+        private set
+    @Volatile
+    private var hasDisconnect = false
+    internal var isResponsePaused: Boolean = false // selector thread only
+        private set
+    private var currentRetriesCount = 0
+    private var connectStartTime: Long = -1L
+    private var connectDeadline: Long = Long.MAX_VALUE
+    private var readDeadline: Long = Long.MAX_VALUE
+    private var retryTime: Long = Long.MAX_VALUE
+    private var retryException: Throwable? = null
+    private val ipAndPort: String get() = "${socketConnection.config.ip}:${socketConnection.config.port}"
+
+    @Synchronized
+    fun start() {
+        selector.register(this)
+        isCreated = true
+        socketConnection.connectionListener.onThreadStartSocketConnection()
+    }
+
+    fun connect() {
+        log("($this) ($ipAndPort) [SelectorSocketConnectionDelegate.kt] connect: start")
+        hasDisconnect = false // by design
+        selector.execute { connectChannel() }
+    }
+
+    fun disconnect() {
+        log("($this) ($ipAndPort) [SelectorSocketConnectionDelegate.kt] disconnect: start")
+        hasDisconnect = true
+        selector.execute {
+            retryTime = Long.MAX_VALUE
+            setChannel(null)
+        }
+    }
+
+    fun destroy() {
+        log("($this) ($ipAndPort) [SelectorSocketConnectionDelegate.kt] destroy: $isDestroyed (start)")
+        if (isDestroyed) {
+            return
+        }
+        isDestroyed = true
+        selector.execute {
+            retryTime = Long.MAX_VALUE
+            setChannel(null)
+            selector.unregister(this)
+            socketConnection.connectionListener.onThreadStopSocketConnection()
+        }
+    }
+
+    fun write(bytes: ByteArray): Boolean {
+        val channel: SocketChannel = channel ?: return false
+        if (!isConnected()) return false
+        val buffer: ByteBuffer = ByteBuffer.wrap(bytes)
+        try {
+            synchronized(pendingWrites) {
+                if (pendingWrites.isEmpty()) {
+                    channel.write(buffer)
+                }
+                if (buffer.hasRemaining()) {
+                    // the socket send buffer is full, the rest is written when the channel is writable again
+                    val isFirst: Boolean = pendingWrites.isEmpty()
+                    pendingWrites.add(buffer)
+                    if (isFirst) selector.execute { enableWrites(channel) }
+                }
+            }
+            return true
+        } catch (e: IOException) {
+            selector.execute { reconnect(channel, e) }
+            return false
+        }
+    }
+
+    // called from onResponse, the key stops reading so only this connection waits and the peer sees a full window
+    fun pauseResponses() {
+        isResponsePaused = true
+        readDeadline = Long.MAX_VALUE
+        val key: SelectionKey = key ?: return
+        if (key.isValid) key.interestOps(key.interestOps() and SelectionKey.OP_READ.inv())
+    }
+
+    fun resumeResponses() {
+        selector.execute {
+            if (isResponsePaused) {
+                isResponsePaused = false
+                val key: SelectionKey? = key
+                if (key != null && key.isValid) {
+                    key.interestOps(key.interestOps() or SelectionKey.OP_READ)
+                    readDeadline = nextReadDeadline()
+                }
+                socketConnection.responseListener.onResponse(dataBuffer)
+            }
+        }
+    }
+
+    fun isConnected(): Boolean = isChannelConnected
+
+    override fun toString(): String = socketConnection.config.path
+
+    /*internals*/
+
+    internal fun checkDeadlines(now: Long): Long {
+        val channel: SocketChannel? = channel
+        if (channel != null && now >= connectDeadline) {
+            connectFailed(channel, SocketTimeoutException("connect timed out"))
+        } else if (channel != null && now >= readDeadline) {
+            reconnect(channel, SocketTimeoutException("Read timed out"))
+        }
+        if (now >= retryTime) {
+            retryTime = Long.MAX_VALUE
+            val exception: Throwable = retryException ?: SocketException("retry")
+            retryException = null
+            socketConnection.connectionListener.onConnectFailedSocketConnection(exception)
+            reconnect(null, exception)
+        }
+        return minOf(connectDeadline, readDeadline, retryTime)
+    }
+
+    internal fun onConnectable(key: SelectionKey) {
+        val channel = key.channel() as SocketChannel
+        try {
+            channel.finishConnect()
+        } catch (e: IOException) {
+            connectFailed(channel, e)
+            return
+        }
+        onConnected(channel, key)
+    }
+
+    internal fun onReadable(key: SelectionKey) {
+        val channel = key.channel() as SocketChannel
+        val count: Int = selector.read(this, key)
+        if (count == -1) {
+            reconnect(channel, SocketException("count == -1"))
+        }
+    }
+
+    internal fun onWritable(key: SelectionKey) {
+        val channel = key.channel() as SocketChannel
+        synchronized(pendingWrites) {
+            while (pendingWrites.isNotEmpty()) {
+                val buffer: ByteBuffer = pendingWrites.peek()
+                channel.write(buffer)
+                if (buffer.hasRemaining()) return
+                pendingWrites.poll()
+            }
+            key.interestOps(readOps())
+        }
+    }
+
+    internal fun onRead(bytes: ByteArray, count: Int) {
+        if (!isResponsePaused) readDeadline = nextReadDeadline()
+        dataBuffer.pushAll(bytes, 0, count)
+        socketConnection.responseListener.onResponse(dataBuffer)
+    }
+
+    internal fun onError(key: SelectionKey, e: IOException) {
+        val channel = key.channel() as SocketChannel
+        if (key.isValid && key.interestOps() and SelectionKey.OP_CONNECT != 0) {
+            connectFailed(channel, e)
+        } else {
+            reconnect(channel, e)
+        }
+    }
+
+    private fun connectChannel() {
+        setChannel(null)
+        currentRetriesCount++
+        if (currentRetriesCount > socketConnection.config.retriesCount) {
+            return
+        }
+        val config: SocketConnectionConfig = socketConnection.config
+        log("($this) ($ipAndPort) [SelectorSocketConnectionDelegate.kt] connectChannel: $config (start)")
+        connectStartTime = System.currentTimeMillis()
+        var channel: SocketChannel? = null
+        try {
+            channel = SocketChannel.open()
+            channel.configureBlocking(false)
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, config.isTcpNoDelay)
+            this.channel = channel
+            val isConnected: Boolean = channel.connect(InetSocketAddress(config.ip, config.port))
+            val key: SelectionKey = channel.register(selector.nioSelector, if (isConnected) SelectionKey.OP_READ else SelectionKey.OP_CONNECT, this)
+            this.key = key
+            if (isConnected) {
+                onConnected(channel, key)
+            } else if (config.responseTimeout > 0) {
+                connectDeadline = connectStartTime + config.responseTimeout
+            }
+        } catch (e: IOException) {
+            connectFailed(channel, e)
+        }
+    }
+
+    private fun onConnected(channel: SocketChannel, key: SelectionKey) {
+        key.interestOps(SelectionKey.OP_READ)
+        connectDeadline = Long.MAX_VALUE
+        readDeadline = nextReadDeadline()
+        currentRetriesCount = 0
+        isChannelConnected = true
+        log("($this) ($ipAndPort) [SelectorSocketConnectionDelegate.kt] onConnected: $channel")
+        socketConnection.connectionListener.onConnectSuccessSocketConnection()
+    }
+
+    private fun connectFailed(channel: SocketChannel?, e: Throwable) {
+        if (channel !== this.channel) return
+        closeChannel()
+        // instead of sleeping like the blocking delegate, the retry is scheduled with a growing delay
+        val deltaTime: Long = System.currentTimeMillis() - connectStartTime
+        val retryTimeout: Long = socketConnection.config.retryTimeout.toLong() shl (currentRetriesCount - 1).coerceIn(0, MAXIMUM_BACKOFF_SHIFT)
+        retryTime = System.currentTimeMillis() + maxOf(0L, retryTimeout - deltaTime)
+        retryException = e
+    }
+
+    private fun reconnect(channel: SocketChannel?, exception: Throwable) {
+        log("($this) ($ipAndPort) [SelectorSocketConnectionDelegate.kt] [ERROR] reconnect: ${exception.localizedMessage}")
+        if (channel != null && channel !== this.channel) {
+            return
+        }
+        if (!hasDisconnect) {
+            socketConnection.connectionListener.onReconnectSuccessSocketConnection(exception)
+            connectChannel()
+        } else {
+            socketConnection.connectionListener.onReconnectFailedSocketConnection(exception)
+        }
+    }
+
+    private fun enableWrites(channel: SocketChannel) {
+        val key: SelectionKey = key ?: return
+        if (channel !== this.channel || !key.isValid) return
+        key.interestOps(readOps() or SelectionKey.OP_WRITE)
+    }
+
+    private fun setChannel(channel: SocketChannel?) {
+        val wasConnected: Boolean = isChannelConnected
+        closeChannel()
+        this.channel = channel
+        if (wasConnected) {
+            socketConnection.connectionListener.onDisconnectSocketConnection()
+        }
+    }
+
+    private fun closeChannel() {
+        isChannelConnected = false
+        isResponsePaused = false
+        connectDeadline = Long.MAX_VALUE
+        readDeadline = Long.MAX_VALUE
+        key?.cancel()
+        key = null
+        try {
+            channel?.close()
+        } catch (e: IOException) {
+            log("($this) ($ipAndPort) [SelectorSocketConnectionDelegate.kt] [ERROR] closeChannel: ${e.localizedMessage}")
+        }
+        channel = null
+        synchronized(pendingWrites) {
+            pendingWrites.clear()
+        }
+        dataBuffer.clear()
+    }
+
+    private fun readOps(): Int = if (isResponsePaused) 0 else SelectionKey.OP_READ
+
+    private fun nextReadDeadline(): Long {
+        val responseTimeout: Int = socketConnection.config.responseTimeout
+        return if (responseTimeout > 0) System.currentTimeMillis() + responseTimeout else Long.MAX_VALUE
+    }
+
+    private fun log(message: String) {
+        if (!message.contains("entering")) return // filter for now todo delete this
+        featurea.utils.log(message)
+    }
+
+    companion object {
+        private const val MAXIMUM_BACKOFF_SHIFT: Int = 4
+    }
+
+}
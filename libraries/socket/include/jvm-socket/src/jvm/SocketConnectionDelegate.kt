@@ -17,9 +17,10 @@ class SocketConnectionConfig {
     var responseTimeout: Int = -1
     var retryTimeout: Int = -1
     var isTcpNoDelay: Boolean = true // https://stackoverflow.com/a/34780678/909169
+    var isMultiplexed: Boolean = false // shares a few SocketSelector threads instead of one thread per connection
 
     override fun toString(): String =
-        "SocketConnectionConfig(path='$path', ip='$ip', port=$port, retriesCount=$retriesCount, responseTimeout=$responseTimeout, retryTimeout=$retryTimeout, isTcpNoDelay=$isTcpNoDelay)"
+        "SocketConnectionConfig(path='$path', ip='$ip', port=$port, retriesCount=$retriesCount, responseTimeout=$responseTimeout, retryTimeout=$retryTimeout, isTcpNoDelay=$isTcpNoDelay, isMultiplexed=$isMultiplexed)"
 
 }
 
@@ -59,11 +60,17 @@ class SocketConnectionDelegate(val socketConnection: SocketConnectionDelegateLis
     private var currentRetriesCount = 0
     private var hasRetries = true
     private val lockObject = Object()
+    @Volatile
+    private var isResponsePaused: Boolean = false
+    private val responseLock = Object()
     private val thread: Thread = Thread(runnable)
     private val ipAndPort: String get() = "${socketConnection.config.ip}:${socketConnection.config.port}"
+    private val selectorDelegate: SelectorSocketConnectionDelegate? =
+        if (socketConnection.config.isMultiplexed) SelectorSocketConnectionDelegate(socketConnection) else null
 
     @Synchronized
     fun start() {
+        selectorDelegate?.let { return it.start() }
         thread.start()
         isCreated = true
         socketConnection.connectionListener.onThreadStartSocketConnection()
@@ -108,7 +115,7 @@ class SocketConnectionDelegate(val socketConnection: SocketConnectionDelegateLis
             log("($this) ($ipAndPort) [SocketConnectionDelegate.kt] read: $socket (while)")
             while (inputStream.read(readBuffer).also { count = it } != -1) {
                 dataBuffer.pushAll(readBuffer, 0, count)
-                socketConnection.responseListener.onResponse(dataBuffer)
+                deliverResponses()
             }
         } catch (e: Throwable) {
             exception = e
@@ -171,6 +178,7 @@ class SocketConnectionDelegate(val socketConnection: SocketConnectionDelegateLis
     }
 
     fun connect() {
+        selectorDelegate?.let { return it.connect() }
         log("($this) ($ipAndPort) [SocketConnectionDelegate.kt] connect: start")
         hasDisconnect = false // by design
         setSocket(null)
@@ -187,6 +195,7 @@ class SocketConnectionDelegate(val socketConnection: SocketConnectionDelegateLis
     }
 
     fun destroy() {
+        selectorDelegate?.let { return it.destroy() }
         log("($this) ($ipAndPort) [SocketConnectionDelegate.kt] destroy: $isDestroyed (start)")
         if (isDestroyed) {
             return
@@ -196,10 +205,12 @@ class SocketConnectionDelegate(val socketConnection: SocketConnectionDelegateLis
             log("($this) ($ipAndPort) [SocketConnectionDelegate.kt] destroy: synchronized")
             lockObject.notify()
         }
+        resumeResponses()
         log("($this) ($ipAndPort) [SocketConnectionDelegate.kt] destroy: complete")
     }
 
     fun write(bytes: ByteArray): Boolean {
+        selectorDelegate?.let { return it.write(bytes) }
         // log("($this) ($ipAndPort) [SocketConnectionDelegate.kt] write: $socket (start)")
         val socket: Socket = socket ?: error("socket: null")
         return if (!isConnected()) {
@@ -222,7 +233,22 @@ class SocketConnectionDelegate(val socketConnection: SocketConnectionDelegateLis
         }
     }
 
+    // called from onResponse on this connection's thread, which is parked until resumeResponses
+    fun pauseResponses() {
+        selectorDelegate?.let { return it.pauseResponses() }
+        isResponsePaused = true
+    }
+
+    fun resumeResponses() {
+        selectorDelegate?.let { return it.resumeResponses() }
+        synchronized(responseLock) {
+            isResponsePaused = false
+            responseLock.notifyAll()
+        }
+    }
+
     fun isConnected(): Boolean {
+        selectorDelegate?.let { return it.isConnected() }
         val socket: Socket? = socket
         val result = socket != null && socket.isConnected && socket.isBound && !socket.isClosed
         return result
@@ -248,10 +274,12 @@ class SocketConnectionDelegate(val socketConnection: SocketConnectionDelegateLis
             }
             dataBuffer.clear()
         }
+        resumeResponses() // a parked reader of the closed socket goes on and fails its next read
         log("($this) ($ipAndPort) [SocketConnectionDelegate.kt] setSocket: $socket (complete)")
     }
 
     fun disconnect() {
+        selectorDelegate?.let { return it.disconnect() }
         log("($this) ($ipAndPort) [SocketConnectionDelegate.kt] disconnect: start")
         hasDisconnect = true
         setSocket(null)
@@ -260,6 +288,22 @@ class SocketConnectionDelegate(val socketConnection: SocketConnectionDelegateLis
 
     override fun toString(): String = socketConnection.config.path
 
+    private fun deliverResponses() {
+        socketConnection.responseListener.onResponse(dataBuffer)
+        while (isResponsePaused && !isDestroyed) {
+            synchronized(responseLock) {
+                while (isResponsePaused && !isDestroyed) {
+                    try {
+                        responseLock.wait()
+                    } catch (e: InterruptedException) {
+                        log("($this) ($ipAndPort) [SocketConnectionDelegate.kt] [ERROR] deliverResponses: ${e.localizedMessage}")
+                    }
+                }
+            }
+            socketConnection.responseListener.onResponse(dataBuffer)
+        }
+    }
+
     private fun log(message: String) {
         if (!message.contains("entering")) return // filter for now todo delete this
         featurea.utils.log(message)
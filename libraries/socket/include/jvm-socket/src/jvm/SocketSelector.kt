@@ -0,0 +1,151 @@
+package featurea.jvm.socket
+
+import java.io.IOException
+import java.nio.ByteBuffer
+import java.nio.channels.SelectionKey
+import java.nio.channels.Selector
+import java.nio.channels.SocketChannel
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.atomic.AtomicInteger
+
+// one thread multiplexes the sockets of many SelectorSocketConnectionDelegates
+class SocketSelector(val name: String) : Runnable {
+
+    private val selector: Selector = Selector.open()
+    private val tasks = ConcurrentLinkedQueue<Runnable>()
+    private val delegates = ArrayList<SelectorSocketConnectionDelegate>()
+    private val readBuffer: ByteBuffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE)
+    private val readArray = ByteArray(READ_BUFFER_SIZE)
+    private val thread: Thread = Thread(this, name).apply { isDaemon = true }
+    @Volatile
+    var isStopped: Boolean = false
+        private set
+
+    init {
+        thread.start()
+    }
+
+    fun execute(task: Runnable) {
+        tasks.add(task)
+        selector.wakeup()
+    }
+
+    fun register(delegate: SelectorSocketConnectionDelegate) = execute {
+        delegates.add(delegate)
+    }
+
+    fun unregister(delegate: SelectorSocketConnectionDelegate) = execute {
+        delegates.remove(delegate)
+    }
+
+    // exceptions back off and stop the selector when they repeat, errors stop it at once
+    override fun run() {
+        var failureCount: Int = 0
+        try {
+            while (failureCount < MAXIMUM_FAILURE_COUNT) {
+                try {
+                    val now: Long = System.currentTimeMillis()
+                    var nextDeadline: Long = now + MAXIMUM_SELECT_TIMEOUT
+                    for (index in delegates.indices.reversed()) {
+                        val deadline: Long = delegates[index].checkDeadlines(now)
+                        if (deadline < nextDeadline) nextDeadline = deadline
+                    }
+                    if (tasks.isEmpty()) {
+                        selector.select(maxOf(1L, nextDeadline - now))
+                    } else {
+                        selector.selectNow()
+                    }
+                    runTasks()
+                    processSelectedKeys()
+                    failureCount = 0
+                } catch (e: Exception) {
+                    failureCount++
+                    featurea.utils.log("[$name] [ERROR] run ($failureCount): ${e.localizedMessage}")
+                    Thread.sleep(minOf(MAXIMUM_FAILURE_DELAY, MINIMUM_FAILURE_DELAY shl failureCount))
+                }
+            }
+            featurea.utils.log("[$name] [ERROR] run: stopped after $failureCount failures in a row")
+        } finally {
+            stop()
+        }
+    }
+
+    /*internals*/
+
+    internal val nioSelector: Selector get() = selector
+
+    internal fun read(delegate: SelectorSocketConnectionDelegate, key: SelectionKey): Int {
+        val channel = key.channel() as SocketChannel
+        var total: Int = 0
+        while (true) {
+            readBuffer.clear()
+            val count: Int = channel.read(readBuffer)
+            if (count == -1) return if (total == 0) -1 else total
+            if (count == 0) return total
+            readBuffer.flip()
+            readBuffer.get(readArray, 0, count)
+            delegate.onRead(readArray, count)
+            total += count
+            if (delegate.isResponsePaused) return total
+        }
+    }
+
+    // sockets of a stopped selector are closed, so their delegates see failed writes instead of silence
+    private fun stop() {
+        isStopped = true
+        tasks.clear()
+        try {
+            for (key in selector.keys()) {
+                key.channel().close()
+            }
+            selector.close()
+        } catch (e: IOException) {
+            featurea.utils.log("[$name] [ERROR] stop: ${e.localizedMessage}")
+        }
+    }
+
+    private fun runTasks() {
+        while (true) {
+            val task: Runnable = tasks.poll() ?: break
+            task.run()
+        }
+    }
+
+    private fun processSelectedKeys() {
+        val iterator = selector.selectedKeys().iterator()
+        while (iterator.hasNext()) {
+            val key: SelectionKey = iterator.next()
+            iterator.remove()
+            val delegate = key.attachment() as SelectorSocketConnectionDelegate
+            try {
+                if (!key.isValid) continue
+                if (key.isConnectable) delegate.onConnectable(key)
+                if (key.isValid && key.isWritable) delegate.onWritable(key)
+                if (key.isValid && key.isReadable) delegate.onReadable(key)
+            } catch (e: IOException) {
+                delegate.onError(key, e)
+            }
+        }
+    }
+
+    companion object {
+        private const val READ_BUFFER_SIZE: Int = 64 * 1024
+        private const val MAXIMUM_SELECT_TIMEOUT: Long = 1000L
+        private const val MAXIMUM_FAILURE_COUNT: Int = 10
+        private const val MINIMUM_FAILURE_DELAY: Long = 10L
+        private const val MAXIMUM_FAILURE_DELAY: Long = 1000L
+        private val selectorCount: Int = Runtime.getRuntime().availableProcessors().coerceIn(1, 4)
+        private val selectors: Array<SocketSelector> by lazy { Array(selectorCount) { SocketSelector("SocketSelector-$it") } }
+        private val nextSelectorIndex = AtomicInteger(0)
+
+        // a stopped selector is replaced, delegates started on it before stay on it until they are recreated
+        fun next(): SocketSelector {
+            val index: Int = Math.floorMod(nextSelectorIndex.getAndIncrement(), selectorCount)
+            synchronized(selectors) {
+                if (selectors[index].isStopped) selectors[index] = SocketSelector("SocketSelector-$index")
+                return selectors[index]
+            }
+        }
+    }
+
+}
@@ -16,6 +16,8 @@ class SocketConnection(val config: SocketConnectionConfig) {
     fun disconnect() = delegate.disconnect()
     fun destroy() = delegate.destroy()
     fun write(bytes: ByteArray): Boolean = delegate.write(bytes)
+    fun pauseResponses() = delegate.pauseResponses()
+    fun resumeResponses() = delegate.resumeResponses()
 }
 
 expect class SocketConnectionConfig() {
@@ -26,6 +28,7 @@ expect class SocketConnectionConfig() {
     var responseTimeout: Int
     var retryTimeout: Int
     var isTcpNoDelay: Boolean
+    var isMultiplexed: Boolean
 }
 
 expect open class SocketConnectionListener() {
@@ -55,4 +58,6 @@ expect class SocketConnectionDelegate(socketConnection: SocketConnectionDelegate
     fun disconnect()
     fun destroy()
     fun write(bytes: ByteArray): Boolean
+    fun pauseResponses() // from onResponse only, the socket is not read until resumeResponses
+    fun resumeResponses() // any thread, the bytes left in the ByteQueue are passed to onResponse again
 }
@@ -20,6 +20,7 @@ actual class SocketConnectionConfig {
     actual var responseTimeout: Int = -1
     actual var retryTimeout: Int = -1
     actual var isTcpNoDelay: Boolean = true // https://stackoverflow.com/a/34780678/909169
+    actual var isMultiplexed: Boolean = false
 }
 
 actual open class SocketConnectionListener {
@@ -135,4 +136,9 @@ actual class SocketConnectionDelegate actual constructor(private val socketConne
         return service.isConnected()
     }
 
+    // the service can't stop reading, the bytes left in the ByteQueue are passed to onResponse again with the next response
+    actual fun pauseResponses() {}
+
+    actual fun resumeResponses() {}
+
 }
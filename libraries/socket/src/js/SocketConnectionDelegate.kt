@@ -10,6 +10,7 @@ actual class SocketConnectionConfig {
     actual var responseTimeout: Int = error("responseTimeout")
     actual var retryTimeout: Int = error("retryTimeout")
     actual var isTcpNoDelay: Boolean = error("isTcpNoDelay")
+    actual var isMultiplexed: Boolean = error("isMultiplexed")
 }
 
 actual open class SocketConnectionListener {
@@ -39,4 +40,6 @@ actual class SocketConnectionDelegate actual constructor(val socketConnection: S
     actual fun disconnect(): Unit = error("disconnect")
     actual fun destroy(): Unit = error("destroy")
     actual fun write(bytes: ByteArray): Boolean = error("write")
+    actual fun pauseResponses(): Unit = error("pauseResponses")
+    actual fun resumeResponses(): Unit = error("resumeResponses")
 }
@@ -2,9 +2,12 @@
 
 package featurea.utils
 
+import featurea.jvm.BundleArchive
+import featurea.jvm.findBundleArchiveOrNull
 import featurea.jvm.findFileOrNull
 import featurea.jvm.toText
 import java.io.File
+import java.nio.ByteBuffer
 import java.util.zip.ZipFile
 import featurea.System
 
@@ -40,14 +43,23 @@ private fun System.readTextUtf8(contentRoot: String, filePath: String, limit: In
         }
     }*/
 
-    // 2. APK or FAB
-    val zipFile = ZipFile(File(contentRoot))
-    val zipEntry = zipFile.getEntry("assets/$filePath") ?: zipFile.getEntry(filePath)
-    if (zipEntry != null) {
-        val inputStream = zipFile.getInputStream(zipEntry)
-        return inputStream.toText()
+    // 2. FAB archive
+    val bundleArchive: BundleArchive? = findBundleArchiveOrNull(contentRoot)
+    val buffer: ByteBuffer? = bundleArchive?.findEntryOrNull(filePath)
+    if (buffer != null) {
+        return Charsets.UTF_8.decode(buffer).toString()
     }
 
-    // 3. file not found
+    // 3. APK or FAB
+    if (bundleArchive == null) {
+        val zipFile = ZipFile(File(contentRoot))
+        val zipEntry = zipFile.getEntry("assets/$filePath") ?: zipFile.getEntry(filePath)
+        if (zipEntry != null) {
+            val inputStream = zipFile.getInputStream(zipEntry)
+            return inputStream.toText()
+        }
+    }
+
+    // 4. file not found
     return null
 }
@@ -2,13 +2,20 @@ package featurea.utils
 
 private const val MEDIUM_PRECISION_FLOAT_MAX: Float = 65504f // quickfix todo find better place
 
-// used by VertexBuffer: pushAll -> toFloatArray -> clear
+// used by VertexBuffer: pushAll -> dirtyFrom/dirtyTo -> toFloatArray -> markClean -> clear
 class FloatBuffer(val limit: Int, private val isMedium: Boolean) {
 
     private val array: FloatArray = FloatArray(limit)
     var size: Int = 0
         private set
 
+    // floats written since last markClean, dirtyFrom until dirtyTo, empty when dirtyFrom >= dirtyTo
+    var dirtyFrom: Int = Int.MAX_VALUE
+        private set
+    var dirtyTo: Int = 0
+        private set
+    val isDirty: Boolean get() = dirtyFrom < dirtyTo
+
     fun pushAll(values: FloatArray) {
         for (value in values) {
             push(value)
@@ -19,21 +26,58 @@ class FloatBuffer(val limit: Int, private val isMedium: Boolean) {
         if (size >= limit) {
             error("limit exceeded: $limit")
         }
-        if (isMedium || alwaysCheckMediumPrecision) {
-            if (value > MEDIUM_PRECISION_FLOAT_MAX) {
-                error("precision exceeded: $value")
-            }
+        checkPrecision(value)
+        if (array[size] != value) {
+            array[size] = value
+            markDirty(size)
         }
-        array[size] = value
         size++
     }
 
+    operator fun get(index: Int): Float {
+        if (index >= size) {
+            error("index: $index, size: $size")
+        }
+        return array[index]
+    }
+
+    operator fun set(index: Int, value: Float) {
+        if (index >= size) {
+            error("index: $index, size: $size")
+        }
+        checkPrecision(value)
+        if (array[index] != value) {
+            array[index] = value
+            markDirty(index)
+        }
+    }
+
     fun toFloatArray(): FloatArray {
         return array
     }
 
+    fun markClean() {
+        dirtyFrom = Int.MAX_VALUE
+        dirtyTo = 0
+    }
+
     fun clear() {
         size = 0
     }
 
+    /*internals*/
+
+    private fun checkPrecision(value: Float) {
+        if (isMedium || alwaysCheckMediumPrecision) {
+            if (value > MEDIUM_PRECISION_FLOAT_MAX) {
+                error("precision exceeded: $value")
+            }
+        }
+    }
+
+    private fun markDirty(index: Int) {
+        if (index < dirtyFrom) dirtyFrom = index
+        if (index + 1 > dirtyTo) dirtyTo = index + 1
+    }
+
 }
@@ -3,8 +3,10 @@
 package featurea.utils
 
 import kotlin.math.abs
+import kotlin.math.floor
 import kotlin.math.pow
 import kotlin.math.round
+import kotlin.math.ulp
 
 const val FLOAT_ROUNDING_ERROR: Float = 0.000001f // 32 bits
 
@@ -37,6 +39,21 @@ fun Double.calibrateByFractionSizeToString(fractionSize: Int): String {
 
 val Double.fractionSize: Int
     get() {
+        // toDoubleString keeps at most maximumDoubleStringFractionSize digits, rounded half to even, and drops trailing zeros
+        val maximumFractionSize: Int = maximumDoubleStringFractionSize
+        if (maximumFractionSize in 0 until POWERS_OF_TEN.size && !isNaN()) {
+            val scaled: Double = abs(this) * POWERS_OF_TEN[maximumFractionSize]
+            // scaled is off by half ulp at most, so only a fraction that far from the tie rounds like the exact value does
+            if (scaled < MAXIMUM_EXACT_LONG && abs(scaled - floor(scaled) - 0.5) > scaled.ulp) {
+                var digits: Long = round(scaled).toLong()
+                var fractionSize: Int = maximumFractionSize
+                while (fractionSize > 0 && digits % 10 == 0L) {
+                    digits /= 10
+                    fractionSize--
+                }
+                return fractionSize
+            }
+        }
         val tokens: List<String> = toDoubleString().split(".")
         return when (tokens.size) {
             1 -> 0
@@ -72,8 +89,48 @@ fun Double.calibrateByBaseToString(base: Double): String {
     return result
 }
 
+/*
+same rounding as calibrateByFractionSizeToString(fractionSize).toDouble() without the string round-trip:
+- rounds half to even the same quotient calibrateByBase does and divides back by an exact power of ten
+- the division is correctly rounded so the result is the closest double to the decimal value
+*/
+fun Double.roundByFractionSize(fractionSize: Int): Double {
+    if (isNaN() || isInfinite()) return this
+    if (fractionSize >= 0) {
+        if (fractionSize >= POWERS_OF_TEN.size) return this
+        val scaled: Double = this / FRACTION_BASES[fractionSize] // the quotient calibrateByBase rounds
+        if (abs(scaled) >= MAXIMUM_EXACT_LONG) return this // already integral at this precision
+        return round(scaled) / POWERS_OF_TEN[fractionSize]
+    } else {
+        if (-fractionSize >= POWERS_OF_TEN.size) return 0.0
+        val scale: Double = POWERS_OF_TEN[-fractionSize]
+        return round(this / scale) * scale
+    }
+}
+
+// appends the value rounded by fractionSize with exactly fractionSize digits after the dot, for example 25.40
+fun Double.appendByFractionSize(fractionSize: Int, builder: StringBuilder): StringBuilder {
+    val isWritten: Boolean = forEachFractionSizeChar(fractionSize) { builder.append(it) }
+    if (!isWritten) builder.append(calibrateByFractionSizeToString(fractionSize))
+    return builder
+}
+
+// writes into chars starting at offset and returns the count of chars written
+fun Double.writeByFractionSize(fractionSize: Int, chars: CharArray, offset: Int = 0): Int {
+    var index: Int = offset
+    val isWritten: Boolean = forEachFractionSizeChar(fractionSize) { chars[index++] = it }
+    if (!isWritten) {
+        for (char in calibrateByFractionSizeToString(fractionSize)) {
+            chars[index++] = char
+        }
+    }
+    return index - offset
+}
+
 expect fun Double.toDoubleString(): String
 
+internal expect val maximumDoubleStringFractionSize: Int // -1 when toDoubleString keeps every digit
+
 fun Float.toHexString(base: Int): String {
     val hexString: String = (this * base).toInt().toString(16).toUpperCase()
     return if (hexString.length == 1) "0${hexString}" else hexString
@@ -86,3 +143,45 @@ fun Float.isEqualFloat(b: Float): Boolean {
 fun Float.isZeroFloat(): Boolean {
     return abs(this) <= FLOAT_ROUNDING_ERROR
 }
+
+/*internals*/
+
+private const val MAXIMUM_EXACT_LONG: Double = 9007199254740992.0 // 2^53
+
+// every power of ten up to 10^18 is exact as a double and fits a Long
+private val POWERS_OF_TEN: DoubleArray = DoubleArray(19).also {
+    var power: Double = 1.0
+    for (index in it.indices) {
+        it[index] = power
+        power *= 10
+    }
+}
+
+// same inexact bases as calibrateByFractionSizeToString computes, so both paths round the same quotient
+private val FRACTION_BASES: DoubleArray = DoubleArray(POWERS_OF_TEN.size) { 10.0.pow(-it) }
+
+private inline fun Double.forEachFractionSizeChar(fractionSize: Int, block: (Char) -> Unit): Boolean {
+    if (fractionSize < 0 || fractionSize >= POWERS_OF_TEN.size || isNaN()) return false
+    val scaled: Double = round(abs(this) / FRACTION_BASES[fractionSize])
+    if (scaled >= MAXIMUM_EXACT_LONG) return false
+    val digits: Long = scaled.toLong()
+    val divisor: Long = POWERS_OF_TEN[fractionSize].toLong()
+    if (digits != 0L && this < 0) block('-')
+    val integer: Long = digits / divisor
+    var power: Long = 1
+    while (power <= integer / 10) power *= 10
+    while (power > 0) {
+        block('0' + (integer / power % 10).toInt())
+        power /= 10
+    }
+    if (fractionSize > 0) {
+        block('.')
+        val fraction: Long = digits % divisor
+        power = divisor / 10
+        while (power > 0) {
+            block('0' + (fraction / power % 10).toInt())
+            power /= 10
+        }
+    }
+    return true
+}
@@ -0,0 +1,9 @@
+package featurea.utils
+
+// capacity is rounded up to a power of two, offer returns false when the queue is full
+expect class SpscQueue<T>(capacity: Int) {
+    val capacity: Int
+    val isEmpty: Boolean
+    fun offer(element: T): Boolean
+    fun poll(): T?
+}
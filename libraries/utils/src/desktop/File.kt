@@ -2,11 +2,14 @@
 
 package featurea.utils
 
+import featurea.jvm.BundleArchive
+import featurea.jvm.findBundleArchiveOrNull
 import featurea.jvm.findFile
 import featurea.jvm.findFileOrNull
 import featurea.jvm.toText
 import java.io.File
 import java.io.InputStream
+import java.nio.ByteBuffer
 import java.util.zip.ZipEntry
 import java.util.zip.ZipFile
 import featurea.System
@@ -44,17 +47,26 @@ private fun System.readTextUtf8OrNull(contentRoot: String, filePath: String, lim
         return file.readText()
     }
 
-    // 2. zip
-    try {
-        val zipFile: ZipFile = ZipFile(findFile(contentRoot))
-        val zipEntry: ZipEntry = zipFile.getEntry(filePath)
-        val inputStream: InputStream = zipFile.getInputStream(zipEntry)
-        return inputStream.toText()
-    } catch (skip: Throwable) {
-        // no op
+    // 2. bundle archive, entry missing in it falls through to bin like missing zip entry does
+    val bundleArchive: BundleArchive? = findBundleArchiveOrNull(contentRoot)
+    val buffer: ByteBuffer? = bundleArchive?.findEntryOrNull(filePath)
+    if (buffer != null) {
+        return Charsets.UTF_8.decode(buffer).toString()
     }
 
-    // 3. bin
+    // 3. zip
+    if (bundleArchive == null) {
+        try {
+            val zipFile: ZipFile = ZipFile(findFile(contentRoot))
+            val zipEntry: ZipEntry = zipFile.getEntry(filePath)
+            val inputStream: InputStream = zipFile.getInputStream(zipEntry)
+            return inputStream.toText()
+        } catch (skip: Throwable) {
+            // no op
+        }
+    }
+
+    // 4. bin
     val inputStream = ClassLoader.getSystemClassLoader().getResourceAsStream(textPath) ?: return null
     val text = inputStream.toText()
     return text
@@ -5,3 +5,5 @@ package featurea.utils
 import featurea.jvm.toDoubleString as toDoubleStringJvm
 
 actual fun Double.toDoubleString(): String = toDoubleStringJvm()
+
+internal actual val maximumDoubleStringFractionSize: Int = 12 // DecimalFormat("#.############") in featurea.jvm
@@ -0,0 +1,7 @@
+@file:JvmName("SpscQueue")
+
+package featurea.utils
+
+import featurea.jvm.SpscQueue
+
+actual typealias SpscQueue<T> = SpscQueue<T>
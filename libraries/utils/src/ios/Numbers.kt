@@ -21,3 +21,5 @@ actual fun Double.toDoubleString(): String {
     val result: String? = numberFormatter.stringFromNumber(NSNumber(this))
     return result?.freeze() ?: error("conversion failed: $this")
 }
+
+internal actual val maximumDoubleStringFractionSize: Int = 12 // numberFormatter.maximumFractionDigits
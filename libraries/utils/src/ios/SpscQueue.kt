@@ -0,0 +1,54 @@
+package featurea.utils
+
+import kotlinx.atomicfu.locks.SynchronizedObject
+import kotlinx.atomicfu.locks.synchronized
+
+actual class SpscQueue<T> actual constructor(capacity: Int) {
+
+    private val buffer: Array<Any?> = arrayOfNulls(powerOfTwo(capacity))
+    private var head: Int = 0
+    private var size: Int = 0
+    private val lockObject = SynchronizedObject()
+
+    actual val capacity: Int get() = buffer.size
+
+    actual val isEmpty: Boolean
+        get() {
+            initRuntimeIfNeeded()
+            synchronized(lockObject) {
+                return size == 0
+            }
+        }
+
+    actual fun offer(element: T): Boolean {
+        initRuntimeIfNeeded()
+        synchronized(lockObject) {
+            if (size == buffer.size) return false
+            buffer[(head + size) and (buffer.size - 1)] = element
+            size++
+            return true
+        }
+    }
+
+    actual fun poll(): T? {
+        initRuntimeIfNeeded()
+        synchronized(lockObject) {
+            if (size == 0) return null
+            @Suppress("UNCHECKED_CAST")
+            val element: T = buffer[head] as T
+            buffer[head] = null
+            head = (head + 1) and (buffer.size - 1)
+            size--
+            return element
+        }
+    }
+
+}
+
+/*internals*/
+
+private fun powerOfTwo(capacity: Int): Int {
+    var result: Int = 2
+    while (result < capacity) result = result shl 1
+    return result
+}
@@ -1,3 +1,5 @@
 package featurea.utils
 
 actual fun Double.toDoubleString(): String = toString()
+
+internal actual val maximumDoubleStringFractionSize: Int = -1 // toString keeps every digit of the shortest representation
@@ -0,0 +1,100 @@
+package featurea.utils
+
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertFailsWith
+import kotlin.test.assertFalse
+import kotlin.test.assertTrue
+
+class FloatBufferTest {
+
+    @Test
+    fun pushMarksChangedFloatsDirty() {
+        val buffer = FloatBuffer(8, isMedium = false)
+        assertFalse(buffer.isDirty)
+        buffer.pushAll(floatArrayOf(1f, 2f, 3f))
+        assertDirty(buffer, 0, 3)
+        assertEquals(3, buffer.size)
+        assertEquals(2f, buffer[1])
+    }
+
+    @Test
+    fun pushOfBackingValueIsNotDirty() {
+        // fresh backing array is zero filled, growth past the uploaded size is sent by Opengl.uploadBuffer instead
+        val buffer = FloatBuffer(8, isMedium = false)
+        buffer.pushAll(floatArrayOf(0f, 0f, 5f, 0f))
+        assertDirty(buffer, 2, 3)
+    }
+
+    @Test
+    fun markCleanResetsRange() {
+        val buffer = FloatBuffer(8, isMedium = false)
+        buffer.pushAll(floatArrayOf(1f, 2f, 3f))
+        buffer.markClean()
+        assertFalse(buffer.isDirty)
+        assertEquals(Int.MAX_VALUE, buffer.dirtyFrom)
+        assertEquals(0, buffer.dirtyTo)
+        assertEquals(3, buffer.size)
+    }
+
+    @Test
+    fun rebuildWithSameValuesIsNotDirty() {
+        val buffer = FloatBuffer(8, isMedium = false)
+        buffer.pushAll(floatArrayOf(1f, 2f, 3f, 4f))
+        buffer.markClean()
+        buffer.clear()
+        buffer.pushAll(floatArrayOf(1f, 2f, 3f, 4f))
+        assertFalse(buffer.isDirty)
+
+        buffer.markClean()
+        buffer.clear()
+        buffer.pushAll(floatArrayOf(1f, 2f, 7f, 4f))
+        assertDirty(buffer, 2, 3)
+    }
+
+    @Test
+    fun rangeSpansEveryChangedFloat() {
+        val buffer = FloatBuffer(8, isMedium = false)
+        buffer.pushAll(floatArrayOf(1f, 2f, 3f, 4f, 5f, 6f))
+        buffer.markClean()
+        buffer[4] = 5f
+        assertFalse(buffer.isDirty)
+        buffer[4] = 50f
+        assertDirty(buffer, 4, 5)
+        buffer[1] = 20f
+        assertDirty(buffer, 1, 5)
+        buffer[2] = 30f
+        assertDirty(buffer, 1, 5)
+        assertEquals(30f, buffer[2])
+    }
+
+    @Test
+    fun accessIsBoundBySize() {
+        val buffer = FloatBuffer(4, isMedium = false)
+        buffer.pushAll(floatArrayOf(1f, 2f))
+        assertFailsWith<IllegalStateException> { buffer[2] }
+        assertFailsWith<IllegalStateException> { buffer[2] = 3f }
+        buffer.pushAll(floatArrayOf(3f, 4f))
+        assertFailsWith<IllegalStateException> { buffer.push(5f) }
+        assertDirty(buffer, 0, 4)
+    }
+
+    @Test
+    fun mediumPrecisionIsChecked() {
+        val buffer = FloatBuffer(4, isMedium = true)
+        buffer.push(65504f)
+        assertFailsWith<IllegalStateException> { buffer.push(65505f) }
+        assertFailsWith<IllegalStateException> { buffer[0] = 70000f }
+        assertEquals(65504f, buffer[0])
+        assertDirty(buffer, 0, 1)
+    }
+
+    /*internals*/
+
+    private fun assertDirty(buffer: FloatBuffer, from: Int, to: Int) {
+        assertTrue(buffer.isDirty)
+        assertEquals(from, buffer.dirtyFrom, "dirtyFrom")
+        assertEquals(to, buffer.dirtyTo, "dirtyTo")
+    }
+
+}
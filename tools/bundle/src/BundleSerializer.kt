@@ -1,23 +1,219 @@
 package featurea.bundler
 
 import featurea.Bundle
+import featurea.BundleFormat
+import featurea.jvm.BuildCache
+import featurea.jvm.BundleArchiveWriter
+import featurea.jvm.Fingerprint
+import featurea.jvm.PreparedBundleArchiveEntry
+import featurea.jvm.contentHash
+import featurea.jvm.prepareBundleArchiveEntry
+import featurea.jvm.preparedBundleArchiveEntrySettings
+import java.io.Closeable
+import java.io.DataInputStream
+import java.io.DataOutputStream
 import java.io.File
 import java.io.FileOutputStream
+import java.util.concurrent.Callable
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.Future
 import java.util.zip.ZipEntry
 import java.util.zip.ZipOutputStream
 
+const val CONTENT_HASHES_ENTRY: String = "hashes.properties"
+
+// file entry discovered by Bundler, its bytes are read only when it enters the in-flight window and misses build cache
+class BundleEntrySource(val name: String, val file: File?, val estimatedSize: Long, val read: () -> ByteArray?)
+
 object BundleSerializer {
 
-    fun serializeBundle(bundle: Bundle, bundleFile: File): Boolean {
+    fun serializeBundle(bundle: Bundle, bundleFile: File, format: BundleFormat = BundleFormat.ZIP): Boolean {
         if (bundleFile.exists()) return false
-        ZipOutputStream(FileOutputStream(bundleFile)).use {
+        openBundleWriter(bundleFile, format).use {
             for ((name, bytes) in bundle.entries) {
-                it.putNextEntry(ZipEntry(name))
-                it.write(bytes, 0, bytes.size)
-                it.closeEntry()
+                it.putEntry(name, bytes)
+            }
+        }
+        return true
+    }
+
+    /*
+    workers:     read, hash and compress entry sources, or take prepared entry from build cache when source file is unchanged
+    this thread: write entries in entrySources order, waits for window head when window exceeds maxInFlightBytes
+    zip entries are prepared stored and deflated by ZipOutputStream on this thread
+    */
+    fun streamBundle(
+        bundle: Bundle,
+        entrySources: List<BundleEntrySource>,
+        bundleFile: File,
+        format: BundleFormat,
+        parallelism: Int,
+        maxInFlightBytes: Long,
+        buildCache: BuildCache? = null
+    ): Boolean {
+        if (bundleFile.exists()) return false
+        val contentHashes = LinkedHashMap<String, String>()
+        val executor: ExecutorService = Executors.newFixedThreadPool(parallelism)
+        try {
+            openBundleWriter(bundleFile, format).use { writer ->
+                // 1. generated entries are small and already in memory
+                for ((name, bytes) in bundle.entries) {
+                    writer.putEntry(name, bytes)
+                    contentHashes[name] = bytes.contentHash()
+                }
+
+                // 2. file entries
+                val window = ArrayDeque<InFlightEntry>()
+                var inFlightBytes: Long = 0
+                for (entrySource in entrySources) {
+                    if (bundle.entries.containsKey(entrySource.name)) continue // generated entry takes precedence
+                    while (window.isNotEmpty() && (inFlightBytes + entrySource.estimatedSize > maxInFlightBytes || window.size >= 2 * parallelism)) {
+                        val inFlightEntry: InFlightEntry = window.removeFirst()
+                        writer.putStreamedEntry(inFlightEntry, contentHashes)
+                        inFlightBytes -= inFlightEntry.source.estimatedSize
+                    }
+                    val future: Future<StreamedEntry?> = executor.submit(Callable { entrySource.stream(format, buildCache) })
+                    window.addLast(InFlightEntry(entrySource, future))
+                    inFlightBytes += entrySource.estimatedSize
+                }
+                while (window.isNotEmpty()) {
+                    writer.putStreamedEntry(window.removeFirst(), contentHashes)
+                }
+
+                // 3. content hash manifest
+                val contentHashesText = StringBuilder()
+                for ((name, contentHash) in contentHashes) {
+                    contentHashesText.append(name).append("=").append(contentHash).appendLine()
+                }
+                writer.putEntry(CONTENT_HASHES_ENTRY, contentHashesText.toString().encodeToByteArray())
             }
+        } finally {
+            executor.shutdownNow()
         }
         return true
     }
 
 }
+
+/*internals*/
+
+private class InFlightEntry(val source: BundleEntrySource, val future: Future<StreamedEntry?>)
+
+private class StreamedEntry(val contentHash: String, val preparedEntry: PreparedBundleArchiveEntry)
+
+private fun BundleEntrySource.stream(format: BundleFormat, buildCache: BuildCache?): StreamedEntry? {
+    // 1. cached
+    val fileHash: String? = if (buildCache != null && file != null) buildCache.findFileHashOrNull(file) else null
+    val objectHash: String? = if (buildCache != null && fileHash != null) preparedEntryHash(buildCache, fileHash, format) else null
+    if (buildCache != null && fileHash != null && objectHash != null) {
+        val objectFile: File? = buildCache.findObjectOrNull(objectHash)
+        if (objectFile != null) {
+            return StreamedEntry(fileHash, objectFile.readPreparedEntry())
+        }
+    }
+
+    // 2. fresh
+    val bytes: ByteArray = read() ?: return null
+    val contentHash: String = bytes.contentHash()
+    val preparedEntry: PreparedBundleArchiveEntry = prepareBundleArchiveEntry(bytes, isCompressionEnabled = format.isCompressionEnabled)
+    if (buildCache != null && objectHash != null && fileHash == contentHash) {
+        buildCache.putObject(objectHash) { objectFile -> objectFile.writePreparedEntry(preparedEntry) }
+    }
+    return StreamedEntry(contentHash, preparedEntry)
+}
+
+// objects are never evicted, so everything the prepared bytes depend on is part of the object key
+private fun preparedEntryHash(buildCache: BuildCache, contentHash: String, format: BundleFormat): String {
+    val fingerprint = Fingerprint(buildCache)
+    fingerprint.add(contentHash)
+    fingerprint.add(format.name)
+    fingerprint.add(preparedBundleArchiveEntrySettings(format.isCompressionEnabled))
+    return fingerprint.build()
+}
+
+private val BundleFormat.isCompressionEnabled: Boolean get() = this == BundleFormat.ARCHIVE
+
+private fun File.writePreparedEntry(preparedEntry: PreparedBundleArchiveEntry) {
+    DataOutputStream(outputStream().buffered()).use {
+        it.writeBoolean(preparedEntry.isCompressed)
+        it.writeInt(preparedEntry.size)
+        it.writeInt(preparedEntry.storedSize)
+        it.write(preparedEntry.storedBytes, 0, preparedEntry.storedSize)
+    }
+}
+
+private fun File.readPreparedEntry(): PreparedBundleArchiveEntry {
+    DataInputStream(inputStream().buffered()).use {
+        val isCompressed: Boolean = it.readBoolean()
+        val size: Int = it.readInt()
+        val storedSize: Int = it.readInt()
+        val storedBytes = ByteArray(storedSize)
+        it.readFully(storedBytes)
+        return PreparedBundleArchiveEntry(storedBytes, storedSize, size, isCompressed)
+    }
+}
+
+private fun BundleWriter.putStreamedEntry(inFlightEntry: InFlightEntry, contentHashes: MutableMap<String, String>) {
+    val streamedEntry: StreamedEntry? = try {
+        inFlightEntry.future.get()
+    } catch (e: ExecutionException) {
+        throw e.cause ?: e
+    }
+    if (streamedEntry == null) return // same as in-memory bundling, unreadable file is skipped
+    val name: String = inFlightEntry.source.name
+    putPreparedEntry(name, streamedEntry.preparedEntry)
+    contentHashes[name] = streamedEntry.contentHash
+}
+
+private interface BundleWriter : Closeable {
+    fun putEntry(name: String, bytes: ByteArray)
+    fun putPreparedEntry(name: String, preparedEntry: PreparedBundleArchiveEntry)
+}
+
+private fun openBundleWriter(bundleFile: File, format: BundleFormat): BundleWriter = when (format) {
+    BundleFormat.ZIP -> ZipBundleWriter(bundleFile)
+    BundleFormat.ARCHIVE -> ArchiveBundleWriter(bundleFile)
+}
+
+private class ZipBundleWriter(bundleFile: File) : BundleWriter {
+
+    private val zipOutputStream = ZipOutputStream(FileOutputStream(bundleFile))
+
+    override fun putEntry(name: String, bytes: ByteArray) {
+        zipOutputStream.putNextEntry(ZipEntry(name))
+        zipOutputStream.write(bytes, 0, bytes.size)
+        zipOutputStream.closeEntry()
+    }
+
+    override fun putPreparedEntry(name: String, preparedEntry: PreparedBundleArchiveEntry) {
+        check(!preparedEntry.isCompressed) { "name: $name" }
+        zipOutputStream.putNextEntry(ZipEntry(name))
+        zipOutputStream.write(preparedEntry.storedBytes, 0, preparedEntry.storedSize)
+        zipOutputStream.closeEntry()
+    }
+
+    override fun close() {
+        zipOutputStream.close()
+    }
+
+}
+
+private class ArchiveBundleWriter(bundleFile: File) : BundleWriter {
+
+    private val bundleArchiveWriter = BundleArchiveWriter(bundleFile)
+
+    override fun putEntry(name: String, bytes: ByteArray) {
+        bundleArchiveWriter.putEntry(name, bytes)
+    }
+
+    override fun putPreparedEntry(name: String, preparedEntry: PreparedBundleArchiveEntry) {
+        bundleArchiveWriter.putPreparedEntry(name, preparedEntry)
+    }
+
+    override fun close() {
+        bundleArchiveWriter.close()
+    }
+
+}
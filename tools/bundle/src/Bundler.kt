@@ -5,7 +5,11 @@ import featurea.content.Content
 import featurea.content.Resource
 import featurea.content.ResourceTag
 import featurea.content.mainProject
+import featurea.content.useBuildCache
+import featurea.jvm.BuildCache
+import featurea.jvm.buildCache
 import featurea.jvm.createNewFileAndDirs
+import featurea.jvm.findFileOrNull
 import featurea.jvm.normalizedPath
 import featurea.jvm.readBytes
 import featurea.jvm.relativeTo
@@ -15,6 +19,7 @@ import featurea.runtime.Container
 import featurea.runtime.Module
 import featurea.runtime.import
 import featurea.utils.replaceSuffix
+import java.io.File
 
 class Bundler(override val module: Module) : Component {
 
@@ -22,6 +27,18 @@ class Bundler(override val module: Module) : Component {
     private val rmlDeserializer: RmlDeserializer = import()
     private val system: System = import()
 
+    var isStreaming: Boolean = true
+    var parallelism: Int = Runtime.getRuntime().availableProcessors()
+    var maxInFlightBytes: Long = 64L * 1024 * 1024
+    // also read by resource writers through System.useBuildCache, the bundler is the one that saves the cache
+    var isBuildCacheEnabled: Boolean
+        get() = system.useBuildCache
+        set(value) {
+            system.useBuildCache = value
+        }
+    private val entrySources = ArrayList<BundleEntrySource>()
+    private val entrySourceNames = HashSet<String>()
+
     suspend fun createBundle(options: BundleOptions, config: (Bundle) -> Unit = {}): Bundle {
         val (projectFile, bundleFile, contentRoots) = options
         val projectPath: String = projectFile.normalizedPath
@@ -30,21 +47,32 @@ class Bundler(override val module: Module) : Component {
         system.contentRoots.addAll(contentRoots)
         content.providedResources.add("package.properties") // just for now todo delete this
 
-        println("progress: 0")
-        createProjectTag(bundle, projectPath)
-        println("progress: 0.25")
-        content.flush(bundle)
-        println("progress: 0.5")
-        createBundleEntries(bundle)
-        config(bundle)
-        createBundleManifestEntry(bundle)
-        println("progress: 0.75")
-        if (bundleFile.exists()) {
-            bundleFile.delete()
-        } else {
-            bundleFile.parentFile.mkdirs()
+        val cache: BuildCache? = if (isBuildCacheEnabled) buildCache else null
+        val success: Boolean = try {
+            println("progress: 0")
+            createProjectTag(bundle, projectPath)
+            println("progress: 0.25")
+            content.flush(bundle)
+            println("progress: 0.5")
+            createBundleEntries(bundle)
+            config(bundle)
+            createBundleManifestEntry(bundle)
+            println("progress: 0.75")
+            if (bundleFile.exists()) {
+                bundleFile.delete()
+            } else {
+                bundleFile.parentFile.mkdirs()
+            }
+            if (isStreaming) {
+                BundleSerializer.streamBundle(bundle, entrySources, bundleFile, options.format, parallelism, maxInFlightBytes, cache)
+            } else {
+                BundleSerializer.serializeBundle(bundle, bundleFile, options.format)
+            }
+        } finally {
+            entrySources.clear()
+            entrySourceNames.clear()
+            cache?.save() // texture pack fingerprints and file hashes are kept even when bundling fails
         }
-        val success: Boolean = BundleSerializer.serializeBundle(bundle, bundleFile)
         println("progress: 1.0")
         if (success) {
             println("[Bundler] createBundle: ${bundleFile.absolutePath}")
@@ -88,6 +116,16 @@ class Bundler(override val module: Module) : Component {
     private fun createBundleEntry(bundle: Bundle, entryPath: String) {
         if (bundle.entries.containsKey(entryPath)) return
 
+        if (isStreaming) {
+            // quickfix todo improve
+            val entryName: String = entryPath.replaceSuffix("Transpiled.shader", ".shader")
+            if (!entrySourceNames.add(entryName)) return
+            val file: File? = system.findFileOrNull(entryPath)
+            val estimatedSize: Long = file?.length() ?: 0
+            entrySources.add(BundleEntrySource(entryName, file, estimatedSize) { system.readBytes(entryPath) })
+            return
+        }
+
         val bytes: ByteArray? = system.readBytes(entryPath)
         if (bytes != null) {
             @Suppress("NAME_SHADOWING")
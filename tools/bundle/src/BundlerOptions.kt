@@ -1,16 +1,32 @@
 package featurea.bundler
 
+import featurea.BundleFormat
 import featurea.BundleOptions
 import java.io.File
 import java.io.FileNotFoundException
 
+// rmlFile bundleFile [contentRoot...] [--target=desktop|android|ios|js] [--format=zip|archive]
 fun Array<String>.toBundlerOptions(): BundleOptions {
     val rmlFilePath: String = this[0]
     val bundleFilePath: String = this[1]
-    val contentRoots: List<String> = slice(2 until size)
+    val arguments: List<String> = slice(2 until size)
+    val contentRoots: List<String> = arguments.filter { !it.startsWith("--") }
     val rmlFile: File = File(rmlFilePath)
     val bundleFile: File = File(bundleFilePath)
     if (!rmlFile.exists()) throw FileNotFoundException(rmlFile.absolutePath)
     if (bundleFile.exists()) bundleFile.delete()
-    return BundleOptions(rmlFile, bundleFile, contentRoots)
+    val options = BundleOptions(rmlFile, bundleFile, contentRoots)
+    for (argument in arguments) {
+        when {
+            argument.startsWith(TARGET_PREFIX) -> options.format = BundleFormat.forTarget(argument.removePrefix(TARGET_PREFIX))
+            argument.startsWith(FORMAT_PREFIX) -> options.format = BundleFormat.valueOf(argument.removePrefix(FORMAT_PREFIX).toUpperCase())
+            argument.startsWith("--") -> throw IllegalArgumentException(argument)
+        }
+    }
+    return options
 }
+
+/*internals*/
+
+private const val TARGET_PREFIX: String = "--target="
+private const val FORMAT_PREFIX: String = "--format="